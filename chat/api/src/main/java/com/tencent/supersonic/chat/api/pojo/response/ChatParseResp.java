@@ -1,5 +1,6 @@
 package com.tencent.supersonic.chat.api.pojo.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.pojo.Text2SQLExemplar;
 import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
@@ -8,6 +9,7 @@ import com.tencent.supersonic.headless.api.pojo.response.ParseTimeCostResp;
 import lombok.Data;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Data
 public class ChatParseResp {
@@ -18,6 +20,9 @@ public class ChatParseResp {
     private List<SemanticParseInfo> selectedParses = Lists.newArrayList();
     private ParseTimeCostResp parseTimeCost = new ParseTimeCostResp();
     private List<Text2SQLExemplar> usedExemplars;
+    /** see {@link ParseResp#getSpeculativeParse()}, saved as one more candidate parse when done */
+    @JsonIgnore
+    private transient CompletableFuture<SemanticParseInfo> speculativeParse;
 
     public ChatParseResp(Long queryId) {
         this.queryId = queryId;
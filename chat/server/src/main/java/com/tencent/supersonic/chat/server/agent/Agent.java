@@ -1,18 +1,23 @@
 package com.tencent.supersonic.chat.server.agent;
 
 import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.chat.server.memory.MemoryReviewTask;
 import com.tencent.supersonic.common.pojo.ChatApp;
 import com.tencent.supersonic.common.pojo.RecordInfo;
 import com.tencent.supersonic.common.pojo.User;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.util.CollectionUtils;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -41,6 +46,29 @@ public class Agent extends RecordInfo {
     private List<String> adminOrgs = Lists.newArrayList();
     private List<String> viewOrgs = Lists.newArrayList();
     private Integer isOpen = 0;
+    /** plugin ids of the plugin tools, resolved once from the tool config */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile Set<Long> pluginIds;
+
+    public void setToolConfig(String toolConfig) {
+        this.toolConfig = toolConfig;
+        this.pluginIds = null;
+    }
+
+    public Set<Long> getPluginIds() {
+        Set<Long> ids = pluginIds;
+        if (Objects.isNull(ids)) {
+            ids = getTools(AgentToolType.PLUGIN).stream()
+                    .map(tool -> JSONObject.parseObject(tool, PluginTool.class).getPlugins())
+                    .filter(Objects::nonNull).flatMap(Collection::stream)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            ids = Collections.unmodifiableSet(ids);
+            pluginIds = ids;
+        }
+        return ids;
+    }
 
     public List<String> getTools(AgentToolType type) {
         Map<String, Object> map = JSONObject.parseObject(toolConfig, Map.class);
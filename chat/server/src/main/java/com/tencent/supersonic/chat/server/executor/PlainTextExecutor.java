@@ -54,7 +54,7 @@ public class PlainTextExecutor implements ChatQueryExecutor {
                 executeContext.getRequest().getQueryText());
         Prompt prompt = PromptTemplate.from(promptStr).apply(Collections.EMPTY_MAP);
         ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(chatApp.getChatModelConfig());
+                ModelProvider.getChatModel(chatApp.getChatModelConfig(), APP_KEY);
         Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
 
         QueryResult result = new QueryResult();
@@ -102,6 +102,10 @@ public class SqlExecutor implements ChatQueryExecutor {
 
         sqlReq.setSqlInfo(parseInfo.getSqlInfo());
         sqlReq.setDataSetId(parseInfo.getDataSetId());
+        // the chat query id lets the chat cancel the semantic query
+        if (Objects.nonNull(executeContext.getRequest().getQueryId())) {
+            sqlReq.setRunningQueryId(String.valueOf(executeContext.getRequest().getQueryId()));
+        }
 
         long startTime = System.currentTimeMillis();
         QueryResult queryResult = new QueryResult();
@@ -100,7 +100,7 @@ public class MemoryReviewTask {
         Prompt prompt = PromptTemplate.from(promptStr).apply(Collections.EMPTY_MAP);
 
         ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(ModelConfigHelper.getChatModelConfig(chatApp));
+                ModelProvider.getChatModel(ModelConfigHelper.getChatModelConfig(chatApp), APP_KEY);
         if (Objects.nonNull(chatLanguageModel)) {
             String response = chatLanguageModel.generate(prompt.toUserMessage()).content().text();
             keyPipelineLog.info("MemoryReviewTask modelReq:\n{} \nmodelResp:\n{}", promptStr,
@@ -164,6 +164,9 @@ public class NL2SQLParser implements ChatQueryParser {
         resp.setState(parseResp.getState());
         resp.setParseTimeCost(parseResp.getParseTimeCost());
         resp.setErrorMsg(parseResp.getErrorMsg());
+        if (Objects.nonNull(parseResp.getSpeculativeParse())) {
+            resp.setSpeculativeParse(parseResp.getSpeculativeParse());
+        }
     }
 
     private void rewriteMultiTurn(ParseContext parseContext, QueryNLReq queryNLReq) {
@@ -200,8 +203,8 @@ public class NL2SQLParser implements ChatQueryParser {
         variables.put("history_sql", histSQL);
 
         Prompt prompt = PromptTemplate.from(chatApp.getPrompt()).apply(variables);
-        ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(ModelConfigHelper.getChatModelConfig(chatApp));
+        ChatLanguageModel chatLanguageModel = ModelProvider
+                .getChatModel(ModelConfigHelper.getChatModelConfig(chatApp), APP_KEY_MULTI_TURN);
         Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
         String rewrittenQuery = response.content().text();
         keyPipelineLog.info("QueryRewrite modelReq:\n{} \nmodelResp:\n{}", prompt.text(), response);
@@ -260,7 +263,9 @@ public class NL2SQLParser implements ChatQueryParser {
         if (exemplarRecallNumber <= 0) {
             return;
         }
-        List<Text2SQLExemplar> exemplars = exemplarManager.recallExemplars(memoryCollectionName,
+        List<Text2SQLExemplar> exemplars = exemplarManager.recallExemplars(
+                Lists.newArrayList(memoryCollectionName,
+                        embeddingConfig.getText2sqlCollectionName()),
                 queryNLReq.getQueryText(), exemplarRecallNumber);
         queryNLReq.getDynamicExemplars().addAll(exemplars);
         parseContext.getResponse().setUsedExemplars(exemplars);
@@ -17,6 +17,7 @@ import com.tencent.supersonic.chat.server.persistence.mapper.ChatParseMapper;
 import com.tencent.supersonic.chat.server.persistence.mapper.ChatQueryDOMapper;
 import com.tencent.supersonic.chat.server.persistence.mapper.custom.ShowCaseCustomMapper;
 import com.tencent.supersonic.chat.server.persistence.repository.ChatQueryRepository;
+import com.tencent.supersonic.chat.server.util.QueryResultCodec;
 import com.tencent.supersonic.common.pojo.QueryColumn;
 import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.common.util.PageUtils;
@@ -113,8 +114,8 @@ public class ChatQueryRepositoryImpl implements ChatQueryRepository {
     private QueryResp convertTo(ChatQueryDO chatQueryDO) {
         QueryResp queryResp = new QueryResp();
         BeanUtils.copyProperties(chatQueryDO, queryResp);
-        QueryResult queryResult =
-                JsonUtil.toObject(chatQueryDO.getQueryResult(), QueryResult.class);
+        QueryResult queryResult = JsonUtil
+                .toObject(QueryResultCodec.decode(chatQueryDO.getQueryResult()), QueryResult.class);
         if (queryResult != null) {
             queryResult.setQueryId(chatQueryDO.getQuestionId());
             // fix bugs, compatible with bugs caused by history field changes
@@ -4,8 +4,6 @@ import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.tencent.supersonic.chat.server.agent.Agent;
-import com.tencent.supersonic.chat.server.agent.AgentToolType;
-import com.tencent.supersonic.chat.server.agent.PluginTool;
 import com.tencent.supersonic.chat.server.plugin.build.ParamOption;
 import com.tencent.supersonic.chat.server.plugin.build.WebBase;
 import com.tencent.supersonic.chat.server.plugin.event.PluginAddEvent;
@@ -31,19 +29,21 @@ import dev.langchain4j.store.embedding.TextSegmentConvert;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -52,6 +52,10 @@ public class PluginManager {
 
     private static final String AGENT_SERVICE_TYPE = "AGENT_SERVICE";
 
+    private static final AtomicLong pluginVersion = new AtomicLong();
+
+    private static volatile Map<Long, ChatPlugin> pluginCache;
+
     @Autowired
     private EmbeddingConfig embeddingConfig;
 
@@ -59,24 +63,63 @@ public class PluginManager {
     private EmbeddingService embeddingService;
 
     public static List<ChatPlugin> getPluginAgentCanSupport(ParseContext parseContext) {
-        PluginService pluginService = ContextUtils.getBean(PluginService.class);
         Agent agent = parseContext.getAgent();
-        List<ChatPlugin> plugins = pluginService.getPluginList();
+        Map<Long, ChatPlugin> pluginMap = getPluginMap();
         if (Objects.isNull(agent)) {
-            return plugins;
+            return pluginMap.values().stream().map(PluginManager::copy)
+                    .collect(Collectors.toList());
         }
-        List<Long> pluginIds = getPluginTools(agent).stream().map(PluginTool::getPlugins)
-                .flatMap(Collection::stream).collect(Collectors.toList());
+        Set<Long> pluginIds = agent.getPluginIds();
         if (CollectionUtils.isEmpty(pluginIds)) {
             return Lists.newArrayList();
         }
-        plugins = plugins.stream().filter(plugin -> pluginIds.contains(plugin.getId()))
-                .collect(Collectors.toList());
+        List<ChatPlugin> plugins =
+                pluginMap.values().stream().filter(plugin -> pluginIds.contains(plugin.getId()))
+                        .map(PluginManager::copy).collect(Collectors.toList());
         log.info("plugins witch can be supported by cur agent :{} {}", agent.getName(),
                 plugins.stream().map(ChatPlugin::getName).collect(Collectors.toList()));
         return plugins;
     }
 
+    /**
+     * Plugins by id in list order, loaded once and reloaded after a plugin event. Callers get
+     * copies since recognizers set the parse mode on the plugins they return.
+     */
+    private static Map<Long, ChatPlugin> getPluginMap() {
+        Map<Long, ChatPlugin> plugins = pluginCache;
+        if (Objects.nonNull(plugins)) {
+            return plugins;
+        }
+        synchronized (PluginManager.class) {
+            plugins = pluginCache;
+            if (Objects.isNull(plugins)) {
+                long version = pluginVersion.get();
+                plugins = new LinkedHashMap<>();
+                for (ChatPlugin plugin : ContextUtils.getBean(PluginService.class)
+                        .getPluginList()) {
+                    plugins.put(plugin.getId(), plugin);
+                }
+                plugins = Collections.unmodifiableMap(plugins);
+                // a change during the loading may not be visible in it, keep it uncached
+                if (version == pluginVersion.get()) {
+                    pluginCache = plugins;
+                }
+            }
+            return plugins;
+        }
+    }
+
+    private static void invalidatePlugins() {
+        pluginVersion.incrementAndGet();
+        pluginCache = null;
+    }
+
+    private static ChatPlugin copy(ChatPlugin plugin) {
+        ChatPlugin copy = new ChatPlugin();
+        BeanUtils.copyProperties(plugin, copy);
+        return copy;
+    }
+
     public static boolean hasAgentServicePlugin(ParseContext parseContext) {
         return getAgentServicePlugin(parseContext) != null;
     }
@@ -92,20 +135,9 @@ public class PluginManager {
                 .findFirst().orElse(null);
     }
 
-    private static List<PluginTool> getPluginTools(Agent agent) {
-        if (agent == null) {
-            return Lists.newArrayList();
-        }
-        List<String> tools = agent.getTools(AgentToolType.PLUGIN);
-        if (CollectionUtils.isEmpty(tools)) {
-            return Lists.newArrayList();
-        }
-        return tools.stream().map(tool -> JSONObject.parseObject(tool, PluginTool.class))
-                .collect(Collectors.toList());
-    }
-
     @EventListener
     public void addPlugin(PluginAddEvent pluginAddEvent) {
+        invalidatePlugins();
         ChatPlugin plugin = pluginAddEvent.getPlugin();
         if (shouldIndexEmbedding(plugin)) {
             requestEmbeddingPluginAdd(convert(Lists.newArrayList(plugin)));
@@ -114,6 +146,7 @@ public class PluginManager {
 
     @EventListener
     public void updatePlugin(PluginUpdateEvent pluginUpdateEvent) {
+        invalidatePlugins();
         ChatPlugin oldPlugin = pluginUpdateEvent.getOldPlugin();
         ChatPlugin newPlugin = pluginUpdateEvent.getNewPlugin();
         if (shouldIndexEmbedding(oldPlugin)) {
@@ -126,6 +159,7 @@ public class PluginManager {
 
     @EventListener
     public void delPlugin(PluginDelEvent pluginDelEvent) {
+        invalidatePlugins();
         ChatPlugin plugin = pluginDelEvent.getPlugin();
         if (shouldIndexEmbedding(plugin)) {
             requestEmbeddingPluginDelete(getEmbeddingId(Lists.newArrayList(plugin)));
@@ -49,6 +49,7 @@ import java.util.stream.Stream;
 public class SupersetVizTypeSelector {
 
     private static final String DEFAULT_VIZ_TYPE = "table";
+    private static final String LLM_APP_KEY = "SUPERSET_VIZ_TYPE_SELECTOR";
     private static final List<String> VIZTYPE_RESOURCES = Arrays
             .asList("superset-spec/catalog/viztypes.json", "viztype.json", "docs/viztype.json");
     private static final VizTypeCatalog VIZTYPE_CATALOG = VizTypeCatalog.load();
@@ -410,7 +411,8 @@ public class SupersetVizTypeSelector {
         variables.put("top_n", topN);
 
         Prompt prompt = PromptTemplate.from(promptText).apply(variables);
-        ChatLanguageModel chatLanguageModel = ModelProvider.getChatModel(chatModelConfig);
+        ChatLanguageModel chatLanguageModel =
+                ModelProvider.getChatModel(chatModelConfig, LLM_APP_KEY);
         Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
         String answer =
                 response == null || response.content() == null ? null : response.content().text();
@@ -0,0 +1,27 @@
+package com.tencent.supersonic.chat.server.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** One stage result of a streaming chat query, sent to the client as a server-sent event. */
+@Data
+@AllArgsConstructor
+public class ChatStreamEvent {
+
+    /** parse response with the candidate parses */
+    public static final String PARSE = "parse";
+    /** sql info of the selected parse */
+    public static final String SQL = "sql";
+    /** parse of the language model finished after a confident rule-based parse was sent */
+    public static final String SPECULATIVE_PARSE = "speculativeParse";
+    /** query result with columns and rows */
+    public static final String DATA = "data";
+    /** one token of the interpretation */
+    public static final String SUMMARY = "summary";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private String name;
+
+    private Object data;
+}
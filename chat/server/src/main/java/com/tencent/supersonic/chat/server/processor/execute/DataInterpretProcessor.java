@@ -1,16 +1,13 @@
 package com.tencent.supersonic.chat.server.processor.execute;
 
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
 import com.tencent.supersonic.chat.server.agent.Agent;
-import com.tencent.supersonic.chat.server.persistence.dataobject.ChatQueryDO;
-import com.tencent.supersonic.chat.server.persistence.repository.ChatQueryRepository;
 import com.tencent.supersonic.chat.server.pojo.ExecuteContext;
 import com.tencent.supersonic.common.pojo.ChatApp;
 import com.tencent.supersonic.common.pojo.enums.AppModule;
 import com.tencent.supersonic.common.util.ChatAppManager;
-import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.headless.api.pojo.response.QueryState;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.model.StreamingResponseHandler;
@@ -20,6 +17,7 @@ import dev.langchain4j.model.input.Prompt;
 import dev.langchain4j.model.input.PromptTemplate;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.provider.ModelProvider;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,15 +26,21 @@ import org.springframework.util.CollectionUtils;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * DataInterpretProcessor interprets query result to make it more readable to the users.
  */
+@Slf4j
 public class DataInterpretProcessor implements ExecuteResultProcessor {
     public static String tip = "AI 回答中...\r\n";
     private static final Logger keyPipelineLog = LoggerFactory.getLogger("keyPipeline");
 
-    private static Map<Long, StringBuffer> resultCache = new HashMap<>();
+    /** interpretation streamed so far, per query, for clients polling getExecuteSummary */
+    private static final Cache<Long, StringBuffer> resultCache = CacheBuilder.newBuilder()
+            .maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES).build();
 
     public static final String APP_KEY = "DATA_INTERPRETER";
     private static final String INSTRUCTION = ""
@@ -56,14 +60,15 @@ public class DataInterpretProcessor implements ExecuteResultProcessor {
     }
 
     public static String getTextSummary(Long queryId) {
-        if (resultCache.get(queryId) != null) {
-            return resultCache.get(queryId).toString();
+        StringBuffer buffer = resultCache.getIfPresent(queryId);
+        if (buffer != null) {
+            return buffer.toString();
         }
         return "";
     }
 
     public static Map<Long, StringBuffer> getResultCache() {
-        return resultCache;
+        return resultCache.asMap();
     }
 
     @Override
@@ -92,11 +97,90 @@ public class DataInterpretProcessor implements ExecuteResultProcessor {
             return;
         }
 
-        Agent agent = executeContext.getAgent();
-        ChatApp chatApp = agent.getChatAppConfig().get(APP_KEY);
+        ChatApp chatApp = executeContext.getAgent().getChatAppConfig().get(APP_KEY);
+        Prompt prompt = buildPrompt(executeContext, chatApp);
+        ChatLanguageModel chatLanguageModel =
+                ModelProvider.getChatModel(chatApp.getChatModelConfig(), APP_KEY);
+        Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
+        String anwser = response.content().text();
+        keyPipelineLog.info("DataInterpretProcessor modelReq:\n{} \nmodelResp:\n{}", prompt.text(),
+                anwser);
+        if (StringUtils.isNotBlank(anwser)) {
+            queryResult.setTextSummary(anwser);
+        }
+    }
 
+    /**
+     * Same as process, but the answer is generated by the streaming model and every token is passed
+     * to the consumer as it arrives. Models without streaming support fall back to process and pass
+     * the whole answer as one token.
+     *
+     * @return completes with the answer once the model finishes
+     */
+    public CompletableFuture<String> processStreaming(ExecuteContext executeContext,
+            Consumer<String> tokenConsumer) {
+        QueryResult queryResult = executeContext.getResponse();
+        if (queryResult == null || queryResult.getQueryState() != QueryState.SUCCESS) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ChatApp chatApp = executeContext.getAgent().getChatAppConfig().get(APP_KEY);
+        StreamingChatLanguageModel streamingModel = null;
+        if (!CollectionUtils.isEmpty(queryResult.getQueryResults())) {
+            try {
+                streamingModel =
+                        ModelProvider.getChatStreamingModel(chatApp.getChatModelConfig(), APP_KEY);
+            } catch (RuntimeException e) {
+                log.warn("streaming model is not supported, fall back to blocking generate:{}",
+                        e.getMessage());
+            }
+        }
+        if (streamingModel == null) {
+            process(executeContext);
+            if (StringUtils.isNotBlank(queryResult.getTextSummary())) {
+                tokenConsumer.accept(queryResult.getTextSummary());
+            }
+            return CompletableFuture.completedFuture(queryResult.getTextSummary());
+        }
+
+        Prompt prompt = buildPrompt(executeContext, chatApp);
+        StringBuffer buffer = new StringBuffer();
+        resultCache.put(executeContext.getRequest().getQueryId(), buffer);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            streamingModel.generate(prompt.toUserMessage(), new StreamingResponseHandler<>() {
+                @Override
+                public void onNext(String token) {
+                    buffer.append(token);
+                    tokenConsumer.accept(token);
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    String anwser = response.content().text();
+                    keyPipelineLog.info("DataInterpretProcessor modelReq:\n{} \nmodelResp:\n{}",
+                            prompt.text(), anwser);
+                    if (StringUtils.isNotBlank(anwser)) {
+                        queryResult.setTextSummary(anwser);
+                    }
+                    future.complete(anwser);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the gateway rejects the call before streaming when the model is over its limits
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private Prompt buildPrompt(ExecuteContext executeContext, ChatApp chatApp) {
+        QueryResult queryResult = executeContext.getResponse();
         Map<String, Object> variable = new HashMap<>();
-        String question = executeContext.getResponse().getTextResult();// 结果解析应该用改写的问题，因为改写的内容信息量更大
+        String question = queryResult.getTextResult();// 结果解析应该用改写的问题，因为改写的内容信息量更大
         if (executeContext.getParseInfo().getProperties() != null
                 && executeContext.getParseInfo().getProperties().containsKey("CONTEXT")) {
             Map<String, Object> context = (Map<String, Object>) executeContext.getParseInfo()
@@ -108,17 +192,7 @@ public class DataInterpretProcessor implements ExecuteResultProcessor {
         }
         variable.put("question", question);
         variable.put("data", queryResult.getTextResult());
-
-        Prompt prompt = PromptTemplate.from(chatApp.getPrompt()).apply(variable);
-        ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(chatApp.getChatModelConfig());
-        Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
-        String anwser = response.content().text();
-        keyPipelineLog.info("DataInterpretProcessor modelReq:\n{} \nmodelResp:\n{}", prompt.text(),
-                anwser);
-        if (StringUtils.isNotBlank(anwser)) {
-            queryResult.setTextSummary(anwser);
-        }
+        return PromptTemplate.from(chatApp.getPrompt()).apply(variable);
     }
 
     private String buildNoDataSummary(String question) {
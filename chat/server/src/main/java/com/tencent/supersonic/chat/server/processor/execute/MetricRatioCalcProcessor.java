@@ -43,6 +43,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 import static com.tencent.supersonic.common.pojo.Constants.DAY_FORMAT;
@@ -112,12 +113,14 @@ public class MetricRatioCalcProcessor implements ExecuteResultProcessor {
                 metricInfo.setDate(value.get(dateField).toString());
             });
 
+            ThreadPoolExecutor executor =
+                    ContextUtils.getBean("queryExecutor", ThreadPoolExecutor.class);
             CompletableFuture<MetricInfo> metricInfoRoll =
                     CompletableFuture.supplyAsync(() -> queryRatio(user, semanticParseInfo,
-                            ratioMetric.get(), AggOperatorEnum.RATIO_ROLL, queryResult));
+                            ratioMetric.get(), AggOperatorEnum.RATIO_ROLL, queryResult), executor);
             CompletableFuture<MetricInfo> metricInfoOver =
                     CompletableFuture.supplyAsync(() -> queryRatio(user, semanticParseInfo,
-                            ratioMetric.get(), AggOperatorEnum.RATIO_OVER, queryResult));
+                            ratioMetric.get(), AggOperatorEnum.RATIO_OVER, queryResult), executor);
 
             CompletableFuture.allOf(metricInfoRoll, metricInfoOver).join();
 
@@ -56,6 +56,7 @@ import java.util.stream.Collectors;
 public class SupersetChartProcessor implements ExecuteResultProcessor {
 
     public static final String QUERY_MODE = "SUPERSET";
+    private static final String LLM_APP_KEY = "SUPERSET_FORM_DATA";
     private static final int DEFAULT_SINGLE_CHART_HEIGHT = 260;
     private static final int LINE_CHART_HEIGHT = 300;
     private static final String FORMDATA_LLM_PROMPT = ""
@@ -1914,7 +1915,7 @@ public class SupersetChartProcessor implements ExecuteResultProcessor {
         if (chatModelConfig == null) {
             return null;
         }
-        return ModelProvider.getChatModel(chatModelConfig);
+        return ModelProvider.getChatModel(chatModelConfig, LLM_APP_KEY);
     }
 
     private Integer resolveChatModelId(SupersetPluginConfig config, Agent agent) {
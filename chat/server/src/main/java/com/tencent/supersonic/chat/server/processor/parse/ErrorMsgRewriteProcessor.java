@@ -95,7 +95,7 @@ public class ErrorMsgRewriteProcessor implements ParseResultProcessor {
 
         Prompt prompt = PromptTemplate.from(chatApp.getPrompt()).apply(variables);
         ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(ModelConfigHelper.getChatModelConfig(chatApp));
+                ModelProvider.getChatModel(ModelConfigHelper.getChatModelConfig(chatApp), APP_KEY);
         Response<AiMessage> response = chatLanguageModel.generate(prompt.toUserMessage());
         String rewrittenMsg = response.content().text();
         parseContext.getResponse().setErrorMsg(rewrittenMsg);
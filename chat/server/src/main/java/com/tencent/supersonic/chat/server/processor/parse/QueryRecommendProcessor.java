@@ -15,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +31,8 @@ public class QueryRecommendProcessor implements ParseResultProcessor {
 
     @Override
     public void process(ParseContext parseContext) {
-        CompletableFuture.runAsync(() -> doProcess(parseContext));
+        CompletableFuture.runAsync(() -> doProcess(parseContext),
+                ContextUtils.getBean("commonExecutor", ThreadPoolExecutor.class));
     }
 
     @SneakyThrows
@@ -38,7 +40,8 @@ public class QueryRecommendProcessor implements ParseResultProcessor {
         Long queryId = parseContext.getResponse().getQueryId();
         List<SimilarQueryRecallResp> solvedQueries = getSimilarQueries(
                 parseContext.getRequest().getQueryText(), parseContext.getAgent().getId());
-        ChatQueryDO chatQueryDO = getChatQuery(queryId);
+        ChatQueryDO chatQueryDO = new ChatQueryDO();
+        chatQueryDO.setQuestionId(queryId);
         chatQueryDO.setSimilarQueries(JSONObject.toJSONString(solvedQueries));
         updateChatQuery(chatQueryDO);
     }
@@ -53,11 +56,6 @@ public class QueryRecommendProcessor implements ParseResultProcessor {
                 .queryText(sqlExemplar.getQuestion()).build()).collect(Collectors.toList());
     }
 
-    private ChatQueryDO getChatQuery(Long queryId) {
-        ChatQueryRepository chatQueryRepository = ContextUtils.getBean(ChatQueryRepository.class);
-        return chatQueryRepository.getChatQueryDO(queryId);
-    }
-
     private void updateChatQuery(ChatQueryDO chatQueryDO) {
         ChatQueryRepository chatQueryRepository = ContextUtils.getBean(ChatQueryRepository.class);
         UpdateWrapper<ChatQueryDO> updateWrapper = new UpdateWrapper<>();
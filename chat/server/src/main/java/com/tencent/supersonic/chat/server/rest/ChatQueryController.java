@@ -6,6 +6,7 @@ import com.tencent.supersonic.chat.api.pojo.request.ChatParseReq;
 import com.tencent.supersonic.chat.api.pojo.request.ChatQueryDataReq;
 import com.tencent.supersonic.chat.api.pojo.response.ChatParseResp;
 import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.chat.server.pojo.ChatStreamEvent;
 import com.tencent.supersonic.chat.server.service.ChatQueryService;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.exception.InvalidArgumentException;
@@ -14,15 +15,29 @@ import com.tencent.supersonic.headless.api.pojo.request.DimensionValueReq;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 
 /** query controller */
+@Slf4j
 @RestController
 @RequestMapping({"/api/chat/query", "/openapi/chat/query"})
 public class ChatQueryController {
@@ -30,6 +45,13 @@ public class ChatQueryController {
     @Autowired
     private ChatQueryService chatQueryService;
 
+    @Autowired
+    @Qualifier("chatExecutor")
+    private ThreadPoolExecutor executor;
+
+    @Value("${s2.chat.stream.timeout:300000}")
+    private Long streamTimeout;
+
     @PostMapping("search")
     public Object search(@RequestBody ChatParseReq chatParseReq, HttpServletRequest request,
             HttpServletResponse response) {
@@ -77,6 +99,63 @@ public class ChatQueryController {
         return chatQueryService.execute(chatExecuteReq);
     }
 
+    /**
+     * Parse, execute and interpret the query as server-sent events, see ChatStreamEvent for the
+     * event names. The pipeline runs on the chat executor so that the request thread is released
+     * immediately.
+     */
+    @PostMapping(value = "streamQuery", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuery(@RequestBody ChatParseReq chatParseReq,
+            HttpServletRequest request, HttpServletResponse response) {
+        chatParseReq.setUser(UserHolder.findUser(request, response));
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        // the query id is set on the request by the parse stage
+        emitter.onTimeout(() -> cancel(chatParseReq));
+        emitter.onError(e -> cancel(chatParseReq));
+        CompletableFuture
+                .supplyAsync(() -> chatQueryService.streamQuery(chatParseReq,
+                        event -> send(emitter, event, chatParseReq)), executor)
+                .thenCompose(Function.identity()).whenComplete((queryResult, e) -> {
+                    if (e != null) {
+                        log.error("streamQuery error, queryText:{}", chatParseReq.getQueryText(),
+                                e);
+                        send(emitter, new ChatStreamEvent(ChatStreamEvent.ERROR,
+                                ExceptionUtils.getRootCauseMessage(e)), chatParseReq);
+                    } else {
+                        send(emitter, new ChatStreamEvent(ChatStreamEvent.DONE,
+                                Objects.isNull(queryResult) ? null : queryResult.getQueryId()),
+                                chatParseReq);
+                    }
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, ChatStreamEvent event, ChatParseReq chatParseReq) {
+        try {
+            emitter.send(SseEmitter.event().name(event.getName()).data(
+                    Objects.isNull(event.getData()) ? "" : event.getData(),
+                    MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, stop its database query, the chat query is still saved
+            log.debug("send stream event:{} error:{}", event.getName(), e.getMessage());
+            cancel(chatParseReq);
+        }
+    }
+
+    private void cancel(ChatParseReq chatParseReq) {
+        if (chatQueryService.cancel(chatParseReq.getQueryId(), chatParseReq.getUser())) {
+            log.info("client of stream query left, queryId:{}", chatParseReq.getQueryId());
+        }
+    }
+
+    @PostMapping("cancel/{queryId}")
+    public Object cancel(@PathVariable("queryId") Long queryId, HttpServletRequest request,
+            HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        return chatQueryService.cancel(queryId, user);
+    }
+
     @PostMapping("queryData")
     public Object queryData(@RequestBody ChatQueryDataReq chatQueryDataReq,
             HttpServletRequest request, HttpServletResponse response) throws Exception {
@@ -5,11 +5,14 @@ import com.tencent.supersonic.chat.api.pojo.request.ChatParseReq;
 import com.tencent.supersonic.chat.api.pojo.request.ChatQueryDataReq;
 import com.tencent.supersonic.chat.api.pojo.response.ChatParseResp;
 import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.chat.server.pojo.ChatStreamEvent;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.headless.api.pojo.request.DimensionValueReq;
 import com.tencent.supersonic.headless.api.pojo.response.SearchResult;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface ChatQueryService {
 
@@ -23,6 +26,22 @@ public interface ChatQueryService {
 
     QueryResult parseAndExecute(ChatParseReq chatParseReq);
 
+    /**
+     * Parse and execute the query, passing the result of each stage to the listener as soon as it
+     * is ready: parse candidates, sql, result rows and then the interpretation token by token.
+     *
+     * @return completes with the query result once the interpretation finishes
+     */
+    CompletableFuture<QueryResult> streamQuery(ChatParseReq chatParseReq,
+            Consumer<ChatStreamEvent> listener);
+
+    /**
+     * Cancel the semantic queries running for the chat query.
+     *
+     * @return whether a query was running
+     */
+    boolean cancel(Long queryId, User user);
+
     Object queryData(ChatQueryDataReq chatQueryDataReq, User user) throws Exception;
 
     Object queryDimensionValue(DimensionValueReq dimensionValueReq, User user) throws Exception;
@@ -14,22 +14,31 @@ import com.tencent.supersonic.chat.server.service.ChatQueryService;
 import com.tencent.supersonic.chat.server.service.MemoryService;
 import com.tencent.supersonic.common.config.ChatModel;
 import com.tencent.supersonic.common.pojo.ChatApp;
+import com.tencent.supersonic.common.pojo.ChatModelEvent;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
 import com.tencent.supersonic.common.service.ChatModelService;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -49,19 +58,31 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ParseResultCache parseResultCache;
+
     @Autowired
     @Qualifier("chatExecutor")
     private ThreadPoolExecutor executor;
 
+    /**
+     * Compiled agents by id in table order, with tool config and chat models already resolved.
+     * Rebuilt lazily after any agent or chat model change, so reads on the query path never touch
+     * the database. The agents are shared by all callers and must be treated as read-only.
+     */
+    private volatile Map<Integer, Agent> compiledAgents;
+
+    private final AtomicLong agentVersion = new AtomicLong();
+
     @Override
     public List<Agent> getAgents(User user, AuthType authType) {
-        return getAgentDOList().stream().map(this::convert)
-                .filter(agent -> filterByAuth(agent, user, authType)).collect(Collectors.toList());
-    }
-
-    private boolean filterByAuth(Agent agent, User user, AuthType authType) {
         Set<String> orgIds = userService.getUserAllOrgId(user.getName());
+        return getCompiledAgents().values().stream()
+                .filter(agent -> filterByAuth(agent, orgIds, user, authType))
+                .collect(Collectors.toList());
+    }
 
+    private boolean filterByAuth(Agent agent, Set<String> orgIds, User user, AuthType authType) {
         if (user.isSuperAdmin() || agent.openToAll()
                 || user.getName().equals(agent.getCreatedBy())) {
             return true;
@@ -78,7 +99,7 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
 
     @Override
     public List<Agent> getAgents() {
-        return getAgentDOList().stream().map(this::convert).collect(Collectors.toList());
+        return new ArrayList<>(getCompiledAgents().values());
     }
 
     @Override
@@ -87,6 +108,7 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
         AgentDO agentDO = convert(agent);
         save(agentDO);
         agent.setId(agentDO.getId());
+        invalidateAgents();
         executeAgentExamplesAsync(agent);
         return agent;
     }
@@ -95,6 +117,7 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
     public Agent updateAgent(Agent agent, User user) {
         agent.updatedBy(user.getName());
         updateById(convert(agent));
+        invalidateAgents();
         executeAgentExamplesAsync(agent);
         return agent;
     }
@@ -104,12 +127,55 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
         if (id == null) {
             return null;
         }
-        return convert(getById(id));
+        return getCompiledAgents().get(id);
     }
 
     @Override
     public void deleteAgent(Integer id) {
         removeById(id);
+        invalidateAgents();
+    }
+
+    @EventListener
+    public void onChatModelChange(ChatModelEvent event) {
+        invalidateAgents();
+    }
+
+    private void invalidateAgents() {
+        agentVersion.incrementAndGet();
+        compiledAgents = null;
+        parseResultCache.invalidate();
+    }
+
+    private Map<Integer, Agent> getCompiledAgents() {
+        Map<Integer, Agent> agents = compiledAgents;
+        if (Objects.nonNull(agents)) {
+            return agents;
+        }
+        synchronized (this) {
+            agents = compiledAgents;
+            if (Objects.isNull(agents)) {
+                long version = agentVersion.get();
+                agents = compileAgents();
+                // a change during the compilation may not be visible in it, keep it uncached
+                if (version == agentVersion.get()) {
+                    compiledAgents = agents;
+                }
+            }
+            return agents;
+        }
+    }
+
+    private Map<Integer, Agent> compileAgents() {
+        Map<Integer, ChatModel> chatModels = new HashMap<>();
+        Map<Integer, Agent> agents = new LinkedHashMap<>();
+        for (AgentDO agentDO : getAgentDOList()) {
+            Agent agent = convert(agentDO, chatModels);
+            agent.getPluginIds();
+            agents.put(agent.getId(), agent);
+        }
+        log.debug("compiled agents:{}, chat models:{}", agents.size(), chatModels.size());
+        return Collections.unmodifiableMap(agents);
     }
 
     /**
@@ -151,7 +217,7 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
         return list();
     }
 
-    private Agent convert(AgentDO agentDO) {
+    private Agent convert(AgentDO agentDO, Map<Integer, ChatModel> chatModels) {
         if (agentDO == null) {
             return null;
         }
@@ -164,7 +230,9 @@ public class AgentServiceImpl extends ServiceImpl<AgentDOMapper, AgentDO> implem
         agent.setVisualConfig(JsonUtil.toObject(agentDO.getVisualConfig(), VisualConfig.class));
         agent.getChatAppConfig().values().forEach(c -> {
             if (c.isEnable()) {// 优化，减少访问数据库的次数
-                ChatModel chatModel = chatModelService.getChatModel(c.getChatModelId());
+                ChatModel chatModel = c.getChatModelId() == null ? null
+                        : chatModels.computeIfAbsent(c.getChatModelId(),
+                                chatModelService::getChatModel);
                 if (Objects.nonNull(chatModel)) {
                     c.setChatModelConfig(chatModel.getConfig());
                 }
@@ -41,6 +41,8 @@ public class ChatManageServiceImpl implements ChatManageService {
     private ChatQueryRepository chatQueryRepository;
     @Autowired
     private MemoryService memoryService;
+    @Autowired
+    private ChatQueryWriteBehind chatQueryWriteBehind;
 
     @Override
     public Long addChat(User user, String chatName, Integer agentId) {
@@ -105,6 +107,7 @@ public class ChatManageServiceImpl implements ChatManageService {
 
     @Override
     public PageInfo<QueryResp> queryInfo(PageQueryInfoReq pageQueryInfoReq, long chatId) {
+        chatQueryWriteBehind.flush();
         PageInfo<QueryResp> queryRespPageInfo =
                 chatQueryRepository.getChatQuery(pageQueryInfoReq, chatId);
         if (CollectionUtils.isEmpty(queryRespPageInfo.getList())) {
@@ -121,17 +124,27 @@ public class ChatManageServiceImpl implements ChatManageService {
 
     @Override
     public QueryResp getChatQuery(Long queryId) {
+        chatQueryWriteBehind.flush();
         return chatQueryRepository.getChatQuery(queryId);
     }
 
     @Override
     public ChatQueryDO getChatQueryDO(Long queryId) {
+        chatQueryWriteBehind.flush();
         return chatQueryRepository.getChatQueryDO(queryId);
     }
 
     @Override
     public List<QueryResp> getChatQueries(Integer chatId) {
         List<QueryResp> queries = chatQueryRepository.getChatQueries(chatId);
+        // called on every parse for the chat context, so read pending results instead of flushing
+        for (QueryResp query : queries) {
+            QueryResult pendingResult =
+                    chatQueryWriteBehind.getPendingResult(query.getQuestionId());
+            if (Objects.nonNull(pendingResult)) {
+                query.setQueryResult(pendingResult);
+            }
+        }
         fillParseInfo(queries);
         return queries;
     }
@@ -141,6 +154,7 @@ public class ChatManageServiceImpl implements ChatManageService {
         ShowCaseResp showCaseResp = new ShowCaseResp();
         showCaseResp.setCurrent(pageQueryInfoReq.getCurrent());
         showCaseResp.setPageSize(pageQueryInfoReq.getPageSize());
+        chatQueryWriteBehind.flush();
         List<QueryResp> queryResps = chatQueryRepository.queryShowCase(pageQueryInfoReq, agentId);
         if (CollectionUtils.isEmpty(queryResps)) {
             return showCaseResp;
@@ -194,12 +208,12 @@ public class ChatManageServiceImpl implements ChatManageService {
 
     @Override
     public ChatQueryDO saveQueryResult(ChatExecuteReq chatExecuteReq, QueryResult queryResult) {
-        ChatQueryDO chatQueryDO = chatQueryRepository.getChatQueryDO(chatExecuteReq.getQueryId());
+        ChatQueryDO chatQueryDO = new ChatQueryDO();
         chatQueryDO.setQuestionId(chatExecuteReq.getQueryId());
-        chatQueryDO.setQueryResult(JsonUtil.toString(queryResult));
         chatQueryDO.setQueryState(1);
-        updateQuery(chatQueryDO);
-        chatRepository.updateLastQuestion(chatExecuteReq.getChatId().longValue(),
+        chatQueryWriteBehind.update(chatQueryDO);
+        chatQueryWriteBehind.updateResult(chatExecuteReq.getQueryId(), queryResult);
+        chatQueryWriteBehind.updateLastQuestion(chatExecuteReq.getChatId().longValue(),
                 chatExecuteReq.getQueryText(), getCurrentTime());
         return chatQueryDO;
     }
@@ -211,18 +225,19 @@ public class ChatManageServiceImpl implements ChatManageService {
 
     @Override
     public void deleteQuery(Long queryId) {
-        ChatQueryDO chatQuery = chatQueryRepository.getChatQueryDO(queryId);
-        if (Objects.nonNull(chatQuery)) {
-            chatQuery.setQueryState(0);
-            chatQueryRepository.updateChatQuery(chatQuery);
-        }
+        chatQueryWriteBehind.flush();
+        ChatQueryDO chatQuery = new ChatQueryDO();
+        chatQuery.setQuestionId(queryId);
+        chatQuery.setQueryState(0);
+        chatQueryRepository.updateChatQuery(chatQuery);
     }
 
     @Override
     public void updateParseCostTime(ChatParseResp chatParseResp) {
-        ChatQueryDO chatQueryDO = chatQueryRepository.getChatQueryDO(chatParseResp.getQueryId());
+        ChatQueryDO chatQueryDO = new ChatQueryDO();
+        chatQueryDO.setQuestionId(chatParseResp.getQueryId());
         chatQueryDO.setParseTimeCost(JsonUtil.toString(chatParseResp.getParseTimeCost()));
-        updateQuery(chatQueryDO);
+        chatQueryWriteBehind.update(chatQueryDO);
     }
 
     @Override
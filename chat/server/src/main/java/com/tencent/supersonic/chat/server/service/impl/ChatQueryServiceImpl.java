@@ -13,6 +13,7 @@ import com.tencent.supersonic.chat.server.parser.ChatQueryParser;
 import com.tencent.supersonic.chat.server.persistence.dataobject.ChatParseDO;
 import com.tencent.supersonic.chat.server.persistence.dataobject.ChatQueryDO;
 import com.tencent.supersonic.chat.server.persistence.repository.ChatQueryRepository;
+import com.tencent.supersonic.chat.server.pojo.ChatStreamEvent;
 import com.tencent.supersonic.chat.server.pojo.ExecuteContext;
 import com.tencent.supersonic.chat.server.pojo.ParseContext;
 import com.tencent.supersonic.chat.server.processor.execute.DataInterpretProcessor;
@@ -23,6 +24,7 @@ import com.tencent.supersonic.chat.server.service.ChatManageService;
 import com.tencent.supersonic.chat.server.service.ChatQueryService;
 import com.tencent.supersonic.chat.server.util.ComponentFactory;
 import com.tencent.supersonic.chat.server.util.QueryReqConverter;
+import com.tencent.supersonic.chat.server.util.QueryResultCodec;
 import com.tencent.supersonic.common.jsqlparser.FieldExpression;
 import com.tencent.supersonic.common.jsqlparser.SqlAddHelper;
 import com.tencent.supersonic.common.jsqlparser.SqlRemoveHelper;
@@ -31,6 +33,8 @@ import com.tencent.supersonic.common.jsqlparser.SqlSelectHelper;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.exception.InvalidArgumentException;
 import com.tencent.supersonic.common.pojo.enums.FilterOperatorEnum;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
 import com.tencent.supersonic.common.util.DateUtils;
 import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
@@ -76,6 +80,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -121,16 +127,27 @@ public class ChatQueryServiceImpl implements ChatQueryService {
         }
 
         ParseContext parseContext = buildParseContext(chatParseReq, new ChatParseResp(queryId));
-        for (ChatQueryParser parser : chatQueryParsers) {
-            if (parser.accept(parseContext)) {
-                parser.parse(parseContext);
+        try (TraceSpan span = Tracer.start("chat.query.parse")) {
+            span.setAttribute("queryId", queryId).setAttribute("agentId",
+                    chatParseReq.getAgentId());
+            for (ChatQueryParser parser : chatQueryParsers) {
+                if (parser.accept(parseContext)) {
+                    try (TraceSpan parserSpan = Tracer
+                            .start("chat.query.parser." + parser.getClass().getSimpleName())) {
+                        parser.parse(parseContext);
+                    }
+                }
             }
-        }
 
-        for (ParseResultProcessor processor : parseResultProcessors) {
-            if (processor.accept(parseContext)) {
-                processor.process(parseContext);
+            for (ParseResultProcessor processor : parseResultProcessors) {
+                if (processor.accept(parseContext)) {
+                    try (TraceSpan processorSpan = Tracer.start(
+                            "chat.query.processor." + processor.getClass().getSimpleName())) {
+                        processor.process(parseContext);
+                    }
+                }
             }
+            span.setAttribute("parses", parseContext.getResponse().getSelectedParses().size());
         }
 
         if (!parseContext.needFeedback()) {
@@ -138,13 +155,51 @@ public class ChatQueryServiceImpl implements ChatQueryService {
                     - parseContext.getResponse().getParseTimeCost().getParseStartTime());
             chatManageService.batchAddParse(chatParseReq, parseContext.getResponse());
             chatManageService.updateParseCostTime(parseContext.getResponse());
+            saveSpeculativeParse(chatParseReq, parseContext.getResponse());
         }
 
         return parseContext.getResponse();
     }
 
+    /** the parse of the language model finished later is saved as one more candidate parse */
+    private void saveSpeculativeParse(ChatParseReq chatParseReq, ChatParseResp parseResp) {
+        if (Objects.isNull(parseResp.getSpeculativeParse())) {
+            return;
+        }
+        int parseId = parseResp.getSelectedParses().size() + 1;
+        parseResp.setSpeculativeParse(parseResp.getSpeculativeParse().thenApply(parseInfo -> {
+            if (Objects.nonNull(parseInfo)) {
+                parseInfo.setId(parseId);
+                ChatParseResp speculativeResp = new ChatParseResp(parseResp.getQueryId());
+                speculativeResp.getSelectedParses().add(parseInfo);
+                chatManageService.batchAddParse(chatParseReq, speculativeResp);
+                log.info("speculative parse saved, queryId:{}, parseId:{}", parseResp.getQueryId(),
+                        parseId);
+            }
+            return parseInfo;
+        }));
+    }
+
     @Override
     public QueryResult execute(ChatExecuteReq chatExecuteReq) {
+        try (TraceSpan span = Tracer.start("chat.query.execute")) {
+            span.setAttribute("queryId", chatExecuteReq.getQueryId()).setAttribute("agentId",
+                    chatExecuteReq.getAgentId());
+            ExecuteContext executeContext = doExecute(chatExecuteReq, false);
+            QueryResult queryResult = executeContext.getResponse();
+            if (queryResult != null) {
+                span.setAttribute("queryState", String.valueOf(queryResult.getQueryState()));
+                saveQueryResult(chatExecuteReq, queryResult);
+            }
+            return queryResult;
+        }
+    }
+
+    /**
+     * run the executors and result processors, leaving the data interpretation to the caller when
+     * it is streamed
+     */
+    private ExecuteContext doExecute(ChatExecuteReq chatExecuteReq, boolean streamInterpret) {
         QueryResult queryResult = new QueryResult();
         ExecuteContext executeContext = buildExecuteContext(chatExecuteReq);
         log.debug("execute start, queryId={}, parseId={}, agentId={}, chatId={}",
@@ -152,7 +207,10 @@ public class ChatQueryServiceImpl implements ChatQueryService {
                 chatExecuteReq.getAgentId(), chatExecuteReq.getChatId());
         for (ChatQueryExecutor chatQueryExecutor : chatQueryExecutors) {
             if (chatQueryExecutor.accept(executeContext)) {
-                queryResult = chatQueryExecutor.execute(executeContext);
+                try (TraceSpan span = Tracer.start(
+                        "chat.query.executor." + chatQueryExecutor.getClass().getSimpleName())) {
+                    queryResult = chatQueryExecutor.execute(executeContext);
+                }
                 if (queryResult != null) {
                     log.debug("executor selected: {}, queryState={}, queryMode={}",
                             chatQueryExecutor.getClass().getSimpleName(),
@@ -165,16 +223,20 @@ public class ChatQueryServiceImpl implements ChatQueryService {
         executeContext.setResponse(queryResult);
         if (queryResult != null) {
             for (ExecuteResultProcessor processor : executeResultProcessors) {
+                if (streamInterpret && processor instanceof DataInterpretProcessor) {
+                    continue;
+                }
                 if (processor.accept(executeContext)) {
                     log.debug("execute processor accepted: {}",
                             processor.getClass().getSimpleName());
-                    processor.process(executeContext);
+                    try (TraceSpan span = Tracer.start(
+                            "chat.query.processor." + processor.getClass().getSimpleName())) {
+                        processor.process(executeContext);
+                    }
                 }
             }
-            saveQueryResult(chatExecuteReq, queryResult);
         }
-
-        return queryResult;
+        return executeContext;
     }
 
     @Override
@@ -187,7 +249,8 @@ public class ChatQueryServiceImpl implements ChatQueryService {
             return res;
         } else {
             ChatQueryDO chatQueryDo = chatManageService.getChatQueryDO(chatExecuteReq.getQueryId());
-            QueryResult res = JSON.parseObject(chatQueryDo.getQueryResult(), QueryResult.class);
+            QueryResult res = JSON.parseObject(
+                    QueryResultCodec.decode(chatQueryDo.getQueryResult()), QueryResult.class);
             return res;
         }
     }
@@ -212,6 +275,71 @@ public class ChatQueryServiceImpl implements ChatQueryService {
         return execute(executeReq);
     }
 
+    @Override
+    public CompletableFuture<QueryResult> streamQuery(ChatParseReq chatParseReq,
+            Consumer<ChatStreamEvent> listener) {
+        ChatParseResp parseResp = parse(chatParseReq);
+        listener.accept(new ChatStreamEvent(ChatStreamEvent.PARSE, parseResp));
+        // the stream is kept open until the speculative parse is sent
+        CompletableFuture<Void> speculativeFuture = Objects.isNull(parseResp.getSpeculativeParse())
+                ? CompletableFuture.completedFuture(null)
+                : parseResp.getSpeculativeParse().handle((parseInfo, e) -> {
+                    if (e != null) {
+                        log.warn("speculative parse error, queryId:{}", parseResp.getQueryId(), e);
+                    } else if (Objects.nonNull(parseInfo)) {
+                        listener.accept(
+                                new ChatStreamEvent(ChatStreamEvent.SPECULATIVE_PARSE, parseInfo));
+                    }
+                    return null;
+                });
+        if (CollectionUtils.isEmpty(parseResp.getSelectedParses())) {
+            return speculativeFuture.thenApply(v -> null);
+        }
+        SemanticParseInfo parseInfo = parseResp.getSelectedParses().get(0);
+        listener.accept(new ChatStreamEvent(ChatStreamEvent.SQL, parseInfo.getSqlInfo()));
+
+        ChatExecuteReq executeReq = new ChatExecuteReq();
+        executeReq.setQueryId(parseResp.getQueryId());
+        executeReq.setParseId(parseInfo.getId());
+        executeReq.setQueryText(chatParseReq.getQueryText());
+        executeReq.setChatId(chatParseReq.getChatId());
+        executeReq.setUser(chatParseReq.getUser());
+        executeReq.setAgentId(chatParseReq.getAgentId());
+        executeReq.setSaveAnswer(true);
+        ExecuteContext executeContext = doExecute(executeReq, true);
+        QueryResult queryResult = executeContext.getResponse();
+        if (queryResult == null) {
+            return speculativeFuture.thenApply(v -> null);
+        }
+        listener.accept(new ChatStreamEvent(ChatStreamEvent.DATA, queryResult));
+
+        DataInterpretProcessor interpretProcessor = executeResultProcessors.stream()
+                .filter(processor -> processor instanceof DataInterpretProcessor)
+                .map(processor -> (DataInterpretProcessor) processor).findFirst().orElse(null);
+        CompletableFuture<String> interpretFuture =
+                interpretProcessor != null && interpretProcessor.accept(executeContext)
+                        ? interpretProcessor.processStreaming(executeContext,
+                                token -> listener.accept(
+                                        new ChatStreamEvent(ChatStreamEvent.SUMMARY, token)))
+                        : CompletableFuture.completedFuture(null);
+        return interpretFuture.handle((summary, e) -> {
+            if (e != null) {
+                log.warn("stream data interpretation error, queryId:{}", executeReq.getQueryId(),
+                        e);
+            }
+            saveQueryResult(executeReq, queryResult);
+            return queryResult;
+        }).thenCombine(speculativeFuture, (result, v) -> result);
+    }
+
+    @Override
+    public boolean cancel(Long queryId, User user) {
+        if (Objects.isNull(queryId)) {
+            return false;
+        }
+        return semanticLayerService.cancelQuery(String.valueOf(queryId), user);
+    }
+
     private ParseContext buildParseContext(ChatParseReq chatParseReq, ChatParseResp chatParseResp) {
         ParseContext parseContext = new ParseContext(chatParseReq, chatParseResp);
         Agent agent = agentService.getAgent(chatParseReq.getAgentId());
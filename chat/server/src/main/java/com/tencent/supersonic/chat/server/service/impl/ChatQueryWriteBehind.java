@@ -0,0 +1,214 @@
+package com.tencent.supersonic.chat.server.service.impl;
+
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.chat.server.persistence.dataobject.ChatQueryDO;
+import com.tencent.supersonic.chat.server.persistence.repository.ChatQueryRepository;
+import com.tencent.supersonic.chat.server.persistence.repository.ChatRepository;
+import com.tencent.supersonic.chat.server.util.QueryResultCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage of chat query updates. Updates of the same query (parse cost, result, state)
+ * are coalesced in memory and flushed by a single writer as one batch, so the request path neither
+ * reads the row back nor waits for the write. The query result is serialized, capped and compressed
+ * on the writer thread. Readers of chat history call {@link #flush()} first to see their writes,
+ * the chat context read on every parse takes pending results from {@link #getPendingResult(Long)}
+ * instead.
+ */
+@Slf4j
+@Component
+public class ChatQueryWriteBehind {
+
+    @Value("${s2.chat.query.write.interval:200}")
+    private long flushInterval;
+
+    @Value("${s2.chat.query.result.max-rows:1000}")
+    private int resultMaxRows;
+
+    @Value("${s2.chat.query.result.compress-threshold:8192}")
+    private int resultCompressThreshold;
+
+    @Autowired
+    private ChatQueryRepository chatQueryRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    private final Map<Long, PendingQuery> pendingQueries = new ConcurrentHashMap<>();
+
+    private final Map<Long, LastQuestion> pendingChats = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-query-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    /** queue the non-null fields of the update, the question id identifies the row */
+    public void update(ChatQueryDO update) {
+        pendingQueries.merge(update.getQuestionId(), new PendingQuery(update, null),
+                PendingQuery::merge);
+    }
+
+    public void updateResult(Long queryId, QueryResult queryResult) {
+        ChatQueryDO update = new ChatQueryDO();
+        update.setQuestionId(queryId);
+        pendingQueries.merge(queryId, new PendingQuery(update, queryResult), PendingQuery::merge);
+    }
+
+    public void updateLastQuestion(Long chatId, String lastQuestion, String lastTime) {
+        pendingChats.put(chatId, new LastQuestion(lastQuestion, lastTime));
+    }
+
+    /** query result not written yet, null if there is none */
+    public QueryResult getPendingResult(Long queryId) {
+        PendingQuery pending = pendingQueries.get(queryId);
+        return Objects.isNull(pending) ? null : pending.queryResult;
+    }
+
+    /** write all pending updates, called by the writer and before reading chat history */
+    public synchronized void flush() {
+        if (pendingQueries.isEmpty() && pendingChats.isEmpty()) {
+            return;
+        }
+        // entries stay visible to getPendingResult until written, and are only removed if no
+        // later update was merged into them meanwhile
+        List<Map.Entry<Long, PendingQuery>> entries = new ArrayList<>(pendingQueries.entrySet());
+        if (!entries.isEmpty()) {
+            List<ChatQueryDO> updates = new ArrayList<>(entries.size());
+            for (Map.Entry<Long, PendingQuery> entry : entries) {
+                updates.add(toUpdate(entry.getKey(), entry.getValue()));
+            }
+            writeQueries(updates);
+            entries.forEach(entry -> pendingQueries.remove(entry.getKey(), entry.getValue()));
+        }
+        for (Long chatId : new ArrayList<>(pendingChats.keySet())) {
+            LastQuestion lastQuestion = pendingChats.remove(chatId);
+            if (Objects.nonNull(lastQuestion)) {
+                chatRepository.updateLastQuestion(chatId, lastQuestion.question, lastQuestion.time);
+            }
+        }
+    }
+
+    /** a result which cannot be encoded is dropped, the other fields are still written */
+    private ChatQueryDO toUpdate(Long queryId, PendingQuery pending) {
+        try {
+            return pending.toUpdate(resultMaxRows, resultCompressThreshold);
+        } catch (Exception e) {
+            log.error("encode chat query result failed, drop the result, queryId:{}", queryId, e);
+            return new PendingQuery(pending.update, null).toUpdate(resultMaxRows,
+                    resultCompressThreshold);
+        }
+    }
+
+    void writeQueries(List<ChatQueryDO> updates) {
+        try {
+            Db.updateBatchById(updates);
+        } catch (Exception e) {
+            log.warn("batch update chat query failed, retry one by one, size:{}", updates.size(),
+                    e);
+            for (ChatQueryDO update : updates) {
+                try {
+                    chatQueryRepository.updateChatQuery(update);
+                } catch (Exception ex) {
+                    log.error("update chat query failed, queryId:{}", update.getQuestionId(), ex);
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("flush chat query updates failed", e);
+        }
+    }
+
+    private static class PendingQuery {
+
+        private final ChatQueryDO update;
+        private final QueryResult queryResult;
+
+        private PendingQuery(ChatQueryDO update, QueryResult queryResult) {
+            this.update = update;
+            this.queryResult = queryResult;
+        }
+
+        /** the later update wins field by field */
+        private static PendingQuery merge(PendingQuery earlier, PendingQuery later) {
+            ChatQueryDO merged = new ChatQueryDO();
+            copyNonNull(earlier.update, merged);
+            copyNonNull(later.update, merged);
+            QueryResult queryResult =
+                    Objects.nonNull(later.queryResult) ? later.queryResult : earlier.queryResult;
+            return new PendingQuery(merged, queryResult);
+        }
+
+        private ChatQueryDO toUpdate(int maxRows, int compressThreshold) {
+            ChatQueryDO chatQueryDO = new ChatQueryDO();
+            copyNonNull(update, chatQueryDO);
+            if (Objects.nonNull(queryResult)) {
+                chatQueryDO.setQueryResult(
+                        QueryResultCodec.encode(queryResult, maxRows, compressThreshold));
+            }
+            return chatQueryDO;
+        }
+
+        private static void copyNonNull(ChatQueryDO source, ChatQueryDO target) {
+            BeanWrapper from = new BeanWrapperImpl(source);
+            BeanWrapper to = new BeanWrapperImpl(target);
+            for (PropertyDescriptor descriptor : from.getPropertyDescriptors()) {
+                String name = descriptor.getName();
+                if (from.isReadableProperty(name) && to.isWritableProperty(name)) {
+                    Object value = from.getPropertyValue(name);
+                    if (Objects.nonNull(value)) {
+                        to.setPropertyValue(name, value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class LastQuestion {
+
+        private final String question;
+        private final String time;
+
+        private LastQuestion(String question, String time) {
+            this.question = question;
+            this.time = time;
+        }
+    }
+}
@@ -29,7 +29,9 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -227,13 +229,17 @@ public class MemoryServiceImpl implements MemoryService, CommandLineRunner {
         try {
             List<ChatMemory> memories = this
                     .getMemories(ChatMemoryFilter.builder().status(MemoryStatus.ENABLED).build());
+            Map<String, List<Text2SQLExemplar>> collectionExemplars = new HashMap<>();
             for (ChatMemory memory : memories) {
-                exemplarService.storeExemplar(
-                        embeddingConfig.getMemoryCollectionName(memory.getAgentId()),
-                        Text2SQLExemplar.builder().question(memory.getQuestion())
+                collectionExemplars
+                        .computeIfAbsent(
+                                embeddingConfig.getMemoryCollectionName(memory.getAgentId()),
+                                collection -> new ArrayList<>())
+                        .add(Text2SQLExemplar.builder().question(memory.getQuestion())
                                 .sideInfo(memory.getSideInfo()).dbSchema(memory.getDbSchema())
                                 .sql(memory.getS2sql()).build());
             }
+            collectionExemplars.forEach(exemplarService::storeExemplars);
 
         } catch (Exception e) {
             log.error("Failed to load system exemplars", e);
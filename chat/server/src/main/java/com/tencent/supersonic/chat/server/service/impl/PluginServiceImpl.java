@@ -13,6 +13,7 @@ import com.tencent.supersonic.chat.server.plugin.event.PluginUpdateEvent;
 import com.tencent.supersonic.chat.server.service.PluginService;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
@@ -36,10 +37,13 @@ public class PluginServiceImpl implements PluginService {
 
     private ApplicationEventPublisher publisher;
 
-    public PluginServiceImpl(PluginRepository pluginRepository,
-            ApplicationEventPublisher publisher) {
+    private ParseResultCache parseResultCache;
+
+    public PluginServiceImpl(PluginRepository pluginRepository, ApplicationEventPublisher publisher,
+            ParseResultCache parseResultCache) {
         this.pluginRepository = pluginRepository;
         this.publisher = publisher;
+        this.parseResultCache = parseResultCache;
     }
 
     @Override
@@ -49,6 +53,7 @@ public class PluginServiceImpl implements PluginService {
         // compatible with H2 db
         List<ChatPlugin> plugins = getPluginList();
         publisher.publishEvent(new PluginAddEvent(this, plugins.get(plugins.size() - 1)));
+        parseResultCache.invalidate();
     }
 
     @Override
@@ -59,6 +64,7 @@ public class PluginServiceImpl implements PluginService {
         convert(plugin, pluginDO, user);
         pluginRepository.updatePlugin(pluginDO);
         publisher.publishEvent(new PluginUpdateEvent(this, oldPlugin, plugin));
+        parseResultCache.invalidate();
     }
 
     @Override
@@ -67,6 +73,7 @@ public class PluginServiceImpl implements PluginService {
         if (pluginDO != null) {
             pluginRepository.deletePlugin(id);
             publisher.publishEvent(new PluginDelEvent(this, convert(pluginDO)));
+            parseResultCache.invalidate();
         }
     }
 
@@ -0,0 +1,64 @@
+package com.tencent.supersonic.chat.server.util;
+
+import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.common.util.JsonUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stored form of the query result of a chat query. Rows beyond the limit are dropped, and json
+ * longer than the threshold is gzip compressed and base64 encoded behind a prefix, so rows written
+ * before stay readable as plain json.
+ */
+public class QueryResultCodec {
+
+    private static final String GZIP_PREFIX = "gzip:";
+
+    public static String encode(QueryResult queryResult, int maxRows, int compressThreshold) {
+        if (queryResult == null) {
+            return null;
+        }
+        if (maxRows >= 0 && queryResult.getQueryResults() != null
+                && queryResult.getQueryResults().size() > maxRows) {
+            QueryResult capped = new QueryResult();
+            BeanUtils.copyProperties(queryResult, capped);
+            capped.setQueryResults(
+                    new ArrayList<>(queryResult.getQueryResults().subList(0, maxRows)));
+            queryResult = capped;
+        }
+        String json = JsonUtil.toString(queryResult);
+        if (json.length() < compressThreshold) {
+            return json;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return GZIP_PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /** json of a stored query result */
+    public static String decode(String stored) {
+        if (StringUtils.isEmpty(stored) || !stored.startsWith(GZIP_PREFIX)) {
+            return stored;
+        }
+        byte[] bytes = Base64.getDecoder().decode(stored.substring(GZIP_PREFIX.length()));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tencent.supersonic.chat.server.service.impl;
+
+import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.chat.server.persistence.dataobject.ChatQueryDO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+class ChatQueryWriteBehindTest {
+
+    @Test
+    void flushTheOthersIfOneResultCannotBeEncoded() {
+        List<ChatQueryDO> written = new ArrayList<>();
+        ChatQueryWriteBehind writeBehind = new ChatQueryWriteBehind() {
+            @Override
+            void writeQueries(List<ChatQueryDO> updates) {
+                written.addAll(updates);
+            }
+        };
+        ReflectionTestUtils.setField(writeBehind, "resultMaxRows", 1000);
+        ReflectionTestUtils.setField(writeBehind, "resultCompressThreshold", 8192);
+
+        QueryResult badResult = new QueryResult();
+        badResult.setQueryResults(List.of(Map.of("value", new Unserializable())));
+        writeBehind.updateResult(1L, badResult);
+        ChatQueryDO state = new ChatQueryDO();
+        state.setQuestionId(1L);
+        state.setQueryState(1);
+        writeBehind.update(state);
+        QueryResult goodResult = new QueryResult();
+        goodResult.setTextResult("ok");
+        writeBehind.updateResult(2L, goodResult);
+
+        writeBehind.flush();
+
+        written.sort(Comparator.comparing(ChatQueryDO::getQuestionId));
+        Assertions.assertEquals(2, written.size());
+        Assertions.assertNull(written.get(0).getQueryResult());
+        Assertions.assertEquals(1, written.get(0).getQueryState());
+        Assertions.assertTrue(written.get(1).getQueryResult().contains("ok"));
+        Assertions.assertNull(writeBehind.getPendingResult(1L));
+        Assertions.assertNull(writeBehind.getPendingResult(2L));
+    }
+
+    private static class Unserializable {
+
+        public String getValue() {
+            throw new IllegalStateException("can not be serialized");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.tencent.supersonic.chat.server.util;
+
+import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.common.util.JsonUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class QueryResultCodecTest {
+
+    @Test
+    void capsAndCompressesLargeResults() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(Map.of("department", "HR", "pv", i));
+        }
+        QueryResult queryResult = new QueryResult();
+        queryResult.setQuerySql("SELECT department, pv FROM t");
+        queryResult.setQueryResults(rows);
+
+        String stored = QueryResultCodec.encode(queryResult, 100, 1024);
+        Assertions.assertTrue(stored.startsWith("gzip:"));
+        QueryResult decoded = JsonUtil.toObject(QueryResultCodec.decode(stored), QueryResult.class);
+        Assertions.assertEquals(100, decoded.getQueryResults().size());
+        Assertions.assertEquals(queryResult.getQuerySql(), decoded.getQuerySql());
+        Assertions.assertEquals(500, queryResult.getQueryResults().size());
+    }
+
+    @Test
+    void keepsSmallResultsAsJson() {
+        QueryResult queryResult = new QueryResult();
+        queryResult.setTextResult("ok");
+
+        String stored = QueryResultCodec.encode(queryResult, 100, 1024);
+        Assertions.assertEquals(JsonUtil.toString(queryResult), stored);
+        Assertions.assertEquals(stored, QueryResultCodec.decode(stored));
+        Assertions.assertEquals("{}", QueryResultCodec.decode("{}"));
+    }
+}
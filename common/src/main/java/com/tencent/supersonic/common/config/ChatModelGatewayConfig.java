@@ -0,0 +1,45 @@
+package com.tencent.supersonic.common.config;
+
+import dev.langchain4j.provider.ChatModelGateway;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Data
+public class ChatModelGatewayConfig {
+
+    @Value("${s2.llm.gateway.enable:true}")
+    private boolean enable = true;
+
+    /** calls per second of each model, 0 means no limit */
+    @Value("${s2.llm.gateway.rate.limit:0}")
+    private double rateLimit;
+
+    /** concurrent calls of each model, 0 means no limit */
+    @Value("${s2.llm.gateway.max.concurrency:0}")
+    private int maxConcurrency;
+
+    @Value("${s2.llm.gateway.acquire.timeout.seconds:60}")
+    private long acquireTimeoutSeconds = 60;
+
+    /** caches the responses of calls with temperature 0 by their exact prompt */
+    @Value("${s2.llm.gateway.cache.enable:true}")
+    private boolean cacheEnable = true;
+
+    @Value("${s2.llm.gateway.cache.size:1000}")
+    private long cacheSize = 1000;
+
+    @Value("${s2.llm.gateway.cache.ttl.minutes:60}")
+    private long cacheTtlMinutes = 60;
+
+    /** prices per 1k tokens, e.g. gpt-4o-mini:0.00015:0.0006,deepseek-chat:0.00014:0.00028 */
+    @Value("${s2.llm.gateway.prices:}")
+    private String prices;
+
+    @PostConstruct
+    public void init() {
+        ChatModelGateway.init(this);
+    }
+}
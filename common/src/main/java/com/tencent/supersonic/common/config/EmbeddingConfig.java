@@ -29,6 +29,9 @@ public class EmbeddingConfig {
     @Value("${s2.embedding.metric.analyzeQuery.nResult:5}")
     private int metricAnalyzeQueryResultNum;
 
+    @Value("${s2.embedding.batch.size:16}")
+    private int batchSize;
+
     public String getMemoryCollectionName(Integer agentId) {
         return memoryCollectionPrefix + agentId;
     }
@@ -1,44 +1,68 @@
 package com.tencent.supersonic.common.config;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.common.executor.Bulkhead;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * One bulkhead per kind of work, sized by s2.executor.[name].core, .max and .queue, so that a slow
+ * database or model does not take the threads of the other work.
+ */
 @Component
 public class ThreadPoolConfig {
 
+    /** the pool sizes still bound the concurrency on virtual threads */
+    @Value("${s2.executor.virtual.enable:false}")
+    private boolean virtualEnable;
+
+    @Autowired
+    private Environment environment;
+
+    /** events and data sync */
     @Bean("eventExecutor")
     public ThreadPoolExecutor getTaskEventExecutor() {
-        return new ThreadPoolExecutor(4, 8, 60 * 3, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(1024),
-                new ThreadFactoryBuilder().setNameFormat("supersonic-event-pool-").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+        return bulkhead("event", 4, 8, 1024);
     }
 
     @Bean("commonExecutor")
     public ThreadPoolExecutor getCommonExecutor() {
-        return new ThreadPoolExecutor(8, 16, 60 * 3, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(1024),
-                new ThreadFactoryBuilder().setNameFormat("supersonic-common-pool-").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+        return bulkhead("common", 8, 16, 1024);
     }
 
+    /** match strategies of the mappers */
     @Bean("mapExecutor")
     public ThreadPoolExecutor getMapExecutor() {
-        return new ThreadPoolExecutor(8, 16, 60 * 3, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
-                new ThreadFactoryBuilder().setNameFormat("supersonic-map-pool-").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+        return bulkhead("map", 8, 16, 1024);
     }
 
     @Bean("chatExecutor")
     public ThreadPoolExecutor getChatExecutor() {
-        return new ThreadPoolExecutor(8, 16, 60 * 3, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(1024),
-                new ThreadFactoryBuilder().setNameFormat("supersonic-chat-pool-").build(),
-                new ThreadPoolExecutor.CallerRunsPolicy());
+        return bulkhead("chat", 8, 16, 1024);
+    }
+
+    /** semantic queries run beside the query of a request */
+    @Bean("queryExecutor")
+    public ThreadPoolExecutor getQueryExecutor() {
+        return bulkhead("query", 8, 16, 1024);
+    }
+
+    /** concurrent calls of the chat models */
+    @Bean("llmExecutor")
+    public ThreadPoolExecutor getLlmExecutor() {
+        return bulkhead("llm", 8, 16, 256);
+    }
+
+    private Bulkhead bulkhead(String name, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        String prefix = "s2.executor." + name;
+        return new Bulkhead(name,
+                environment.getProperty(prefix + ".core", Integer.class, corePoolSize),
+                environment.getProperty(prefix + ".max", Integer.class, maxPoolSize),
+                environment.getProperty(prefix + ".queue", Integer.class, queueCapacity),
+                virtualEnable);
     }
 }
@@ -0,0 +1,59 @@
+package com.tencent.supersonic.common.config;
+
+import com.tencent.supersonic.common.trace.FileTraceExporter;
+import com.tencent.supersonic.common.trace.OtlpTraceExporter;
+import com.tencent.supersonic.common.trace.TraceExporter;
+import com.tencent.supersonic.common.trace.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Data
+@Slf4j
+public class TraceConfig {
+
+    @Value("${s2.trace.enable:false}")
+    private boolean enable;
+
+    /** file or otlp */
+    @Value("${s2.trace.exporter:file}")
+    private String exporter;
+
+    @Value("${s2.trace.file:logs/s2-trace.jsonl}")
+    private String file;
+
+    @Value("${s2.trace.otlp.endpoint:http://localhost:4318/v1/traces}")
+    private String otlpEndpoint;
+
+    @Value("${s2.trace.sample.ratio:1.0}")
+    private double sampleRatio;
+
+    /** renders request and context payloads into the spans, costly on large contexts */
+    @Value("${s2.trace.payload.enable:false}")
+    private boolean payloadEnable;
+
+    @PostConstruct
+    public void init() {
+        if (!enable) {
+            return;
+        }
+        try {
+            TraceExporter traceExporter =
+                    "otlp".equalsIgnoreCase(exporter) ? new OtlpTraceExporter(otlpEndpoint)
+                            : new FileTraceExporter(file);
+            Tracer.init(traceExporter, sampleRatio, payloadEnable);
+            log.info("tracing enabled, exporter:{}, sample ratio:{}", exporter, sampleRatio);
+        } catch (Exception e) {
+            log.error("failed to enable tracing", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        Tracer.shutdown();
+    }
+}
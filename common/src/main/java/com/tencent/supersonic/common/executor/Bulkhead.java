@@ -0,0 +1,116 @@
+package com.tencent.supersonic.common.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.common.pojo.ExecutorStat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named pool for one kind of work. The queue is bounded and a task finding the pool full runs on
+ * the submitting thread, so a burst slows its callers down instead of piling up. Idle threads time
+ * out, core threads included. Every task runs with the context of the thread submitting it, see
+ * {@link TaskContext}. The pools register by name until they terminate, for {@link #getStats()}.
+ */
+@Slf4j
+public class Bulkhead extends ThreadPoolExecutor {
+
+    private static final Map<String, Bulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final int queueCapacity;
+
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    private final AtomicInteger peakActiveCount = new AtomicInteger();
+
+    public Bulkhead(String name, int corePoolSize, int maxPoolSize, int queueCapacity,
+            boolean virtualThreads) {
+        super(corePoolSize, maxPoolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory(name, virtualThreads));
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        setRejectedExecutionHandler(this::runOnCaller);
+        allowCoreThreadTimeOut(true);
+        BULKHEADS.put(name, this);
+    }
+
+    public static Bulkhead of(String name, int poolSize, int queueCapacity) {
+        return new Bulkhead(name, poolSize, poolSize, queueCapacity, false);
+    }
+
+    public static List<ExecutorStat> getStats() {
+        List<ExecutorStat> stats = new ArrayList<>();
+        BULKHEADS.values().forEach(bulkhead -> stats.add(bulkhead.getStat()));
+        stats.sort(Comparator.comparing(ExecutorStat::getName));
+        return stats;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(TaskContext.capture().wrap(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        peakActiveCount.accumulateAndGet(getActiveCount(), Math::max);
+    }
+
+    @Override
+    protected void terminated() {
+        BULKHEADS.remove(name, this);
+    }
+
+    public ExecutorStat getStat() {
+        ExecutorStat stat = new ExecutorStat();
+        stat.setName(name);
+        stat.setCorePoolSize(getCorePoolSize());
+        stat.setMaxPoolSize(getMaximumPoolSize());
+        stat.setPoolSize(getPoolSize());
+        stat.setActiveCount(getActiveCount());
+        stat.setPeakActiveCount(peakActiveCount.get());
+        stat.setQueueSize(getQueue().size());
+        stat.setQueueCapacity(queueCapacity);
+        stat.setCompletedTaskCount(getCompletedTaskCount());
+        stat.setCallerRunsCount(callerRunsCount.sum());
+        stat.setSaturation((double) (stat.getActiveCount() + stat.getQueueSize())
+                / (stat.getMaxPoolSize() + queueCapacity));
+        return stat;
+    }
+
+    private void runOnCaller(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("executor " + name + " is shut down");
+        }
+        callerRunsCount.increment();
+        // log the first of every thousand
+        if (callerRunsCount.sum() % 1000 == 1) {
+            log.warn("executor {} is full, tasks run on their callers, count:{}", name,
+                    callerRunsCount.sum());
+        }
+        task.run();
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name("supersonic-" + name + "-", 0).factory();
+        }
+        return new ThreadFactoryBuilder().setNameFormat("supersonic-" + name + "-%d").build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.tencent.supersonic.common.executor;
+
+import com.tencent.supersonic.common.pojo.ExecutorStat;
+
+import java.util.List;
+
+/** Background workers other than bulkheads, listed with the bulkheads by the executor stats. */
+public interface ExecutorStatProvider {
+
+    List<ExecutorStat> getExecutorStats();
+}
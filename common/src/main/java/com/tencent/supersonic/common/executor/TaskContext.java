@@ -0,0 +1,60 @@
+package com.tencent.supersonic.common.executor;
+
+import com.alibaba.ttl.TransmittableThreadLocal.Transmitter;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
+import com.tencent.supersonic.common.util.ThreadMdcUtil;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The context a thread hands to the tasks it submits: the MDC with the trace id, the current trace
+ * span and the transmittable thread locals, such as the stats of the running query. The context of
+ * the thread running the task is restored afterwards, which matters when a full pool runs the task
+ * on the submitting thread.
+ */
+public class TaskContext {
+
+    private final Map<String, String> mdc;
+
+    private final TraceSpan span;
+
+    private final Object transmittables;
+
+    private TaskContext(Map<String, String> mdc, TraceSpan span, Object transmittables) {
+        this.mdc = mdc;
+        this.span = span;
+        this.transmittables = transmittables;
+    }
+
+    public static TaskContext capture() {
+        return new TaskContext(MDC.getCopyOfContextMap(), Tracer.current(), Transmitter.capture());
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            ThreadMdcUtil.setTraceIdIfAbsent();
+            TraceSpan previousSpan = Tracer.attach(span);
+            Object previousTransmittables = Transmitter.replay(transmittables);
+            try {
+                task.run();
+            } finally {
+                Transmitter.restore(previousTransmittables);
+                Tracer.attach(previousSpan);
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (Objects.isNull(context)) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
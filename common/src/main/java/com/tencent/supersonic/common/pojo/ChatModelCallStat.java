@@ -0,0 +1,29 @@
+package com.tencent.supersonic.common.pojo;
+
+import lombok.Data;
+
+@Data
+public class ChatModelCallStat {
+
+    private String appKey;
+
+    /** calls answered by the models, failed, rejected and cached calls excluded */
+    private long callCount;
+
+    private long errorCount;
+
+    /** calls rejected by the rate or concurrency limit of their model */
+    private long rejectedCount;
+
+    private long cacheHitCount;
+
+    private double avgLatencyMs;
+
+    private long maxLatencyMs;
+
+    private long inputTokens;
+
+    private long outputTokens;
+
+    private double cost;
+}
@@ -0,0 +1,20 @@
+package com.tencent.supersonic.common.pojo;
+
+import com.tencent.supersonic.common.pojo.enums.EventType;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published after a chat model is added, updated or deleted. */
+@Getter
+public class ChatModelEvent extends ApplicationEvent {
+
+    private final Integer chatModelId;
+
+    private final EventType eventType;
+
+    public ChatModelEvent(Object source, Integer chatModelId, EventType eventType) {
+        super(source);
+        this.chatModelId = chatModelId;
+        this.eventType = eventType;
+    }
+}
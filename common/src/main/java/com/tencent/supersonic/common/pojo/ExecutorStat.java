@@ -0,0 +1,37 @@
+package com.tencent.supersonic.common.pojo;
+
+import lombok.Data;
+
+@Data
+public class ExecutorStat {
+
+    private String name;
+
+    private int corePoolSize;
+
+    private int maxPoolSize;
+
+    private int poolSize;
+
+    private int activeCount;
+
+    private int peakActiveCount;
+
+    private int queueSize;
+
+    private int queueCapacity;
+
+    private long completedTaskCount;
+
+    /** tasks run on the submitting thread because the threads and the queue were full */
+    private long callerRunsCount;
+
+    /** tasks discarded because the queue was full */
+    private long droppedCount;
+
+    /** tasks that ended with an error */
+    private long failedTaskCount;
+
+    /** busy threads and queued tasks over the threads and queue capacity */
+    private double saturation;
+}
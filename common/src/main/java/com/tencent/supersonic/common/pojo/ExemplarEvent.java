@@ -0,0 +1,20 @@
+package com.tencent.supersonic.common.pojo;
+
+import com.tencent.supersonic.common.pojo.enums.EventType;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published after a text2sql exemplar is stored into or removed from a collection. */
+@Getter
+public class ExemplarEvent extends ApplicationEvent {
+
+    private final String collection;
+
+    private final EventType eventType;
+
+    public ExemplarEvent(Object source, String collection, EventType eventType) {
+        super(source);
+        this.collection = collection;
+        this.eventType = eventType;
+    }
+}
@@ -0,0 +1,29 @@
+package com.tencent.supersonic.common.rest;
+
+import com.tencent.supersonic.common.executor.Bulkhead;
+import com.tencent.supersonic.common.executor.ExecutorStatProvider;
+import com.tencent.supersonic.common.pojo.ExecutorStat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping({"/api/semantic/executor"})
+public class ExecutorController {
+
+    @Autowired(required = false)
+    private List<ExecutorStatProvider> statProviders = new ArrayList<>();
+
+    @GetMapping("/stats")
+    public List<ExecutorStat> getStats() {
+        List<ExecutorStat> stats = Bulkhead.getStats();
+        statProviders.forEach(provider -> stats.addAll(provider.getExecutorStats()));
+        stats.sort(Comparator.comparing(ExecutorStat::getName));
+        return stats;
+    }
+}
@@ -19,5 +19,9 @@ public interface EmbeddingService {
     List<RetrieveQueryResult> retrieveQuery(String collectionName, RetrieveQuery retrieveQuery,
             int num);
 
+    /** retrieves the top num matches of each query text across the given collections */
+    List<RetrieveQueryResult> retrieveQuery(List<String> collectionNames,
+            RetrieveQuery retrieveQuery, int num);
+
     void removeAll();
 }
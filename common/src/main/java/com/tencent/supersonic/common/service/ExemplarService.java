@@ -7,11 +7,16 @@ import java.util.List;
 public interface ExemplarService {
     void storeExemplar(String collection, Text2SQLExemplar exemplar);
 
+    void storeExemplars(String collection, List<Text2SQLExemplar> exemplars);
+
     void removeExemplar(String collection, Text2SQLExemplar exemplar);
 
     List<Text2SQLExemplar> recallExemplars(String collection, String query, int num);
 
     List<Text2SQLExemplar> recallExemplars(String query, int num);
 
+    /** recalls the top num exemplars across the collections, most similar first */
+    List<Text2SQLExemplar> recallExemplars(List<String> collections, String query, int num);
+
     void loadSysExemplars();
 }
@@ -6,12 +6,16 @@ import com.tencent.supersonic.common.config.ChatModel;
 import com.tencent.supersonic.common.persistence.dataobject.ChatModelDO;
 import com.tencent.supersonic.common.persistence.mapper.ChatModelMapper;
 import com.tencent.supersonic.common.pojo.ChatModelConfig;
+import com.tencent.supersonic.common.pojo.ChatModelEvent;
 import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.enums.EventType;
 import com.tencent.supersonic.common.service.ChatModelService;
 import com.tencent.supersonic.common.util.JsonUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Comparator;
@@ -23,6 +27,10 @@ import java.util.stream.Collectors;
 @Service
 public class ChatModelServiceImpl extends ServiceImpl<ChatModelMapper, ChatModelDO>
         implements ChatModelService {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public List<ChatModel> getChatModels(User user) {
         return list().stream().map(this::convert).filter(chatModel -> {
@@ -59,6 +67,7 @@ public class ChatModelServiceImpl extends ServiceImpl<ChatModelMapper, ChatModel
         }
         save(chatModelDO);
         chatModel.setId(chatModelDO.getId());
+        eventPublisher.publishEvent(new ChatModelEvent(this, chatModel.getId(), EventType.ADD));
         return chatModel;
     }
 
@@ -75,6 +84,7 @@ public class ChatModelServiceImpl extends ServiceImpl<ChatModelMapper, ChatModel
             chatModelDO.setViewer(JsonUtil.toString(chatModel.getViewers()));
         }
         updateById(chatModelDO);
+        eventPublisher.publishEvent(new ChatModelEvent(this, chatModel.getId(), EventType.UPDATE));
         return chatModel;
     }
 
@@ -86,6 +96,7 @@ public class ChatModelServiceImpl extends ServiceImpl<ChatModelMapper, ChatModel
         }
 
         removeById(id);
+        eventPublisher.publishEvent(new ChatModelEvent(this, id, EventType.DELETE));
     }
 
     private ChatModel convert(ChatModelDO chatModelDO) {
@@ -1,8 +1,14 @@
 package com.tencent.supersonic.common.service.impl;
 
+import com.google.common.base.Suppliers;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.config.EmbeddingConfig;
+import com.tencent.supersonic.common.config.EmbeddingModelParameterConfig;
+import com.tencent.supersonic.common.pojo.EmbeddingModelConfig;
 import com.tencent.supersonic.common.service.EmbeddingService;
+import com.tencent.supersonic.common.util.JsonUtil;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
@@ -12,6 +18,7 @@ import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreFactory;
 import dev.langchain4j.store.embedding.EmbeddingStoreFactoryProvider;
 import dev.langchain4j.store.embedding.Retrieval;
 import dev.langchain4j.store.embedding.RetrieveQuery;
@@ -20,43 +27,88 @@ import dev.langchain4j.store.embedding.TextSegmentConvert;
 import dev.langchain4j.store.embedding.filter.Filter;
 import dev.langchain4j.store.embedding.filter.MetadataFilterBuilder;
 import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class EmbeddingServiceImpl implements EmbeddingService {
 
+    /** segments already stored with the same content hash are not embedded again */
+    private static final String CONTENT_HASH = "contentHash";
+
     private Cache<String, Boolean> cache = CacheBuilder.newBuilder().maximumSize(10000)
             .expireAfterWrite(10, TimeUnit.HOURS).build();
 
+    /** embeddings of retrieved texts by model, shared by the mappers and the exemplar recall */
+    private final Cache<String, Embedding> queryEmbeddingCache = CacheBuilder.newBuilder()
+            .maximumSize(10000).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+    /** content hashes of the stored segments by collection and query id */
+    private final Map<String, Map<String, String>> contentHashes = new ConcurrentHashMap<>();
+
+    @Autowired
+    private EmbeddingConfig embeddingConfig;
+
+    @Autowired
+    private EmbeddingModelParameterConfig embeddingModelParameterConfig;
+
     @Override
     public void addQuery(String collectionName, List<TextSegment> queries) {
-        EmbeddingStore embeddingStore =
+        EmbeddingStore<TextSegment> embeddingStore =
                 EmbeddingStoreFactoryProvider.getFactory().create(collectionName);
+        EmbeddingModelConfig modelConfig = embeddingModelParameterConfig.convert();
+        String modelKey = getModelKey(modelConfig);
+        Map<String, String> storedHashes = getContentHashes(collectionName, embeddingStore);
+        List<TextSegment> changedQueries = new ArrayList<>();
         for (TextSegment query : queries) {
-            String question = query.text();
+            String contentHash = getContentHash(modelKey, query);
+            String queryId = TextSegmentConvert.getQueryId(query);
+            if (Objects.nonNull(queryId) && contentHash.equals(storedHashes.get(queryId))) {
+                continue;
+            }
+            query.metadata().put(CONTENT_HASH, contentHash);
+            changedQueries.add(query);
+        }
+        if (CollectionUtils.isEmpty(changedQueries)) {
+            return;
+        }
+        EmbeddingModel embeddingModel = ModelProvider.getEmbeddingModel(modelConfig);
+        for (List<TextSegment> batch : Lists.partition(changedQueries,
+                Math.max(1, embeddingConfig.getBatchSize()))) {
             try {
-                EmbeddingModel embeddingModel = ModelProvider.getEmbeddingModel();
-                Embedding embedding = embeddingModel.embed(question).content();
-                MetadataFilterBuilder filterBuilder =
-                        new MetadataFilterBuilder(TextSegmentConvert.QUERY_ID);
-                Filter filter = filterBuilder.isEqualTo(TextSegmentConvert.getQueryId(query));
-                embeddingStore.removeAll(filter);
-                embeddingStore.add(embedding, query);
-                cache.put(TextSegmentConvert.getQueryId(query), true);
+                List<Embedding> embeddings = embeddingModel.embedAll(batch).content();
+                for (int i = 0; i < batch.size(); i++) {
+                    TextSegment query = batch.get(i);
+                    String queryId = TextSegmentConvert.getQueryId(query);
+                    MetadataFilterBuilder filterBuilder =
+                            new MetadataFilterBuilder(TextSegmentConvert.QUERY_ID);
+                    Filter filter = filterBuilder.isEqualTo(queryId);
+                    embeddingStore.removeAll(filter);
+                    embeddingStore.add(embeddings.get(i), query);
+                    cache.put(queryId, true);
+                    storedHashes.put(queryId, query.metadata().getString(CONTENT_HASH));
+                }
             } catch (Exception e) {
-                log.error("embeddingModel embed error question: {}, embeddingStore: {}", question,
+                log.error("embeddingModel embed error questions: {}, embeddingStore: {}",
+                        batch.stream().map(TextSegment::text).collect(Collectors.toList()),
                         embeddingStore.getClass().getSimpleName(), e);
             }
         }
@@ -101,6 +153,10 @@ public class EmbeddingServiceImpl implements EmbeddingService {
                 Filter filter = filterBuilder.isIn(queryIds);
                 embeddingStore.removeAll(filter);
                 queryIds.stream().forEach(queryId -> cache.put(queryId, false));
+                Map<String, String> storedHashes = contentHashes.get(collectionName);
+                if (Objects.nonNull(storedHashes)) {
+                    queryIds.forEach(storedHashes::remove);
+                }
             }
 
         } catch (Exception e) {
@@ -113,12 +169,52 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             RetrieveQuery retrieveQuery, int num) {
         EmbeddingStore embeddingStore =
                 EmbeddingStoreFactoryProvider.getFactory().create(collectionName);
-        EmbeddingModel embeddingModel = ModelProvider.getEmbeddingModel();
+        EmbeddingModelConfig modelConfig = embeddingModelParameterConfig.convert();
+        Supplier<EmbeddingModel> embeddingModel =
+                Suppliers.memoize(() -> ModelProvider.getEmbeddingModel(modelConfig));
+        String modelKey = getModelKey(modelConfig);
         Map<String, Object> filterCondition = retrieveQuery.getFilterCondition();
-        return retrieveQuery
-                .getQueryTextsList().stream().map(queryText -> retrieveSingleQuery(queryText,
-                        embeddingModel, embeddingStore, filterCondition, num))
+        return retrieveQuery.getQueryTextsList().stream()
+                .map(queryText -> retrieveSingleQuery(queryText,
+                        embedQuery(embeddingModel, modelKey, queryText), embeddingStore,
+                        filterCondition, num))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<RetrieveQueryResult> retrieveQuery(List<String> collectionNames,
+            RetrieveQuery retrieveQuery, int num) {
+        EmbeddingStoreFactory factory = EmbeddingStoreFactoryProvider.getFactory();
+        // collections known to be empty are left out, so no query is embedded for nothing
+        List<EmbeddingStore<TextSegment>> embeddingStores = collectionNames.stream().distinct()
+                .map(collectionName -> (EmbeddingStore<TextSegment>) factory.create(collectionName))
+                .filter(embeddingStore -> !(embeddingStore instanceof InMemoryEmbeddingStore)
+                        || !((InMemoryEmbeddingStore<TextSegment>) embeddingStore).entries
+                                .isEmpty())
                 .collect(Collectors.toList());
+        EmbeddingModelConfig modelConfig = embeddingModelParameterConfig.convert();
+        Supplier<EmbeddingModel> embeddingModel =
+                Suppliers.memoize(() -> ModelProvider.getEmbeddingModel(modelConfig));
+        String modelKey = getModelKey(modelConfig);
+        Filter filter = createCombinedFilter(retrieveQuery.getFilterCondition());
+        return retrieveQuery.getQueryTextsList().stream().map(queryText -> {
+            List<Retrieval> retrievals = new ArrayList<>();
+            if (CollectionUtils.isNotEmpty(embeddingStores)) {
+                EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                        .queryEmbedding(embedQuery(embeddingModel, modelKey, queryText))
+                        .filter(filter).maxResults(num).build();
+                retrievals = embeddingStores.stream()
+                        .flatMap(
+                                embeddingStore -> embeddingStore.search(request).matches().stream())
+                        .map(this::convertToRetrieval)
+                        .sorted(Comparator.comparingDouble(Retrieval::getSimilarity).reversed())
+                        .limit(num).collect(Collectors.toList());
+            }
+            RetrieveQueryResult retrieveQueryResult = new RetrieveQueryResult();
+            retrieveQueryResult.setQuery(queryText);
+            retrieveQueryResult.setRetrieval(retrievals);
+            return retrieveQueryResult;
+        }).collect(Collectors.toList());
     }
 
     @Override
@@ -131,11 +227,11 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             embeddingStore.removeAll();
         }
         cache.invalidateAll();
+        contentHashes.clear();
     }
 
-    private RetrieveQueryResult retrieveSingleQuery(String queryText, EmbeddingModel embeddingModel,
+    private RetrieveQueryResult retrieveSingleQuery(String queryText, Embedding embeddedText,
             EmbeddingStore embeddingStore, Map<String, Object> filterCondition, int num) {
-        Embedding embeddedText = embeddingModel.embed(queryText).content();
         Filter filter = createCombinedFilter(filterCondition);
         EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
                 .queryEmbedding(embeddedText).filter(filter).maxResults(num).build();
@@ -151,6 +247,47 @@ public class EmbeddingServiceImpl implements EmbeddingService {
         return retrieveQueryResult;
     }
 
+    private Embedding embedQuery(Supplier<EmbeddingModel> embeddingModel, String modelKey,
+            String queryText) {
+        String key = modelKey + "|" + queryText;
+        Embedding embedding = queryEmbeddingCache.getIfPresent(key);
+        if (Objects.isNull(embedding)) {
+            embedding = embeddingModel.get().embed(queryText).content();
+            queryEmbeddingCache.put(key, embedding);
+        }
+        return embedding;
+    }
+
+    /** the stored content hashes of a collection, read from the store on first use */
+    private Map<String, String> getContentHashes(String collectionName,
+            EmbeddingStore<TextSegment> embeddingStore) {
+        return contentHashes.computeIfAbsent(collectionName, name -> {
+            Map<String, String> storedHashes = new ConcurrentHashMap<>();
+            if (embeddingStore instanceof InMemoryEmbeddingStore) {
+                ((InMemoryEmbeddingStore<TextSegment>) embeddingStore).getAllEmbedded()
+                        .forEach(segment -> {
+                            String queryId = TextSegmentConvert.getQueryId(segment);
+                            String contentHash = segment.metadata().getString(CONTENT_HASH);
+                            if (Objects.nonNull(queryId) && Objects.nonNull(contentHash)) {
+                                storedHashes.put(queryId, contentHash);
+                            }
+                        });
+            }
+            return storedHashes;
+        });
+    }
+
+    private static String getContentHash(String modelKey, TextSegment query) {
+        Map<String, Object> metadata = new TreeMap<>(query.metadata().toMap());
+        metadata.remove(CONTENT_HASH);
+        return DigestUtils
+                .md5Hex(modelKey + "|" + query.text() + "|" + JsonUtil.toString(metadata));
+    }
+
+    private static String getModelKey(EmbeddingModelConfig modelConfig) {
+        return DigestUtils.md5Hex(JsonUtil.toString(modelConfig));
+    }
+
     private Retrieval convertToRetrieval(EmbeddingMatch<TextSegment> embeddingMatch) {
         Retrieval retrieval = new Retrieval();
         TextSegment embedded = embeddingMatch.embedded();
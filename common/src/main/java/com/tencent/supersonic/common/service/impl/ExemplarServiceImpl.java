@@ -4,7 +4,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.config.EmbeddingConfig;
+import com.tencent.supersonic.common.pojo.ExemplarEvent;
 import com.tencent.supersonic.common.pojo.Text2SQLExemplar;
+import com.tencent.supersonic.common.pojo.enums.EventType;
 import com.tencent.supersonic.common.service.EmbeddingService;
 import com.tencent.supersonic.common.service.ExemplarService;
 import com.tencent.supersonic.common.util.JsonUtil;
@@ -14,14 +16,20 @@ import dev.langchain4j.store.embedding.RetrieveQuery;
 import dev.langchain4j.store.embedding.RetrieveQueryResult;
 import dev.langchain4j.store.embedding.TextSegmentConvert;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -41,13 +49,27 @@ public class ExemplarServiceImpl implements ExemplarService, CommandLineRunner {
     @Autowired
     private EmbeddingService embeddingService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public void storeExemplar(String collection, Text2SQLExemplar exemplar) {
-        Metadata metadata = Metadata
-                .from(JsonUtil.toMap(JsonUtil.toString(exemplar), String.class, Object.class));
-        TextSegment segment = TextSegment.from(exemplar.getQuestion(), metadata);
-        TextSegmentConvert.addQueryId(segment, exemplar.getQuestion());
+        storeExemplars(collection, Lists.newArrayList(exemplar));
+    }
 
-        embeddingService.addQuery(collection, Lists.newArrayList(segment));
+    public void storeExemplars(String collection, List<Text2SQLExemplar> exemplars) {
+        if (CollectionUtils.isEmpty(exemplars)) {
+            return;
+        }
+        List<TextSegment> segments = exemplars.stream().map(exemplar -> {
+            Metadata metadata = Metadata
+                    .from(JsonUtil.toMap(JsonUtil.toString(exemplar), String.class, Object.class));
+            TextSegment segment = TextSegment.from(exemplar.getQuestion(), metadata);
+            TextSegmentConvert.addQueryId(segment, exemplar.getQuestion());
+            return segment;
+        }).collect(Collectors.toList());
+
+        embeddingService.addQuery(collection, segments);
+        eventPublisher.publishEvent(new ExemplarEvent(this, collection, EventType.ADD));
     }
 
     public void removeExemplar(String collection, Text2SQLExemplar exemplar) {
@@ -57,6 +79,7 @@ public class ExemplarServiceImpl implements ExemplarService, CommandLineRunner {
         TextSegmentConvert.addQueryId(segment, exemplar.getQuestion());
 
         embeddingService.deleteQuery(collection, Lists.newArrayList(segment));
+        eventPublisher.publishEvent(new ExemplarEvent(this, collection, EventType.DELETE));
     }
 
     public List<Text2SQLExemplar> recallExemplars(String query, int num) {
@@ -68,11 +91,26 @@ public class ExemplarServiceImpl implements ExemplarService, CommandLineRunner {
         if (num <= 0) {
             return Lists.newArrayList();
         }
-        List<Text2SQLExemplar> exemplars = Lists.newArrayList();
         RetrieveQuery retrieveQuery =
                 RetrieveQuery.builder().queryTextsList(Lists.newArrayList(query)).build();
-        List<RetrieveQueryResult> results =
-                embeddingService.retrieveQuery(collection, retrieveQuery, num);
+        return toExemplars(embeddingService.retrieveQuery(collection, retrieveQuery, num));
+    }
+
+    public List<Text2SQLExemplar> recallExemplars(List<String> collections, String query, int num) {
+        if (num <= 0) {
+            return Lists.newArrayList();
+        }
+        RetrieveQuery retrieveQuery =
+                RetrieveQuery.builder().queryTextsList(Lists.newArrayList(query)).build();
+        // the same question may be stored in several collections, keep the most similar one
+        Map<String, Text2SQLExemplar> exemplars = new LinkedHashMap<>();
+        toExemplars(embeddingService.retrieveQuery(collections, retrieveQuery, num))
+                .forEach(exemplar -> exemplars.putIfAbsent(exemplar.getQuestion(), exemplar));
+        return new ArrayList<>(exemplars.values());
+    }
+
+    private List<Text2SQLExemplar> toExemplars(List<RetrieveQueryResult> results) {
+        List<Text2SQLExemplar> exemplars = Lists.newArrayList();
         results.forEach(ret -> {
             ret.getRetrieval().forEach(r -> {
                 Text2SQLExemplar tmp = // 传递相似度，可以作为样本筛选的依据
@@ -96,7 +134,7 @@ public class ExemplarServiceImpl implements ExemplarService, CommandLineRunner {
             InputStream inputStream = resource.getInputStream();
             List<Text2SQLExemplar> exemplars = objectMapper.readValue(inputStream, valueTypeRef);
             String collection = embeddingConfig.getText2sqlCollectionName();
-            exemplars.stream().forEach(e -> storeExemplar(collection, e));
+            storeExemplars(collection, exemplars);
         } catch (Exception e) {
             log.error("Failed to load system exemplars", e);
         }
@@ -0,0 +1,70 @@
+package com.tencent.supersonic.common.trace;
+
+import com.tencent.supersonic.common.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/** Appends every trace as a line of json to a local file. */
+@Slf4j
+public class FileTraceExporter implements TraceExporter {
+
+    private final BufferedWriter writer;
+
+    public FileTraceExporter(String file) throws IOException {
+        Path path = Paths.get(file);
+        if (Objects.nonNull(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void export(List<TraceSpan> spans) throws IOException {
+        TraceSpan root = spans.get(spans.size() - 1);
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceId", root.getTraceId());
+        trace.put("name", root.getName());
+        trace.put("startTime", root.getStartEpochNanos() / 1_000_000L);
+        trace.put("durationMs", root.getDurationNanos() / 1_000_000.0);
+        trace.put("spans", spans.stream().map(this::toMap).collect(Collectors.toList()));
+        writer.write(JsonUtil.toString(trace));
+        writer.newLine();
+        writer.flush();
+    }
+
+    private Map<String, Object> toMap(TraceSpan span) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("spanId", span.getSpanId());
+        map.put("parentSpanId", span.getParentSpanId());
+        map.put("name", span.getName());
+        map.put("startTime", span.getStartEpochNanos() / 1_000_000L);
+        map.put("durationMs", span.getDurationNanos() / 1_000_000.0);
+        map.put("attributes", span.getAttributes());
+        if (Objects.nonNull(span.getErrorMsg())) {
+            map.put("error", span.getErrorMsg());
+        }
+        return map;
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("failed to close trace file", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.tencent.supersonic.common.trace;
+
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.util.JsonUtil;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/** Posts the traces as OTLP/HTTP json to a collector, usually one running locally. */
+public class OtlpTraceExporter implements TraceExporter {
+
+    private static final String SERVICE_NAME = "supersonic";
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+
+    private static final int STATUS_CODE_ERROR = 2;
+
+    private final URI endpoint;
+
+    private final HttpClient httpClient =
+            HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public OtlpTraceExporter(String endpoint) {
+        this.endpoint = URI.create(endpoint);
+    }
+
+    @Override
+    public void export(List<TraceSpan> spans) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpoint).timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(spans))).build();
+        HttpResponse<String> response =
+                httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(
+                    "collector responded " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    static String toJson(List<TraceSpan> spans) {
+        Map<String, Object> resource = new LinkedHashMap<>();
+        resource.put("attributes", Lists.newArrayList(attribute("service.name", SERVICE_NAME)));
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", SERVICE_NAME));
+        scopeSpans.put("spans",
+                spans.stream().map(OtlpTraceExporter::toSpan).collect(Collectors.toList()));
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", resource);
+        resourceSpans.put("scopeSpans", Lists.newArrayList(scopeSpans));
+        return JsonUtil.toString(Map.of("resourceSpans", Lists.newArrayList(resourceSpans)));
+    }
+
+    private static Map<String, Object> toSpan(TraceSpan span) {
+        Map<String, Object> otlpSpan = new LinkedHashMap<>();
+        otlpSpan.put("traceId", span.getTraceId());
+        otlpSpan.put("spanId", span.getSpanId());
+        if (Objects.nonNull(span.getParentSpanId())) {
+            otlpSpan.put("parentSpanId", span.getParentSpanId());
+        }
+        otlpSpan.put("name", span.getName());
+        otlpSpan.put("kind", SPAN_KIND_INTERNAL);
+        otlpSpan.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+        otlpSpan.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+        otlpSpan.put("attributes",
+                span.getAttributes().entrySet().stream()
+                        .map(entry -> attribute(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList()));
+        if (Objects.nonNull(span.getErrorMsg())) {
+            otlpSpan.put("status",
+                    Map.of("code", STATUS_CODE_ERROR, "message", span.getErrorMsg()));
+        }
+        return otlpSpan;
+    }
+
+    private static Map<String, Object> attribute(String key, Object value) {
+        Map<String, Object> attributeValue = new LinkedHashMap<>();
+        if (value instanceof Boolean) {
+            attributeValue.put("boolValue", value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            attributeValue.put("intValue", String.valueOf(value));
+        } else if (value instanceof Number number) {
+            attributeValue.put("doubleValue", number.doubleValue());
+        } else {
+            attributeValue.put("stringValue", String.valueOf(value));
+        }
+        Map<String, Object> attribute = new LinkedHashMap<>();
+        attribute.put("key", key);
+        attribute.put("value", attributeValue);
+        return attribute;
+    }
+}
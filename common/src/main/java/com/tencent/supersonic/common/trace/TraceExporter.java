@@ -0,0 +1,11 @@
+package com.tencent.supersonic.common.trace;
+
+import java.util.List;
+
+/** Writes the ended spans of a trace somewhere, called on the export thread only. */
+public interface TraceExporter {
+
+    void export(List<TraceSpan> spans) throws Exception;
+
+    default void close() {}
+}
@@ -0,0 +1,139 @@
+package com.tencent.supersonic.common.trace;
+
+import com.tencent.supersonic.common.util.JsonUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A timed stage of a pipeline, started by {@link Tracer} and ended by close. A span not sampled
+ * records nothing, so attributes and payloads cost nothing unless the trace is exported.
+ */
+@Getter
+public class TraceSpan implements AutoCloseable {
+
+    static final TraceSpan NOOP = new TraceSpan(null, null, null, null);
+
+    private static final int MAX_PAYLOAD_LENGTH = 8192;
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final String name;
+
+    private final long startEpochNanos;
+
+    private long durationNanos;
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private String errorMsg;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Trace trace;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final TraceSpan previous;
+
+    @Getter(AccessLevel.NONE)
+    private final long startNanos;
+
+    TraceSpan(Trace trace, TraceSpan parent, String name, TraceSpan previous) {
+        this.trace = trace;
+        this.traceId = trace == null ? null : trace.getTraceId();
+        this.spanId = trace == null ? null : Tracer.newId(8);
+        this.parentSpanId = parent == null ? null : parent.getSpanId();
+        this.name = name;
+        this.previous = previous;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isRecording() {
+        return trace != null && trace.isSampled();
+    }
+
+    public TraceSpan setAttribute(String key, Object value) {
+        if (isRecording()) {
+            synchronized (attributes) {
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    /** renders the payload as json only if the span is recorded and payloads are enabled */
+    public TraceSpan setPayload(String key, Supplier<?> payload) {
+        if (isRecording() && Tracer.isPayloadEnable()) {
+            String json = JsonUtil.toString(payload.get());
+            setAttribute(key, StringUtils.abbreviate(json, MAX_PAYLOAD_LENGTH));
+        }
+        return this;
+    }
+
+    public TraceSpan setError(Throwable e) {
+        if (isRecording()) {
+            errorMsg = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        return this;
+    }
+
+    public long getEndEpochNanos() {
+        return startEpochNanos + durationNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        synchronized (attributes) {
+            return new LinkedHashMap<>(attributes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (trace == null) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        Tracer.end(this);
+    }
+
+    /** The spans of one trace, exported together when the root span ends. */
+    @Getter
+    static class Trace {
+
+        private final String traceId = Tracer.newId(16);
+
+        private final boolean sampled;
+
+        private final List<TraceSpan> spans = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile boolean ended;
+
+        Trace(boolean sampled) {
+            this.sampled = sampled;
+        }
+
+        void add(TraceSpan span) {
+            if (!ended) {
+                spans.add(span);
+            }
+        }
+
+        List<TraceSpan> end() {
+            ended = true;
+            synchronized (spans) {
+                return new ArrayList<>(spans);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tencent.supersonic.common.trace;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts spans of the current thread. A span started without a current span is the root of a new
+ * trace, which is sampled as a whole and exported on a thread of its own when the root ends. Work
+ * handed to another thread passes its parent span explicitly or runs on a Bulkhead, which attaches
+ * the span of the submitting thread, spans ending after their root are dropped. Until an exporter
+ * is set, tracing is off and spans cost nothing.
+ */
+@Slf4j
+public class Tracer {
+
+    private static final ThreadLocal<TraceSpan> CURRENT = new ThreadLocal<>();
+
+    private static volatile TraceExporter exporter;
+
+    private static volatile ThreadPoolExecutor exportExecutor;
+
+    private static volatile double sampleRatio = 1.0;
+
+    private static volatile boolean payloadEnable;
+
+    public static synchronized void init(TraceExporter traceExporter, double ratio,
+            boolean payload) {
+        shutdown();
+        sampleRatio = ratio;
+        payloadEnable = payload;
+        // traces are dropped rather than slowing down the requests if the exporter falls behind
+        exportExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1024), new ThreadFactoryBuilder()
+                        .setNameFormat("supersonic-trace-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+        exporter = traceExporter;
+    }
+
+    /** stops tracing and exports the traces ended so far */
+    public static synchronized void shutdown() {
+        TraceExporter currentExporter = exporter;
+        exporter = null;
+        if (Objects.nonNull(exportExecutor)) {
+            exportExecutor.shutdown();
+            try {
+                exportExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exportExecutor = null;
+        }
+        if (Objects.nonNull(currentExporter)) {
+            currentExporter.close();
+        }
+    }
+
+    public static boolean isPayloadEnable() {
+        return payloadEnable;
+    }
+
+    public static TraceSpan current() {
+        TraceSpan span = CURRENT.get();
+        return Objects.isNull(span) ? TraceSpan.NOOP : span;
+    }
+
+    /** makes a span of another thread current on this one, returns the span to attach back */
+    public static TraceSpan attach(TraceSpan span) {
+        TraceSpan previous = CURRENT.get();
+        if (Objects.isNull(span) || span == TraceSpan.NOOP) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+        return previous;
+    }
+
+    public static TraceSpan start(String name) {
+        return start(name, CURRENT.get());
+    }
+
+    /** starts a span on the current thread as a child of a span of another thread */
+    public static TraceSpan start(String name, TraceSpan parent) {
+        TraceSpan.Trace trace;
+        if (Objects.nonNull(parent) && Objects.nonNull(parent.getTrace())) {
+            trace = parent.getTrace();
+        } else if (Objects.nonNull(exporter)) {
+            trace = new TraceSpan.Trace(ThreadLocalRandom.current().nextDouble() < sampleRatio);
+            parent = null;
+        } else {
+            return TraceSpan.NOOP;
+        }
+        TraceSpan span = new TraceSpan(trace, parent, name, CURRENT.get());
+        CURRENT.set(span);
+        return span;
+    }
+
+    static void end(TraceSpan span) {
+        if (CURRENT.get() == span) {
+            if (Objects.isNull(span.getPrevious())) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(span.getPrevious());
+            }
+        }
+        TraceSpan.Trace trace = span.getTrace();
+        if (!trace.isSampled()) {
+            return;
+        }
+        trace.add(span);
+        if (Objects.isNull(span.getParentSpanId())) {
+            export(trace.end());
+        }
+    }
+
+    private static void export(List<TraceSpan> spans) {
+        TraceExporter currentExporter = exporter;
+        ThreadPoolExecutor currentExecutor = exportExecutor;
+        if (Objects.isNull(currentExporter) || Objects.isNull(currentExecutor)) {
+            return;
+        }
+        currentExecutor.execute(() -> {
+            try {
+                currentExporter.export(spans);
+            } catch (Exception e) {
+                log.warn("failed to export trace:{}", spans.get(0).getTraceId(), e);
+            }
+        });
+    }
+
+    /** a random hex id of the given number of bytes, a multiple of eight */
+    static String newId(int bytes) {
+        StringBuilder id = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes / 8; i++) {
+            id.append(String.format("%016x", ThreadLocalRandom.current().nextLong()));
+        }
+        return id.toString();
+    }
+}
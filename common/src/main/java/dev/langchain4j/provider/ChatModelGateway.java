@@ -0,0 +1,440 @@
+package dev.langchain4j.provider;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.RateLimiter;
+import com.tencent.supersonic.common.config.ChatModelGatewayConfig;
+import com.tencent.supersonic.common.pojo.ChatModelCallStat;
+import com.tencent.supersonic.common.pojo.ChatModelConfig;
+import com.tencent.supersonic.common.util.JsonUtil;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sits between the callers and the chat models created by {@link ModelProvider}. Models are built
+ * once per config and reused, so their http clients keep connections alive. Calls of each model are
+ * throttled by a token bucket and a concurrency limit, calls with temperature 0 are answered from a
+ * cache of exact prompts, and latency, tokens and cost are counted per app key. Streaming calls
+ * share the limits and counters of the model, they hold the limit until the stream completes.
+ */
+@Slf4j
+public class ChatModelGateway {
+
+    public static final String DEFAULT_APP_KEY = "DEFAULT";
+
+    private static final Cache<String, ChatLanguageModel> models = CacheBuilder.newBuilder()
+            .maximumSize(100).expireAfterAccess(30, TimeUnit.MINUTES).build();
+
+    private static final Cache<String, StreamingChatLanguageModel> streamingModels = CacheBuilder
+            .newBuilder().maximumSize(100).expireAfterAccess(30, TimeUnit.MINUTES).build();
+
+    private static final Map<String, ModelLimiter> limiters = new ConcurrentHashMap<>();
+
+    private static final Map<String, CallCounter> counters = new ConcurrentHashMap<>();
+
+    private static final Tokenizer tokenizer = new OpenAiTokenizer();
+
+    private static volatile ChatModelGatewayConfig config;
+
+    private static volatile Cache<String, Object> responseCache;
+
+    /** input and output price per 1k tokens by model name */
+    private static volatile Map<String, double[]> prices = new HashMap<>();
+
+    public static synchronized void init(ChatModelGatewayConfig gatewayConfig) {
+        models.invalidateAll();
+        streamingModels.invalidateAll();
+        limiters.clear();
+        counters.clear();
+        responseCache =
+                gatewayConfig.isCacheEnable()
+                        ? CacheBuilder.newBuilder().maximumSize(gatewayConfig.getCacheSize())
+                                .expireAfterWrite(gatewayConfig.getCacheTtlMinutes(),
+                                        TimeUnit.MINUTES)
+                                .build()
+                        : null;
+        prices = parsePrices(gatewayConfig.getPrices());
+        config = gatewayConfig;
+    }
+
+    public static boolean isEnable() {
+        return Objects.nonNull(config) && config.isEnable();
+    }
+
+    public static Map<String, ChatModelCallStat> getStats() {
+        Map<String, ChatModelCallStat> stats = new TreeMap<>();
+        counters.forEach((appKey, counter) -> stats.put(appKey, counter.toStat(appKey)));
+        return stats;
+    }
+
+    /** @param cacheable whether deterministic calls may be answered from the response cache */
+    static ChatLanguageModel getChatModel(ChatModelConfig modelConfig, ModelFactory modelFactory,
+            String appKey, boolean cacheable) {
+        String configKey = JsonUtil.toString(modelConfig);
+        ChatLanguageModel chatModel = models.getIfPresent(configKey);
+        if (Objects.isNull(chatModel)) {
+            chatModel = modelFactory.createChatModel(modelConfig);
+            models.put(configKey, chatModel);
+        }
+        return new GatewayChatModel(chatModel, modelConfig, configKey,
+                StringUtils.defaultIfBlank(appKey, DEFAULT_APP_KEY),
+                cacheable && isDeterministic(modelConfig));
+    }
+
+    /**
+     * The sampling parameters in effect are the ones the model was created with: the chat requests
+     * of this langchain4j version carry no temperature, topP or seed of their own. They are read
+     * together with the config key, callers such as LLMSqlParser change the temperature of a shared
+     * config between calls.
+     */
+    private static boolean isDeterministic(ChatModelConfig modelConfig) {
+        return Objects.nonNull(modelConfig.getTemperature()) && modelConfig.getTemperature() == 0;
+    }
+
+    static StreamingChatLanguageModel getChatStreamingModel(ChatModelConfig modelConfig,
+            Function<ChatModelConfig, StreamingChatLanguageModel> modelCreator, String appKey) {
+        String configKey = JsonUtil.toString(modelConfig);
+        StreamingChatLanguageModel streamingModel = streamingModels.getIfPresent(configKey);
+        if (Objects.isNull(streamingModel)) {
+            streamingModel = modelCreator.apply(modelConfig);
+            streamingModels.put(configKey, streamingModel);
+        }
+        return new GatewayStreamingChatModel(streamingModel, modelConfig,
+                StringUtils.defaultIfBlank(appKey, DEFAULT_APP_KEY));
+    }
+
+    private static CallCounter getCounter(String appKey) {
+        return counters.computeIfAbsent(appKey, key -> new CallCounter());
+    }
+
+    /** waits for the limits of the model, the returned limiter must be released after the call */
+    private static ModelLimiter acquire(ChatModelConfig modelConfig, CallCounter counter) {
+        String modelKey = modelConfig.getProvider() + "|" + modelConfig.getBaseUrl() + "|"
+                + modelConfig.getModelName();
+        ModelLimiter limiter = limiters.computeIfAbsent(modelKey,
+                key -> new ModelLimiter(config.getRateLimit(), config.getMaxConcurrency()));
+        if (!limiter.acquire(config.getAcquireTimeoutSeconds())) {
+            counter.rejectedCount.increment();
+            throw new RuntimeException("too many calls to chat model: " + modelKey);
+        }
+        return limiter;
+    }
+
+    /** estimates the tokens if the model does not report them */
+    private static TokenUsage countTokens(List<ChatMessage> messages, AiMessage aiMessage,
+            TokenUsage tokenUsage) {
+        if (Objects.nonNull(tokenUsage) && Objects.nonNull(tokenUsage.inputTokenCount())) {
+            return tokenUsage;
+        }
+        try {
+            int outputTokens = Objects.isNull(aiMessage) || Objects.isNull(aiMessage.text()) ? 0
+                    : tokenizer.estimateTokenCountInText(aiMessage.text());
+            return new TokenUsage(tokenizer.estimateTokenCountInMessages(messages), outputTokens);
+        } catch (Exception e) {
+            return new TokenUsage(0, 0);
+        }
+    }
+
+    private static Map<String, double[]> parsePrices(String priceConfig) {
+        Map<String, double[]> modelPrices = new HashMap<>();
+        if (StringUtils.isBlank(priceConfig)) {
+            return modelPrices;
+        }
+        for (String price : priceConfig.split(",")) {
+            String[] parts = price.trim().split(":");
+            if (parts.length != 3) {
+                log.warn("ignore invalid llm price:{}", price);
+                continue;
+            }
+            modelPrices.put(parts[0].trim(), new double[] {Double.parseDouble(parts[1].trim()),
+                            Double.parseDouble(parts[2].trim())});
+        }
+        return modelPrices;
+    }
+
+    private static class GatewayChatModel implements ChatLanguageModel {
+
+        private final ChatLanguageModel delegate;
+
+        private final ChatModelConfig modelConfig;
+
+        private final String configKey;
+
+        private final String appKey;
+
+        /** whether the calls may be answered from the response cache */
+        private final boolean cacheable;
+
+        GatewayChatModel(ChatLanguageModel delegate, ChatModelConfig modelConfig, String configKey,
+                String appKey, boolean cacheable) {
+            this.delegate = delegate;
+            this.modelConfig = modelConfig;
+            this.configKey = configKey;
+            this.appKey = appKey;
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            return call(messages, () -> ChatMessageSerializer.messagesToJson(messages),
+                    () -> delegate.generate(messages), Response::content, Response::tokenUsage);
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages,
+                List<ToolSpecification> toolSpecifications) {
+            return call(messages, null, () -> delegate.generate(messages, toolSpecifications),
+                    Response::content, Response::tokenUsage);
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages,
+                ToolSpecification toolSpecification) {
+            return call(messages, null, () -> delegate.generate(messages, toolSpecification),
+                    Response::content, Response::tokenUsage);
+        }
+
+        @Override
+        public ChatResponse chat(ChatRequest chatRequest) {
+            Supplier<String> prompt = CollectionUtils.isEmpty(chatRequest.toolSpecifications())
+                    ? () -> ChatMessageSerializer.messagesToJson(chatRequest.messages()) + "|"
+                            + chatRequest.responseFormat()
+                    : null;
+            return call(chatRequest.messages(), prompt, () -> delegate.chat(chatRequest),
+                    ChatResponse::aiMessage, ChatResponse::tokenUsage);
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return delegate.supportedCapabilities();
+        }
+
+        /** prompt is null if the call may not be answered from the cache */
+        @SuppressWarnings("unchecked")
+        private <T> T call(List<ChatMessage> messages, Supplier<String> prompt, Supplier<T> request,
+                Function<T, AiMessage> answer, Function<T, TokenUsage> tokenUsage) {
+            CallCounter counter = getCounter(appKey);
+            Cache<String, Object> cache = cacheable ? responseCache : null;
+            String cacheKey = null;
+            if (Objects.nonNull(cache) && Objects.nonNull(prompt)) {
+                cacheKey = DigestUtils.md5Hex(configKey + "|" + prompt.get());
+                Object cached = cache.getIfPresent(cacheKey);
+                if (Objects.nonNull(cached)) {
+                    counter.cacheHitCount.increment();
+                    return (T) cached;
+                }
+            }
+            ModelLimiter limiter = acquire(modelConfig, counter);
+            long startTime = System.currentTimeMillis();
+            try {
+                T response = request.get();
+                counter.record(System.currentTimeMillis() - startTime,
+                        countTokens(messages, answer.apply(response), tokenUsage.apply(response)),
+                        prices.get(modelConfig.getModelName()));
+                if (Objects.nonNull(cacheKey)) {
+                    cache.put(cacheKey, response);
+                }
+                return response;
+            } catch (RuntimeException e) {
+                counter.errorCount.increment();
+                throw e;
+            } finally {
+                limiter.release();
+            }
+        }
+    }
+
+    private static class GatewayStreamingChatModel implements StreamingChatLanguageModel {
+
+        private final StreamingChatLanguageModel delegate;
+
+        private final ChatModelConfig modelConfig;
+
+        private final String appKey;
+
+        GatewayStreamingChatModel(StreamingChatLanguageModel delegate, ChatModelConfig modelConfig,
+                String appKey) {
+            this.delegate = delegate;
+            this.modelConfig = modelConfig;
+            this.appKey = appKey;
+        }
+
+        @Override
+        public void generate(List<ChatMessage> messages,
+                StreamingResponseHandler<AiMessage> handler) {
+            stream(messages, handler, h -> delegate.generate(messages, h));
+        }
+
+        @Override
+        public void generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications,
+                StreamingResponseHandler<AiMessage> handler) {
+            stream(messages, handler, h -> delegate.generate(messages, toolSpecifications, h));
+        }
+
+        @Override
+        public void generate(List<ChatMessage> messages, ToolSpecification toolSpecification,
+                StreamingResponseHandler<AiMessage> handler) {
+            stream(messages, handler, h -> delegate.generate(messages, toolSpecification, h));
+        }
+
+        private void stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler,
+                Consumer<StreamingResponseHandler<AiMessage>> request) {
+            CallCounter counter = getCounter(appKey);
+            ModelLimiter limiter = acquire(modelConfig, counter);
+            long startTime = System.currentTimeMillis();
+            AtomicBoolean finished = new AtomicBoolean();
+            try {
+                request.accept(new StreamingResponseHandler<>() {
+                    @Override
+                    public void onNext(String token) {
+                        handler.onNext(token);
+                    }
+
+                    @Override
+                    public void onComplete(Response<AiMessage> response) {
+                        if (finished.compareAndSet(false, true)) {
+                            counter.record(System.currentTimeMillis() - startTime,
+                                    countTokens(messages, response.content(),
+                                            response.tokenUsage()),
+                                    prices.get(modelConfig.getModelName()));
+                            limiter.release();
+                        }
+                        handler.onComplete(response);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        if (finished.compareAndSet(false, true)) {
+                            counter.errorCount.increment();
+                            limiter.release();
+                        }
+                        handler.onError(error);
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (finished.compareAndSet(false, true)) {
+                    counter.errorCount.increment();
+                    limiter.release();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static class ModelLimiter {
+
+        private final RateLimiter rateLimiter;
+
+        private final Semaphore semaphore;
+
+        ModelLimiter(double rateLimit, int maxConcurrency) {
+            this.rateLimiter = rateLimit > 0 ? RateLimiter.create(rateLimit) : null;
+            this.semaphore = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        }
+
+        boolean acquire(long timeoutSeconds) {
+            if (Objects.nonNull(rateLimiter)
+                    && !rateLimiter.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                return false;
+            }
+            try {
+                return Objects.isNull(semaphore)
+                        || semaphore.tryAcquire(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void release() {
+            if (Objects.nonNull(semaphore)) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private static class CallCounter {
+
+        private final LongAdder callCount = new LongAdder();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        private final LongAdder rejectedCount = new LongAdder();
+
+        private final LongAdder cacheHitCount = new LongAdder();
+
+        private final LongAdder latencyMs = new LongAdder();
+
+        private final LongAccumulator maxLatencyMs = new LongAccumulator(Long::max, 0);
+
+        private final LongAdder inputTokens = new LongAdder();
+
+        private final LongAdder outputTokens = new LongAdder();
+
+        private final DoubleAdder cost = new DoubleAdder();
+
+        void record(long latency, TokenUsage tokenUsage, double[] price) {
+            callCount.increment();
+            latencyMs.add(latency);
+            maxLatencyMs.accumulate(latency);
+            int input =
+                    Objects.isNull(tokenUsage.inputTokenCount()) ? 0 : tokenUsage.inputTokenCount();
+            int output = Objects.isNull(tokenUsage.outputTokenCount()) ? 0
+                    : tokenUsage.outputTokenCount();
+            inputTokens.add(input);
+            outputTokens.add(output);
+            if (Objects.nonNull(price)) {
+                cost.add(input / 1000.0 * price[0] + output / 1000.0 * price[1]);
+            }
+        }
+
+        ChatModelCallStat toStat(String appKey) {
+            ChatModelCallStat stat = new ChatModelCallStat();
+            long calls = callCount.sum();
+            stat.setAppKey(appKey);
+            stat.setCallCount(calls);
+            stat.setErrorCount(errorCount.sum());
+            stat.setRejectedCount(rejectedCount.sum());
+            stat.setCacheHitCount(cacheHitCount.sum());
+            stat.setAvgLatencyMs(calls == 0 ? 0 : (double) latencyMs.sum() / calls);
+            stat.setMaxLatencyMs(maxLatencyMs.get());
+            stat.setInputTokens(inputTokens.sum());
+            stat.setOutputTokens(outputTokens.sum());
+            stat.setCost(cost.sum());
+            return stat;
+        }
+    }
+}
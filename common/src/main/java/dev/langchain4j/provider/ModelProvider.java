@@ -30,12 +30,30 @@ public class ModelProvider {
     }
 
     public static ChatLanguageModel getChatModel(ChatModelConfig modelConfig) {
+        return getChatModel(modelConfig, ChatModelGateway.DEFAULT_APP_KEY);
+    }
+
+    /** the app key is what the calls of the returned model are counted under */
+    public static ChatLanguageModel getChatModel(ChatModelConfig modelConfig, String appKey) {
+        return getChatModel(modelConfig, appKey, true);
+    }
+
+    /** the calls of the returned model are never answered from the cache, such as a health check */
+    public static ChatLanguageModel getUncachedChatModel(ChatModelConfig modelConfig) {
+        return getChatModel(modelConfig, ChatModelGateway.DEFAULT_APP_KEY, false);
+    }
+
+    private static ChatLanguageModel getChatModel(ChatModelConfig modelConfig, String appKey,
+            boolean cacheable) {
         if (modelConfig == null || StringUtils.isBlank(modelConfig.getProvider())
                 || StringUtils.isBlank(modelConfig.getBaseUrl())) {
             modelConfig = DEMO_CHAT_MODEL;
         }
         ModelFactory modelFactory = factories.get(modelConfig.getProvider().toUpperCase());
         if (modelFactory != null) {
+            if (ChatModelGateway.isEnable()) {
+                return ChatModelGateway.getChatModel(modelConfig, modelFactory, appKey, cacheable);
+            }
             return modelFactory.createChatModel(modelConfig);
         }
 
@@ -44,12 +62,22 @@ public class ModelProvider {
     }
 
     public static StreamingChatLanguageModel getChatStreamingModel(ChatModelConfig modelConfig) {
+        return getChatStreamingModel(modelConfig, ChatModelGateway.DEFAULT_APP_KEY);
+    }
+
+    /** the app key is what the calls of the returned model are counted under */
+    public static StreamingChatLanguageModel getChatStreamingModel(ChatModelConfig modelConfig,
+            String appKey) {
         if (modelConfig == null || StringUtils.isBlank(modelConfig.getProvider())
                 || StringUtils.isBlank(modelConfig.getBaseUrl())) {
             modelConfig = DEMO_CHAT_MODEL;
         }
         ModelFactory modelFactory = factories.get(modelConfig.getProvider().toUpperCase());
         if (modelFactory != null) {
+            if (ChatModelGateway.isEnable()) {
+                return ChatModelGateway.getChatStreamingModel(modelConfig,
+                        modelFactory::createChatStreamingModel, appKey);
+            }
             return modelFactory.createChatStreamingModel(modelConfig);
         }
 
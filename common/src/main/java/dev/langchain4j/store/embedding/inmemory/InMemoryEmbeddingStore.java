@@ -138,6 +138,12 @@ public class InMemoryEmbeddingStore<Embedded> implements EmbeddingStore<Embedded
         entries.clear();
     }
 
+    /** the embedded objects of all entries, to inspect the store without searching it */
+    public List<Embedded> getAllEmbedded() {
+        return entries.stream().map(entry -> entry.embedded).filter(Objects::nonNull)
+                .collect(toList());
+    }
+
     @Override
     public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest embeddingSearchRequest) {
 
@@ -0,0 +1,98 @@
+package com.tencent.supersonic.common.executor;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import com.tencent.supersonic.common.pojo.ExecutorStat;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
+import com.tencent.supersonic.common.util.TraceIdUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class BulkheadTest {
+
+    private static final TransmittableThreadLocal<String> USER = new TransmittableThreadLocal<>();
+
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        bulkheads.forEach(Bulkhead::shutdownNow);
+        Tracer.shutdown();
+        MDC.clear();
+        USER.remove();
+    }
+
+    @Test
+    void runTasksWithContextOfSubmittingThread() throws Exception {
+        Bulkhead bulkhead = bulkhead(Bulkhead.of("context", 1, 8));
+        Tracer.init(spans -> {
+        }, 1.0, false);
+        MDC.put(TraceIdUtil.TRACE_ID, "trace-1");
+        USER.set("jack");
+
+        try (TraceSpan root = Tracer.start("chat.parse")) {
+            List<Object> seen = CompletableFuture
+                    .supplyAsync(() -> List.<Object>of(MDC.get(TraceIdUtil.TRACE_ID), USER.get(),
+                            Tracer.current()), bulkhead)
+                    .get();
+            Assertions.assertEquals(List.of("trace-1", "jack", root), seen);
+        }
+        MDC.clear();
+        USER.remove();
+        Assertions.assertTrue(CompletableFuture.supplyAsync(
+                () -> USER.get() == null && Tracer.current().getName() == null, bulkhead).get());
+    }
+
+    @Test
+    void runOnCallerWhenFullAndReportSaturation() throws Exception {
+        Bulkhead bulkhead = bulkhead(Bulkhead.of("saturated", 1, 1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        bulkhead.execute(() -> {
+        });
+        Thread caller = Thread.currentThread();
+        List<Thread> runner = new ArrayList<>();
+        bulkhead.execute(() -> runner.add(Thread.currentThread()));
+
+        Assertions.assertEquals(List.of(caller), runner);
+        ExecutorStat stat = Bulkhead.getStats().stream()
+                .filter(executorStat -> executorStat.getName().equals("saturated")).findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(1, stat.getActiveCount());
+        Assertions.assertEquals(1, stat.getQueueSize());
+        Assertions.assertEquals(1, stat.getCallerRunsCount());
+        Assertions.assertEquals(1.0, stat.getSaturation(), 1e-9);
+
+        release.countDown();
+        bulkhead.shutdown();
+        Assertions.assertTrue(bulkhead.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(Bulkhead.getStats().stream()
+                .noneMatch(executorStat -> executorStat.getName().equals("saturated")));
+    }
+
+    private Bulkhead bulkhead(Bulkhead bulkhead) {
+        bulkheads.add(bulkhead);
+        return bulkhead;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
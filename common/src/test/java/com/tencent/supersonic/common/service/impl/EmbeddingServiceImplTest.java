@@ -0,0 +1,140 @@
+package com.tencent.supersonic.common.service.impl;
+
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.config.EmbeddingConfig;
+import com.tencent.supersonic.common.config.EmbeddingModelParameterConfig;
+import com.tencent.supersonic.common.pojo.EmbeddingModelConfig;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.provider.ModelProvider;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreFactory;
+import dev.langchain4j.store.embedding.EmbeddingStoreFactoryProvider;
+import dev.langchain4j.store.embedding.Retrieval;
+import dev.langchain4j.store.embedding.RetrieveQuery;
+import dev.langchain4j.store.embedding.TextSegmentConvert;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class EmbeddingServiceImplTest {
+
+    private final Map<String, EmbeddingStore<TextSegment>> stores = new HashMap<>();
+
+    private final List<Integer> embedAllSizes = Lists.newArrayList();
+
+    private MockedStatic<ModelProvider> modelProvider;
+
+    private MockedStatic<EmbeddingStoreFactoryProvider> storeFactoryProvider;
+
+    private EmbeddingServiceImpl embeddingService;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddingModel embeddingModel = new EmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+                embedAllSizes.add(segments.size());
+                return Response.from(segments.stream().map(segment -> vector(segment.text()))
+                        .collect(Collectors.toList()));
+            }
+
+            private Embedding vector(String text) {
+                return Embedding.from(new float[] {text.chars().filter(c -> c == 'a').count(),
+                                text.chars().filter(c -> c == 'b').count(), 0.1f});
+            }
+        };
+        modelProvider = Mockito.mockStatic(ModelProvider.class);
+        modelProvider.when(() -> ModelProvider.getEmbeddingModel(any())).thenReturn(embeddingModel);
+        EmbeddingStoreFactory storeFactory = Mockito.mock(EmbeddingStoreFactory.class);
+        Mockito.when(storeFactory.create(anyString()))
+                .thenAnswer(invocation -> stores.computeIfAbsent(invocation.getArgument(0),
+                        name -> new InMemoryEmbeddingStore<>()));
+        storeFactoryProvider = Mockito.mockStatic(EmbeddingStoreFactoryProvider.class);
+        storeFactoryProvider.when(EmbeddingStoreFactoryProvider::getFactory)
+                .thenReturn(storeFactory);
+
+        EmbeddingModelParameterConfig modelParameterConfig =
+                Mockito.mock(EmbeddingModelParameterConfig.class);
+        Mockito.when(modelParameterConfig.convert()).thenReturn(
+                EmbeddingModelConfig.builder().provider("OPEN_AI").modelName("test").build());
+        EmbeddingConfig embeddingConfig = new EmbeddingConfig();
+        embeddingConfig.setBatchSize(16);
+        embeddingService = new EmbeddingServiceImpl();
+        ReflectionTestUtils.setField(embeddingService, "embeddingConfig", embeddingConfig);
+        ReflectionTestUtils.setField(embeddingService, "embeddingModelParameterConfig",
+                modelParameterConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        modelProvider.close();
+        storeFactoryProvider.close();
+    }
+
+    @Test
+    void embedChangedSegmentsInBatches() {
+        embeddingService.addQuery("c1", Lists.newArrayList(segment("a", "1"), segment("b", "2")));
+        Assertions.assertEquals(List.of(2), embedAllSizes);
+
+        embeddingService.addQuery("c1", Lists.newArrayList(segment("a", "1"), segment("b", "2")));
+        Assertions.assertEquals(List.of(2), embedAllSizes);
+
+        embeddingService.addQuery("c1", Lists.newArrayList(segment("a", "1"), segment("b", "3")));
+        Assertions.assertEquals(List.of(2, 1), embedAllSizes);
+        Assertions.assertEquals(2,
+                ((InMemoryEmbeddingStore<TextSegment>) stores.get("c1")).entries.size());
+
+        embeddingService.deleteQuery("c1", Lists.newArrayList(segment("a", "1")));
+        embeddingService.addQuery("c1", Lists.newArrayList(segment("a", "1")));
+        Assertions.assertEquals(List.of(2, 1, 1), embedAllSizes);
+    }
+
+    @Test
+    void retrieveAcrossCollectionsWithCachedQueryEmbedding() {
+        embeddingService.addQuery("c1", Lists.newArrayList(segment("a", "1"), segment("b", "2")));
+        embeddingService.addQuery("c2", Lists.newArrayList(segment("ab", "3")));
+        embedAllSizes.clear();
+
+        RetrieveQuery retrieveQuery =
+                RetrieveQuery.builder().queryTextsList(Lists.newArrayList("a")).build();
+        List<Retrieval> retrievals = embeddingService
+                .retrieveQuery(Lists.newArrayList("c1", "c2", "c3"), retrieveQuery, 2).get(0)
+                .getRetrieval();
+        Assertions.assertEquals(List.of("a", "ab"),
+                retrievals.stream().map(Retrieval::getQuery).collect(Collectors.toList()));
+        Assertions.assertEquals(List.of(1), embedAllSizes);
+
+        embeddingService.retrieveQuery("c2", retrieveQuery, 2);
+        Assertions.assertEquals(List.of(1), embedAllSizes);
+
+        RetrieveQuery emptyQuery =
+                RetrieveQuery.builder().queryTextsList(Lists.newArrayList("b")).build();
+        Assertions
+                .assertTrue(embeddingService.retrieveQuery(Lists.newArrayList("c3"), emptyQuery, 2)
+                        .get(0).getRetrieval().isEmpty());
+        Assertions.assertEquals(List.of(1), embedAllSizes);
+    }
+
+    private static TextSegment segment(String text, String version) {
+        TextSegment segment = TextSegment.from(text);
+        segment.metadata().put("version", version);
+        TextSegmentConvert.addQueryId(segment, text);
+        return segment;
+    }
+}
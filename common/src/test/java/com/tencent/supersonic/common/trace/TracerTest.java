@@ -0,0 +1,97 @@
+package com.tencent.supersonic.common.trace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tencent.supersonic.common.util.JsonUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TracerTest {
+
+    private final List<List<TraceSpan>> traces = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        Tracer.shutdown();
+    }
+
+    @Test
+    void exportSpansOfTraceWhenRootEnds() throws Exception {
+        Tracer.init(traces::add, 1.0, false);
+        AtomicInteger rendered = new AtomicInteger();
+
+        try (TraceSpan root = Tracer.start("chat.parse")) {
+            root.setAttribute("cacheHit", false);
+            try (TraceSpan child = Tracer.start("chat.mapping")) {
+                child.setPayload("queryCtx", rendered::incrementAndGet);
+                Assertions.assertSame(child, Tracer.current());
+            }
+            Assertions.assertSame(root, Tracer.current());
+            CompletableFuture.runAsync(() -> {
+                try (TraceSpan mapper = Tracer.start("chat.mapper.KeywordMapper", root)) {
+                    mapper.setAttribute("matches", 3);
+                }
+            }).get();
+        }
+        Tracer.shutdown();
+
+        Assertions.assertEquals(0, rendered.get());
+        Assertions.assertSame(TraceSpan.NOOP, Tracer.current());
+        Assertions.assertEquals(1, traces.size());
+        List<TraceSpan> spans = traces.get(0);
+        Assertions.assertEquals(List.of("chat.mapping", "chat.mapper.KeywordMapper", "chat.parse"),
+                spans.stream().map(TraceSpan::getName).toList());
+        TraceSpan root = spans.get(2);
+        Assertions.assertNull(root.getParentSpanId());
+        Assertions.assertEquals(32, root.getTraceId().length());
+        spans.subList(0, 2).forEach(span -> {
+            Assertions.assertEquals(root.getTraceId(), span.getTraceId());
+            Assertions.assertEquals(root.getSpanId(), span.getParentSpanId());
+            Assertions.assertTrue(span.getDurationNanos() <= root.getDurationNanos());
+        });
+        Assertions.assertEquals(Map.of("matches", 3), spans.get(1).getAttributes());
+    }
+
+    @Test
+    void recordNothingIfNotSampled() {
+        Tracer.init(traces::add, 0, true);
+        AtomicInteger rendered = new AtomicInteger();
+
+        try (TraceSpan root = Tracer.start("semantic.query")) {
+            try (TraceSpan child = Tracer.start("semantic.jdbc")) {
+                child.setPayload("sql", rendered::incrementAndGet);
+                Assertions.assertFalse(child.isRecording());
+                Assertions.assertSame(child, Tracer.current());
+            }
+        }
+        Tracer.shutdown();
+
+        Assertions.assertEquals(0, rendered.get());
+        Assertions.assertTrue(traces.isEmpty());
+        Assertions.assertSame(TraceSpan.NOOP, Tracer.start("semantic.query"));
+    }
+
+    @Test
+    void writeOtlpJson() {
+        Tracer.init(traces::add, 1.0, true);
+        try (TraceSpan root = Tracer.start("semantic.jdbc")) {
+            root.setAttribute("rows", 10).setAttribute("database", "mysql")
+                    .setPayload("sql", () -> "select 1").setError(new IllegalStateException("x"));
+        }
+        Tracer.shutdown();
+
+        JsonNode span = JsonUtil.readTree(OtlpTraceExporter.toJson(traces.get(0)))
+                .at("/resourceSpans/0/scopeSpans/0/spans/0");
+        Assertions.assertEquals("semantic.jdbc", span.get("name").asText());
+        Assertions.assertEquals("10", span.at("/attributes/0/value/intValue").asText());
+        Assertions.assertEquals("mysql", span.at("/attributes/1/value/stringValue").asText());
+        Assertions.assertEquals("select 1", span.at("/attributes/2/value/stringValue").asText());
+        Assertions.assertEquals(2, span.at("/status/code").asInt());
+    }
+}
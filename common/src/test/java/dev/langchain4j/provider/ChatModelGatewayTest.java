@@ -0,0 +1,192 @@
+package dev.langchain4j.provider;
+
+import com.tencent.supersonic.common.config.ChatModelGatewayConfig;
+import com.tencent.supersonic.common.pojo.ChatModelCallStat;
+import com.tencent.supersonic.common.pojo.ChatModelConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ChatModelGatewayTest {
+
+    private final AtomicInteger modelCount = new AtomicInteger();
+
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    private final ChatModelGatewayConfig gatewayConfig = new ChatModelGatewayConfig();
+
+    @BeforeEach
+    void setUp() {
+        ModelProvider.add(MockModelFactory.PROVIDER, new MockModelFactory() {
+            @Override
+            public ChatLanguageModel createChatModel(ChatModelConfig modelConfig) {
+                modelCount.incrementAndGet();
+                return super.createChatModel(modelConfig);
+            }
+        });
+        MockModelFactory.setResponder(messages -> {
+            callCount.incrementAndGet();
+            return "SELECT 1";
+        });
+        gatewayConfig.setPrices("mock-model:1:2");
+        ChatModelGateway.init(gatewayConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockModelFactory.setResponder(null);
+        gatewayConfig.setEnable(false);
+    }
+
+    @Test
+    void cacheDeterministicCallsAndReuseModels() {
+        ChatModelConfig modelConfig = modelConfig(0.0);
+        Assertions.assertEquals("SELECT 1",
+                ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("question"));
+        Assertions.assertEquals("SELECT 1",
+                ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("question"));
+        ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("other question");
+        Assertions.assertEquals(2, callCount.get());
+        Assertions.assertEquals(1, modelCount.get());
+
+        ChatModelConfig randomConfig = modelConfig(0.7);
+        ModelProvider.getChatModel(randomConfig, "SMALL_TALK").generate("question");
+        ModelProvider.getChatModel(randomConfig, "SMALL_TALK").generate("question");
+        Assertions.assertEquals(4, callCount.get());
+        Assertions.assertEquals(2, modelCount.get());
+
+        ChatModelCallStat stat = ChatModelGateway.getStats().get("S2SQL_PARSER");
+        Assertions.assertEquals(2, stat.getCallCount());
+        Assertions.assertEquals(1, stat.getCacheHitCount());
+        Assertions.assertEquals(16, stat.getOutputTokens());
+        Assertions.assertEquals(
+                stat.getInputTokens() / 1000.0 + stat.getOutputTokens() / 1000.0 * 2,
+                stat.getCost(), 1e-9);
+        Assertions.assertEquals(2, ChatModelGateway.getStats().get("SMALL_TALK").getCallCount());
+    }
+
+    @Test
+    void cacheFollowsTheTemperatureTheModelWasCreatedWith() {
+        ChatModelConfig modelConfig = modelConfig(0.5);
+        ChatLanguageModel randomModel = ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER");
+        // the config is shared and changed between calls, as LLMSqlParser does on retries
+        modelConfig.setTemperature(0.0);
+        randomModel.generate("question");
+        randomModel.generate("question");
+        Assertions.assertEquals(2, callCount.get());
+
+        ChatLanguageModel deterministicModel =
+                ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER");
+        modelConfig.setTemperature(0.5);
+        deterministicModel.generate("question");
+        deterministicModel.generate("question");
+        Assertions.assertEquals(3, callCount.get());
+
+        ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("question");
+        Assertions.assertEquals(4, callCount.get());
+    }
+
+    @Test
+    void uncachedModelAlwaysCallsModel() {
+        ChatModelConfig modelConfig = modelConfig(0.0);
+        ModelProvider.getChatModel(modelConfig).generate("Hi there");
+        ModelProvider.getUncachedChatModel(modelConfig).generate("Hi there");
+        ModelProvider.getUncachedChatModel(modelConfig).generate("Hi there");
+        Assertions.assertEquals(3, callCount.get());
+    }
+
+    @Test
+    void rejectCallsOverConcurrencyLimit() throws Exception {
+        gatewayConfig.setMaxConcurrency(1);
+        gatewayConfig.setAcquireTimeoutSeconds(0);
+        ChatModelGateway.init(gatewayConfig);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MockModelFactory.setResponder(messages -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "SELECT 1";
+        });
+        ChatModelConfig modelConfig = modelConfig(0.7);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(
+                () -> ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("q1"));
+        started.await();
+
+        Assertions.assertThrows(RuntimeException.class,
+                () -> ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("q2"));
+        release.countDown();
+        Assertions.assertEquals("SELECT 1", running.get());
+        ModelProvider.getChatModel(modelConfig, "S2SQL_PARSER").generate("q3");
+
+        ChatModelCallStat stat = ChatModelGateway.getStats().get("S2SQL_PARSER");
+        Assertions.assertEquals(2, stat.getCallCount());
+        Assertions.assertEquals(1, stat.getRejectedCount());
+    }
+
+    @Test
+    void streamingCallsShareLimitsAndCounters() {
+        gatewayConfig.setMaxConcurrency(1);
+        gatewayConfig.setAcquireTimeoutSeconds(0);
+        ChatModelGateway.init(gatewayConfig);
+        List<StreamingResponseHandler<AiMessage>> streams = new ArrayList<>();
+        StreamingChatLanguageModel streamingModel =
+                ChatModelGateway.getChatStreamingModel(modelConfig(0.7),
+                        config -> (messages, handler) -> streams.add(handler), "DATA_INTERPRETER");
+        List<String> answers = new ArrayList<>();
+        StreamingResponseHandler<AiMessage> handler = new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {}
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                answers.add(response.content().text());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                answers.add(error.getMessage());
+            }
+        };
+
+        streamingModel.generate("q1", handler);
+        Assertions.assertThrows(RuntimeException.class,
+                () -> streamingModel.generate("q2", handler));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> ModelProvider.getChatModel(modelConfig(0.7), "S2SQL_PARSER").generate("q3"));
+        streams.get(0).onComplete(Response.from(AiMessage.from("done"), new TokenUsage(10, 4)));
+        streamingModel.generate("q4", handler);
+        streams.get(1).onError(new RuntimeException("broken"));
+        ModelProvider.getChatModel(modelConfig(0.7), "S2SQL_PARSER").generate("q5");
+
+        Assertions.assertEquals(List.of("done", "broken"), answers);
+        ChatModelCallStat stat = ChatModelGateway.getStats().get("DATA_INTERPRETER");
+        Assertions.assertEquals(1, stat.getCallCount());
+        Assertions.assertEquals(1, stat.getErrorCount());
+        Assertions.assertEquals(1, stat.getRejectedCount());
+        Assertions.assertEquals(4, stat.getOutputTokens());
+        Assertions.assertEquals(1, ChatModelGateway.getStats().get("S2SQL_PARSER").getCallCount());
+    }
+
+    private static ChatModelConfig modelConfig(double temperature) {
+        return ChatModelConfig.builder().provider(MockModelFactory.PROVIDER)
+                .baseUrl("http://localhost").modelName("mock-model").temperature(temperature)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.langchain4j.provider;
+
+import com.tencent.supersonic.common.pojo.ChatModelConfig;
+import com.tencent.supersonic.common.pojo.EmbeddingModelConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A chat model answering locally without any network call, tests register it with
+ * {@link ModelProvider#add}. It echoes the last user message unless a responder is set.
+ */
+public class MockModelFactory implements ModelFactory {
+    public static final String PROVIDER = "MOCK";
+
+    private static volatile Function<List<ChatMessage>, String> responder = MockModelFactory::echo;
+
+    public static void setResponder(Function<List<ChatMessage>, String> mockResponder) {
+        responder = mockResponder == null ? MockModelFactory::echo : mockResponder;
+    }
+
+    @Override
+    public ChatLanguageModel createChatModel(ChatModelConfig modelConfig) {
+        return new MockChatModel();
+    }
+
+    @Override
+    public OpenAiStreamingChatModel createChatStreamingModel(ChatModelConfig modelConfig) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public EmbeddingModel createEmbeddingModel(EmbeddingModelConfig embeddingModel) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    private static String echo(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message instanceof UserMessage && ((UserMessage) message).hasSingleText()) {
+                return ((UserMessage) message).singleText();
+            }
+        }
+        return "";
+    }
+
+    private static class MockChatModel implements ChatLanguageModel {
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            String answer = responder.apply(messages);
+            int inputLength =
+                    messages.stream().mapToInt(message -> message.toString().length()).sum();
+            return Response.from(AiMessage.from(answer),
+                    new TokenUsage(inputLength, answer.length()));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tencent.supersonic.headless.api.pojo;
+
+import lombok.Data;
+
+/**
+ * Connection pool profile of a database, a field left null takes the global {@code source.*}
+ * setting.
+ */
+@Data
+public class DatabasePoolConfig {
+
+    /** max connections of the pool */
+    private Integer maxActive;
+
+    /** idle connections kept in the pool */
+    private Integer minIdle;
+
+    /** max time in milliseconds a query waits for a connection */
+    private Long maxWait;
+
+    /** max queries waiting for a connection, more are rejected at once */
+    private Integer maxWaitThreads;
+}
@@ -11,4 +11,7 @@ public class QueryConfig implements Serializable {
 
     private AggregateTypeDefaultConfig aggregateTypeDefaultConfig =
             new AggregateTypeDefaultConfig();
+
+    /** default timeout in seconds of the queries on the data set */
+    private Integer queryTimeout;
 }
@@ -2,6 +2,7 @@ package com.tencent.supersonic.headless.api.pojo.request;
 
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.pojo.RecordInfo;
+import com.tencent.supersonic.headless.api.pojo.DatabasePoolConfig;
 import lombok.Data;
 
 import java.util.List;
@@ -35,6 +36,8 @@ public class DatabaseReq extends RecordInfo {
 
     private String url;
 
+    private DatabasePoolConfig poolConfig;
+
     private List<String> admins = Lists.newArrayList();
 
     private List<String> viewers = Lists.newArrayList();
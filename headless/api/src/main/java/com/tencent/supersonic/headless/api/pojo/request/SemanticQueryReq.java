@@ -33,6 +33,12 @@ public abstract class SemanticQueryReq {
 
     protected SqlInfo sqlInfo = new SqlInfo();
 
+    /** id to cancel the running query with, not part of the cache key */
+    protected String runningQueryId;
+
+    /** timeout in seconds, the data set default applies if not set */
+    protected Integer timeout;
+
     public void addModelId(Long modelId) {
         modelIds.add(modelId);
     }
@@ -0,0 +1,32 @@
+package com.tencent.supersonic.headless.api.pojo.response;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class DatabasePoolStatResp {
+
+    private String name;
+
+    private int maxActive;
+
+    private int activeCount;
+
+    private int poolingCount;
+
+    private int waitThreadCount;
+
+    private int maxWaitThreadCount;
+
+    private long maxWait;
+
+    /** connections handed out */
+    private long borrowCount;
+
+    /** borrows failed by timeout or rejected as too many were waiting */
+    private long borrowFailCount;
+
+    /** number of borrows by wait time, keyed by the upper bound of the bucket in milliseconds */
+    private Map<String, Long> waitMillisHistogram;
+}
@@ -3,6 +3,7 @@ package com.tencent.supersonic.headless.api.pojo.response;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.pojo.RecordInfo;
 import com.tencent.supersonic.common.util.AESEncryptionUtil;
+import com.tencent.supersonic.headless.api.pojo.DatabasePoolConfig;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -44,6 +45,8 @@ public class DatabaseResp extends RecordInfo {
 
     private String schema;
 
+    private DatabasePoolConfig poolConfig;
+
     private boolean hasPermission = false;
 
     private boolean hasUsePermission = false;
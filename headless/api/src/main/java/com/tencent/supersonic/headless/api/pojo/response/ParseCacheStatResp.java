@@ -0,0 +1,18 @@
+package com.tencent.supersonic.headless.api.pojo.response;
+
+import lombok.Data;
+
+@Data
+public class ParseCacheStatResp {
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /** hits found through a near duplicate question, counted in hitCount as well */
+    private long similarHitCount;
+
+    private double hitRate;
+}
@@ -1,5 +1,6 @@
 package com.tencent.supersonic.headless.api.pojo.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
 import lombok.Data;
@@ -7,6 +8,7 @@ import lombok.Data;
 import java.io.Serializable;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Data
@@ -16,6 +18,12 @@ public class ParseResp implements Serializable {
     private String errorMsg;
     private List<SemanticParseInfo> selectedParses = Lists.newArrayList();
     private ParseTimeCostResp parseTimeCost = new ParseTimeCostResp();
+    /**
+     * translated parse of the language model still running after a confident rule-based parse was
+     * returned, completes with null if the model yields nothing usable
+     */
+    @JsonIgnore
+    private transient CompletableFuture<SemanticParseInfo> speculativeParse;
 
     public enum ParseState {
         COMPLETED, PENDING, FAILED
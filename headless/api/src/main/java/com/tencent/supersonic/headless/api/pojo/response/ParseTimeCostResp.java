@@ -3,6 +3,8 @@ package com.tencent.supersonic.headless.api.pojo.response;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Data
 public class ParseTimeCostResp implements Serializable {
@@ -10,6 +12,8 @@ public class ParseTimeCostResp implements Serializable {
     private long parseStartTime;
     private long parseTime;
     private long sqlTime;
+    /** milliseconds spent by each schema mapper */
+    private Map<String, Long> mapperTime = new LinkedHashMap<>();
 
     public ParseTimeCostResp() {
         this.parseStartTime = System.currentTimeMillis();
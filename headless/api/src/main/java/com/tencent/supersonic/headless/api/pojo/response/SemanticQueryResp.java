@@ -9,6 +9,7 @@ import com.tencent.supersonic.headless.api.pojo.enums.SemanticType;
 import lombok.Data;
 import lombok.ToString;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,4 +39,39 @@ public class SemanticQueryResp extends QueryResult<Map<String, Object>> {
     public void appendErrorMsg(String msg) {
         errorMsg = StringUtil.append(errorMsg, msg);
     }
+
+    /**
+     * Read only copy of this result which can be shared by concurrent requests, such as the
+     * instance held by the query cache. The rows are wrapped rather than copied, code which needs
+     * to change them must build new rows.
+     */
+    public SemanticQueryResp toShared() {
+        SemanticQueryResp sharedResp = view();
+        if (columns != null) {
+            sharedResp.setColumns(Collections.unmodifiableList(columns));
+        }
+        if (getResultList() != null) {
+            sharedResp.setResultList(Collections.unmodifiableList(getResultList().stream()
+                    .map(Collections::unmodifiableMap).collect(Collectors.toList())));
+        }
+        return sharedResp;
+    }
+
+    /**
+     * Copy sharing the columns and rows of this result, so that the fields of a single request,
+     * like useCache or errorMsg, can be set on a shared result without copying its data.
+     */
+    public SemanticQueryResp view() {
+        SemanticQueryResp view = new SemanticQueryResp();
+        view.setPageNo(getPageNo());
+        view.setPageSize(getPageSize());
+        view.setTotalCount(getTotalCount());
+        view.setResultList(getResultList());
+        view.setColumns(columns);
+        view.setSql(sql);
+        view.setQueryAuthorization(queryAuthorization);
+        view.setUseCache(useCache);
+        view.setErrorMsg(errorMsg);
+        return view;
+    }
 }
@@ -0,0 +1,48 @@
+package com.tencent.supersonic.headless.api.pojo.response;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class SemanticQueryRespTest {
+
+    @Test
+    void sharedResultIsReadOnly() {
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        queryResp.setColumns(List.of(new QueryColumn("gender", "VARCHAR")));
+        queryResp.setResultList(List.of(new HashMap<>(Map.of("gender", "0"))));
+        queryResp.setSql("sql");
+
+        SemanticQueryResp sharedResp = queryResp.toShared();
+
+        Assertions.assertEquals(queryResp.getResultList(), sharedResp.getResultList());
+        Assertions.assertEquals("sql", sharedResp.getSql());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> sharedResp.getResultList().get(0).put("gender", "1"));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> sharedResp.getColumns().add(new QueryColumn("pv", "INT")));
+    }
+
+    @Test
+    void viewSharesDataButNotRequestFields() {
+        SemanticQueryResp sharedResp = new SemanticQueryResp();
+        sharedResp.setColumns(List.of(new QueryColumn("gender", "VARCHAR")));
+        sharedResp.setResultList(List.of(Map.of("gender", "0")));
+        sharedResp = sharedResp.toShared();
+
+        SemanticQueryResp view = sharedResp.view();
+        view.setUseCache(true);
+        view.appendErrorMsg("error");
+
+        Assertions.assertSame(sharedResp.getResultList(), view.getResultList());
+        Assertions.assertSame(sharedResp.getColumns(), view.getColumns());
+        Assertions.assertTrue(view.isUseCache());
+        Assertions.assertFalse(sharedResp.isUseCache());
+        Assertions.assertEquals("error", view.getErrorMsg());
+        Assertions.assertNull(sharedResp.getErrorMsg());
+    }
+}
@@ -11,6 +11,7 @@ import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
 import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
 import com.tencent.supersonic.headless.chat.query.SemanticQuery;
 import lombok.Data;
+import org.springframework.beans.BeanUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -27,6 +28,8 @@ public class ChatQueryContext implements Serializable {
     private ParseResp parseResp;
     private Map<Long, List<Long>> modelIdToDataSetIds;
     private List<SemanticQuery> candidateQueries = new ArrayList<>();
+    /** number of the best scored candidate queries kept */
+    private int candidateLimit = 1;
     private SchemaMapInfo mapInfo = new SchemaMapInfo();
     @JsonIgnore
     private SemanticSchema semanticSchema;
@@ -44,6 +47,34 @@ public class ChatQueryContext implements Serializable {
         }
     }
 
+    /**
+     * A context sharing the request and the schema with this one but with its own matches, for a
+     * mapper running concurrently with the others. Nothing is copied, the fork must not change the
+     * request.
+     */
+    public ChatQueryContext fork() {
+        ChatQueryContext queryCtx = new ChatQueryContext();
+        queryCtx.setRequest(request);
+        queryCtx.setParseResp(parseResp);
+        queryCtx.setModelIdToDataSetIds(modelIdToDataSetIds);
+        queryCtx.setSemanticSchema(semanticSchema);
+        queryCtx.setChatWorkflowState(chatWorkflowState);
+        return queryCtx;
+    }
+
+    /**
+     * A fork with its own matches asking another question. The request is copied shallowly, only
+     * the fields set on the copy differ from this context.
+     */
+    public ChatQueryContext fork(String queryText) {
+        QueryNLReq forkRequest = new QueryNLReq();
+        BeanUtils.copyProperties(request, forkRequest);
+        forkRequest.setQueryText(queryText);
+        ChatQueryContext queryCtx = fork();
+        queryCtx.setRequest(forkRequest);
+        return queryCtx;
+    }
+
     public boolean needSQL() {
         return !request.getText2SQLType().equals(Text2SQLType.NONE);
     }
@@ -57,7 +88,7 @@ public class ChatQueryContext implements Serializable {
                 .sorted(Comparator.comparing(
                         semanticQuery -> semanticQuery.getParseInfo().getScore(),
                         Comparator.reverseOrder()))
-                .limit(1).collect(Collectors.toList());
+                .limit(candidateLimit).collect(Collectors.toList());
         return candidateQueries;
     }
 
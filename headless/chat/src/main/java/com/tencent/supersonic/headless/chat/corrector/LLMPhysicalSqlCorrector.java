@@ -72,7 +72,7 @@ public class LLMPhysicalSqlCorrector extends BaseSemanticCorrector {
         }
 
         ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(chatApp.getChatModelConfig());
+                ModelProvider.getChatModel(chatApp.getChatModelConfig(), APP_KEY);
         PhysicalSqlExtractor extractor =
                 AiServices.create(PhysicalSqlExtractor.class, chatLanguageModel);
         Prompt prompt = generatePrompt(chatQueryContext.getRequest().getQueryText(),
@@ -76,7 +76,7 @@ public class LLMSqlCorrector extends BaseSemanticCorrector {
                 .get(Text2SQLExemplar.PROPERTY_KEY);
 
         ChatLanguageModel chatLanguageModel =
-                ModelProvider.getChatModel(chatApp.getChatModelConfig());
+                ModelProvider.getChatModel(chatApp.getChatModelConfig(), APP_KEY);
         SemanticSqlExtractor extractor =
                 AiServices.create(SemanticSqlExtractor.class, chatLanguageModel);
         Prompt prompt = generatePrompt(chatQueryContext.getRequest().getQueryText(),
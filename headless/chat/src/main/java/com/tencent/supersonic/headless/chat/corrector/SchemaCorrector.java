@@ -83,7 +83,9 @@ public class SchemaCorrector extends BaseSemanticCorrector {
             return null;
         }
 
-        ParseResult parseResult = JsonUtil.toObject(JsonUtil.toString(context), ParseResult.class);
+        // a parse restored from json carries the context as a map
+        ParseResult parseResult = context instanceof ParseResult ? (ParseResult) context
+                : JsonUtil.toObject(JsonUtil.toString(context), ParseResult.class);
         if (Objects.isNull(parseResult) || Objects.isNull(parseResult.getLlmReq())) {
             return null;
         }
@@ -0,0 +1,126 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Immutable Aho-Corasick automaton which finds every occurrence of all keywords in one linear pass
+ * over the text. Keywords and text are compared case-insensitively, char by char, so that emitted
+ * offsets always refer to the original text.
+ */
+public class AhoCorasickAutomaton<V> {
+
+    private final Node<V> root;
+    @Getter
+    private final int keywordSize;
+
+    private AhoCorasickAutomaton(Node<V> root, int keywordSize) {
+        this.root = root;
+        this.keywordSize = keywordSize;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    public List<Emit<V>> findAll(String text) {
+        List<Emit<V>> emits = new ArrayList<>();
+        if (StringUtils.isEmpty(text)) {
+            return emits;
+        }
+        Node<V> state = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            while (state != root && !state.children.containsKey(c)) {
+                state = state.failure;
+            }
+            state = state.children.getOrDefault(c, root);
+            Node<V> output = state.keyword != null ? state : state.output;
+            while (output != null) {
+                int start = i + 1 - output.keyword.length();
+                emits.add(new Emit<>(start, i + 1, output.keyword,
+                        Collections.unmodifiableList(output.values)));
+                output = output.output;
+            }
+        }
+        return emits;
+    }
+
+    public static class Builder<V> {
+
+        private final Node<V> root = new Node<>();
+        private int keywordSize;
+
+        public Builder<V> add(String keyword, V value) {
+            if (StringUtils.isEmpty(keyword)) {
+                return this;
+            }
+            Node<V> state = root;
+            for (int i = 0; i < keyword.length(); i++) {
+                state = state.children.computeIfAbsent(Character.toLowerCase(keyword.charAt(i)),
+                        k -> new Node<>());
+            }
+            if (state.keyword == null) {
+                state.keyword = keyword;
+                keywordSize++;
+            }
+            state.values.add(value);
+            return this;
+        }
+
+        public AhoCorasickAutomaton<V> build() {
+            Queue<Node<V>> queue = new ArrayDeque<>();
+            for (Node<V> child : root.children.values()) {
+                child.failure = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node<V> state = queue.poll();
+                for (Map.Entry<Character, Node<V>> entry : state.children.entrySet()) {
+                    Node<V> child = entry.getValue();
+                    Node<V> failure = state.failure;
+                    while (failure != root && !failure.children.containsKey(entry.getKey())) {
+                        failure = failure.failure;
+                    }
+                    Node<V> target = failure.children.get(entry.getKey());
+                    child.failure = target != null && target != child ? target : root;
+                    child.output =
+                            child.failure.keyword != null ? child.failure : child.failure.output;
+                    queue.add(child);
+                }
+            }
+            return new AhoCorasickAutomaton<>(root, keywordSize);
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Emit<V> {
+        /** start offset in text, inclusive */
+        private final int start;
+        /** end offset in text, exclusive */
+        private final int end;
+        private final String keyword;
+        private final List<V> values;
+    }
+
+    private static class Node<V> {
+        private final Map<Character, Node<V>> children = new HashMap<>();
+        private final List<V> values = new ArrayList<>();
+        private String keyword;
+        private Node<V> failure;
+        /** nearest node on the failure chain which ends a keyword */
+        private Node<V> output;
+    }
+}
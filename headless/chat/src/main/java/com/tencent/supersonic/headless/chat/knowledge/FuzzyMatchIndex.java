@@ -0,0 +1,252 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable approximate string index. Character bi-gram postings pre-filter candidates by the
+ * q-gram lemma, a BK-tree answers edit distance queries which the gram filter cannot prune. Words
+ * containing the query are matched like any other word, only if they reach the similarity.
+ * Similarity is {@code 1 - distance / max(length)} as in EditDistanceUtils, but over plain
+ * Levenshtein distance (a transposition counts as two edits) so that the BK-tree metric holds.
+ * Words are compared case-insensitively.
+ */
+public class FuzzyMatchIndex<V> {
+
+    private static final int GRAM_SIZE = 2;
+    private static final int[] EMPTY_POSTING = new int[0];
+
+    private final String[] words;
+    private final String[] keys;
+    private final List<List<V>> values;
+    private final Map<String, int[]> postings;
+    private final BkNode root;
+
+    private FuzzyMatchIndex(String[] words, String[] keys, List<List<V>> values,
+            Map<String, int[]> postings, BkNode root) {
+        this.words = words;
+        this.keys = keys;
+        this.values = values;
+        this.postings = postings;
+        this.root = root;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Find words whose similarity to the query reaches the threshold.
+     *
+     * @param query query text
+     * @param minSimilarity similarity threshold in [0, 1]
+     * @param limit max results, ordered by similarity desc
+     */
+    public List<Match<V>> search(String query, double minSimilarity, int limit) {
+        if (StringUtils.isEmpty(query) || words.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String key = query.toLowerCase();
+        Map<Integer, Double> hits = new HashMap<>();
+        int maxDistance = maxDistance(key.length(), minSimilarity);
+        for (int id : similar(key, maxDistance)) {
+            double similarity = similarity(key, keys[id], distance(key, keys[id]));
+            if (similarity >= minSimilarity) {
+                hits.put(id, similarity);
+            }
+        }
+        return hits.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(entry -> words[entry.getKey()].length()))
+                .limit(limit).map(entry -> new Match<>(words[entry.getKey()], entry.getValue(),
+                        Collections.unmodifiableList(values.get(entry.getKey()))))
+                .toList();
+    }
+
+    /**
+     * ids of the words within maxDistance of the key. For long keys the q-gram lemma prunes the
+     * candidates by shared gram count, otherwise the BK-tree is walked.
+     */
+    private List<Integer> similar(String key, int maxDistance) {
+        int minSharedGrams = key.length() - GRAM_SIZE + 1 - maxDistance * GRAM_SIZE;
+        if (minSharedGrams > 0) {
+            Map<Integer, Integer> sharedGrams = new HashMap<>();
+            for (int i = 0; i + GRAM_SIZE <= key.length(); i++) {
+                for (int id : postings.getOrDefault(key.substring(i, i + GRAM_SIZE),
+                        EMPTY_POSTING)) {
+                    sharedGrams.merge(id, 1, Integer::sum);
+                }
+            }
+            List<Integer> ids = new ArrayList<>();
+            sharedGrams.forEach((id, count) -> {
+                if (count >= minSharedGrams && distance(key, keys[id]) <= maxDistance) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+        List<Integer> ids = new ArrayList<>();
+        if (root == null) {
+            return ids;
+        }
+        Deque<BkNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            BkNode node = stack.pop();
+            int distance = distance(key, keys[node.id]);
+            if (distance <= maxDistance) {
+                ids.add(node.id);
+            }
+            if (node.children == null) {
+                continue;
+            }
+            for (Map.Entry<Integer, BkNode> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    stack.push(child.getValue());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Largest edit distance which may still reach the similarity. The matched word may be longer
+     * than the key, so {@code d <= (1 - s) * (|key| + d)} bounds it.
+     */
+    static int maxDistance(int keyLength, double minSimilarity) {
+        if (minSimilarity <= 0) {
+            return keyLength;
+        }
+        return (int) Math.floor((1 - minSimilarity) * keyLength / minSimilarity + 1e-9);
+    }
+
+    static double similarity(String a, String b, int distance) {
+        return 1 - (double) distance / Math.max(a.length(), b.length());
+    }
+
+    static int distance(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    public static class Builder<V> {
+
+        private final Map<String, List<V>> wordToValues = new LinkedHashMap<>();
+
+        public Builder<V> add(String word, V value) {
+            if (StringUtils.isNotEmpty(word)) {
+                wordToValues.computeIfAbsent(word, k -> new ArrayList<>()).add(value);
+            }
+            return this;
+        }
+
+        public Builder<V> remove(String word) {
+            wordToValues.remove(word);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return wordToValues.isEmpty();
+        }
+
+        /** The builder stays usable, later changes do not affect the built index. */
+        public FuzzyMatchIndex<V> build() {
+            int size = wordToValues.size();
+            String[] words = new String[size];
+            String[] keys = new String[size];
+            List<List<V>> values = new ArrayList<>(size);
+            Map<String, List<Integer>> gramToIds = new HashMap<>();
+            BkNode root = null;
+            int id = 0;
+            for (Map.Entry<String, List<V>> entry : wordToValues.entrySet()) {
+                words[id] = entry.getKey();
+                keys[id] = entry.getKey().toLowerCase();
+                values.add(new ArrayList<>(entry.getValue()));
+                for (int i = 0; i + GRAM_SIZE <= keys[id].length(); i++) {
+                    String gram = keys[id].substring(i, i + GRAM_SIZE);
+                    List<Integer> ids = gramToIds.computeIfAbsent(gram, k -> new ArrayList<>());
+                    // ids are added in ascending order, only the tail may be a duplicate
+                    if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                        ids.add(id);
+                    }
+                }
+                root = insert(root, keys, id);
+                id++;
+            }
+            Map<String, int[]> postings = new HashMap<>(gramToIds.size() * 2);
+            gramToIds.forEach((gram, ids) -> postings.put(gram,
+                    ids.stream().mapToInt(Integer::intValue).toArray()));
+            return new FuzzyMatchIndex<>(words, keys, values, postings, root);
+        }
+
+        private BkNode insert(BkNode root, String[] keys, int id) {
+            if (root == null) {
+                return new BkNode(id);
+            }
+            BkNode node = root;
+            while (true) {
+                int distance = distance(keys[id], keys[node.id]);
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                BkNode child = node.children.get(distance);
+                if (child == null) {
+                    node.children.put(distance, new BkNode(id));
+                    return root;
+                }
+                node = child;
+            }
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Match<V> {
+        private final String word;
+        private final double similarity;
+        private final List<V> values;
+    }
+
+    private static class BkNode {
+        private final int id;
+        private Map<Integer, BkNode> children;
+
+        private BkNode(int id) {
+            this.id = id;
+        }
+    }
+}
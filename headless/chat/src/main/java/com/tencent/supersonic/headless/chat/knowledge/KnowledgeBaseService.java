@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.headless.api.pojo.response.S2Term;
 import com.tencent.supersonic.headless.chat.knowledge.helper.HanlpHelper;
+import com.tencent.supersonic.headless.chat.mapper.MapperConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -12,6 +15,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -23,6 +27,9 @@ public class KnowledgeBaseService {
     private static final Map<Long, List<DictWord>> dimValueAliasMap = new ConcurrentHashMap<>();
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+    @Autowired
+    private MapperConfig mapperConfig;
+
     /**
      * Get dimension value alias map (read-only).
      *
@@ -103,9 +110,11 @@ public class KnowledgeBaseService {
         lock.writeLock().lock();
         try {
             updateSemanticKnowledgeInternal(natures);
+            lock.readLock().lock();
         } finally {
             lock.writeLock().unlock();
         }
+        refreshFuzzyIndexWithReadLock();
     }
 
     private void updateSemanticKnowledgeInternal(List<DictWord> natures) {
@@ -124,6 +133,36 @@ public class KnowledgeBaseService {
         SearchService.loadSuffix(suffixes);
     }
 
+    /**
+     * Remove semantic knowledge (incremental remove, no clearing). Only the given natures are
+     * detached from their words, natures of other models sharing the same word are kept.
+     *
+     * @param natures the words to remove
+     */
+    public void removeSemanticKnowledge(List<DictWord> natures) {
+        if (CollectionUtils.isEmpty(natures)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (DictWord nature : natures) {
+                if (StringUtils.isBlank(nature.getNature())) {
+                    nature.setNature(StringUtils.substringBefore(nature.getNatureWithFrequency(),
+                            DictWordType.SPACE));
+                }
+                if (nature.getNatureWithFrequency().contains(DictWordType.SUFFIX.getType())) {
+                    SearchService.removeSuffix(nature);
+                } else {
+                    HanlpHelper.removeFromCustomDictionary(nature);
+                }
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        refreshFuzzyIndexWithReadLock();
+    }
+
     /**
      * Reload all knowledge (full replacement with clearing). Use this method to rebuild the entire
      * knowledge base.
@@ -149,9 +188,32 @@ public class KnowledgeBaseService {
                 }
             }
             updateSemanticKnowledgeInternal(natures);
+            lock.readLock().lock();
         } finally {
             lock.writeLock().unlock();
         }
+        // 3. refresh fuzzy index under the downgraded read lock, searches are not blocked
+        refreshFuzzyIndexWithReadLock();
+    }
+
+    /**
+     * Rebuild the fuzzy index partitions of the changed words, the caller must hold the read lock
+     * which is released here. The index is built on the first fuzzy search and dropped while fuzzy
+     * matching is off.
+     */
+    private void refreshFuzzyIndexWithReadLock() {
+        try {
+            SearchService.refreshFuzzyIndex(isFuzzyEnabled());
+        } catch (Exception e) {
+            log.error("refreshFuzzyIndex error", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isFuzzyEnabled() {
+        return Objects.nonNull(mapperConfig) && Boolean
+                .parseBoolean(mapperConfig.getParameterValue(MapperConfig.MAPPER_FUZZY_ENABLE));
     }
 
     public List<S2Term> getTerms(String text, Map<Long, List<Long>> modelIdToDataSetIds) {
@@ -183,6 +245,17 @@ public class KnowledgeBaseService {
         }
     }
 
+    public List<HanlpMapResult> fuzzySearch(String key, int limit, double minSimilarity,
+            Map<Long, List<Long>> modelIdToDataSetIds, Set<Long> detectDataSetIds) {
+        lock.readLock().lock();
+        try {
+            return SearchService.fuzzySearch(key, limit, minSimilarity, modelIdToDataSetIds,
+                    detectDataSetIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public List<HanlpMapResult> suffixSearch(String key, int limit,
             Map<Long, List<Long>> modelIdToDataSetIds, Set<Long> detectDataSetIds) {
         lock.readLock().lock();
@@ -0,0 +1,177 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
+import com.tencent.supersonic.headless.api.pojo.SemanticSchema;
+import com.tencent.supersonic.headless.chat.utils.SchemaFingerprintUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaElementMatcher keeps one compiled Aho-Corasick automaton per data set over the names and
+ * aliases of its metrics and dimensions, together with a fuzzy index over their names. Both are
+ * recompiled lazily whenever the fingerprint of the names and aliases changes. They only hold the
+ * type and id of the elements, which are looked up in the data set schema the query is parsed
+ * against, so the other fields of the matched elements are always current.
+ */
+@Service
+@Slf4j
+public class SchemaElementMatcher {
+
+    private final Map<Long, CompiledDataSet> compiledDataSets = new ConcurrentHashMap<>();
+
+    /**
+     * Find every exact occurrence of a metric/dimension name or alias in the text.
+     *
+     * @param text query text
+     * @param semanticSchema semantic schema of the query
+     * @param detectDataSetIds data sets to match against, all data sets if empty
+     * @return emits ordered by end offset
+     */
+    public List<AhoCorasickAutomaton.Emit<SchemaElement>> match(String text,
+            SemanticSchema semanticSchema, Set<Long> detectDataSetIds) {
+        List<AhoCorasickAutomaton.Emit<SchemaElement>> emits = new ArrayList<>();
+        if (StringUtils.isBlank(text) || Objects.isNull(semanticSchema)) {
+            return emits;
+        }
+        for (DataSetSchema dataSetSchema : semanticSchema.getDataSetSchemaMap().values()) {
+            if (!CollectionUtils.isEmpty(detectDataSetIds)
+                    && !detectDataSetIds.contains(dataSetSchema.getDataSetId())) {
+                continue;
+            }
+            List<AhoCorasickAutomaton.Emit<ElementKey>> found =
+                    getCompiled(dataSetSchema).automaton.findAll(text);
+            if (found.isEmpty()) {
+                continue;
+            }
+            Map<ElementKey, SchemaElement> elements = getElements(dataSetSchema);
+            for (AhoCorasickAutomaton.Emit<ElementKey> emit : found) {
+                emits.add(new AhoCorasickAutomaton.Emit<>(emit.getStart(), emit.getEnd(),
+                        emit.getKeyword(), resolve(emit.getValues(), elements)));
+            }
+        }
+        return emits;
+    }
+
+    /**
+     * Find the metric/dimension names containing the segment or similar to it.
+     *
+     * @param segment query text segment
+     * @param minSimilarity similarity threshold
+     * @param semanticSchema semantic schema of the query
+     * @param detectDataSetIds data sets to match against, all data sets if empty
+     * @return matched names with their schema elements
+     */
+    public List<FuzzyMatchIndex.Match<SchemaElement>> fuzzyMatch(String segment,
+            double minSimilarity, SemanticSchema semanticSchema, Set<Long> detectDataSetIds) {
+        List<FuzzyMatchIndex.Match<SchemaElement>> matches = new ArrayList<>();
+        if (StringUtils.isBlank(segment) || Objects.isNull(semanticSchema)) {
+            return matches;
+        }
+        for (DataSetSchema dataSetSchema : semanticSchema.getDataSetSchemaMap().values()) {
+            if (!CollectionUtils.isEmpty(detectDataSetIds)
+                    && !detectDataSetIds.contains(dataSetSchema.getDataSetId())) {
+                continue;
+            }
+            List<FuzzyMatchIndex.Match<ElementKey>> found = getCompiled(dataSetSchema).nameIndex
+                    .search(segment, minSimilarity, Integer.MAX_VALUE);
+            if (found.isEmpty()) {
+                continue;
+            }
+            Map<ElementKey, SchemaElement> elements = getElements(dataSetSchema);
+            for (FuzzyMatchIndex.Match<ElementKey> match : found) {
+                matches.add(new FuzzyMatchIndex.Match<>(match.getWord(), match.getSimilarity(),
+                        resolve(match.getValues(), elements)));
+            }
+        }
+        return matches;
+    }
+
+    public void evict(Long dataSetId) {
+        if (Objects.isNull(dataSetId)) {
+            compiledDataSets.clear();
+            return;
+        }
+        compiledDataSets.remove(dataSetId);
+    }
+
+    private Map<ElementKey, SchemaElement> getElements(DataSetSchema dataSetSchema) {
+        Map<ElementKey, SchemaElement> elements = new HashMap<>();
+        dataSetSchema.getMetrics()
+                .forEach(element -> elements.put(ElementKey.of(element), element));
+        dataSetSchema.getDimensions()
+                .forEach(element -> elements.put(ElementKey.of(element), element));
+        return elements;
+    }
+
+    private List<SchemaElement> resolve(List<ElementKey> keys,
+            Map<ElementKey, SchemaElement> elements) {
+        List<SchemaElement> resolved = new ArrayList<>(keys.size());
+        for (ElementKey key : keys) {
+            SchemaElement element = elements.get(key);
+            if (Objects.nonNull(element)) {
+                resolved.add(element);
+            }
+        }
+        return resolved;
+    }
+
+    private CompiledDataSet getCompiled(DataSetSchema dataSetSchema) {
+        List<SchemaElement> elements = new ArrayList<>(dataSetSchema.getMetrics());
+        elements.addAll(dataSetSchema.getDimensions());
+        long fingerprint = SchemaFingerprintUtils.fingerprint(elements);
+        CompiledDataSet compiled = compiledDataSets.get(dataSetSchema.getDataSetId());
+        if (Objects.isNull(compiled) || compiled.fingerprint != fingerprint) {
+            compiled = compile(fingerprint, elements);
+            compiledDataSets.put(dataSetSchema.getDataSetId(), compiled);
+            log.debug("compiled schema matcher, dataSetId:{}, keywords:{}, names:{}",
+                    dataSetSchema.getDataSetId(), compiled.automaton.getKeywordSize(),
+                    compiled.nameIndex.size());
+        }
+        return compiled;
+    }
+
+    private CompiledDataSet compile(long fingerprint, List<SchemaElement> elements) {
+        AhoCorasickAutomaton.Builder<ElementKey> automaton = AhoCorasickAutomaton.builder();
+        FuzzyMatchIndex.Builder<ElementKey> nameIndex = FuzzyMatchIndex.builder();
+        for (SchemaElement element : elements) {
+            ElementKey key = ElementKey.of(element);
+            automaton.add(element.getName(), key);
+            nameIndex.add(element.getName(), key);
+            if (!CollectionUtils.isEmpty(element.getAlias())) {
+                element.getAlias().forEach(alias -> automaton.add(alias, key));
+            }
+        }
+        return new CompiledDataSet(fingerprint, automaton.build(), nameIndex.build());
+    }
+
+    @AllArgsConstructor
+    private static class CompiledDataSet {
+        private final long fingerprint;
+        private final AhoCorasickAutomaton<ElementKey> automaton;
+        private final FuzzyMatchIndex<ElementKey> nameIndex;
+    }
+
+    @Data
+    private static class ElementKey {
+        private final SchemaElementType type;
+        private final Long id;
+
+        private static ElementKey of(SchemaElement element) {
+            return new ElementKey(element.getType(), element.getId());
+        }
+    }
+}
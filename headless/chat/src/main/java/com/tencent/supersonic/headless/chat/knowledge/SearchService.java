@@ -9,6 +9,7 @@ import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.headless.api.pojo.request.DimensionValueReq;
 import com.tencent.supersonic.headless.chat.knowledge.helper.NatureHelper;
 import com.tencent.supersonic.headless.chat.utils.EditDistanceUtils;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
@@ -16,7 +17,10 @@ import org.springframework.util.CollectionUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -33,6 +37,14 @@ public class SearchService {
     public static final int SEARCH_SIZE = 200;
     private static volatile BinTrie<List<String>> trie;
     private static volatile BinTrie<List<String>> suffixTrie;
+    /**
+     * fuzzy index of the prefix trie words, partitioned by the nature type and its model or data
+     * set id, null while fuzzy matching is off
+     */
+    private static volatile Map<FuzzyPartition, FuzzyMatchIndex<String>> fuzzyIndexes;
+    /** words of the fuzzy index partitions, kept in step with the prefix trie changes */
+    private static volatile Map<FuzzyPartition, FuzzyMatchIndex.Builder<String>> fuzzyWords;
+    private static final Set<FuzzyPartition> changedFuzzyPartitions = new HashSet<>();
 
     static {
         trie = new BinTrie<>();
@@ -101,6 +113,140 @@ public class SearchService {
                 limit);
     }
 
+    /**
+     * * fuzzy Search, matches words containing the key or within edit distance of it
+     *
+     * @param key
+     * @return
+     */
+    public static List<HanlpMapResult> fuzzySearch(String key, int limit, double minSimilarity,
+            Map<Long, List<Long>> modelIdToDataSetIds, Set<Long> detectDataSetIds) {
+        Set<Long> modelIds = NatureHelper.getModelIds(modelIdToDataSetIds, detectDataSetIds);
+        Map<FuzzyPartition, FuzzyMatchIndex<String>> indexes = buildFuzzyIndex();
+        Map<String, List<String>> wordToNatures = new LinkedHashMap<>();
+        Map<String, Double> wordToSimilarity = new HashMap<>();
+        for (Map.Entry<FuzzyPartition, FuzzyMatchIndex<String>> entry : indexes.entrySet()) {
+            if (!CollectionUtils.isEmpty(detectDataSetIds)
+                    && !isDetected(entry.getKey(), modelIds, detectDataSetIds)) {
+                continue;
+            }
+            for (FuzzyMatchIndex.Match<String> match : entry.getValue().search(key.toLowerCase(),
+                    minSimilarity, limit)) {
+                wordToNatures.computeIfAbsent(match.getWord(), k -> new ArrayList<>())
+                        .addAll(match.getValues());
+                wordToSimilarity.put(match.getWord(), match.getSimilarity());
+            }
+        }
+        List<HanlpMapResult> hanlpMapResults = wordToNatures.entrySet().stream().map(entry -> {
+            String name = entry.getKey().replace("#", " ");
+            return new HanlpMapResult(name, entry.getValue(), key,
+                    wordToSimilarity.get(entry.getKey()));
+        }).sorted(Comparator.comparingDouble(HanlpMapResult::getSimilarity).reversed())
+                .collect(Collectors.toList());
+        return transformAndFilterByDataSet(hanlpMapResults, modelIdToDataSetIds, detectDataSetIds,
+                limit);
+    }
+
+    /**
+     * Build the fuzzy indexes from the prefix trie if fuzzy matching was off, later trie changes
+     * update them incrementally. The caller must hold the read lock of the trie.
+     */
+    private static synchronized Map<FuzzyPartition, FuzzyMatchIndex<String>> buildFuzzyIndex() {
+        if (Objects.nonNull(fuzzyIndexes)) {
+            return fuzzyIndexes;
+        }
+        long startTime = System.currentTimeMillis();
+        Map<FuzzyPartition, FuzzyMatchIndex.Builder<String>> words = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : trie.entrySet()) {
+            for (String nature : entry.getValue()) {
+                FuzzyPartition partition = getFuzzyPartition(nature);
+                if (partition != null) {
+                    words.computeIfAbsent(partition, k -> FuzzyMatchIndex.builder())
+                            .add(entry.getKey(), nature);
+                }
+            }
+        }
+        Map<FuzzyPartition, FuzzyMatchIndex<String>> indexes = new HashMap<>();
+        words.forEach((partition, builder) -> indexes.put(partition, builder.build()));
+        fuzzyWords = words;
+        fuzzyIndexes = indexes;
+        changedFuzzyPartitions.clear();
+        log.info("fuzzy index has been built in {} milliseconds, partitions:{}",
+                System.currentTimeMillis() - startTime, indexes.size());
+        return indexes;
+    }
+
+    /**
+     * Rebuild the fuzzy index partitions whose words changed since the last refresh, or drop the
+     * fuzzy indexes if fuzzy matching is off.
+     */
+    public static synchronized void refreshFuzzyIndex(boolean enabled) {
+        if (!enabled) {
+            fuzzyWords = null;
+            fuzzyIndexes = null;
+            changedFuzzyPartitions.clear();
+            return;
+        }
+        if (Objects.isNull(fuzzyIndexes) || changedFuzzyPartitions.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Map<FuzzyPartition, FuzzyMatchIndex<String>> indexes = new HashMap<>(fuzzyIndexes);
+        for (FuzzyPartition partition : changedFuzzyPartitions) {
+            FuzzyMatchIndex.Builder<String> builder = fuzzyWords.get(partition);
+            if (Objects.isNull(builder) || builder.isEmpty()) {
+                fuzzyWords.remove(partition);
+                indexes.remove(partition);
+            } else {
+                indexes.put(partition, builder.build());
+            }
+        }
+        fuzzyIndexes = indexes;
+        log.info("fuzzy index has been refreshed in {} milliseconds, partitions:{}",
+                System.currentTimeMillis() - startTime, changedFuzzyPartitions);
+        changedFuzzyPartitions.clear();
+    }
+
+    /** Move the word from the partitions of its previous natures to those of its new natures. */
+    private static synchronized void updateFuzzyWord(String word, List<String> previousNatures,
+            List<String> natures) {
+        if (Objects.isNull(fuzzyWords)) {
+            return;
+        }
+        for (String nature : CollectionUtils.isEmpty(previousNatures) ? List.<String>of()
+                : previousNatures) {
+            FuzzyPartition partition = getFuzzyPartition(nature);
+            FuzzyMatchIndex.Builder<String> builder =
+                    partition == null ? null : fuzzyWords.get(partition);
+            if (Objects.nonNull(builder)) {
+                builder.remove(word);
+                changedFuzzyPartitions.add(partition);
+            }
+        }
+        for (String nature : CollectionUtils.isEmpty(natures) ? List.<String>of() : natures) {
+            FuzzyPartition partition = getFuzzyPartition(nature);
+            if (partition != null) {
+                fuzzyWords.computeIfAbsent(partition, k -> FuzzyMatchIndex.builder()).add(word,
+                        nature);
+                changedFuzzyPartitions.add(partition);
+            }
+        }
+    }
+
+    private static FuzzyPartition getFuzzyPartition(String nature) {
+        Long id = NatureHelper.parseIdFromNature(nature, 1);
+        return id == null ? null : new FuzzyPartition(DictWordType.getNatureType(nature), id);
+    }
+
+    private static boolean isDetected(FuzzyPartition partition, Set<Long> modelIds,
+            Set<Long> detectDataSetIds) {
+        if (DictWordType.DATASET.equals(partition.getType())
+                || DictWordType.TERM.equals(partition.getType())) {
+            return detectDataSetIds.contains(partition.getId());
+        }
+        return modelIds.contains(partition.getId());
+    }
+
     private static List<HanlpMapResult> transformAndFilterByDataSet(
             List<HanlpMapResult> hanlpMapResults, Map<Long, List<Long>> modelIdToDataSetIds,
             Set<Long> detectDataSetIds, int limit) {
@@ -152,10 +298,22 @@ public class SearchService {
         log.debug("clear all trie");
         trie = new BinTrie<>();
         suffixTrie = new BinTrie<>();
+        clearFuzzyIndex();
+    }
+
+    private static synchronized void clearFuzzyIndex() {
+        if (Objects.nonNull(fuzzyIndexes)) {
+            fuzzyWords = new HashMap<>();
+            fuzzyIndexes = new HashMap<>();
+            changedFuzzyPartitions.clear();
+        }
     }
 
     public static void put(String key, CoreDictionary.Attribute attribute) {
-        trie.put(key, getValue(attribute.nature));
+        List<String> natures = getValue(attribute.nature);
+        List<String> previousNatures = Objects.isNull(fuzzyWords) ? null : trie.get(key);
+        trie.put(key, natures);
+        updateFuzzyWord(key, previousNatures, natures);
     }
 
     public static void loadSuffix(List<DictWord> suffixes) {
@@ -188,16 +346,35 @@ public class SearchService {
     }
 
     public static void remove(DictWord dictWord, Nature[] natures) {
+        List<String> previousNatures =
+                Objects.isNull(fuzzyWords) ? null : trie.get(dictWord.getWord());
         trie.remove(dictWord.getWord());
+        List<String> remainNatures = null;
         if (Objects.nonNull(natures) && natures.length > 0) {
-            trie.put(dictWord.getWord(), getValue(natures));
+            remainNatures = getValue(natures);
+            trie.put(dictWord.getWord(), remainNatures);
         }
+        updateFuzzyWord(dictWord.getWord(), previousNatures, remainNatures);
         if (dictWord.getNature().contains(DictWordType.METRIC.getType())
                 || dictWord.getNature().contains(DictWordType.DIMENSION.getType())) {
             suffixTrie.remove(dictWord.getWord());
         }
     }
 
+    public static void removeSuffix(DictWord dictWord) {
+        List<String> natures = suffixTrie.get(dictWord.getWord());
+        if (CollectionUtils.isEmpty(natures)) {
+            return;
+        }
+        List<String> remainNatures =
+                natures.stream().filter(nature -> !nature.equals(dictWord.getNature()))
+                        .collect(Collectors.toList());
+        suffixTrie.remove(dictWord.getWord());
+        if (!CollectionUtils.isEmpty(remainNatures)) {
+            suffixTrie.put(dictWord.getWord(), remainNatures);
+        }
+    }
+
     public static List<String> getDimensionValue(DimensionValueReq dimensionValueReq) {
         String nature = DictWordType.NATURE_SPILT + dimensionValueReq.getModelId()
                 + DictWordType.NATURE_SPILT + dimensionValueReq.getElementID();
@@ -226,4 +403,11 @@ public class SearchService {
         result.addAll(detectDataSetIds);
         return result;
     }
+
+    /** Data set and term natures are owned by a data set, the other natures by a model. */
+    @Data
+    private static class FuzzyPartition {
+        private final DictWordType type;
+        private final Long id;
+    }
 }
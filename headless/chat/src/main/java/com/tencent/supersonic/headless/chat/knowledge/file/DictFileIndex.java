@@ -0,0 +1,257 @@
+package com.tencent.supersonic.headless.chat.knowledge.file;
+
+import com.google.common.primitives.Ints;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sidecar index of a dictionary value file, stored as {@code <file>.idx} next to it. It keeps the
+ * byte offset of every line, so that a page is read with one positional read, and the value of
+ * every line, so that keyword filtering and totals never touch the data file. The length and
+ * modification time of the data file are recorded to detect a stale sidecar.
+ */
+class DictFileIndex {
+
+    static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x53324458;
+    private static final int VERSION = 1;
+    /** approximate heap size of a String object and its array header */
+    private static final int STRING_OVERHEAD = 56;
+
+    private final long fileLength;
+    private final long lastModified;
+    /** line i spans [offsets[i], offsets[i + 1]) of the data file */
+    private final long[] offsets;
+    /** value of each line, null if the line is not a valid dictionary line */
+    private final String[] values;
+    /** approximate heap size of the offsets and values in bytes */
+    private final long weight;
+    private volatile KeywordMatch lastMatch;
+
+    private DictFileIndex(long fileLength, long lastModified, long[] offsets, String[] values) {
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.offsets = offsets;
+        this.values = values;
+        long weight = 8L * offsets.length + 8L * values.length;
+        for (String value : values) {
+            if (Objects.nonNull(value)) {
+                weight += STRING_OVERHEAD + 2L * value.length();
+            }
+        }
+        this.weight = weight;
+    }
+
+    static Path getIndexPath(Path dataPath) {
+        return dataPath.resolveSibling(dataPath.getFileName() + SUFFIX);
+    }
+
+    static DictFileIndex build(Path dataPath) throws IOException {
+        long fileLength = Files.size(dataPath);
+        long lastModified = Files.getLastModifiedTime(dataPath).toMillis();
+        List<Long> offsets = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(dataPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    offsets.add(lineStart);
+                    values.add(parseValue(decode(line)));
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0) {
+                offsets.add(lineStart);
+                values.add(parseValue(decode(line)));
+            }
+            offsets.add(position);
+        }
+        return new DictFileIndex(fileLength, lastModified,
+                offsets.stream().mapToLong(Long::longValue).toArray(),
+                values.toArray(new String[0]));
+    }
+
+    static DictFileIndex read(Path indexPath) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("unsupported dict index:" + indexPath);
+            }
+            long fileLength = in.readLong();
+            long lastModified = in.readLong();
+            int lineCount = in.readInt();
+            long[] offsets = new long[lineCount + 1];
+            for (int i = 0; i <= lineCount; i++) {
+                offsets[i] = in.readLong();
+            }
+            String[] values = new String[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                int length = in.readInt();
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    values[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            return new DictFileIndex(fileLength, lastModified, offsets, values);
+        }
+    }
+
+    void write(Path indexPath) throws IOException {
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(values.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            for (String value : values) {
+                if (Objects.isNull(value)) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    boolean isValidFor(Path dataPath) throws IOException {
+        return Files.size(dataPath) == fileLength
+                && Files.getLastModifiedTime(dataPath).toMillis() == lastModified;
+    }
+
+    int getLineCount() {
+        return values.length;
+    }
+
+    /** weight of the index in the cache of FileHandlerImpl */
+    int getWeight() {
+        return Ints.saturatedCast(weight);
+    }
+
+    /** line numbers of the values containing the keyword, memoized for paging */
+    int[] match(String keyword) {
+        KeywordMatch match = lastMatch;
+        if (Objects.nonNull(match) && match.keyword.equals(keyword)) {
+            return match.lineNos;
+        }
+        int[] lineNos = new int[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (Objects.nonNull(values[i]) && values[i].contains(keyword)) {
+                lineNos[size++] = i;
+            }
+        }
+        int[] result = new int[size];
+        System.arraycopy(lineNos, 0, result, 0, size);
+        lastMatch = new KeywordMatch(keyword, result);
+        return result;
+    }
+
+    /** read lines [from, to) with one positional read */
+    List<String> readLines(Path dataPath, int from, int to) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (from >= to) {
+            return lines;
+        }
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = read(channel, offsets[from], offsets[to]);
+            for (int i = from; i < to; i++) {
+                int start = (int) (offsets[i] - offsets[from]);
+                int end = (int) (offsets[i + 1] - offsets[from]);
+                lines.add(decode(buffer.array(), start, end));
+            }
+        }
+        return lines;
+    }
+
+    /** read the lines lineNos[from, to) */
+    List<String> readLines(Path dataPath, int[] lineNos, int from, int to) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (from >= to) {
+            return lines;
+        }
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            for (int i = from; i < to; i++) {
+                int lineNo = lineNos[i];
+                ByteBuffer buffer = read(channel, offsets[lineNo], offsets[lineNo + 1]);
+                lines.add(decode(buffer.array(), 0, buffer.limit()));
+            }
+        }
+        return lines;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        long position = start;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String decode(ByteArrayOutputStream line) {
+        return decode(line.toByteArray(), 0, line.size());
+    }
+
+    /** decode a line without its line separator */
+    private static String decode(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /** same value as FileHandlerImpl#convert2Resp */
+    static String parseValue(String lineStr) {
+        if (StringUtils.isEmpty(lineStr)) {
+            return null;
+        }
+        String[] itemArray = StringUtils.stripStart(lineStr, null).split("\\s+");
+        if (itemArray.length < 3) {
+            return null;
+        }
+        return itemArray[0].replace("#", " ");
+    }
+
+    @AllArgsConstructor
+    private static class KeywordMatch {
+        private final String keyword;
+        private final int[] lineNos;
+    }
+}
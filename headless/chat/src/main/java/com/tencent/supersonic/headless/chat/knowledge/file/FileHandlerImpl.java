@@ -1,6 +1,8 @@
 package com.tencent.supersonic.headless.chat.knowledge.file;
 
 import com.github.pagehelper.PageInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tencent.supersonic.headless.api.pojo.request.DictValueReq;
 import com.tencent.supersonic.headless.api.pojo.response.DictValueResp;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +24,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -32,6 +33,16 @@ public class FileHandlerImpl implements FileHandler {
 
     private final LocalFileConfig localFileConfig;
 
+    /**
+     * the indexes keep every value of their file in memory, so the cache is bounded by their
+     * approximate size in bytes; an index larger than the bound is read from its sidecar again
+     */
+    private static final long MAX_INDEX_WEIGHT = 64L * 1024 * 1024;
+
+    private final Cache<String, DictFileIndex> dictFileIndexes =
+            CacheBuilder.newBuilder().maximumWeight(MAX_INDEX_WEIGHT)
+                    .weigher((String key, DictFileIndex index) -> index.getWeight()).build();
+
     public FileHandlerImpl(LocalFileConfig localFileConfig) {
         this.localFileConfig = localFileConfig;
     }
@@ -79,61 +90,37 @@ public class FileHandlerImpl implements FileHandler {
 
     @Override
     public PageInfo<DictValueResp> queryDictValue(String fileName, DictValueReq dictValueReq) {
-        if (StringUtils.isEmpty(dictValueReq.getKeyValue())) {
-            return getDictValueRespPagWithoutKey(fileName, dictValueReq);
-        }
-        return getDictValueRespPagWithKey(fileName, dictValueReq);
-    }
-
-    private PageInfo<DictValueResp> getDictValueRespPagWithKey(String fileName,
-            DictValueReq dictValueReq) {
         PageInfo<DictValueResp> dictValueRespPageInfo = new PageInfo<>();
         dictValueRespPageInfo.setPageSize(dictValueReq.getPageSize());
         dictValueRespPageInfo.setPageNum(dictValueReq.getCurrent());
-        String filePath = localFileConfig.getDictDirectoryLatest() + FILE_SPILT + fileName;
-        Long fileLineNum = getFileLineNum(filePath);
-        Integer startLine = 1;
-        List<DictValueResp> dictValueRespList =
-                getFileData(filePath, startLine, fileLineNum.intValue()).stream().filter(
-                        dictValue -> dictValue.getValue().contains(dictValueReq.getKeyValue()))
-                        .collect(Collectors.toList());
-        if (CollectionUtils.isEmpty(dictValueRespList)) {
-            dictValueRespPageInfo.setList(new ArrayList<>());
+        dictValueRespPageInfo.setList(new ArrayList<>());
+        Path path = Paths.get(localFileConfig.getDictDirectoryLatest() + FILE_SPILT + fileName);
+        DictFileIndex dictFileIndex = getDictFileIndex(path);
+        if (Objects.isNull(dictFileIndex)) {
             return dictValueRespPageInfo;
         }
 
-        Integer startIndex =
-                Math.max((dictValueReq.getCurrent() - 1) * dictValueReq.getPageSize(), 0);
-        Integer endIndex =
-                Integer.valueOf(Math.min(dictValueReq.getCurrent() * dictValueReq.getPageSize(),
-                        dictValueRespList.size()) + "");
-        List<DictValueResp> list = dictValueRespList.subList(startIndex, endIndex);
-        dictValueRespPageInfo.setPageSize(dictValueReq.getPageSize());
-        dictValueRespPageInfo.setPageNum(dictValueReq.getCurrent());
-        dictValueRespPageInfo.setTotal(dictValueRespList.size());
-        dictValueRespPageInfo.setList(list);
-        dictValueRespPageInfo.setHasNextPage(endIndex >= dictValueRespList.size() ? false : true);
-        dictValueRespPageInfo.setHasPreviousPage(startLine <= 0 ? false : true);
-        return dictValueRespPageInfo;
-    }
-
-    private PageInfo<DictValueResp> getDictValueRespPagWithoutKey(String fileName,
-            DictValueReq dictValueReq) {
-        PageInfo<DictValueResp> dictValueRespPageInfo = new PageInfo<>();
-        String filePath = localFileConfig.getDictDirectoryLatest() + FILE_SPILT + fileName;
-        Long fileLineNum = getFileLineNum(filePath);
-        Integer startLine =
-                Math.max(1, (dictValueReq.getCurrent() - 1) * dictValueReq.getPageSize() + 1);
-        Integer endLine = Integer.valueOf(
-                Math.min(dictValueReq.getCurrent() * dictValueReq.getPageSize(), fileLineNum) + "");
-        List<DictValueResp> dictValueRespList = getFileData(filePath, startLine, endLine);
-
-        dictValueRespPageInfo.setPageSize(dictValueReq.getPageSize());
-        dictValueRespPageInfo.setPageNum(dictValueReq.getCurrent());
-        dictValueRespPageInfo.setTotal(fileLineNum);
-        dictValueRespPageInfo.setList(dictValueRespList);
-        dictValueRespPageInfo.setHasNextPage(endLine >= fileLineNum ? false : true);
-        dictValueRespPageInfo.setHasPreviousPage(startLine <= 1 ? false : true);
+        int[] lineNos = StringUtils.isEmpty(dictValueReq.getKeyValue()) ? null
+                : dictFileIndex.match(dictValueReq.getKeyValue());
+        int total = Objects.isNull(lineNos) ? dictFileIndex.getLineCount() : lineNos.length;
+        int startIndex = Math.min(
+                Math.max((dictValueReq.getCurrent() - 1) * dictValueReq.getPageSize(), 0), total);
+        int endIndex =
+                Math.max(Math.min(dictValueReq.getCurrent() * dictValueReq.getPageSize(), total),
+                        startIndex);
+        try {
+            List<String> lines =
+                    Objects.isNull(lineNos) ? dictFileIndex.readLines(path, startIndex, endIndex)
+                            : dictFileIndex.readLines(path, lineNos, startIndex, endIndex);
+            dictValueRespPageInfo
+                    .setList(lines.stream().map(this::convert2Resp).collect(Collectors.toList()));
+        } catch (IOException e) {
+            log.warn("[queryDictValue] read file:{} error, e:", getAbsolutePath(path.toString()),
+                    e);
+        }
+        dictValueRespPageInfo.setTotal(total);
+        dictValueRespPageInfo.setHasNextPage(endIndex < total);
+        dictValueRespPageInfo.setHasPreviousPage(startIndex > 0);
         return dictValueRespPageInfo;
     }
 
@@ -147,31 +134,6 @@ public class FileHandlerImpl implements FileHandler {
         return null;
     }
 
-    /**
-     *
-     * @param filePath
-     * @param startLine 1开始
-     * @param endLine
-     * @return
-     */
-    private List<DictValueResp> getFileData(String filePath, Integer startLine, Integer endLine) {
-        List<DictValueResp> fileData = new ArrayList<>();
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) {
-            log.warn("[getFileData] File does not exist: {}", getAbsolutePath(filePath));
-            return fileData;
-        }
-
-        try (Stream<String> lines = Files.lines(path)) {
-            fileData = lines.skip(startLine - 1).limit(endLine - startLine + 1)
-                    .map(lineStr -> convert2Resp(lineStr)).filter(line -> Objects.nonNull(line))
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            log.warn("[getFileData] e:{}", e);
-        }
-        return fileData;
-    }
-
     private DictValueResp convert2Resp(String lineStr) {
         DictValueResp dictValueResp = new DictValueResp();
         if (StringUtils.isNotEmpty(lineStr)) {
@@ -186,20 +148,41 @@ public class FileHandlerImpl implements FileHandler {
         return dictValueResp;
     }
 
-    private Long getFileLineNum(String filePath) {
-        Path path = Paths.get(filePath);
+    /**
+     * get the sidecar index of a dictionary file, rebuilding it when it is missing or older than
+     * the file, e.g. for files written before the index existed
+     */
+    private DictFileIndex getDictFileIndex(Path path) {
         if (!Files.exists(path)) {
-            log.warn("[getFileData] File does not exist: {}", getAbsolutePath(filePath));
-            return 0L;
+            log.warn("[getDictFileIndex] File does not exist: {}", path.toAbsolutePath());
+            return null;
         }
-
-        try (Stream<String> lines = Files.lines(path)) {
-            Long lineCount = lines.count();
-            return lineCount;
+        String key = path.toAbsolutePath().toString();
+        try {
+            DictFileIndex dictFileIndex = dictFileIndexes.getIfPresent(key);
+            if (Objects.nonNull(dictFileIndex) && dictFileIndex.isValidFor(path)) {
+                return dictFileIndex;
+            }
+            Path indexPath = DictFileIndex.getIndexPath(path);
+            if (Files.exists(indexPath)) {
+                dictFileIndex = DictFileIndex.read(indexPath);
+                if (dictFileIndex.isValidFor(path)) {
+                    dictFileIndexes.put(key, dictFileIndex);
+                    return dictFileIndex;
+                }
+            }
+            return writeDictFileIndex(path);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("[getDictFileIndex] path:{} error, e:", key, e);
         }
-        return 0L;
+        return null;
+    }
+
+    private DictFileIndex writeDictFileIndex(Path path) throws IOException {
+        DictFileIndex dictFileIndex = DictFileIndex.build(path);
+        dictFileIndex.write(DictFileIndex.getIndexPath(path));
+        dictFileIndexes.put(path.toAbsolutePath().toString(), dictFileIndex);
+        return dictFileIndex;
     }
 
     @Override
@@ -238,6 +221,12 @@ public class FileHandlerImpl implements FileHandler {
             log.info("File:{} written successfully!", getAbsolutePath(filePath));
         } catch (IOException e) {
             log.info("Failed to write file:{}, e:", getAbsolutePath(filePath), e);
+            return;
+        }
+        try {
+            writeDictFileIndex(Paths.get(filePath));
+        } catch (IOException e) {
+            log.warn("Failed to write index of file:{}, e:", getAbsolutePath(filePath), e);
         }
     }
 
@@ -253,7 +242,14 @@ public class FileHandlerImpl implements FileHandler {
     @Override
     public Boolean deleteDictFile(String fileName) {
         backupFile(fileName);
-        deleteFile(localFileConfig.getDictDirectoryLatest() + FILE_SPILT + fileName);
+        String filePath = localFileConfig.getDictDirectoryLatest() + FILE_SPILT + fileName;
+        deleteFile(filePath);
+        dictFileIndexes.invalidate(getAbsolutePath(filePath));
+        try {
+            Files.deleteIfExists(DictFileIndex.getIndexPath(Paths.get(filePath)));
+        } catch (IOException e) {
+            log.warn("Failed to delete index of file:{}, e:", getAbsolutePath(filePath), e);
+        }
         return true;
     }
 
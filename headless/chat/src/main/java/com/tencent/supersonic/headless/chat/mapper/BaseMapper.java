@@ -50,6 +50,17 @@ public abstract class BaseMapper implements SchemaMapper {
 
     public abstract void doMap(ChatQueryContext chatQueryContext);
 
+    @Override
+    public void merge(ChatQueryContext chatQueryContext, SchemaMapInfo mapInfo) {
+        for (Map.Entry<Long, List<SchemaElementMatch>> entry : mapInfo.getDataSetElementMatches()
+                .entrySet()) {
+            for (SchemaElementMatch elementMatch : entry.getValue()) {
+                addToSchemaMap(chatQueryContext.getMapInfo(), entry.getKey(), elementMatch);
+            }
+        }
+        MapFilter.filter(chatQueryContext);
+    }
+
     protected boolean accept(ChatQueryContext chatQueryContext) {
         return true;
     }
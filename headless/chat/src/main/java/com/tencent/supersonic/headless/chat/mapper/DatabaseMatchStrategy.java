@@ -4,38 +4,81 @@ import com.tencent.supersonic.headless.api.pojo.SchemaElement;
 import com.tencent.supersonic.headless.api.pojo.SchemaElementMatch;
 import com.tencent.supersonic.headless.api.pojo.response.S2Term;
 import com.tencent.supersonic.headless.chat.ChatQueryContext;
+import com.tencent.supersonic.headless.chat.knowledge.AhoCorasickAutomaton;
 import com.tencent.supersonic.headless.chat.knowledge.DatabaseMapResult;
-import com.tencent.supersonic.headless.chat.utils.EditDistanceUtils;
+import com.tencent.supersonic.headless.chat.knowledge.FuzzyMatchIndex;
+import com.tencent.supersonic.headless.chat.knowledge.SchemaElementMatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
- * DatabaseMatchStrategy uses SQL LIKE operator to match schema elements. It currently supports
- * fuzzy matching against names and aliases.
+ * DatabaseMatchStrategy matches schema elements against the names and aliases of metrics and
+ * dimensions. Exact occurrences are found in one pass by the compiled automaton of
+ * SchemaElementMatcher, fuzzy matching by edit distance is only applied to the spans of the query
+ * text that no exact occurrence covers, with candidates taken from the fuzzy name index instead of
+ * a scan over all names.
  */
 @Service
 @Slf4j
 public class DatabaseMatchStrategy extends SingleMatchStrategy<DatabaseMapResult> {
 
-    private ThreadLocal<List<SchemaElement>> allElements = ThreadLocal.withInitial(ArrayList::new);
+    private static final double EXACT_SIMILARITY = 1.0d;
+
+    @Autowired
+    private SchemaElementMatcher schemaElementMatcher;
+
+    private ThreadLocal<Double> threshold = new ThreadLocal<>();
 
     @Override
     public Map<MatchText, List<DatabaseMapResult>> match(ChatQueryContext chatQueryContext,
             List<S2Term> terms, Set<Long> detectDataSetIds) {
-        allElements.set(getSchemaElements(chatQueryContext));
-        return super.match(chatQueryContext, terms, detectDataSetIds);
+        threshold.set(getThreshold(chatQueryContext));
+        try {
+            return super.match(chatQueryContext, terms, detectDataSetIds);
+        } finally {
+            threshold.remove();
+        }
+    }
+
+    @Override
+    public List<DatabaseMapResult> detect(ChatQueryContext chatQueryContext, List<S2Term> terms,
+            Set<Long> detectDataSetIds) {
+        String text = chatQueryContext.getRequest().getQueryText();
+        Set<Integer> boundaries = getWindowBoundaries(terms, text);
+        boolean[] matched = new boolean[text.length()];
+
+        List<DatabaseMapResult> exactResults = new ArrayList<>();
+        for (AhoCorasickAutomaton.Emit<SchemaElement> emit : schemaElementMatcher.match(text,
+                chatQueryContext.getSemanticSchema(), detectDataSetIds)) {
+            // only keep the occurrences aligned with the term windows
+            if (!boundaries.contains(emit.getStart()) || !boundaries.contains(emit.getEnd())) {
+                continue;
+            }
+            Arrays.fill(matched, emit.getStart(), emit.getEnd(), true);
+            String detectSegment = text.substring(emit.getStart(), emit.getEnd());
+            for (SchemaElement schemaElement : emit.getValues()) {
+                exactResults.add(buildMapResult(detectSegment, schemaElement, EXACT_SIMILARITY));
+            }
+        }
+        Set<DatabaseMapResult> results = new HashSet<>();
+        selectResultInOneRound(results, exactResults);
+
+        List<DatabaseMapResult> fuzzyResults = super.detect(chatQueryContext, terms,
+                detectDataSetIds, (start, end) -> isUnmatched(matched, start, end));
+        selectResultInOneRound(results, fuzzyResults);
+        return new ArrayList<>(results);
     }
 
     public List<DatabaseMapResult> detectByStep(ChatQueryContext chatQueryContext,
@@ -44,52 +87,67 @@ public class DatabaseMatchStrategy extends SingleMatchStrategy<DatabaseMapResult
             return new ArrayList<>();
         }
 
-        Double metricDimensionThresholdConfig = getThreshold(chatQueryContext);
-        Map<String, Set<SchemaElement>> nameToItems = getNameToItems(allElements.get());
+        Double metricDimensionThresholdConfig = threshold.get();
+        if (Objects.isNull(metricDimensionThresholdConfig)) {
+            metricDimensionThresholdConfig = getThreshold(chatQueryContext);
+        }
         List<DatabaseMapResult> results = new ArrayList<>();
-        for (Entry<String, Set<SchemaElement>> entry : nameToItems.entrySet()) {
-            String name = entry.getKey();
-            double similarity = EditDistanceUtils.getSimilarity(detectSegment, name);
-            if (!name.contains(detectSegment) || similarity < metricDimensionThresholdConfig) {
+        for (FuzzyMatchIndex.Match<SchemaElement> match : schemaElementMatcher.fuzzyMatch(
+                detectSegment, metricDimensionThresholdConfig, chatQueryContext.getSemanticSchema(),
+                detectDataSetIds)) {
+            String name = match.getWord();
+            if (!name.contains(detectSegment)
+                    || match.getSimilarity() < metricDimensionThresholdConfig) {
                 continue;
             }
-            Set<SchemaElement> schemaElements = entry.getValue();
-            if (!CollectionUtils.isEmpty(detectDataSetIds)) {
-                schemaElements = schemaElements.stream().filter(
-                        schemaElement -> detectDataSetIds.contains(schemaElement.getDataSetId()))
-                        .collect(Collectors.toSet());
-            }
-            for (SchemaElement schemaElement : schemaElements) {
-                DatabaseMapResult databaseMapResult = new DatabaseMapResult();
-                databaseMapResult.setDetectWord(detectSegment);
-                databaseMapResult.setName(schemaElement.getName());
-                databaseMapResult.setSimilarity(similarity);
-                databaseMapResult.setSchemaElement(schemaElement);
-                results.add(databaseMapResult);
+            for (SchemaElement schemaElement : match.getValues()) {
+                results.add(buildMapResult(detectSegment, schemaElement, match.getSimilarity()));
             }
         }
         return results;
     }
 
-    private List<SchemaElement> getSchemaElements(ChatQueryContext chatQueryContext) {
-        List<SchemaElement> allElements = new ArrayList<>();
-        allElements.addAll(chatQueryContext.getSemanticSchema().getDimensions());
-        allElements.addAll(chatQueryContext.getSemanticSchema().getMetrics());
-        return allElements;
+    private DatabaseMapResult buildMapResult(String detectSegment, SchemaElement schemaElement,
+            double similarity) {
+        DatabaseMapResult databaseMapResult = new DatabaseMapResult();
+        databaseMapResult.setDetectWord(detectSegment);
+        databaseMapResult.setName(schemaElement.getName());
+        databaseMapResult.setSimilarity(similarity);
+        databaseMapResult.setSchemaElement(schemaElement);
+        return databaseMapResult;
+    }
+
+    private Set<Integer> getWindowBoundaries(List<S2Term> terms, String text) {
+        Map<Integer, Integer> regOffsetToLength = mapperHelper.getRegOffsetToLength(terms);
+        Set<Integer> boundaries = new HashSet<>();
+        for (int index = 0; index <= text.length();) {
+            boundaries.add(index);
+            index = mapperHelper.getStepIndex(regOffsetToLength, index);
+        }
+        return boundaries;
+    }
+
+    private boolean isUnmatched(boolean[] matched, int start, int end) {
+        for (int i = start; i < end && i < matched.length; i++) {
+            if (matched[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Function<Supplier<List<DatabaseMapResult>>, Supplier<List<DatabaseMapResult>>> taskDecorator() {
-        List<SchemaElement> schemaElements = allElements.get();
-        if (CollectionUtils.isEmpty(schemaElements)) {
+        Double value = threshold.get();
+        if (Objects.isNull(value)) {
             return null;
         }
         return (t) -> (Supplier<List<DatabaseMapResult>>) () -> {
             try {
-                allElements.set(schemaElements);
+                threshold.set(value);
                 return t.get();
             } finally {
-                allElements.remove();
+                threshold.remove();
             }
         };
     }
@@ -114,15 +172,4 @@ public class DatabaseMatchStrategy extends SingleMatchStrategy<DatabaseMapResult
         return getThreshold(threshold, minThreshold,
                 chatQueryContext.getRequest().getMapModeEnum());
     }
-
-    private Map<String, Set<SchemaElement>> getNameToItems(List<SchemaElement> models) {
-        return models.stream().collect(Collectors.toMap(SchemaElement::getName, a -> {
-            Set<SchemaElement> result = new HashSet<>();
-            result.add(a);
-            return result;
-        }, (k1, k2) -> {
-            k1.addAll(k2);
-            return k1;
-        }));
-    }
 }
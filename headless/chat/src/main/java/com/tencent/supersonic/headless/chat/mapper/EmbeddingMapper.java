@@ -16,8 +16,10 @@ import dev.langchain4j.store.embedding.Retrieval;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * A mapper that recognizes schema elements with vector embedding.
@@ -32,6 +34,11 @@ public class EmbeddingMapper extends BaseMapper {
         return b0 || b1;
     }
 
+    @Override
+    public Set<MapperInput> getInputs() {
+        return EnumSet.of(MapperInput.QUERY_TEXT);
+    }
+
     public void doMap(ChatQueryContext chatQueryContext) {
 
         // TODO: 如果是在LOOSE执行过了，那么在LLM_OR_RULE阶段可以不用执行，所以这里缺乏一个状态来传递，暂时先忽略这个浪费行为吧
@@ -43,6 +43,8 @@ public class EmbeddingMatchStrategy extends BatchMatchStrategy<EmbeddingResult>
     @Autowired
     private MetaEmbeddingService metaEmbeddingService;
 
+    private static final String LLM_FILTER_APP_KEY = "EMBEDDING_LLM_FILTER";
+
     private static final String LLM_FILTER_PROMPT =
             """
                     \
@@ -171,7 +173,8 @@ public class EmbeddingMatchStrategy extends BatchMatchStrategy<EmbeddingResult>
                 chatModelConfig = chatQueryContext.getRequest().getChatAppConfig()
                         .get("REWRITE_MULTI_TURN").getChatModelConfig();
             }
-            ChatLanguageModel chatLanguageModel = ModelProvider.getChatModel(chatModelConfig);
+            ChatLanguageModel chatLanguageModel =
+                    ModelProvider.getChatModel(chatModelConfig, LLM_FILTER_APP_KEY);
             String response = chatLanguageModel.generate(prompt.toUserMessage().singleText());
 
             if (StringUtils.isBlank(response)) {
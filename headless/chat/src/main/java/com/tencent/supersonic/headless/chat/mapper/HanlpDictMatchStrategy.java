@@ -17,15 +17,19 @@ import java.util.stream.Collectors;
 import static com.tencent.supersonic.headless.chat.mapper.MapperConfig.MAPPER_DETECTION_MAX_SIZE;
 import static com.tencent.supersonic.headless.chat.mapper.MapperConfig.MAPPER_DETECTION_SIZE;
 import static com.tencent.supersonic.headless.chat.mapper.MapperConfig.MAPPER_DIMENSION_VALUE_SIZE;
+import static com.tencent.supersonic.headless.chat.mapper.MapperConfig.MAPPER_FUZZY_ENABLE;
 
 /**
  * HanlpDictMatchStrategy uses <a href="https://www.hanlp.com/">HanLP</a> to match schema elements.
- * It currently supports prefix and suffix matching against names, values and aliases.
+ * It currently supports prefix and suffix matching against names, values and aliases, and
+ * optionally fuzzy matching through the n-gram/BK-tree index of SearchService.
  */
 @Service
 @Slf4j
 public class HanlpDictMatchStrategy extends SingleMatchStrategy<HanlpMapResult> {
 
+    private static final int FUZZY_MIN_LENGTH = 2;
+
     @Autowired
     private KnowledgeBaseService knowledgeBaseService;
 
@@ -46,15 +50,23 @@ public class HanlpDictMatchStrategy extends SingleMatchStrategy<HanlpMapResult>
 
         hanlpMapResults.addAll(suffixHanlpMapResults);
 
+        // step3. fuzzy search, recall mid-string and misspelled words missed by pre/suffix search
+        if (Boolean.parseBoolean(mapperConfig.getParameterValue(MAPPER_FUZZY_ENABLE))
+                && detectSegment.length() >= FUZZY_MIN_LENGTH) {
+            hanlpMapResults.addAll(knowledgeBaseService.fuzzySearch(detectSegment,
+                    oneDetectionMaxSize, getFuzzyMinThreshold(),
+                    chatQueryContext.getModelIdToDataSetIds(), detectDataSetIds));
+        }
+
         if (CollectionUtils.isEmpty(hanlpMapResults)) {
             return new ArrayList<>();
         }
-        // step3. merge pre/suffix result
+        // step4. merge pre/suffix/fuzzy result
         hanlpMapResults = hanlpMapResults.stream()
                 .sorted((a, b) -> -(b.getName().length() - a.getName().length()))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        // step4. filter by similarity
+        // step5. filter by similarity
         hanlpMapResults = hanlpMapResults.stream()
                 .filter(term -> term.getSimilarity() >= getThresholdMatch(term.getNatures(),
                         chatQueryContext))
@@ -66,7 +78,7 @@ public class HanlpDictMatchStrategy extends SingleMatchStrategy<HanlpMapResult>
         log.debug("detectSegment:{},after isSimilarity parseResults:{}", detectSegment,
                 hanlpMapResults);
 
-        // step5. take only M dimensionValue or N-M metric/dimension value per rond.
+        // step6. take only M dimensionValue or N-M metric/dimension value per rond.
         int oneDetectionValueSize =
                 Integer.valueOf(mapperConfig.getParameterValue(MAPPER_DIMENSION_VALUE_SIZE));
         List<HanlpMapResult> dimensionValues = hanlpMapResults.stream()
@@ -93,6 +105,14 @@ public class HanlpDictMatchStrategy extends SingleMatchStrategy<HanlpMapResult>
         return oneRoundResults;
     }
 
+    private double getFuzzyMinThreshold() {
+        double nameMinThreshold = Double
+                .valueOf(mapperConfig.getParameterValue(MapperConfig.MAPPER_NAME_THRESHOLD_MIN));
+        double valueMinThreshold = Double
+                .valueOf(mapperConfig.getParameterValue(MapperConfig.MAPPER_VALUE_THRESHOLD_MIN));
+        return Math.min(nameMinThreshold, valueMinThreshold);
+    }
+
     public double getThresholdMatch(List<String> natures, ChatQueryContext chatQueryContext) {
         Double threshold =
                 Double.valueOf(mapperConfig.getParameterValue(MapperConfig.MAPPER_NAME_THRESHOLD));
@@ -16,11 +16,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class KeywordMapper extends BaseMapper {
 
+    @Override
+    public Set<MapperInput> getInputs() {
+        return EnumSet.of(MapperInput.QUERY_TEXT);
+    }
+
     @Override
     public void doMap(ChatQueryContext chatQueryContext) {
         String queryText = chatQueryContext.getRequest().getQueryText();
@@ -103,9 +110,12 @@ public class KeywordMapper extends BaseMapper {
             Map<Long, List<DictWord>> dimValueAlias = KnowledgeBaseService.getDimValueAlias();
             if (Objects.nonNull(dimId) && StringUtils.isNotEmpty(word)
                     && dimValueAlias.containsKey(dimId)) {
+                // the dictionary and the schema names are matched case-insensitively
                 Map<String, DictWord> aliasAndDictMap = dimValueAlias.get(dimId).stream()
+                        .filter(dictWord -> Objects.nonNull(dictWord.getAlias()))
                         .collect(Collectors.toMap(dictWord -> dictWord.getAlias(),
-                                dictWord -> dictWord, (v1, v2) -> v2));
+                                dictWord -> dictWord, (v1, v2) -> v2,
+                                () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER)));
                 if (aliasAndDictMap.containsKey(word)) {
                     String wordTech = aliasAndDictMap.get(word).getWord();
                     schemaElementMatch.setWord(wordTech);
@@ -116,8 +126,9 @@ public class KeywordMapper extends BaseMapper {
             if (dimensionValue != null) {
                 SchemaValueMap dimValue =
                         dimensionValue.getSchemaValueMaps().stream().filter(schemaValueMap -> {
-                            return StringUtils.equals(schemaValueMap.getBizName(), word)
-                                    || schemaValueMap.getAlias().contains(word);
+                            return StringUtils.equalsIgnoreCase(schemaValueMap.getBizName(), word)
+                                    || schemaValueMap.getAlias().stream().anyMatch(
+                                            alias -> StringUtils.equalsIgnoreCase(alias, word));
                         }).findFirst().orElse(null);
                 if (dimValue != null) {
                     schemaElementMatch.setWord(dimValue.getTechName());
@@ -10,6 +10,7 @@ import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
 import com.tencent.supersonic.headless.api.pojo.SchemaElement;
 import com.tencent.supersonic.headless.api.pojo.SchemaElementMatch;
 import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
+import com.tencent.supersonic.headless.api.pojo.SchemaMapInfo;
 import com.tencent.supersonic.headless.chat.ChatQueryContext;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.input.Prompt;
@@ -24,6 +25,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -94,6 +96,22 @@ public class LLMSemanticMapper extends BaseMapper {
                         .build());
     }
 
+    @Override
+    public Set<MapperInput> getInputs() {
+        return EnumSet.of(MapperInput.QUERY_TEXT);
+    }
+
+    /** The selection of the LLM replaces the legacy matches, which stay when it selects nothing. */
+    @Override
+    public void merge(ChatQueryContext chatQueryContext, SchemaMapInfo mapInfo) {
+        if (mapInfo.isEmpty()) {
+            return;
+        }
+        chatQueryContext.getMapInfo().getDataSetElementMatches().clear();
+        chatQueryContext.getMapInfo().getDataSetElementMatches()
+                .putAll(mapInfo.getDataSetElementMatches());
+    }
+
     @Override
     protected boolean accept(ChatQueryContext chatQueryContext) {
         if (chatQueryContext == null || chatQueryContext.getRequest() == null) {
@@ -167,7 +185,7 @@ public class LLMSemanticMapper extends BaseMapper {
 
         ChatApp chatApp = resolveChatApp(ctx, APP_KEY_DATASET_SELECTOR);
         Prompt prompt = PromptTemplate.from(chatApp.getPrompt()).apply(vars);
-        ChatLanguageModel model = resolveChatModel(ctx, chatApp);
+        ChatLanguageModel model = resolveChatModel(ctx, chatApp, APP_KEY_DATASET_SELECTOR);
         String resp = model.generate(prompt.toUserMessage().singleText());
 
         keyPipelineLog.info("LLM_DATASET_SELECTOR modelReq:\n{} \nmodelResp:\n{}", prompt.text(),
@@ -206,7 +224,7 @@ public class LLMSemanticMapper extends BaseMapper {
 
         ChatApp chatApp = resolveChatApp(ctx, APP_KEY_FIELD_SELECTOR);
         Prompt prompt = PromptTemplate.from(chatApp.getPrompt()).apply(vars);
-        ChatLanguageModel model = resolveChatModel(ctx, chatApp);
+        ChatLanguageModel model = resolveChatModel(ctx, chatApp, APP_KEY_FIELD_SELECTOR);
         String resp = model.generate(prompt.toUserMessage().singleText());
 
         keyPipelineLog.info("LLM_FIELD_SELECTOR modelReq:\n{} \nmodelResp:\n{}", prompt.text(),
@@ -454,20 +472,21 @@ public class LLMSemanticMapper extends BaseMapper {
                 ChatApp.builder().prompt("").enable(true).appModule(AppModule.CHAT).build());
     }
 
-    private static ChatLanguageModel resolveChatModel(ChatQueryContext ctx, ChatApp chatApp) {
+    private static ChatLanguageModel resolveChatModel(ChatQueryContext ctx, ChatApp chatApp,
+            String appKey) {
         // Prefer chatAppConfig's explicit model config; otherwise fall back to default.
         if (chatApp != null && chatApp.getChatModelConfig() != null) {
-            return ModelProvider.getChatModel(chatApp.getChatModelConfig());
+            return ModelProvider.getChatModel(chatApp.getChatModelConfig(), appKey);
         }
         // If user provided S2SQL_PARSER model config, reuse it.
         Map<String, ChatApp> cfg = ctx.getRequest().getChatAppConfig();
         if (cfg != null) {
             ChatApp s2sql = cfg.get("S2SQL_PARSER");
             if (s2sql != null && s2sql.getChatModelConfig() != null) {
-                return ModelProvider.getChatModel(s2sql.getChatModelConfig());
+                return ModelProvider.getChatModel(s2sql.getChatModelConfig(), appKey);
             }
         }
-        return ModelProvider.getChatModel();
+        return ModelProvider.getChatModel(null, appKey);
     }
 
     @Data
@@ -39,6 +39,17 @@ public class MapperConfig extends ParameterConfig {
             new Parameter("s2.mapper.value.min.threshold", "0.3", "维度值最小文本相似度阈值",
                     "维度值相似度阈值在动态调整中的最低值", "number", "Mapper相关配置");
 
+    public static final Parameter MAPPER_FUZZY_ENABLE =
+            new Parameter("s2.mapper.fuzzy.enable", "false", "是否开启模糊匹配",
+                    "在前后缀匹配之外, 通过n-gram/BK-tree索引匹配包含该片段或存在错别字的维度值、指标名、维度名", "bool", "Mapper相关配置");
+
+    public static final Parameter MAPPER_TIMEOUT = new Parameter("s2.mapper.timeout", "10000",
+            "单个Mapper超时时间(毫秒)", "并行执行的Mapper超过该时间未返回则丢弃其结果", "number", "Mapper相关配置");
+
+    public static final Parameter MAPPER_LLM_TIMEOUT =
+            new Parameter("s2.mapper.llm.timeout", "60000", "大模型Mapper超时时间(毫秒)",
+                    "LLM映射策略下大模型选择数据集和字段的超时时间, 超时则保留现有映射结果", "number", "Mapper相关配置");
+
     public static final Parameter EMBEDDING_MAPPER_TEXT_SIZE =
             new Parameter("s2.mapper.embedding.word.size", "3", "用于向量召回文本长度",
                     "为提高向量召回效率, 按指定长度进行向量语义召回", "number", "Mapper相关配置");
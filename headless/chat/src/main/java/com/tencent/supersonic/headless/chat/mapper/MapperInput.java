@@ -0,0 +1,14 @@
+package com.tencent.supersonic.headless.chat.mapper;
+
+/**
+ * What a schema mapper reads from the query context besides the semantic schema. Mappers reading
+ * only the query text do not depend on each other and can run at the same time.
+ */
+public enum MapperInput {
+    /** the question of the request */
+    QUERY_TEXT,
+    /** the terms matched by the mappers before */
+    TERMS,
+    /** all elements matched by the mappers before */
+    MATCHES
+}
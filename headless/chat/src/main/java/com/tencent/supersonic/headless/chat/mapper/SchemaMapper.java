@@ -1,7 +1,15 @@
 package com.tencent.supersonic.headless.chat.mapper;
 
+import com.tencent.supersonic.headless.api.pojo.SchemaElementMatch;
+import com.tencent.supersonic.headless.api.pojo.SchemaMapInfo;
 import com.tencent.supersonic.headless.chat.ChatQueryContext;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * A schema mapper identifies references to schema elements(metrics/dimensions/entities/values) in
  * user queries. It matches the query text against the knowledge base.
@@ -9,4 +17,24 @@ import com.tencent.supersonic.headless.chat.ChatQueryContext;
 public interface SchemaMapper {
 
     void map(ChatQueryContext chatQueryContext);
+
+    /**
+     * The inputs the mapper reads. A mapper reading matches of the mappers before runs after them,
+     * the others may run concurrently on a fork of the context.
+     */
+    default Set<MapperInput> getInputs() {
+        return EnumSet.of(MapperInput.QUERY_TEXT, MapperInput.MATCHES);
+    }
+
+    /** Merge the matches the mapper made on a fork of the context back into the context. */
+    default void merge(ChatQueryContext chatQueryContext, SchemaMapInfo mapInfo) {
+        for (Map.Entry<Long, List<SchemaElementMatch>> entry : mapInfo.getDataSetElementMatches()
+                .entrySet()) {
+            List<SchemaElementMatch> matches =
+                    chatQueryContext.getMapInfo().getDataSetElementMatches()
+                            .computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+            entry.getValue().stream().filter(match -> !matches.contains(match))
+                    .forEach(matches::add);
+        }
+    }
 }
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 
 @Service
@@ -23,6 +24,16 @@ public abstract class SingleMatchStrategy<T extends MapResult> extends BaseMatch
 
     public List<T> detect(ChatQueryContext chatQueryContext, List<S2Term> terms,
             Set<Long> detectDataSetIds) {
+        return detect(chatQueryContext, terms, detectDataSetIds, (start, end) -> true);
+    }
+
+    /**
+     * Detect within every term-aligned window of the query text accepted by the window filter.
+     *
+     * @param windowFilter accepts the start(inclusive) and end(exclusive) offset of a window
+     */
+    protected List<T> detect(ChatQueryContext chatQueryContext, List<S2Term> terms,
+            Set<Long> detectDataSetIds, BiPredicate<Integer, Integer> windowFilter) {
         Map<Integer, Integer> regOffsetToLength = mapperHelper.getRegOffsetToLength(terms);
         String text = chatQueryContext.getRequest().getQueryText();
         List<Supplier<List<T>>> tasks = new ArrayList<>();
@@ -31,7 +42,7 @@ public abstract class SingleMatchStrategy<T extends MapResult> extends BaseMatch
             for (int index = startIndex; index <= text.length();) {
                 int offset = mapperHelper.getStepOffset(terms, startIndex);
                 index = mapperHelper.getStepIndex(regOffsetToLength, index);
-                if (index <= text.length()) {
+                if (index <= text.length() && windowFilter.test(startIndex, index)) {
                     String detectSegment = text.substring(startIndex, index).trim();
                     Supplier<List<T>> task =
                             createTask(chatQueryContext, detectDataSetIds, detectSegment, offset);
@@ -40,6 +51,9 @@ public abstract class SingleMatchStrategy<T extends MapResult> extends BaseMatch
             }
             startIndex = mapperHelper.getStepIndex(regOffsetToLength, startIndex);
         }
+        if (tasks.isEmpty()) {
+            return new ArrayList<>();
+        }
         Set<T> results = executeTasks(tasks);
         return new ArrayList<>(results);
     }
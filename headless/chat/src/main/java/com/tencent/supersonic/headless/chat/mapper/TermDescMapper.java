@@ -1,6 +1,6 @@
 package com.tencent.supersonic.headless.chat.mapper;
 
-import com.tencent.supersonic.common.util.DeepCopyUtil;
+import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.headless.api.pojo.SchemaElement;
 import com.tencent.supersonic.headless.api.pojo.SchemaMapInfo;
 import com.tencent.supersonic.headless.chat.ChatQueryContext;
@@ -8,14 +8,28 @@ import com.tencent.supersonic.headless.chat.utils.ComponentFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * A mapper that map the description of the term.
+ * A mapper that map the description of the term. The descriptions are mapped concurrently, each on
+ * a fork of the context.
  */
 @Slf4j
 public class TermDescMapper extends BaseMapper {
 
+    @Override
+    public Set<MapperInput> getInputs() {
+        return EnumSet.of(MapperInput.TERMS);
+    }
+
     @Override
     public boolean accept(ChatQueryContext chatQueryContext) {
         return !(CollectionUtils.isEmpty(chatQueryContext.getMapInfo().getTermDescriptionToMap())
@@ -25,22 +39,44 @@ public class TermDescMapper extends BaseMapper {
     @Override
     public void doMap(ChatQueryContext chatQueryContext) {
         List<SchemaElement> termElements = chatQueryContext.getMapInfo().getTermDescriptionToMap();
+        ThreadPoolExecutor executor =
+                ContextUtils.getBean("commonExecutor", ThreadPoolExecutor.class);
+        MapperConfig mapperConfig = ContextUtils.getBean(MapperConfig.class);
+        long timeout = Long.parseLong(mapperConfig.getParameterValue(MapperConfig.MAPPER_TIMEOUT));
+        long deadline = System.currentTimeMillis() + timeout;
+        List<Future<SchemaMapInfo>> futures = new ArrayList<>();
         for (SchemaElement schemaElement : termElements) {
             ChatQueryContext queryCtx =
                     buildQueryContext(chatQueryContext, schemaElement.getDescription());
-            ComponentFactory.getSchemaMappers().forEach(mapper -> mapper.map(queryCtx));
-            chatQueryContext.getMapInfo().addMatchedElements(queryCtx.getMapInfo());
+            futures.add(executor.submit(() -> {
+                ComponentFactory.getSchemaMappers().forEach(mapper -> mapper.map(queryCtx));
+                return queryCtx.getMapInfo();
+            }));
+        }
+        // merge in the order of the terms
+        for (int i = 0; i < futures.size(); i++) {
+            Future<SchemaMapInfo> future = futures.get(i);
+            try {
+                long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+                chatQueryContext.getMapInfo()
+                        .addMatchedElements(future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("mapping description of term:{} timed out", termElements.get(i).getName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                log.error("mapping description of term:{} failed", termElements.get(i).getName(),
+                        e.getCause());
+            }
         }
     }
 
     private static ChatQueryContext buildQueryContext(ChatQueryContext chatQueryContext,
             String queryText) {
-        ChatQueryContext queryContext = DeepCopyUtil.deepCopy(chatQueryContext);
-        queryContext.getRequest().setQueryText(queryText);
-        queryContext.setMapInfo(new SchemaMapInfo());
-        queryContext.setSemanticSchema(chatQueryContext.getSemanticSchema());
-        queryContext.setModelIdToDataSetIds(chatQueryContext.getModelIdToDataSetIds());
-        queryContext.setChatWorkflowState(chatQueryContext.getChatWorkflowState());
+        ChatQueryContext queryContext = chatQueryContext.fork(queryText);
         queryContext.getRequest().setDescriptionMapped(true);
         return queryContext;
     }
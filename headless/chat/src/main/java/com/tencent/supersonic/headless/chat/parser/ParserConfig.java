@@ -39,6 +39,10 @@ public class ParserConfig extends ParameterConfig {
             new Parameter("s2.parser.text.threshold.long", "0.8", "长文本匹配阈值",
                     "如果是长文本, 若query得分/文本长度>该阈值, 则跳过当前parser", "number", "语义解析配置");
 
+    public static final Parameter PARSER_SPECULATIVE_ENABLE =
+            new Parameter("s2.parser.speculative.enable", "false", "是否并行执行规则解析和大模型解析",
+                    "规则解析结果的得分达到短文本或长文本匹配阈值时立即返回, 大模型解析结果稍后作为候选解析补充", "bool", "语义解析配置");
+
     public static final Parameter PARSER_EXEMPLAR_RECALL_NUMBER = new Parameter(
             "s2.parser.exemplar-recall.number", "10", "exemplar召回个数", "", "number", "语义解析配置");
 
@@ -53,10 +57,22 @@ public class ParserConfig extends ParameterConfig {
     public static final Parameter PARSER_SHOW_COUNT =
             new Parameter("s2.parser.show.count", "3", "解析结果展示个数", "前端展示的解析个数", "number", "语义解析配置");
 
+    public static final Parameter PARSER_CANDIDATE_PIPELINE_SIZE =
+            new Parameter("s2.parser.candidate.pipeline.size", "1", "并行修正解析结果个数",
+                    "按得分保留的解析结果个数, 大于1时各解析结果并行修正和翻译SQL, 最终仅保留一个", "number", "语义解析配置");
+
+    public static final Parameter PARSER_CANDIDATE_CONFIDENCE =
+            new Parameter("s2.parser.candidate.confidence", "1.0", "解析结果提前胜出阈值",
+                    "并行修正时, 得分与最高得分之比不低于该阈值的解析结果翻译成功后立即胜出并取消其余解析结果", "number", "语义解析配置");
+
     public static final Parameter PARSER_FIELDS_COUNT_THRESHOLD =
             new Parameter("s2.parser.field.count.threshold", "0", "语义字段个数阈值",
                     "如果映射字段小于该阈值，则将数据集所有字段输入LLM", "number", "语义解析配置");
 
+    public static final Parameter PARSER_SCHEMA_TOKEN_BUDGET =
+            new Parameter("s2.parser.schema.token.budget", "0", "数据集Schema token预算",
+                    "输入LLM的数据集全部字段超过该token数时, 仅输入映射到的字段, 0表示不限制", "number", "语义解析配置");
+
     public static final Parameter PARSER_FORMAT_JSON_TYPE =
             new Parameter("s2.parser.format.json-type", "", "请求llm返回json格式,默认不设置json格式",
                     "选项：json_schema或者json_object", "string", "语义解析配置");
@@ -65,6 +81,9 @@ public class ParserConfig extends ParameterConfig {
     public List<Parameter> getSysParameters() {
         return Lists.newArrayList(PARSER_LINKING_VALUE_ENABLE, PARSER_RULE_CORRECTOR_ENABLE,
                 PARSER_FEW_SHOT_NUMBER, PARSER_SELF_CONSISTENCY_NUMBER, PARSER_SHOW_COUNT,
-                PARSER_FIELDS_COUNT_THRESHOLD);
+                PARSER_FIELDS_COUNT_THRESHOLD, PARSER_CANDIDATE_PIPELINE_SIZE,
+                PARSER_CANDIDATE_CONFIDENCE, PARSER_SCHEMA_TOKEN_BUDGET, PARSER_SPECULATIVE_ENABLE,
+                PARSER_TEXT_LENGTH_THRESHOLD, PARSER_TEXT_LENGTH_THRESHOLD_SHORT,
+                PARSER_TEXT_LENGTH_THRESHOLD_LONG);
     }
 }
@@ -26,6 +26,9 @@ public class LLMRequestService {
     @Autowired
     private ParserConfig parserConfig;
 
+    @Autowired
+    private PromptHelper promptHelper;
+
     public Long getDataSetId(ChatQueryContext queryCtx) {
         DataSetResolver dataSetResolver = ComponentFactory.getModelResolver();
         return dataSetResolver.resolve(queryCtx, queryCtx.getRequest().getDataSetIds());
@@ -36,16 +39,6 @@ public class LLMRequestService {
         String queryText = queryCtx.getRequest().getQueryText();
 
         LLMReq.LLMSchema llmSchema = new LLMReq.LLMSchema();
-        int fieldCntThreshold =
-                Integer.valueOf(parserConfig.getParameterValue(PARSER_FIELDS_COUNT_THRESHOLD));
-        if (queryCtx.getMapInfo().getMatchedElements(dataSetId).size() <= fieldCntThreshold) {
-            llmSchema.setMetrics(queryCtx.getSemanticSchema().getMetrics());
-            llmSchema.setDimensions(queryCtx.getSemanticSchema().getDimensions());
-        } else {
-            llmSchema.setMetrics(getMappedMetrics(queryCtx, dataSetId));
-            llmSchema.setDimensions(getMappedDimensions(queryCtx, dataSetId));
-        }
-
         LLMReq llmReq = new LLMReq();
         llmReq.setQueryText(queryText);
         llmReq.setSchema(llmSchema);
@@ -57,6 +50,20 @@ public class LLMRequestService {
         llmSchema.setPartitionTime(getPartitionTime(queryCtx, dataSetId));
         llmSchema.setPrimaryKey(getPrimaryKey(queryCtx, dataSetId));
 
+        int fieldCntThreshold =
+                Integer.valueOf(parserConfig.getParameterValue(PARSER_FIELDS_COUNT_THRESHOLD));
+        boolean allFields =
+                queryCtx.getMapInfo().getMatchedElements(dataSetId).size() <= fieldCntThreshold;
+        if (allFields) {
+            llmSchema.setMetrics(queryCtx.getSemanticSchema().getMetrics(dataSetId));
+            llmSchema.setDimensions(queryCtx.getSemanticSchema().getDimensions(dataSetId));
+            allFields = !exceedTokenBudget(llmSchema);
+        }
+        if (!allFields) {
+            llmSchema.setMetrics(getMappedMetrics(queryCtx, dataSetId));
+            llmSchema.setDimensions(getMappedDimensions(queryCtx, dataSetId));
+        }
+
         boolean linkingValueEnabled =
                 Boolean.parseBoolean(parserConfig.getParameterValue(PARSER_LINKING_VALUE_ENABLE));
         if (linkingValueEnabled) {
@@ -73,6 +80,21 @@ public class LLMRequestService {
         return llmReq;
     }
 
+    private boolean exceedTokenBudget(LLMReq.LLMSchema llmSchema) {
+        int tokenBudget =
+                Integer.parseInt(parserConfig.getParameterValue(PARSER_SCHEMA_TOKEN_BUDGET));
+        if (tokenBudget <= 0) {
+            return false;
+        }
+        int tokenCount = promptHelper.getSchemaFragment(llmSchema).getTokenCount();
+        if (tokenCount <= tokenBudget) {
+            return false;
+        }
+        log.info("schema of dataSet:{} takes {} tokens over budget {}, use mapped fields only",
+                llmSchema.getDataSetId(), tokenCount, tokenBudget);
+        return true;
+    }
+
     public LLMResp runText2SQL(LLMReq llmReq) {
         SqlGenStrategy sqlGenStrategy = SqlGenStrategyFactory.get(llmReq.getSqlGenType());
         String dataSet = llmReq.getSchema().getDataSetName();
@@ -21,12 +21,16 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.tencent.supersonic.headless.chat.parser.ParserConfig.PARSER_FORMAT_JSON_TYPE;
 
@@ -41,6 +45,10 @@ public class OnePassSCSqlGenStrategy extends SqlGenStrategy {
     @Autowired
     private ParserConfig parserConfig;
 
+    @Autowired
+    @Qualifier("llmExecutor")
+    private ThreadPoolExecutor llmExecutor;
+
     public static final String INSTRUCTION =
             "#Role: You are a data analyst experienced in SQL languages."
                     + "\n#Task: You will be provided with a natural language question asked by users,"
@@ -90,25 +98,37 @@ public class OnePassSCSqlGenStrategy extends SqlGenStrategy {
             chatModelConfig
                     .setJsonFormatType(parserConfig.getParameterValue(PARSER_FORMAT_JSON_TYPE));
         }
-        ChatLanguageModel chatLanguageModel = getChatLanguageModel(chatModelConfig);
+        ChatLanguageModel chatLanguageModel = getChatLanguageModel(chatModelConfig, APP_KEY);
         SemanticSqlExtractor extractor =
                 AiServices.create(SemanticSqlExtractor.class, chatLanguageModel);
 
+        // schema and side information are the same for every self-consistency inference
+        String dataSemantics = promptHelper.buildSchemaStr(llmReq);
+        String sideInformation = promptHelper.buildSideInformation(llmReq);
+        llmResp.setSchema(dataSemantics);
+        llmResp.setSideInfo(sideInformation);
+
         Map<Prompt, List<Text2SQLExemplar>> prompt2Exemplar = new HashMap<>();
         for (List<Text2SQLExemplar> exemplars : exemplarsList) {
             llmReq.setDynamicExemplars(exemplars);
-            Prompt prompt = generatePrompt(llmReq, llmResp, chatApp);
+            Prompt prompt = generatePrompt(llmReq, dataSemantics, sideInformation, chatApp);
             prompt2Exemplar.put(prompt, exemplars);
         }
 
         // 3.perform multiple self-consistency inferences parallelly
         Map<String, Prompt> output2Prompt = new ConcurrentHashMap<>();
-        prompt2Exemplar.keySet().parallelStream().forEach(prompt -> {
-            SemanticSql s2Sql = extractor.generateSemanticSql(prompt.toUserMessage().singleText());
-            output2Prompt.put(s2Sql.getSql(), prompt);
-            keyPipelineLog.info("OnePassSCSqlGenStrategy modelReq:\n{} \nmodelResp:\n{}",
-                    prompt.text(), s2Sql);
-        });
+        List<CompletableFuture<Void>> inferences = new ArrayList<>();
+        for (Prompt prompt : prompt2Exemplar.keySet()) {
+            inferences.add(CompletableFuture.runAsync(() -> {
+                SemanticSql s2Sql =
+                        extractor.generateSemanticSql(prompt.toUserMessage().singleText());
+                output2Prompt.put(s2Sql.getSql(), prompt);
+                keyPipelineLog.info(
+                        "OnePassSCSqlGenStrategy modelReq:\n{} \nmodelResp:\n{} \npromptTokens:{}",
+                        prompt.text(), s2Sql, promptHelper.estimateTokenCount(prompt.text()));
+            }, llmExecutor));
+        }
+        CompletableFuture.allOf(inferences.toArray(new CompletableFuture[0])).join();
 
         // 4.format response.
         Pair<String, Map<String, Double>> sqlMapPair =
@@ -121,7 +141,8 @@ public class OnePassSCSqlGenStrategy extends SqlGenStrategy {
         return llmResp;
     }
 
-    private Prompt generatePrompt(LLMReq llmReq, LLMResp llmResp, ChatApp chatApp) {
+    private Prompt generatePrompt(LLMReq llmReq, String dataSemantics, String sideInformation,
+            ChatApp chatApp) {
         StringBuilder exemplars = new StringBuilder();
         for (Text2SQLExemplar exemplar : llmReq.getDynamicExemplars()) {
             String exemplarStr = String.format("\nQuestion:%s,Schema:%s,SideInfo:%s,SQL:%s",
@@ -129,11 +150,6 @@ public class OnePassSCSqlGenStrategy extends SqlGenStrategy {
                     exemplar.getSql());
             exemplars.append(exemplarStr);
         }
-        String dataSemantics = promptHelper.buildSchemaStr(llmReq);
-        String sideInformation = promptHelper.buildSideInformation(llmReq);
-        llmResp.setSchema(dataSemantics);
-        llmResp.setSideInfo(sideInformation);
-
         Map<String, Object> variable = new HashMap<>();
         variable.put("exemplar", exemplars);
         variable.put("question", llmReq.getQueryText());
@@ -1,20 +1,31 @@
 package com.tencent.supersonic.headless.chat.parser.llm;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.pojo.DataEvent;
 import com.tencent.supersonic.common.pojo.Text2SQLExemplar;
 import com.tencent.supersonic.common.pojo.enums.DataFormatTypeEnum;
 import com.tencent.supersonic.common.pojo.enums.EngineType;
 import com.tencent.supersonic.common.service.ExemplarService;
 import com.tencent.supersonic.common.util.StringUtil;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
 import com.tencent.supersonic.headless.chat.parser.ParserConfig;
 import com.tencent.supersonic.headless.chat.query.llm.s2sql.LLMReq;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.tencent.supersonic.common.pojo.DimensionConstants.*;
@@ -30,6 +41,14 @@ public class PromptHelper {
     @Autowired
     private ExemplarService exemplarService;
 
+    private final Cache<String, SchemaFragment> schemaFragmentCache =
+            CacheBuilder.newBuilder().maximumSize(1000).expireAfterWrite(1, TimeUnit.HOURS).build();
+
+    /** bumped on schema changes, so fragments being rendered meanwhile are not found */
+    private final AtomicLong schemaVersion = new AtomicLong();
+
+    private final Tokenizer tokenizer = new OpenAiTokenizer();
+
     public List<List<Text2SQLExemplar>> getFewShotExemplars(LLMReq llmReq) {
         int exemplarRecallNumber =
                 Integer.parseInt(parserConfig.getParameterValue(PARSER_EXEMPLAR_RECALL_NUMBER));
@@ -43,7 +62,12 @@ public class PromptHelper {
 
         int recallSize = exemplarRecallNumber - llmReq.getDynamicExemplars().size();
         if (recallSize > 0) {
-            exemplars.addAll(exemplarService.recallExemplars(llmReq.getQueryText(), recallSize));
+            // dynamic exemplars may already come from the system collection
+            Set<String> questions = exemplars.stream().map(Text2SQLExemplar::getQuestion)
+                    .collect(Collectors.toSet());
+            exemplarService.recallExemplars(llmReq.getQueryText(), recallSize).stream()
+                    .filter(exemplar -> !questions.contains(exemplar.getQuestion()))
+                    .forEach(exemplars::add);
         }
 
         List<List<Text2SQLExemplar>> results = new ArrayList<>();
@@ -103,10 +127,68 @@ public class PromptHelper {
     }
 
     public String buildSchemaStr(LLMReq llmReq) {
-        String tableStr = llmReq.getSchema().getDataSetName();
+        SchemaFragment schemaFragment = getSchemaFragment(llmReq.getSchema());
+
+        List<String> values = Lists.newArrayList();
+        List<LLMReq.ElementValue> elementValueList = llmReq.getSchema().getValues();
+        if (elementValueList != null) {
+            elementValueList.forEach(value -> {
+                StringBuilder valueStr = new StringBuilder();
+                String fieldName = value.getFieldName();
+                String fieldValue = value.getFieldValue();
+                valueStr.append(String.format("<%s='%s'>", fieldName, fieldValue));
+                values.add(valueStr.toString());
+            });
+        }
+
+        return schemaFragment.getText() + String.join(",", values) + "]";
+    }
+
+    /**
+     * Returns the schema rendered up to the mapped values, which only change with the data set, its
+     * schema and the fields selected for the request.
+     */
+    public SchemaFragment getSchemaFragment(LLMReq.LLMSchema schema) {
+        String key = getSchemaFragmentKey(schema);
+        SchemaFragment schemaFragment = schemaFragmentCache.getIfPresent(key);
+        if (Objects.isNull(schemaFragment)) {
+            String text = renderSchemaFragment(schema);
+            schemaFragment = new SchemaFragment(text, estimateTokenCount(text));
+            schemaFragmentCache.put(key, schemaFragment);
+        }
+        return schemaFragment;
+    }
+
+    public int estimateTokenCount(String text) {
+        return tokenizer.estimateTokenCountInText(text);
+    }
+
+    @EventListener
+    public void onDataChange(DataEvent event) {
+        schemaVersion.incrementAndGet();
+        schemaFragmentCache.invalidateAll();
+    }
+
+    /**
+     * Any edit of the data set or its fields publishes a {@link DataEvent}, which bumps the schema
+     * version, so the data set, the version and the selected fields identify the fragment.
+     */
+    private String getSchemaFragmentKey(LLMReq.LLMSchema schema) {
+        return String.join("|", String.valueOf(schema.getDataSetId()),
+                String.valueOf(schemaVersion.get()), getSortedIds(schema.getMetrics()),
+                getSortedIds(schema.getDimensions()));
+    }
+
+    private String getSortedIds(List<SchemaElement> elements) {
+        return elements.stream().map(SchemaElement::getId).filter(Objects::nonNull).sorted()
+                .map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private String renderSchemaFragment(LLMReq.LLMSchema schema) {
+        String tableStr = schema.getDataSetName();
 
         List<String> metrics = Lists.newArrayList();
-        llmReq.getSchema().getMetrics().forEach(metric -> {
+        schema.getMetrics().forEach(metric -> {
             StringBuilder metricStr = new StringBuilder();
             metricStr.append("<");
             metricStr.append(metric.getName());
@@ -134,7 +216,7 @@ public class PromptHelper {
         });
 
         List<String> dimensions = Lists.newArrayList();
-        llmReq.getSchema().getDimensions().forEach(dimension -> {
+        schema.getDimensions().forEach(dimension -> {
             StringBuilder dimensionStr = new StringBuilder();
             dimensionStr.append("<");
             dimensionStr.append(dimension.getName());
@@ -157,45 +239,32 @@ public class PromptHelper {
             dimensions.add(dimensionStr.toString());
         });
 
-        List<String> values = Lists.newArrayList();
-        List<LLMReq.ElementValue> elementValueList = llmReq.getSchema().getValues();
-        if (elementValueList != null) {
-            elementValueList.forEach(value -> {
-                StringBuilder valueStr = new StringBuilder();
-                String fieldName = value.getFieldName();
-                String fieldValue = value.getFieldValue();
-                valueStr.append(String.format("<%s='%s'>", fieldName, fieldValue));
-                values.add(valueStr.toString());
-            });
-        }
-
         String partitionTimeStr = "";
-        if (llmReq.getSchema().getPartitionTime() != null) {
-            partitionTimeStr =
-                    String.format("%s FORMAT '%s'", llmReq.getSchema().getPartitionTime().getName(),
-                            llmReq.getSchema().getPartitionTime().getTimeFormat());
+        if (schema.getPartitionTime() != null) {
+            partitionTimeStr = String.format("%s FORMAT '%s'", schema.getPartitionTime().getName(),
+                    schema.getPartitionTime().getTimeFormat());
         }
 
         String primaryKeyStr = "";
-        if (llmReq.getSchema().getPrimaryKey() != null) {
-            primaryKeyStr = String.format("%s", llmReq.getSchema().getPrimaryKey().getName());
+        if (schema.getPrimaryKey() != null) {
+            primaryKeyStr = String.format("%s", schema.getPrimaryKey().getName());
         }
 
         String databaseTypeStr = "";
-        if (llmReq.getSchema().getDatabaseType() != null) {
-            databaseTypeStr = llmReq.getSchema().getDatabaseType();
+        if (schema.getDatabaseType() != null) {
+            databaseTypeStr = schema.getDatabaseType();
         }
         String databaseVersionStr = "";
-        if (llmReq.getSchema().getDatabaseVersion() != null) {
-            databaseVersionStr = llmReq.getSchema().getDatabaseVersion();
+        if (schema.getDatabaseVersion() != null) {
+            databaseVersionStr = schema.getDatabaseVersion();
         }
 
         String template =
                 "DatabaseType=[%s], DatabaseVersion=[%s], Table=[%s], PartitionTimeField=[%s], PrimaryKeyField=[%s], "
-                        + "Metrics=[%s], Dimensions=[%s], Values=[%s]";
+                        + "Metrics=[%s], Dimensions=[%s], Values=[";
         return String.format(template, databaseTypeStr, databaseVersionStr, tableStr,
                 partitionTimeStr, primaryKeyStr, String.join(",", metrics),
-                String.join(",", dimensions), String.join(",", values));
+                String.join(",", dimensions));
     }
 
     private String buildTermStr(LLMReq llmReq) {
@@ -226,4 +295,15 @@ public class PromptHelper {
         }
         return true;
     }
+
+    @Data
+    @AllArgsConstructor
+    public static class SchemaFragment {
+
+        /** the schema up to and including the opening bracket of the values */
+        private String text;
+
+        /** estimated with the gpt tokenizer, close enough for other models to budget */
+        private int tokenCount;
+    }
 }
@@ -19,8 +19,8 @@ public abstract class SqlGenStrategy implements InitializingBean {
     @Autowired
     protected PromptHelper promptHelper;
 
-    protected ChatLanguageModel getChatLanguageModel(ChatModelConfig modelConfig) {
-        return ModelProvider.getChatModel(modelConfig);
+    protected ChatLanguageModel getChatLanguageModel(ChatModelConfig modelConfig, String appKey) {
+        return ModelProvider.getChatModel(modelConfig, appKey);
     }
 
     public abstract LLMResp generate(LLMReq llmReq);
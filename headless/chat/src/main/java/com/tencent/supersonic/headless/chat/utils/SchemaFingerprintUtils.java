@@ -0,0 +1,39 @@
+package com.tencent.supersonic.headless.chat.utils;
+
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+
+import java.util.Collection;
+import java.util.Objects;
+
+public class SchemaFingerprintUtils {
+
+    /**
+     * Order-insensitive fingerprint over the identity, name and alias of the schema elements, which
+     * are the fields the dictionaries and matchers are built from. It lets callers detect schema
+     * changes without materializing any derived structure.
+     *
+     * @param schemaElements
+     * @return
+     */
+    public static long fingerprint(Collection<SchemaElement> schemaElements) {
+        if (schemaElements == null) {
+            return 0L;
+        }
+        long fingerprint = schemaElements.size();
+        for (SchemaElement element : schemaElements) {
+            long hash = Objects.hash(element.getType(), element.getId(), element.getModel(),
+                    element.getDataSetId(), element.getName(), element.getAlias());
+            fingerprint += mix(hash);
+        }
+        return fingerprint;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tencent.supersonic.headless.chat;
+
+import com.google.common.collect.Sets;
+import com.tencent.supersonic.headless.api.pojo.SemanticSchema;
+import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
+import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class ChatQueryContextTest {
+
+    @Test
+    void forkWithQueryText() {
+        QueryNLReq request = new QueryNLReq();
+        request.setQueryText("question");
+        request.setDataSetIds(Sets.newHashSet(1L, 2L));
+        ChatQueryContext queryCtx = new ChatQueryContext(request);
+        queryCtx.setParseResp(new ParseResp("question"));
+        queryCtx.setSemanticSchema(new SemanticSchema(new ArrayList<>()));
+        queryCtx.setModelIdToDataSetIds(Map.of(1L, List.of(1L)));
+        queryCtx.getMapInfo().setMatchedElements(1L, new ArrayList<>());
+
+        ChatQueryContext fork = queryCtx.fork("description");
+        fork.getRequest().setDescriptionMapped(true);
+        fork.getMapInfo().setMatchedElements(2L, new ArrayList<>());
+
+        Assertions.assertEquals("question", queryCtx.getRequest().getQueryText());
+        Assertions.assertFalse(queryCtx.getRequest().isDescriptionMapped());
+        Assertions.assertEquals("description", fork.getRequest().getQueryText());
+        Assertions.assertEquals(request.getDataSetIds(), fork.getRequest().getDataSetIds());
+        Assertions.assertSame(queryCtx.getSemanticSchema(), fork.getSemanticSchema());
+        Assertions.assertSame(queryCtx.getModelIdToDataSetIds(), fork.getModelIdToDataSetIds());
+        Assertions.assertEquals(Sets.newHashSet(1L),
+                queryCtx.getMapInfo().getMatchedDataSetInfos());
+        Assertions.assertEquals(Sets.newHashSet(2L), fork.getMapInfo().getMatchedDataSetInfos());
+    }
+}
@@ -0,0 +1,39 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+class AhoCorasickAutomatonTest {
+
+    @Test
+    void findAllOverlappingKeywords() {
+        AhoCorasickAutomaton<Long> automaton = AhoCorasickAutomaton.<Long>builder().add("访问", 1L)
+                .add("访问次数", 2L).add("次数", 3L).add("用户", 4L).build();
+
+        List<AhoCorasickAutomaton.Emit<Long>> emits = automaton.findAll("近7天用户访问次数");
+        List<String> keywords = emits.stream().map(AhoCorasickAutomaton.Emit::getKeyword)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(List.of("用户", "访问", "访问次数", "次数"), keywords);
+        AhoCorasickAutomaton.Emit<Long> emit = emits.get(2);
+        Assertions.assertEquals(5, emit.getStart());
+        Assertions.assertEquals(9, emit.getEnd());
+        Assertions.assertEquals(List.of(2L), emit.getValues());
+    }
+
+    @Test
+    void findAllIgnoreCase() {
+        AhoCorasickAutomaton<Long> automaton =
+                AhoCorasickAutomaton.<Long>builder().add("pv", 1L).add("PV", 2L).build();
+
+        List<AhoCorasickAutomaton.Emit<Long>> emits = automaton.findAll("超音数Pv");
+
+        Assertions.assertEquals(1, emits.size());
+        Assertions.assertEquals(3, emits.get(0).getStart());
+        Assertions.assertEquals(List.of(1L, 2L), emits.get(0).getValues());
+        Assertions.assertTrue(automaton.findAll("超音数").isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class FuzzyMatchIndexTest {
+
+    @Test
+    void containingWordsNeedTheSimilarity() {
+        FuzzyMatchIndex<Long> index = FuzzyMatchIndex.<Long>builder().add("周杰伦", 1L)
+                .add("周杰伦演唱会", 2L).add("林俊杰", 3L).add("杰", 4L).build();
+
+        Set<String> words = index.search("杰伦", 0.6, 10).stream().map(FuzzyMatchIndex.Match::getWord)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of("周杰伦"), words);
+
+        words = index.search("杰", 0.3, 10).stream().map(FuzzyMatchIndex.Match::getWord)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of("杰", "周杰伦", "林俊杰"), words);
+    }
+
+    @Test
+    void searchSimilar() {
+        FuzzyMatchIndex<Long> index = FuzzyMatchIndex.<Long>builder().add("访问次数", 1L)
+                .add("访问用户数", 2L).add("停留时长", 3L).add("Tencent Music", 4L).build();
+
+        List<FuzzyMatchIndex.Match<Long>> matches = index.search("访问次树", 0.7, 10);
+        Assertions.assertEquals(1, matches.size());
+        Assertions.assertEquals("访问次数", matches.get(0).getWord());
+        Assertions.assertEquals(0.75, matches.get(0).getSimilarity(), 1e-6);
+        Assertions.assertEquals(List.of(1L), matches.get(0).getValues());
+
+        matches = index.search("tencent musik", 0.8, 10);
+        Assertions.assertEquals("Tencent Music", matches.get(0).getWord());
+    }
+
+    @Test
+    void searchSameAsLinearScan() {
+        Random random = new Random(7);
+        String alphabet = "北京上海广州深圳东西南北中";
+        FuzzyMatchIndex.Builder<Long> builder = FuzzyMatchIndex.builder();
+        List<String> words = random.ints(2000, 1, 8).mapToObj(length -> {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            return sb.toString();
+        }).distinct().collect(Collectors.toList());
+        words.forEach(word -> builder.add(word, 0L));
+        FuzzyMatchIndex<Long> index = builder.build();
+
+        for (String query : List.of("北京", "上海南", "深圳东西北", "广州中南北京")) {
+            for (double threshold : new double[] {0.5, 0.7, 0.9}) {
+                Set<String> expected = words.stream()
+                        .filter(word -> FuzzyMatchIndex.similarity(query, word,
+                                FuzzyMatchIndex.distance(query, word)) >= threshold)
+                        .collect(Collectors.toSet());
+                Set<String> actual = index.search(query, threshold, Integer.MAX_VALUE).stream()
+                        .map(FuzzyMatchIndex.Match::getWord).collect(Collectors.toSet());
+                Assertions.assertEquals(expected, actual, query + ":" + threshold);
+            }
+        }
+    }
+}
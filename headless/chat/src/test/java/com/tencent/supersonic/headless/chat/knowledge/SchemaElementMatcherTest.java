@@ -0,0 +1,47 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
+import com.tencent.supersonic.headless.api.pojo.SemanticSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+class SchemaElementMatcherTest {
+
+    @Test
+    void matchCurrentElementsOfCompiledSchema() {
+        SchemaElementMatcher matcher = new SchemaElementMatcher();
+        SchemaElement metric = SchemaElement.builder().dataSetId(1L).model(1L).id(2L).name("访问次数")
+                .bizName("pv").type(SchemaElementType.METRIC).build();
+        SemanticSchema semanticSchema = semanticSchema(metric);
+
+        List<AhoCorasickAutomaton.Emit<SchemaElement>> emits =
+                matcher.match("近7天访问次数", semanticSchema, Set.of());
+        Assertions.assertEquals(1, emits.size());
+        Assertions.assertEquals("pv", emits.get(0).getValues().get(0).getBizName());
+
+        // the names stay the same, the matcher is not recompiled but returns the new element
+        SchemaElement renamed = SchemaElement.builder().dataSetId(1L).model(1L).id(2L).name("访问次数")
+                .bizName("visit_cnt").defaultAgg("SUM").type(SchemaElementType.METRIC).build();
+        semanticSchema = semanticSchema(renamed);
+
+        emits = matcher.match("近7天访问次数", semanticSchema, Set.of());
+        Assertions.assertEquals("visit_cnt", emits.get(0).getValues().get(0).getBizName());
+        Assertions.assertEquals("SUM", emits.get(0).getValues().get(0).getDefaultAgg());
+        List<FuzzyMatchIndex.Match<SchemaElement>> matches =
+                matcher.fuzzyMatch("访问次树", 0.7, semanticSchema, Set.of());
+        Assertions.assertEquals("visit_cnt", matches.get(0).getValues().get(0).getBizName());
+    }
+
+    private SemanticSchema semanticSchema(SchemaElement metric) {
+        DataSetSchema dataSetSchema = new DataSetSchema();
+        dataSetSchema.setDataSet(SchemaElement.builder().dataSetId(1L).id(1L).name("超音数")
+                .type(SchemaElementType.DATASET).build());
+        dataSetSchema.getMetrics().add(metric);
+        return new SemanticSchema(List.of(dataSetSchema));
+    }
+}
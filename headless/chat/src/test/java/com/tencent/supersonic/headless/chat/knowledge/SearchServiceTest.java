@@ -0,0 +1,63 @@
+package com.tencent.supersonic.headless.chat.knowledge;
+
+import com.hankcs.hanlp.corpus.tag.Nature;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class SearchServiceTest {
+
+    private static final Map<Long, List<Long>> MODEL_TO_DATASETS = Map.of(1L, List.of(10L));
+
+    @AfterEach
+    void clear() {
+        SearchService.refreshFuzzyIndex(false);
+        SearchService.clear();
+    }
+
+    @Test
+    void fuzzyIndexFollowsChangedWords() {
+        SearchService.clear();
+        SearchService.put("访问次数", attribute("_1_2_metric"));
+
+        Assertions.assertEquals(Set.of("访问次数"), fuzzySearch("访问次树"));
+
+        SearchService.put("访问用户数", attribute("_1_3_metric"));
+        SearchService.refreshFuzzyIndex(true);
+        Assertions.assertEquals(Set.of("访问用户数"), fuzzySearch("访问用护数"));
+
+        DictWord dictWord = new DictWord();
+        dictWord.setWord("访问次数");
+        dictWord.setNature("_1_2_metric");
+        dictWord.setNatureWithFrequency("_1_2_metric 100000");
+        SearchService.remove(dictWord, new Nature[0]);
+        SearchService.refreshFuzzyIndex(true);
+        Assertions.assertTrue(fuzzySearch("访问次树").isEmpty());
+        Assertions.assertEquals(Set.of("访问用户数"), fuzzySearch("访问用护数"));
+    }
+
+    @Test
+    void fuzzyPartitionsOfModelAndDataSetWithSameId() {
+        SearchService.clear();
+        SearchService.put("超音数", attribute("_1"));
+        SearchService.put("超音数访问", attribute("_1_2_metric"));
+
+        // data set 1 is not detected although model 1 shares its id
+        Assertions.assertEquals(Set.of("超音数访问"), fuzzySearch("超音数访"));
+    }
+
+    private Set<String> fuzzySearch(String key) {
+        return SearchService.fuzzySearch(key, 10, 0.7, MODEL_TO_DATASETS, Set.of(10L)).stream()
+                .map(HanlpMapResult::getName).collect(Collectors.toSet());
+    }
+
+    private CoreDictionary.Attribute attribute(String nature) {
+        return new CoreDictionary.Attribute(Nature.create(nature), 100000);
+    }
+}
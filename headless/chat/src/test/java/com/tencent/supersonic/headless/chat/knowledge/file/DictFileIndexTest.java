@@ -0,0 +1,57 @@
+package com.tencent.supersonic.headless.chat.knowledge.file;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class DictFileIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readPagesAndKeywords() throws Exception {
+        Path dataPath = tempDir.resolve("dic_value_1_DIMENSION_2.txt");
+        Files.write(dataPath,
+                List.of("周杰伦 _1_2 100", "林俊杰 _1_2 90", "invalid", "周杰伦#演唱会 _1_2 80", "陈奕迅 _1_2 70"),
+                StandardCharsets.UTF_8);
+
+        DictFileIndex built = DictFileIndex.build(dataPath);
+        built.write(DictFileIndex.getIndexPath(dataPath));
+        DictFileIndex index = DictFileIndex.read(DictFileIndex.getIndexPath(dataPath));
+
+        Assertions.assertTrue(index.isValidFor(dataPath));
+        Assertions.assertEquals(5, index.getLineCount());
+        Assertions.assertEquals(List.of("林俊杰 _1_2 90", "invalid"), index.readLines(dataPath, 1, 3));
+
+        int[] lineNos = index.match("周杰伦");
+        Assertions.assertArrayEquals(new int[] {0, 3}, lineNos);
+        Assertions.assertEquals(List.of("周杰伦#演唱会 _1_2 80"),
+                index.readLines(dataPath, lineNos, 1, 2));
+
+        Files.write(dataPath, List.of("周杰伦 _1_2 100"), StandardCharsets.UTF_8);
+        Assertions.assertFalse(index.isValidFor(dataPath));
+    }
+
+    @Test
+    void weightGrowsWithValues() throws Exception {
+        Path smallPath = tempDir.resolve("dic_value_1_DIMENSION_3.txt");
+        Files.write(smallPath, List.of("周杰伦 _1_3 100"), StandardCharsets.UTF_8);
+        Path largePath = tempDir.resolve("dic_value_1_DIMENSION_4.txt");
+        Files.write(largePath, List.of("周杰伦 _1_4 100", "林俊杰 _1_4 90", "陈奕迅 _1_4 70"),
+                StandardCharsets.UTF_8);
+
+        DictFileIndex small = DictFileIndex.build(smallPath);
+        DictFileIndex large = DictFileIndex.build(largePath);
+        Assertions.assertTrue(small.getWeight() > 0);
+        Assertions.assertTrue(large.getWeight() > 2 * small.getWeight());
+        large.write(DictFileIndex.getIndexPath(largePath));
+        Assertions.assertEquals(large.getWeight(),
+                DictFileIndex.read(DictFileIndex.getIndexPath(largePath)).getWeight());
+    }
+}
@@ -0,0 +1,88 @@
+package com.tencent.supersonic.headless.chat.parser.llm;
+
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.pojo.DataEvent;
+import com.tencent.supersonic.common.pojo.DimensionConstants;
+import com.tencent.supersonic.common.pojo.enums.EventType;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
+import com.tencent.supersonic.headless.chat.query.llm.s2sql.LLMReq;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+class PromptHelperTest {
+
+    @Test
+    void reuseSchemaFragmentAcrossValues() {
+        PromptHelper promptHelper = new PromptHelper();
+        LLMReq llmReq = llmReq("北京");
+
+        Assertions.assertEquals(
+                "DatabaseType=[mysql], DatabaseVersion=[8.0], Table=[超音数], "
+                        + "PartitionTimeField=[数据日期 FORMAT 'yyyy-MM-dd'], PrimaryKeyField=[], "
+                        + "Metrics=[<访问次数 ALIAS 'pv,' COMMENT '访问的次数' AGGREGATE 'SUM'>], "
+                        + "Dimensions=[<部门>], Values=[<部门='北京'>]",
+                promptHelper.buildSchemaStr(llmReq));
+
+        PromptHelper.SchemaFragment schemaFragment =
+                promptHelper.getSchemaFragment(llmReq.getSchema());
+        Assertions.assertTrue(schemaFragment.getTokenCount() > 0);
+        Assertions.assertSame(schemaFragment,
+                promptHelper.getSchemaFragment(llmReq("上海").getSchema()));
+        Assertions.assertTrue(promptHelper.buildSchemaStr(llmReq("上海")).endsWith("<部门='上海'>]"));
+
+        LLMReq subsetReq = llmReq("上海");
+        subsetReq.getSchema().setDimensions(new ArrayList<>());
+        Assertions.assertNotSame(schemaFragment,
+                promptHelper.getSchemaFragment(subsetReq.getSchema()));
+
+        LLMReq reorderedReq = llmReq("上海");
+        reorderedReq.getSchema().getMetrics().add(0,
+                SchemaElement.builder().id(4L).name("访问人数").type(SchemaElementType.METRIC).build());
+        PromptHelper.SchemaFragment moreMetrics =
+                promptHelper.getSchemaFragment(reorderedReq.getSchema());
+        Assertions.assertNotSame(schemaFragment, moreMetrics);
+        Collections.reverse(reorderedReq.getSchema().getMetrics());
+        Assertions.assertSame(moreMetrics,
+                promptHelper.getSchemaFragment(reorderedReq.getSchema()));
+
+        // an edited field is rendered again once the edit has bumped the schema version
+        LLMReq editedReq = llmReq("上海");
+        editedReq.getSchema().getDimensions().get(0).setDescription("一级部门");
+        Assertions.assertSame(schemaFragment,
+                promptHelper.getSchemaFragment(editedReq.getSchema()));
+        promptHelper
+                .onDataChange(new DataEvent(this, new ArrayList<>(), EventType.UPDATE, "admin"));
+        Assertions.assertTrue(promptHelper.getSchemaFragment(editedReq.getSchema()).getText()
+                .contains("COMMENT '一级部门'"));
+        Assertions.assertNotSame(schemaFragment,
+                promptHelper.getSchemaFragment(llmReq.getSchema()));
+    }
+
+    private static LLMReq llmReq(String value) {
+        LLMReq.LLMSchema schema = new LLMReq.LLMSchema();
+        schema.setDataSetId(1L);
+        schema.setDataSetName("超音数");
+        schema.setDatabaseType("mysql");
+        schema.setDatabaseVersion("8.0");
+        schema.setMetrics(Lists.newArrayList(SchemaElement.builder().id(1L).name("访问次数")
+                .alias(Lists.newArrayList("pv")).description("访问的次数").defaultAgg("sum")
+                .type(SchemaElementType.METRIC).build()));
+        schema.setDimensions(Lists.newArrayList(SchemaElement.builder().id(2L).name("部门")
+                .type(SchemaElementType.DIMENSION).build()));
+        SchemaElement partitionTime = SchemaElement.builder().id(3L).name("数据日期")
+                .type(SchemaElementType.DIMENSION).build();
+        partitionTime.getExtInfo().put(DimensionConstants.DIMENSION_TIME_FORMAT, "yyyy-MM-dd");
+        schema.setPartitionTime(partitionTime);
+        LLMReq.ElementValue elementValue = new LLMReq.ElementValue();
+        elementValue.setFieldName("部门");
+        elementValue.setFieldValue(value);
+        schema.setValues(Lists.newArrayList(elementValue));
+        LLMReq llmReq = new LLMReq();
+        llmReq.setSchema(schema);
+        return llmReq;
+    }
+}
@@ -15,6 +15,15 @@ import java.util.Properties;
 @Slf4j
 public abstract class BaseDbAdaptor implements DbAdaptor {
 
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    protected static final int DRIVER_FETCH_SIZE = -1;
+
+    @Override
+    public int getFetchSize(String driverClassName) {
+        return DEFAULT_FETCH_SIZE;
+    }
+
     @Override
     public List<String> getCatalogs(ConnectInfo connectInfo) throws SQLException {
         List<String> catalogs = Lists.newArrayList();
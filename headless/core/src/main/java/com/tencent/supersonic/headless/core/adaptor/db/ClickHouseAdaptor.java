@@ -41,4 +41,10 @@ public class ClickHouseAdaptor extends BaseDbAdaptor {
         functionMap.put("YEAR".toLowerCase(), "toYear");
         return SqlReplaceHelper.replaceFunction(sql, functionMap);
     }
+
+    /** the driver streams the result blocks of the server, a fetch size is not needed */
+    @Override
+    public int getFetchSize(String driverClassName) {
+        return DRIVER_FETCH_SIZE;
+    }
 }
@@ -25,4 +25,10 @@ public interface DbAdaptor {
             String tableName) throws SQLException;
 
     FieldType classifyColumnType(String typeName);
+
+    /**
+     * Fetch size of the query statements run by the driver of the given class, -1 keeps the default
+     * of the driver and {@link Integer#MIN_VALUE} streams the rows with MySQL Connector/J.
+     */
+    int getFetchSize(String driverClassName);
 }
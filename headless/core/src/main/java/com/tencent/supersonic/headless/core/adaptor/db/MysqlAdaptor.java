@@ -3,8 +3,14 @@ package com.tencent.supersonic.headless.core.adaptor.db;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.enums.TimeDimensionEnum;
 
+import java.util.Set;
+
 public class MysqlAdaptor extends BaseDbAdaptor {
 
+    /** the drivers of MySQL Connector/J 8 and 5 */
+    private static final Set<String> CONNECTOR_J_DRIVERS =
+            Set.of("com.mysql.cj.jdbc.Driver", "com.mysql.jdbc.Driver");
+
     /** transform YYYYMMDD to YYYY-MM-DD YYYY-MM YYYY-MM-DD(MONDAY) */
     @Override
     public String getDateFormat(String dateType, String dateFormat, String column) {
@@ -34,4 +40,15 @@ public class MysqlAdaptor extends BaseDbAdaptor {
     public String rewriteSql(String sql) {
         return sql;
     }
+
+    /**
+     * Connector/J reads the whole result into memory for any other fetch size unless the url sets
+     * useCursorFetch, stream the rows instead. Other drivers of the MySQL protocol, such as the
+     * MariaDB one, take the sentinel as an invalid fetch size.
+     */
+    @Override
+    public int getFetchSize(String driverClassName) {
+        return CONNECTOR_J_DRIVERS.contains(driverClassName) ? Integer.MIN_VALUE
+                : super.getFetchSize(driverClassName);
+    }
 }
@@ -86,4 +86,10 @@ public class PrestoAdaptor extends BaseDbAdaptor {
         sql = sql.replaceAll("`", "\"");
         return sql;
     }
+
+    /** the driver pages through the result by the server next uri, it ignores the fetch size */
+    @Override
+    public int getFetchSize(String driverClassName) {
+        return DRIVER_FETCH_SIZE;
+    }
 }
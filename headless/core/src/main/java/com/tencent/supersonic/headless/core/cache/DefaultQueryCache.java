@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 @Component
@@ -32,7 +33,9 @@ public class DefaultQueryCache implements QueryCache {
         CacheManager cacheManager = ContextUtils.getBean(CacheManager.class);
         CacheCommonConfig cacheCommonConfig = ContextUtils.getBean(CacheCommonConfig.class);
         if (cacheCommonConfig.getCacheEnable() && Objects.nonNull(value)) {
-            CompletableFuture.supplyAsync(() -> cacheManager.put(cacheKey, value))
+            ThreadPoolExecutor executor =
+                    ContextUtils.getBean("commonExecutor", ThreadPoolExecutor.class);
+            CompletableFuture.supplyAsync(() -> cacheManager.put(cacheKey, value), executor)
                     .exceptionally(exception -> {
                         log.warn("exception:", exception);
                         return null;
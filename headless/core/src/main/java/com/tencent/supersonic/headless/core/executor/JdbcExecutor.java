@@ -1,5 +1,7 @@
 package com.tencent.supersonic.headless.core.executor;
 
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
@@ -22,32 +24,42 @@ public class JdbcExecutor implements QueryExecutor {
 
     @Override
     public SemanticQueryResp execute(QueryStatement queryStatement) {
-        // accelerate query if possible
-        for (QueryAccelerator queryAccelerator : ComponentFactory.getQueryAccelerators()) {
-            if (queryAccelerator.check(queryStatement)) {
-                SemanticQueryResp semanticQueryResp = queryAccelerator.query(queryStatement);
-                if (Objects.nonNull(semanticQueryResp)
-                        && !semanticQueryResp.getResultList().isEmpty()) {
-                    log.info("query by Accelerator {}",
-                            queryAccelerator.getClass().getSimpleName());
-                    return semanticQueryResp;
+        try (TraceSpan span = Tracer.start("semantic.jdbc")) {
+            // accelerate query if possible
+            for (QueryAccelerator queryAccelerator : ComponentFactory.getQueryAccelerators()) {
+                if (queryAccelerator.check(queryStatement)) {
+                    SemanticQueryResp semanticQueryResp = queryAccelerator.query(queryStatement);
+                    if (Objects.nonNull(semanticQueryResp)
+                            && !semanticQueryResp.getResultList().isEmpty()) {
+                        log.info("query by Accelerator {}",
+                                queryAccelerator.getClass().getSimpleName());
+                        span.setAttribute("accelerator",
+                                queryAccelerator.getClass().getSimpleName());
+                        return semanticQueryResp;
+                    }
                 }
             }
-        }
 
-        SqlUtils sqlUtils = ContextUtils.getBean(SqlUtils.class);
-        String sql = StringUtils.normalizeSpace(queryStatement.getSql());
-        log.info("executing SQL: {}", sql);
-        DatabaseResp database = queryStatement.getOntology().getDatabase();
-        SemanticQueryResp queryResultWithColumns = new SemanticQueryResp();
-        try {
-            SqlUtils sqlUtil = sqlUtils.init(database);
-            sqlUtil.queryInternal(queryStatement.getSql(), queryResultWithColumns);
-            queryResultWithColumns.setSql(sql);
-        } catch (Exception e) {
-            log.error("queryInternal with error ", e);
-            queryResultWithColumns.setErrorMsg(e.getMessage());
+            SqlUtils sqlUtils = ContextUtils.getBean(SqlUtils.class);
+            String sql = StringUtils.normalizeSpace(queryStatement.getSql());
+            log.info("executing SQL: {}", sql);
+            DatabaseResp database = queryStatement.getOntology().getDatabase();
+            span.setAttribute("database", database.getType()).setAttribute("sqlLength",
+                    sql.length());
+            SemanticQueryResp queryResultWithColumns = new SemanticQueryResp();
+            try {
+                SqlUtils sqlUtil = sqlUtils.init(database);
+                sqlUtil.queryInternal(queryStatement.getSql(), queryResultWithColumns,
+                        queryStatement.getRunningQuery());
+                queryResultWithColumns.setSql(sql);
+                span.setAttribute("rows", queryResultWithColumns.getResultList().size())
+                        .setAttribute("columns", queryResultWithColumns.getColumns().size());
+            } catch (Exception e) {
+                log.error("queryInternal with error ", e);
+                queryResultWithColumns.setErrorMsg(e.getMessage());
+                span.setError(e);
+            }
+            return queryResultWithColumns;
         }
-        return queryResultWithColumns;
     }
 }
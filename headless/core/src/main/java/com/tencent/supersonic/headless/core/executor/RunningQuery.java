@@ -0,0 +1,118 @@
+package com.tencent.supersonic.headless.core.executor;
+
+import com.tencent.supersonic.common.pojo.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Lifecycle of a semantic query between its registration and its completion. Cancelling it cancels
+ * the jdbc statement being executed and the attached futures, the deadline is passed down to the
+ * driver as the statement query timeout.
+ */
+@Slf4j
+public class RunningQuery {
+
+    private final String id;
+    /** name of the user who started the query, null if unknown */
+    private final String owner;
+    private final long startTime;
+    /** deadline in epoch milliseconds, 0 means no deadline */
+    private volatile long deadline;
+    private volatile boolean cancelled;
+    private Statement statement;
+    private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+
+    public RunningQuery(String id, int timeoutSeconds, User owner) {
+        this.id = id;
+        this.owner = Objects.isNull(owner) ? null : owner.getName();
+        this.startTime = System.currentTimeMillis();
+        setTimeout(timeoutSeconds);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** Only the user who started the query or an admin may cancel it. */
+    public boolean isCancellableBy(User user) {
+        return Objects.nonNull(user)
+                && (user.isSuperAdmin() || Objects.nonNull(owner) && owner.equals(user.getName()));
+    }
+
+    /** timeout in seconds counted from the registration, 0 or less means no deadline */
+    public void setTimeout(int timeoutSeconds) {
+        this.deadline = timeoutSeconds > 0 ? startTime + timeoutSeconds * 1000L : 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    /** seconds left before the deadline rounded up, 0 if there is no deadline */
+    public int getRemainingSeconds() {
+        if (deadline <= 0) {
+            return 0;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        return remaining <= 0 ? 1 : (int) ((remaining + 999) / 1000);
+    }
+
+    /** @throws SQLException if the query is cancelled or past its deadline */
+    public void checkActive() throws SQLException {
+        if (cancelled) {
+            throw new SQLException(String.format("query %s is cancelled", id));
+        }
+        if (isExpired()) {
+            throw new SQLTimeoutException(String.format("query %s is timeout", id));
+        }
+    }
+
+    /** Make the statement cancellable and apply the remaining time as its timeout. */
+    public synchronized void bind(Statement statement) throws SQLException {
+        checkActive();
+        int remainingSeconds = getRemainingSeconds();
+        if (remainingSeconds > 0) {
+            statement.setQueryTimeout(remainingSeconds);
+        }
+        this.statement = statement;
+    }
+
+    public synchronized void unbind() {
+        this.statement = null;
+    }
+
+    /** The future is cancelled with the query, or at once if the query is already cancelled. */
+    public void attach(Future<?> future) {
+        futures.add(future);
+        if (cancelled) {
+            future.cancel(true);
+        }
+    }
+
+    public void cancel() {
+        Statement current;
+        synchronized (this) {
+            cancelled = true;
+            current = statement;
+        }
+        if (Objects.nonNull(current)) {
+            try {
+                current.cancel();
+            } catch (SQLException e) {
+                log.warn("cancel statement of query:{} error:{}", id, e.getMessage());
+            }
+        }
+        futures.forEach(future -> future.cancel(true));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tencent.supersonic.headless.core.executor;
+
+import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.exception.InvalidPermissionException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the running semantic queries by query id. Several queries may share an id, such as
+ * the queries of a batch or of one chat question, cancelling the id cancels all of them.
+ */
+@Slf4j
+@Component
+public class RunningQueryRegistry {
+
+    /** default timeout in seconds of the queries, 0 means no timeout */
+    @Value("${s2.query.timeout:0}")
+    private int defaultTimeout;
+
+    private final Map<String, Set<RunningQuery>> runningQueries = new ConcurrentHashMap<>();
+
+    /**
+     * @param queryId id given by the client, a random id is used if blank
+     * @param timeout timeout in seconds, the default timeout is used if null
+     * @param owner user who starts the query
+     */
+    public RunningQuery register(String queryId, Integer timeout, User owner) {
+        String id = StringUtils.isBlank(queryId) ? UUID.randomUUID().toString() : queryId;
+        RunningQuery runningQuery =
+                new RunningQuery(id, Objects.isNull(timeout) ? defaultTimeout : timeout, owner);
+        runningQueries.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(runningQuery);
+        return runningQuery;
+    }
+
+    public void unregister(RunningQuery runningQuery) {
+        if (Objects.isNull(runningQuery)) {
+            return;
+        }
+        runningQueries.computeIfPresent(runningQuery.getId(), (id, queries) -> {
+            queries.remove(runningQuery);
+            return queries.isEmpty() ? null : queries;
+        });
+    }
+
+    /**
+     * @return whether a running query had the id
+     * @throws InvalidPermissionException if the user neither started the queries nor is an admin
+     */
+    public boolean cancel(String queryId, User user) {
+        if (StringUtils.isBlank(queryId)) {
+            return false;
+        }
+        Set<RunningQuery> queries = runningQueries.get(queryId);
+        if (Objects.isNull(queries) || queries.isEmpty()) {
+            return false;
+        }
+        if (!queries.stream().allMatch(query -> query.isCancellableBy(user))) {
+            throw new InvalidPermissionException(
+                    String.format("no permission to cancel query:%s", queryId));
+        }
+        log.info("cancel running query:{}, count:{}, user:{}", queryId, queries.size(),
+                Objects.isNull(user) ? null : user.getName());
+        queries.forEach(RunningQuery::cancel);
+        return true;
+    }
+
+    public List<String> getRunningQueryIds() {
+        return new ArrayList<>(runningQueries.keySet());
+    }
+}
@@ -1,5 +1,6 @@
 package com.tencent.supersonic.headless.core.pojo;
 
+import com.tencent.supersonic.headless.api.pojo.DatabasePoolConfig;
 import lombok.Data;
 
 @Data
@@ -12,4 +13,6 @@ public class ConnectInfo {
     private String password;
 
     private String database;
+
+    private DatabasePoolConfig poolConfig;
 }
@@ -0,0 +1,53 @@
+package com.tencent.supersonic.headless.core.pojo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Counters of the connection borrows of one pool, with a histogram of the wait times. */
+public class DataSourceMetrics {
+
+    /** upper bounds in milliseconds of the wait time buckets, the last bucket is unbounded */
+    private static final long[] WAIT_BOUNDS = {1, 10, 100, 1000, 10000};
+
+    private final AtomicLongArray waitCounts = new AtomicLongArray(WAIT_BOUNDS.length + 1);
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowFailCount = new AtomicLong();
+
+    public void recordBorrow(long waitMillis) {
+        borrowCount.incrementAndGet();
+        waitCounts.incrementAndGet(bucketOf(waitMillis));
+    }
+
+    public void recordBorrowFailure(long waitMillis) {
+        borrowFailCount.incrementAndGet();
+        waitCounts.incrementAndGet(bucketOf(waitMillis));
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getBorrowFailCount() {
+        return borrowFailCount.get();
+    }
+
+    public Map<String, Long> getWaitMillisHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < WAIT_BOUNDS.length; i++) {
+            histogram.put(String.valueOf(WAIT_BOUNDS[i]), waitCounts.get(i));
+        }
+        histogram.put("+Inf", waitCounts.get(WAIT_BOUNDS.length));
+        return histogram;
+    }
+
+    private static int bucketOf(long waitMillis) {
+        for (int i = 0; i < WAIT_BOUNDS.length; i++) {
+            if (waitMillis <= WAIT_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return WAIT_BOUNDS.length;
+    }
+}
@@ -1,15 +1,25 @@
 package com.tencent.supersonic.headless.core.pojo;
 
+import javax.sql.DataSource;
+
 import com.alibaba.druid.pool.DruidDataSource;
+import com.tencent.supersonic.headless.api.pojo.DatabasePoolConfig;
 import com.tencent.supersonic.headless.api.pojo.enums.DataType;
+import com.tencent.supersonic.headless.api.pojo.response.DatabasePoolStatResp;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.core.utils.JdbcDataSourceUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.stereotype.Component;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -23,6 +33,8 @@ public class JdbcDataSource {
     private static final Object lockLock = new Object();
     private static volatile Map<String, DruidDataSource> dataSourceMap = new ConcurrentHashMap<>();
     private static volatile Map<String, Lock> dataSourceLockMap = new ConcurrentHashMap<>();
+    private static volatile Map<String, DataSourceMetrics> dataSourceMetricsMap =
+            new ConcurrentHashMap<>();
 
     @Value("${source.lock-time:30}")
     @Getter
@@ -44,6 +56,11 @@ public class JdbcDataSource {
     @Getter
     protected long maxWait;
 
+    /** queries waiting for a connection of one database, so a slow one cannot hold all threads */
+    @Value("${source.max-wait-threads:16}")
+    @Getter
+    protected int maxWaitThreads;
+
     @Value("${source.time-between-eviction-runs-millis:2000}")
     @Getter
     protected long timeBetweenEvictionRunsMillis;
@@ -140,6 +157,7 @@ public class JdbcDataSource {
 
         DruidDataSource druidDataSource = dataSourceMap.get(key);
         if (druidDataSource != null && !druidDataSource.isClosed()) {
+            applyPoolConfig(druidDataSource, database.getPoolConfig());
             return druidDataSource;
         }
 
@@ -184,9 +202,7 @@ public class JdbcDataSource {
             }
 
             druidDataSource.setInitialSize(initialSize);
-            druidDataSource.setMinIdle(minIdle);
-            druidDataSource.setMaxActive(maxActive);
-            druidDataSource.setMaxWait(maxWait);
+            applyPoolConfig(druidDataSource, database.getPoolConfig());
             druidDataSource.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
             druidDataSource.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
             druidDataSource.setMaxEvictableIdleTimeMillis(maxEvictableIdleTimeMillis);
@@ -240,8 +256,89 @@ public class JdbcDataSource {
         return druidDataSource;
     }
 
+    /** data source of the database which records the wait time of each connection borrow */
+    public DataSource getMeteredDataSource(DatabaseResp database) {
+        DruidDataSource druidDataSource = getDataSource(database);
+        DataSourceMetrics metrics = dataSourceMetricsMap.computeIfAbsent(getDataSourceKey(database),
+                k -> new DataSourceMetrics());
+        return new MeteredDataSource(druidDataSource, metrics);
+    }
+
+    public List<DatabasePoolStatResp> getPoolStats() {
+        List<DatabasePoolStatResp> poolStats = new ArrayList<>();
+        dataSourceMap.forEach((key, druidDataSource) -> {
+            DatabasePoolStatResp poolStat = new DatabasePoolStatResp();
+            poolStat.setName(druidDataSource.getName());
+            poolStat.setMaxActive(druidDataSource.getMaxActive());
+            poolStat.setActiveCount(druidDataSource.getActiveCount());
+            poolStat.setPoolingCount(druidDataSource.getPoolingCount());
+            poolStat.setWaitThreadCount(druidDataSource.getWaitThreadCount());
+            poolStat.setMaxWaitThreadCount(druidDataSource.getMaxWaitThreadCount());
+            poolStat.setMaxWait(druidDataSource.getMaxWait());
+            DataSourceMetrics metrics = dataSourceMetricsMap.get(key);
+            if (metrics != null) {
+                poolStat.setBorrowCount(metrics.getBorrowCount());
+                poolStat.setBorrowFailCount(metrics.getBorrowFailCount());
+                poolStat.setWaitMillisHistogram(metrics.getWaitMillisHistogram());
+            }
+            poolStats.add(poolStat);
+        });
+        return poolStats;
+    }
+
+    /** apply the pool profile of the database, falling back to the global settings */
+    private void applyPoolConfig(DruidDataSource druidDataSource, DatabasePoolConfig poolConfig) {
+        DatabasePoolConfig config = poolConfig == null ? new DatabasePoolConfig() : poolConfig;
+        int poolMaxActive = Objects.requireNonNullElse(config.getMaxActive(), maxActive);
+        int poolMinIdle =
+                Math.min(Objects.requireNonNullElse(config.getMinIdle(), minIdle), poolMaxActive);
+        long poolMaxWait = Objects.requireNonNullElse(config.getMaxWait(), maxWait);
+        int poolMaxWaitThreads =
+                Objects.requireNonNullElse(config.getMaxWaitThreads(), maxWaitThreads);
+        if (druidDataSource.getMaxActive() != poolMaxActive
+                || druidDataSource.getMinIdle() != poolMinIdle) {
+            // an inited pool requires minIdle <= maxActive after each change
+            if (poolMaxActive < druidDataSource.getMaxActive()) {
+                druidDataSource.setMinIdle(poolMinIdle);
+                druidDataSource.setMaxActive(poolMaxActive);
+            } else {
+                druidDataSource.setMaxActive(poolMaxActive);
+                druidDataSource.setMinIdle(poolMinIdle);
+            }
+        }
+        if (druidDataSource.getMaxWait() != poolMaxWait) {
+            druidDataSource.setMaxWait(poolMaxWait);
+        }
+        if (druidDataSource.getMaxWaitThreadCount() != poolMaxWaitThreads) {
+            druidDataSource.setMaxWaitThreadCount(poolMaxWaitThreads);
+        }
+    }
+
     private String getDataSourceKey(DatabaseResp database) {
         return JdbcDataSourceUtils.getKey(database.getName(), database.getUrl(),
                 database.getUsername(), database.passwordDecrypt(), "", false);
     }
+
+    private static class MeteredDataSource extends DelegatingDataSource {
+
+        private final DataSourceMetrics metrics;
+
+        MeteredDataSource(DataSource dataSource, DataSourceMetrics metrics) {
+            super(dataSource);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            long start = System.currentTimeMillis();
+            try {
+                Connection connection = super.getConnection();
+                metrics.recordBorrow(System.currentTimeMillis() - start);
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                metrics.recordBorrowFailure(System.currentTimeMillis() - start);
+                throw e;
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.tencent.supersonic.headless.core.pojo;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.headless.api.pojo.response.QueryState;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticSchemaResp;
+import com.tencent.supersonic.headless.core.executor.RunningQuery;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Triple;
@@ -26,6 +27,7 @@ public class QueryStatement {
     private Integer limit = 1000;
     private Boolean isTranslated = false;
     private User user;
+    private RunningQuery runningQuery;
 
     public boolean isOk() {
         return StringUtils.isBlank(errMsg) && StringUtils.isNotBlank(sql);
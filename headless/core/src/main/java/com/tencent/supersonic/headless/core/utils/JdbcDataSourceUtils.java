@@ -153,49 +153,26 @@ public class JdbcDataSourceUtils {
     }
 
     public DataSource getDataSource(DatabaseResp database) throws RuntimeException {
-        return jdbcDataSource.getDataSource(database);
+        return jdbcDataSource.getMeteredDataSource(database);
     }
 
+    /**
+     * Borrow a connection, waiting at most the max wait of the pool. Timeouts and rejections of a
+     * saturated pool fail at once, only a pool handing out a broken connection is rebuilt.
+     */
     public Connection getConnection(DatabaseResp database) throws RuntimeException {
-        Connection conn = getConnectionWithRetry(database);
-        if (conn == null) {
-            try {
-                releaseDataSource(database);
-                DataSource dataSource = getDataSource(database);
-                return dataSource.getConnection();
-            } catch (Exception e) {
-                log.error("Get connection error, jdbcUrl:{}, e:{}", database.getUrl(), e);
-                throw new RuntimeException("Get connection error, jdbcUrl:" + database.getUrl()
-                        + " you can try again later or reset datasource");
-            }
-        }
-        return conn;
-    }
-
-    private Connection getConnectionWithRetry(DatabaseResp database) {
-        int rc = 1;
-        for (;;) {
-
-            if (rc > 3) {
-                return null;
-            }
-
-            try {
-                Connection connection = getDataSource(database).getConnection();
-                if (connection != null && connection.isValid(5)) {
-                    return connection;
-                }
-            } catch (Exception e) {
-                log.error("e", e);
-            }
-
-            try {
-                Thread.sleep((long) Math.pow(2, rc) * 1000);
-            } catch (InterruptedException e) {
-                log.error("e", e);
+        try {
+            Connection connection = getDataSource(database).getConnection();
+            if (connection.isValid(5)) {
+                return connection;
             }
-
-            rc++;
+            releaseConnection(connection);
+            releaseDataSource(database);
+            return getDataSource(database).getConnection();
+        } catch (Exception e) {
+            log.error("Get connection error, jdbcUrl:{}, e:{}", database.getUrl(), e);
+            throw new RuntimeException("Get connection error, jdbcUrl:" + database.getUrl()
+                    + " you can try again later or reset datasource");
         }
     }
 
@@ -0,0 +1,116 @@
+package com.tencent.supersonic.headless.core.utils;
+
+import com.tencent.supersonic.common.util.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decodes the rows of a result set into maps keyed by column label. The getter of each column is
+ * chosen once from the java class reported by the metadata and reads the column by its position,
+ * instead of a lookup by label and a generic getObject for every value.
+ */
+@Slf4j
+public class ResultSetDecoder {
+
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(DateUtils.DEFAULT_DATE_FORMAT);
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern(DateUtils.DEFAULT_TIME_FORMAT);
+
+    private final String[] labels;
+    /** position of the column read for each label, the first column wins for a repeated label */
+    private final int[] sources;
+    private final ColumnReader[] readers;
+
+    public ResultSetDecoder(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        labels = new String[columnCount];
+        sources = new int[columnCount];
+        readers = new ColumnReader[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            sources[i] = i;
+            for (int j = 0; j < i; j++) {
+                // a lookup by label ignores the case and finds the first column
+                if (labels[j].equalsIgnoreCase(labels[i])) {
+                    sources[i] = sources[j];
+                    break;
+                }
+            }
+            readers[i] = getReader(getColumnClassName(metaData, i + 1));
+        }
+    }
+
+    public Map<String, Object> decode(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>(labels.length * 4 / 3 + 1);
+        Object[] values = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            int source = sources[i];
+            values[i] = source == i ? readers[i].read(rs, i + 1) : values[source];
+            row.put(labels[i], values[i]);
+        }
+        return row;
+    }
+
+    /** Format dates as strings and binaries as text. */
+    public static Object convert(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate.format(DATE_FORMATTER);
+        } else if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.format(TIME_FORMATTER);
+        } else if (value instanceof Date date) {
+            return DateUtils.format(date);
+        } else if (value instanceof byte[] bytes) {
+            return new String(bytes);
+        }
+        return value;
+    }
+
+    private static String getColumnClassName(ResultSetMetaData metaData, int column) {
+        try {
+            return metaData.getColumnClassName(column);
+        } catch (Exception e) {
+            log.debug("column class name of column:{} is not available", column, e);
+            return null;
+        }
+    }
+
+    private static ColumnReader getReader(String className) {
+        if (String.class.getName().equals(className)) {
+            return ResultSet::getString;
+        } else if (Integer.class.getName().equals(className)) {
+            return (rs, column) -> {
+                int value = rs.getInt(column);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (Long.class.getName().equals(className)) {
+            return (rs, column) -> {
+                long value = rs.getLong(column);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (Double.class.getName().equals(className)) {
+            return (rs, column) -> {
+                double value = rs.getDouble(column);
+                return rs.wasNull() ? null : value;
+            };
+        } else if (BigDecimal.class.getName().equals(className)) {
+            return ResultSet::getBigDecimal;
+        }
+        return (rs, column) -> convert(rs.getObject(column));
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+}
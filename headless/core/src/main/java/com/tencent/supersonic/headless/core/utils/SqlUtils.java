@@ -2,27 +2,29 @@ package com.tencent.supersonic.headless.core.utils;
 
 import javax.sql.DataSource;
 
+import com.alibaba.druid.pool.DruidDataSource;
 import com.tencent.supersonic.common.pojo.QueryColumn;
-import com.tencent.supersonic.common.util.DateUtils;
+import com.tencent.supersonic.headless.api.pojo.DatabasePoolConfig;
 import com.tencent.supersonic.headless.api.pojo.enums.DataType;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import com.tencent.supersonic.headless.core.adaptor.db.BaseDbAdaptor;
+import com.tencent.supersonic.headless.core.adaptor.db.DbAdaptor;
+import com.tencent.supersonic.headless.core.adaptor.db.DbAdaptorFactory;
+import com.tencent.supersonic.headless.core.executor.RunningQuery;
 import com.tencent.supersonic.headless.core.pojo.JdbcDataSource;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
 import org.springframework.stereotype.Component;
 
 import java.rmi.ServerException;
-import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import static com.tencent.supersonic.common.pojo.Constants.AT_SYMBOL;
@@ -62,14 +64,15 @@ public class SqlUtils {
                 .withName(database.getId() + AT_SYMBOL + database.getName())
                 .withType(database.getType()).withJdbcUrl(database.getUrl())
                 .withUsername(database.getUsername()).withPassword(database.getPassword())
-                .withJdbcDataSource(this.jdbcDataSource).withResultLimit(this.resultLimit)
-                .withIsQueryLogEnable(this.isQueryLogEnable).build();
+                .withPoolConfig(database.getPoolConfig()).withJdbcDataSource(this.jdbcDataSource)
+                .withResultLimit(this.resultLimit).withIsQueryLogEnable(this.isQueryLogEnable)
+                .build();
     }
 
     public List<Map<String, Object>> execute(String sql) throws ServerException {
         try {
             List<Map<String, Object>> list = jdbcTemplate().queryForList(sql);
-            log.info("list:{}", list);
+            log.debug("list:{}", list);
             return list;
         } catch (Exception e) {
             log.error(e.toString(), e);
@@ -82,52 +85,91 @@ public class SqlUtils {
     }
 
     public JdbcTemplate jdbcTemplate() throws RuntimeException {
-        Connection connection = null;
-        try {
-            connection = jdbcDataSourceUtils.getConnection(database);
-        } catch (Exception e) {
-            log.warn("e:", e);
-        } finally {
-            JdbcDataSourceUtils.releaseConnection(connection);
-        }
+        // connections are validated by the pool while idle, no borrow is needed up front
         DataSource dataSource = jdbcDataSourceUtils.getDataSource(database);
         JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
         jdbcTemplate.setDatabaseProductName(database.getName());
-        jdbcTemplate.setFetchSize(500);
+        jdbcTemplate.setFetchSize(getFetchSize(dataSource));
         return jdbcTemplate;
     }
 
+    private int getFetchSize(DataSource dataSource) {
+        DbAdaptor dbAdaptor = DbAdaptorFactory.getEngineAdaptor(database.getType());
+        return Objects.isNull(dbAdaptor) ? BaseDbAdaptor.DEFAULT_FETCH_SIZE
+                : dbAdaptor.getFetchSize(getDriverClassName(dataSource));
+    }
+
+    /** the driver the pool was configured with, which may differ from the engine type */
+    private String getDriverClassName(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(DruidDataSource.class)) {
+                return dataSource.unwrap(DruidDataSource.class).getDriverClassName();
+            }
+        } catch (SQLException e) {
+            log.warn("get driver of database:{} failed", database.getName(), e);
+        }
+        return JdbcDataSourceUtils.getDriverClassName(database.getUrl());
+    }
+
     public void queryInternal(String sql, SemanticQueryResp queryResultWithColumns) {
         getResult(sql, queryResultWithColumns, jdbcTemplate());
     }
 
+    /**
+     * Query with the statement bound to the running query, so that the query can be cancelled and
+     * is stopped by the driver at its deadline.
+     */
+    public void queryInternal(String sql, SemanticQueryResp queryResultWithColumns,
+            RunningQuery runningQuery) {
+        if (Objects.isNull(runningQuery)) {
+            queryInternal(sql, queryResultWithColumns);
+            return;
+        }
+        jdbcTemplate().execute((StatementCallback<SemanticQueryResp>) statement -> {
+            runningQuery.bind(statement);
+            try (ResultSet rs = statement.executeQuery(sql)) {
+                extractResult(rs, queryResultWithColumns);
+            } finally {
+                runningQuery.unbind();
+            }
+            // rows read before a cancel are not a result
+            runningQuery.checkActive();
+            return queryResultWithColumns;
+        });
+    }
+
     private SemanticQueryResp getResult(String sql, SemanticQueryResp queryResultWithColumns,
             JdbcTemplate jdbcTemplate) {
         jdbcTemplate.query(sql, rs -> {
-            if (null == rs) {
-                return queryResultWithColumns;
-            }
-
-            ResultSetMetaData metaData = rs.getMetaData();
-            List<QueryColumn> queryColumns = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                String key = metaData.getColumnLabel(i);
-                queryColumns.add(new QueryColumn(key, metaData.getColumnTypeName(i)));
-            }
-            queryResultWithColumns.setColumns(queryColumns);
+            return extractResult(rs, queryResultWithColumns);
+        });
+        return queryResultWithColumns;
+    }
 
-            List<Map<String, Object>> resultList = getAllData(rs, queryColumns);
-            queryResultWithColumns.setResultList(resultList);
+    private SemanticQueryResp extractResult(ResultSet rs, SemanticQueryResp queryResultWithColumns)
+            throws SQLException {
+        if (null == rs) {
             return queryResultWithColumns;
-        });
+        }
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<QueryColumn> queryColumns = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String key = metaData.getColumnLabel(i);
+            queryColumns.add(new QueryColumn(key, metaData.getColumnTypeName(i)));
+        }
+        queryResultWithColumns.setColumns(queryColumns);
+
+        List<Map<String, Object>> resultList = getAllData(rs, new ResultSetDecoder(metaData));
+        queryResultWithColumns.setResultList(resultList);
         return queryResultWithColumns;
     }
 
-    private List<Map<String, Object>> getAllData(ResultSet rs, List<QueryColumn> queryColumns) {
+    private List<Map<String, Object>> getAllData(ResultSet rs, ResultSetDecoder decoder) {
         List<Map<String, Object>> data = new ArrayList<>();
         try {
             while (rs.next()) {
-                data.add(getLineData(rs, queryColumns));
+                data.add(decoder.decode(rs));
             }
         } catch (Exception e) {
             log.warn("error in getAllData, e:", e);
@@ -135,33 +177,6 @@ public class SqlUtils {
         return data;
     }
 
-    private Map<String, Object> getLineData(ResultSet rs, List<QueryColumn> queryColumns)
-            throws SQLException {
-        Map<String, Object> map = new LinkedHashMap<>();
-        for (QueryColumn queryColumn : queryColumns) {
-            String colName = queryColumn.getBizName();
-            Object value = rs.getObject(colName);
-            map.put(colName, getValue(value));
-        }
-        return map;
-    }
-
-    private Object getValue(Object value) {
-        if (value instanceof LocalDate) {
-            LocalDate localDate = (LocalDate) value;
-            return localDate.format(DateTimeFormatter.ofPattern(DateUtils.DEFAULT_DATE_FORMAT));
-        } else if (value instanceof LocalDateTime) {
-            LocalDateTime localDateTime = (LocalDateTime) value;
-            return localDateTime.format(DateTimeFormatter.ofPattern(DateUtils.DEFAULT_TIME_FORMAT));
-        } else if (value instanceof Date) {
-            Date date = (Date) value;
-            return DateUtils.format(date);
-        } else if (value instanceof byte[]) {
-            return new String((byte[]) value);
-        }
-        return value;
-    }
-
     public static final class SqlUtilsBuilder {
 
         private JdbcDataSource jdbcDataSource;
@@ -172,6 +187,7 @@ public class SqlUtils {
         private String jdbcUrl;
         private String username;
         private String password;
+        private DatabasePoolConfig poolConfig;
 
         private SqlUtilsBuilder() {}
 
@@ -219,10 +235,15 @@ public class SqlUtils {
             return this;
         }
 
+        SqlUtilsBuilder withPoolConfig(DatabasePoolConfig poolConfig) {
+            this.poolConfig = poolConfig;
+            return this;
+        }
+
         public SqlUtils build() {
             DatabaseResp database = DatabaseResp.builder().name(this.name)
                     .type(this.type.toUpperCase()).url(this.jdbcUrl).username(this.username)
-                    .password(this.password).build();
+                    .password(this.password).poolConfig(this.poolConfig).build();
 
             SqlUtils sqlUtils = new SqlUtils(database);
             sqlUtils.jdbcDataSource = this.jdbcDataSource;
@@ -0,0 +1,20 @@
+package com.tencent.supersonic.headless.core.adaptor.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MysqlAdaptorTest {
+
+    @Test
+    void streamRowsOnlyWithConnectorJ() {
+        MysqlAdaptor mysqlAdaptor = new MysqlAdaptor();
+        Assertions.assertEquals(Integer.MIN_VALUE,
+                mysqlAdaptor.getFetchSize("com.mysql.cj.jdbc.Driver"));
+        Assertions.assertEquals(Integer.MIN_VALUE,
+                mysqlAdaptor.getFetchSize("com.mysql.jdbc.Driver"));
+        Assertions.assertEquals(BaseDbAdaptor.DEFAULT_FETCH_SIZE,
+                mysqlAdaptor.getFetchSize("org.mariadb.jdbc.Driver"));
+        Assertions.assertEquals(BaseDbAdaptor.DEFAULT_FETCH_SIZE,
+                new StarrocksAdaptor().getFetchSize("org.mariadb.jdbc.Driver"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.tencent.supersonic.headless.core.executor;
+
+import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.exception.InvalidPermissionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RunningQueryRegistryTest {
+
+    private static final User OWNER = User.get(1L, "jack");
+
+    @Test
+    void cancelStatementsAndFuturesOfQueryId() throws Exception {
+        RunningQueryRegistry registry = new RunningQueryRegistry();
+        RunningQuery first = registry.register("q1", 30, OWNER);
+        RunningQuery second = registry.register("q1", null, OWNER);
+        RunningQuery other = registry.register("q2", null, OWNER);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger queryTimeout = new AtomicInteger();
+        first.bind(statement(cancelled, queryTimeout));
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        second.attach(future);
+
+        Assertions.assertTrue(registry.cancel("q1", OWNER));
+
+        Assertions.assertTrue(cancelled.get());
+        Assertions.assertTrue(queryTimeout.get() > 0 && queryTimeout.get() <= 30);
+        Assertions.assertTrue(future.isCancelled());
+        Assertions.assertThrows(SQLException.class,
+                () -> second.bind(statement(cancelled, queryTimeout)));
+        Assertions.assertFalse(other.isCancelled());
+        Assertions.assertFalse(registry.cancel("q3", OWNER));
+
+        registry.unregister(first);
+        registry.unregister(second);
+        Assertions.assertEquals(1, registry.getRunningQueryIds().size());
+        Assertions.assertFalse(registry.cancel("q1", OWNER));
+    }
+
+    @Test
+    void registerWithoutIdAndTimeout() {
+        RunningQueryRegistry registry = new RunningQueryRegistry();
+        RunningQuery runningQuery = registry.register(null, null, OWNER);
+        Assertions.assertNotNull(runningQuery.getId());
+        Assertions.assertEquals(0, runningQuery.getRemainingSeconds());
+        Assertions.assertFalse(runningQuery.isExpired());
+
+        runningQuery.setTimeout(-1);
+        Assertions.assertFalse(runningQuery.isExpired());
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        runningQuery.cancel();
+        runningQuery.attach(future);
+        Assertions.assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void cancelOnlyByOwnerOrAdmin() {
+        RunningQueryRegistry registry = new RunningQueryRegistry();
+        RunningQuery runningQuery = registry.register("q1", null, OWNER);
+
+        Assertions.assertThrows(InvalidPermissionException.class,
+                () -> registry.cancel("q1", User.get(2L, "tom")));
+        Assertions.assertThrows(InvalidPermissionException.class,
+                () -> registry.cancel("q1", null));
+        Assertions.assertFalse(runningQuery.isCancelled());
+
+        Assertions.assertTrue(registry.cancel("q1", User.getDefaultUser()));
+        Assertions.assertTrue(runningQuery.isCancelled());
+    }
+
+    private Statement statement(AtomicBoolean cancelled, AtomicInteger queryTimeout) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+                    if ("cancel".equals(method.getName())) {
+                        cancelled.set(true);
+                    } else if ("setQueryTimeout".equals(method.getName())) {
+                        queryTimeout.set((Integer) args[0]);
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,27 @@
+package com.tencent.supersonic.headless.core.pojo;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+class DataSourceMetricsTest {
+
+    @Test
+    void recordWaitHistogram() {
+        DataSourceMetrics metrics = new DataSourceMetrics();
+        metrics.recordBorrow(0);
+        metrics.recordBorrow(5);
+        metrics.recordBorrow(10);
+        metrics.recordBorrow(2500);
+        metrics.recordBorrowFailure(60000);
+
+        Assertions.assertEquals(4, metrics.getBorrowCount());
+        Assertions.assertEquals(1, metrics.getBorrowFailCount());
+        Map<String, Long> histogram = metrics.getWaitMillisHistogram();
+        Assertions.assertEquals(List.of("1", "10", "100", "1000", "10000", "+Inf"),
+                List.copyOf(histogram.keySet()));
+        Assertions.assertEquals(List.of(1L, 2L, 0L, 0L, 1L, 1L), List.copyOf(histogram.values()));
+    }
+}
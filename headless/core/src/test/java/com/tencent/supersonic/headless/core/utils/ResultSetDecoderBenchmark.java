@@ -0,0 +1,97 @@
+package com.tencent.supersonic.headless.core.utils;
+
+import com.tencent.supersonic.common.util.DateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a synthetic result set of one million rows by label with a formatter per value, as
+ * before, and with {@link ResultSetDecoder}. Surefire skips the benchmarks, start the main method
+ * with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultSetDecoderBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private SyntheticResultSet resultSet;
+
+    @Setup
+    public void setup() {
+        resultSet = new SyntheticResultSet(ROWS)
+                .column("id", "BIGINT", Long.class, row -> (long) row)
+                .column("pv", "INT", Integer.class, row -> row % 1000)
+                .column("amount", "DECIMAL", BigDecimal.class, row -> BigDecimal.valueOf(row, 2))
+                .column("brand_name", "VARCHAR", String.class, row -> "brand" + row % 100)
+                .column("ds", "DATE", LocalDate.class,
+                        row -> LocalDate.of(2024, 1, 1).plusDays(row % 365))
+                .column("updated", "DATETIME", LocalDateTime.class,
+                        row -> LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(row % 100000));
+    }
+
+    @Benchmark
+    public long decode() throws SQLException {
+        ResultSet rs = resultSet.open();
+        ResultSetDecoder decoder = new ResultSetDecoder(rs.getMetaData());
+        long count = 0;
+        while (rs.next()) {
+            count += decoder.decode(rs).size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long decodeByLabel() throws SQLException {
+        ResultSet rs = resultSet.open();
+        int columnCount = rs.getMetaData().getColumnCount();
+        long count = 0;
+        while (rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                String label = rs.getMetaData().getColumnLabel(i);
+                Object value = rs.getObject(label);
+                if (value instanceof LocalDate localDate) {
+                    value = localDate
+                            .format(DateTimeFormatter.ofPattern(DateUtils.DEFAULT_DATE_FORMAT));
+                } else if (value instanceof LocalDateTime localDateTime) {
+                    value = localDateTime
+                            .format(DateTimeFormatter.ofPattern(DateUtils.DEFAULT_TIME_FORMAT));
+                }
+                row.put(label, value);
+            }
+            count += row.size();
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResultSetDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
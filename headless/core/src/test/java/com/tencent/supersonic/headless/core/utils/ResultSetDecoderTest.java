@@ -0,0 +1,69 @@
+package com.tencent.supersonic.headless.core.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ResultSetDecoderTest {
+
+    @Test
+    void decodeLikeLookupByLabel() throws SQLException {
+        SyntheticResultSet resultSet = new SyntheticResultSet(20)
+                .column("id", "BIGINT", Long.class, row -> row % 7 == 0 ? null : (long) row)
+                .column("pv", "INT", Integer.class, row -> row * 3)
+                .column("PV", "INT", Integer.class, row -> -row)
+                .column("amount", "DECIMAL", BigDecimal.class, BigDecimal::valueOf)
+                .column("name", "VARCHAR", String.class, row -> "name" + row)
+                .column("ds", "DATE", LocalDate.class,
+                        row -> LocalDate.of(2024, 1, 1).plusDays(row))
+                .column("updated", "DATETIME", LocalDateTime.class,
+                        row -> LocalDateTime.of(2024, 1, 1, 8, 30).plusHours(row))
+                .column("raw", "BLOB", byte[].class, row -> ("raw" + row).getBytes());
+
+        List<Map<String, Object>> decoded = decode(resultSet.open());
+        List<Map<String, Object>> expected = decodeByLabel(resultSet.open());
+
+        Assertions.assertEquals(expected, decoded);
+        Map<String, Object> row = decoded.get(1);
+        Assertions.assertEquals(List.of("id", "pv", "PV", "amount", "name", "ds", "updated", "raw"),
+                new ArrayList<>(row.keySet()));
+        Assertions.assertEquals(3, row.get("PV"));
+        Assertions.assertEquals("2024-01-02", row.get("ds"));
+        Assertions.assertEquals("2024-01-01 09:30:00", row.get("updated"));
+        Assertions.assertEquals("raw1", row.get("raw"));
+        Assertions.assertNull(decoded.get(0).get("id"));
+    }
+
+    private List<Map<String, Object>> decode(ResultSet rs) throws SQLException {
+        ResultSetDecoder decoder = new ResultSetDecoder(rs.getMetaData());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(decoder.decode(rs));
+        }
+        return rows;
+    }
+
+    /** the decoding before the typed getters, kept as reference */
+    static List<Map<String, Object>> decodeByLabel(ResultSet rs) throws SQLException {
+        int columnCount = rs.getMetaData().getColumnCount();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        while (rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                String label = rs.getMetaData().getColumnLabel(i);
+                row.put(label, ResultSetDecoder.convert(rs.getObject(label)));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,87 @@
+package com.tencent.supersonic.headless.core.utils;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/** Forward only result set generating its rows, with a label index like the drivers have. */
+class SyntheticResultSet {
+
+    private final List<String> labels = new ArrayList<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final List<IntFunction<Object>> generators = new ArrayList<>();
+    private final int rowCount;
+
+    SyntheticResultSet(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    SyntheticResultSet column(String label, String typeName, Class<?> type,
+            IntFunction<Object> generator) {
+        labels.add(label);
+        typeNames.add(typeName);
+        classNames.add(type.getName());
+        generators.add(generator);
+        return this;
+    }
+
+    ResultSet open() {
+        Map<String, Integer> labelIndexes = new HashMap<>();
+        for (int i = labels.size() - 1; i >= 0; i--) {
+            labelIndexes.put(labels.get(i).toLowerCase(Locale.ROOT), i + 1);
+        }
+        ResultSetMetaData metaData =
+                (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] {ResultSetMetaData.class},
+                        (proxy, method, args) -> switch (method.getName()) {
+                        case "getColumnCount" -> labels.size();
+                        case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+                        case "getColumnTypeName" -> typeNames.get((Integer) args[0] - 1);
+                        case "getColumnClassName" -> classNames.get((Integer) args[0] - 1);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                        });
+        Object[] row = new Object[labels.size()];
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if ("next".equals(name)) {
+                        if (++cursor[0] >= rowCount) {
+                            return false;
+                        }
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = generators.get(i).apply(cursor[0]);
+                        }
+                        return true;
+                    } else if ("getMetaData".equals(name)) {
+                        return metaData;
+                    } else if ("wasNull".equals(name)) {
+                        return wasNull[0];
+                    } else if ("close".equals(name)) {
+                        return null;
+                    } else if (!name.startsWith("get") || args == null || args.length != 1) {
+                        throw new UnsupportedOperationException(name);
+                    }
+                    Object arg = args[0];
+                    int column = arg instanceof String label
+                            ? labelIndexes.get(label.toLowerCase(Locale.ROOT))
+                            : (Integer) arg;
+                    Object value = row[column - 1];
+                    wasNull[0] = value == null;
+                    return switch (name) {
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getDouble" -> value == null ? 0D : ((Number) value).doubleValue();
+                        default -> value;
+                    };
+                });
+    }
+}
@@ -1,23 +1,18 @@
 package com.tencent.supersonic.headless.server.aspect;
 
-import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.jsqlparser.FieldExpression;
 import com.tencent.supersonic.common.jsqlparser.SqlReplaceHelper;
 import com.tencent.supersonic.common.jsqlparser.SqlSelectHelper;
 import com.tencent.supersonic.common.pojo.Filter;
-import com.tencent.supersonic.common.pojo.QueryColumn;
 import com.tencent.supersonic.common.pojo.enums.FilterOperatorEnum;
 import com.tencent.supersonic.common.pojo.exception.InvalidArgumentException;
 import com.tencent.supersonic.common.util.JsonUtil;
-import com.tencent.supersonic.headless.api.pojo.DimValueMap;
-import com.tencent.supersonic.headless.api.pojo.MetaFilter;
-import com.tencent.supersonic.headless.api.pojo.SchemaItem;
 import com.tencent.supersonic.headless.api.pojo.request.QuerySqlReq;
 import com.tencent.supersonic.headless.api.pojo.request.QueryStructReq;
 import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
-import com.tencent.supersonic.headless.api.pojo.response.DimensionResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
 import com.tencent.supersonic.headless.server.service.DimensionService;
+import com.tencent.supersonic.headless.server.utils.DimValueMappings;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -33,8 +28,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Aspect
 @Component
@@ -69,94 +62,67 @@ public class DimValueAspect {
     private SemanticQueryResp handleStructDimValue(ProceedingJoinPoint joinPoint) throws Throwable {
         Object[] args = joinPoint.getArgs();
         QueryStructReq queryStructReq = (QueryStructReq) args[0];
-        MetaFilter metaFilter = new MetaFilter(Lists.newArrayList(queryStructReq.getModelIds()));
-        List<DimensionResp> dimensions = dimensionService.getDimensions(metaFilter);
-        Map<String, Map<String, String>> dimAndAliasAndTechNamePair =
-                getAliasAndBizNameToTechName(dimensions);
-        Map<String, Map<String, String>> dimAndTechNameAndBizNamePair =
-                getTechNameToBizName(dimensions);
+        DimValueMappings dimValueMappings =
+                dimensionService.getDimValueMappings(queryStructReq.getModelIds());
+        if (dimValueMappings.isEmpty()) {
+            return (SemanticQueryResp) joinPoint.proceed();
+        }
 
-        rewriteFilter(queryStructReq.getDimensionFilters(), dimAndAliasAndTechNamePair);
+        rewriteFilter(queryStructReq.getDimensionFilters(), dimValueMappings);
 
         SemanticQueryResp semanticQueryResp = (SemanticQueryResp) joinPoint.proceed();
-        if (Objects.nonNull(semanticQueryResp)) {
-            rewriteDimValue(semanticQueryResp, dimAndTechNameAndBizNamePair);
-        }
-
-        return semanticQueryResp;
+        return dimValueMappings.mapResult(semanticQueryResp);
     }
 
     public Object handleSqlDimValue(ProceedingJoinPoint joinPoint) throws Throwable {
         Object[] args = joinPoint.getArgs();
         QuerySqlReq querySqlReq = (QuerySqlReq) args[0];
-        MetaFilter metaFilter = new MetaFilter(Lists.newArrayList(querySqlReq.getModelIds()));
+        DimValueMappings dimValueMappings =
+                dimensionService.getDimValueMappings(querySqlReq.getModelIds());
         String sql = querySqlReq.getSql();
-        log.debug("correctorSql before replacing:{}", sql);
-        List<FieldExpression> fieldExpressionList = SqlSelectHelper.getWhereExpressions(sql);
-        List<DimensionResp> dimensions = dimensionService.getDimensions(metaFilter);
-        Set<String> fieldNames =
-                dimensions.stream().map(SchemaItem::getName).collect(Collectors.toSet());
-        Map<String, Map<String, String>> filedNameToValueMap = new HashMap<>();
-        for (FieldExpression expression : fieldExpressionList) {
-            if (!fieldNames.contains(expression.getFieldName())) {
-                continue;
-            }
-            for (DimensionResp dimension : dimensions) {
-                if (!expression.getFieldName().equals(dimension.getBizName())
-                        || CollectionUtils.isEmpty(dimension.getDimValueMaps())) {
+        if (dimValueMappings.hasAliasValues()) {
+            log.debug("correctorSql before replacing:{}", sql);
+            List<FieldExpression> fieldExpressionList = SqlSelectHelper.getWhereExpressions(sql);
+            Map<String, Map<String, String>> filedNameToValueMap = new HashMap<>();
+            for (FieldExpression expression : fieldExpressionList) {
+                Map<String, String> aliasValues =
+                        dimValueMappings.getAliasValues(expression.getFieldName());
+                if (CollectionUtils.isEmpty(aliasValues)) {
                     continue;
                 }
                 // consider '=' filter
                 if (expression.getOperator().equals(FilterOperatorEnum.EQUALS.getValue())) {
-                    dimension.getDimValueMaps().stream().forEach(dimValue -> {
-                        if (!CollectionUtils.isEmpty(dimValue.getAlias()) && dimValue.getAlias()
-                                .contains(expression.getFieldValue().toString())) {
-                            getFiledNameToValueMap(filedNameToValueMap,
-                                    expression.getFieldValue().toString(), dimValue.getTechName(),
-                                    expression.getFieldName());
-                        }
-                    });
+                    String fieldValue = expression.getFieldValue().toString();
+                    if (aliasValues.containsKey(fieldValue)) {
+                        getFiledNameToValueMap(filedNameToValueMap, fieldValue,
+                                aliasValues.get(fieldValue), expression.getFieldName());
+                    }
                 }
                 // consider 'in' filter,each element needs to judge.
-                replaceInCondition(expression, dimension, filedNameToValueMap);
+                replaceInCondition(expression, aliasValues, filedNameToValueMap);
             }
+            sql = SqlReplaceHelper.replaceValue(sql, filedNameToValueMap);
+            log.debug("correctorSql after replacing:{}", sql);
         }
-        sql = SqlReplaceHelper.replaceValue(sql, filedNameToValueMap);
-        log.debug("correctorSql after replacing:{}", sql);
         querySqlReq.setSql(sql);
         if (StringUtils.isEmpty(querySqlReq.getSqlInfo().getParsedS2SQL())
                 && StringUtils.isEmpty(querySqlReq.getSqlInfo().getCorrectedS2SQL())) {
             querySqlReq.getSqlInfo().setQuerySQL(sql);
         }
-        Map<String, Map<String, String>> techNameToBizName = getTechNameToBizName(dimensions);
 
         SemanticQueryResp queryResultWithColumns = (SemanticQueryResp) joinPoint.proceed();
-        if (Objects.nonNull(queryResultWithColumns)) {
-            rewriteDimValue(queryResultWithColumns, techNameToBizName);
-        }
-        return queryResultWithColumns;
+        return dimValueMappings.mapResult(queryResultWithColumns);
     }
 
-    public void replaceInCondition(FieldExpression expression, DimensionResp dimension,
+    public void replaceInCondition(FieldExpression expression, Map<String, String> aliasValues,
             Map<String, Map<String, String>> filedNameToValueMap) {
         if (expression.getOperator().equals(FilterOperatorEnum.IN.getValue())) {
             String fieldValue = JsonUtil.toString(expression.getFieldValue());
             fieldValue = fieldValue.replace("'", "");
             List<String> values = JsonUtil.toList(fieldValue, String.class);
             List<String> revisedValues = new ArrayList<>();
-            for (int i = 0; i < values.size(); i++) {
-                Boolean flag = false;
-                for (DimValueMap dimValueMap : dimension.getDimValueMaps()) {
-                    if (!CollectionUtils.isEmpty(dimValueMap.getAlias())
-                            && dimValueMap.getAlias().contains(values.get(i))) {
-                        flag = true;
-                        revisedValues.add(dimValueMap.getTechName());
-                        break;
-                    }
-                }
-                if (!flag) {
-                    revisedValues.add(values.get(i));
-                }
+            for (String value : values) {
+                revisedValues.add(aliasValues.getOrDefault(value, value));
             }
             if (!revisedValues.equals(values)) {
                 getFiledNameToValueMap(filedNameToValueMap, JsonUtil.toString(values),
@@ -172,47 +138,7 @@ public class DimValueAspect {
         filedNameToValueMap.put(fieldName, map);
     }
 
-    private void rewriteDimValue(SemanticQueryResp semanticQueryResp,
-            Map<String, Map<String, String>> dimAndTechNameAndBizNamePair) {
-        if (!selectDimValueMap(semanticQueryResp.getColumns(), dimAndTechNameAndBizNamePair)) {
-            return;
-        }
-        log.debug("start rewriteDimValue for resultList");
-        for (Map<String, Object> line : semanticQueryResp.getResultList()) {
-            for (String bizName : line.keySet()) {
-                if (dimAndTechNameAndBizNamePair.containsKey(bizName)
-                        && Objects.nonNull(line.get(bizName))) {
-                    String techName = line.get(bizName).toString();
-                    Map<String, String> techAndBizPair = dimAndTechNameAndBizNamePair.get(bizName);
-                    if (!CollectionUtils.isEmpty(techAndBizPair)
-                            && techAndBizPair.containsKey(techName)) {
-                        String bizValueName = techAndBizPair.get(techName);
-                        if (StringUtils.isNotEmpty(bizValueName)) {
-                            line.put(bizName, bizValueName);
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    private boolean selectDimValueMap(List<QueryColumn> columns,
-            Map<String, Map<String, String>> dimAndTechNameAndBizNamePair) {
-        if (CollectionUtils.isEmpty(dimAndTechNameAndBizNamePair)
-                || CollectionUtils.isEmpty(dimAndTechNameAndBizNamePair)) {
-            return false;
-        }
-
-        for (QueryColumn queryColumn : columns) {
-            if (dimAndTechNameAndBizNamePair.containsKey(queryColumn.getBizName())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private void rewriteFilter(List<Filter> dimensionFilters,
-            Map<String, Map<String, String>> aliasAndTechNamePair) {
+    private void rewriteFilter(List<Filter> dimensionFilters, DimValueMappings dimValueMappings) {
         for (Filter filter : dimensionFilters) {
             if (Objects.isNull(filter)) {
                 continue;
@@ -221,8 +147,8 @@ public class DimValueAspect {
             if (CollectionUtils.isEmpty(filter.getChildren())) {
                 Object value = filter.getValue();
                 String bizName = filter.getBizName();
-                if (aliasAndTechNamePair.containsKey(bizName)) {
-                    Map<String, String> aliasPair = aliasAndTechNamePair.get(bizName);
+                Map<String, String> aliasPair = dimValueMappings.getFilterValues(bizName);
+                if (!CollectionUtils.isEmpty(aliasPair)) {
                     if (Objects.nonNull(value)) {
                         if (value instanceof List) {
                             List<String> values = (List) value;
@@ -246,83 +172,7 @@ public class DimValueAspect {
                 return;
             }
 
-            rewriteFilter(filter.getChildren(), aliasAndTechNamePair);
+            rewriteFilter(filter.getChildren(), dimValueMappings);
         }
     }
-
-    private Map<String, Map<String, String>> getAliasAndBizNameToTechName(
-            List<DimensionResp> dimensions) {
-        if (CollectionUtils.isEmpty(dimensions)) {
-            return new HashMap<>();
-        }
-        Map<String, Map<String, String>> result = new HashMap<>();
-        for (DimensionResp dimension : dimensions) {
-            if (needSkipDimension(dimension)) {
-                continue;
-            }
-            String bizName = dimension.getBizName();
-            List<DimValueMap> dimValueMaps = dimension.getDimValueMaps();
-            Map<String, String> aliasAndBizNameToTechName = new HashMap<>();
-
-            for (DimValueMap dimValueMap : dimValueMaps) {
-                if (needSkipDimValue(dimValueMap)) {
-                    continue;
-                }
-                if (StringUtils.isNotEmpty(dimValueMap.getBizName())) {
-                    aliasAndBizNameToTechName.put(dimValueMap.getBizName(),
-                            dimValueMap.getTechName());
-                }
-                if (!CollectionUtils.isEmpty(dimValueMap.getAlias())) {
-                    dimValueMap.getAlias().stream().forEach(alias -> {
-                        if (StringUtils.isNotEmpty(alias)) {
-                            aliasAndBizNameToTechName.put(alias, dimValueMap.getTechName());
-                        }
-                    });
-                }
-            }
-
-            if (!CollectionUtils.isEmpty(aliasAndBizNameToTechName)) {
-                result.put(bizName, aliasAndBizNameToTechName);
-            }
-        }
-        return result;
-    }
-
-    private boolean needSkipDimValue(DimValueMap dimValueMap) {
-        return Objects.isNull(dimValueMap) || StringUtils.isEmpty(dimValueMap.getTechName());
-    }
-
-    private Map<String, Map<String, String>> getTechNameToBizName(List<DimensionResp> dimensions) {
-        if (CollectionUtils.isEmpty(dimensions)) {
-            return new HashMap<>();
-        }
-        Map<String, Map<String, String>> result = new HashMap<>();
-        for (DimensionResp dimension : dimensions) {
-            if (needSkipDimension(dimension)) {
-                continue;
-            }
-            String bizName = dimension.getBizName();
-            List<DimValueMap> dimValueMaps = dimension.getDimValueMaps();
-            Map<String, String> techNameToBizName = new HashMap<>();
-
-            for (DimValueMap dimValueMap : dimValueMaps) {
-                if (needSkipDimValue(dimValueMap)) {
-                    continue;
-                }
-                if (StringUtils.isNotEmpty(dimValueMap.getBizName())) {
-                    techNameToBizName.put(dimValueMap.getTechName(), dimValueMap.getBizName());
-                }
-            }
-
-            if (!CollectionUtils.isEmpty(techNameToBizName)) {
-                result.put(bizName, techNameToBizName);
-            }
-        }
-        return result;
-    }
-
-    private boolean needSkipDimension(DimensionResp dimension) {
-        return Objects.isNull(dimension) || StringUtils.isEmpty(dimension.getBizName())
-                || CollectionUtils.isEmpty(dimension.getDimValueMaps());
-    }
 }
@@ -131,7 +131,7 @@ public class S2DataPermissionAspect {
         Set<String> bizNamesInQueryReq = getBizNameInQueryReq(semanticQueryReq, semanticSchemaResp);
         Set<String> sensitiveBizNamesByModel =
                 getHighSensitiveBizNamesByModelId(semanticSchemaResp);
-        Set<String> sensitiveBizNameInQuery = bizNamesInQueryReq.parallelStream()
+        Set<String> sensitiveBizNameInQuery = bizNamesInQueryReq.stream()
                 .filter(sensitiveBizNamesByModel::contains).collect(Collectors.toSet());
 
         // get high sensitive field cur user has been authed
@@ -2,6 +2,7 @@ package com.tencent.supersonic.headless.server.facade.rest;
 
 import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
 import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.exception.InvalidPermissionException;
 import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
 import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
 import com.tencent.supersonic.headless.api.pojo.request.QuerySqlReq;
@@ -12,6 +13,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -49,6 +51,15 @@ public class ChatQueryApiController {
         return chatLayerService.parse(queryNLReq);
     }
 
+    @GetMapping("/chat/parse/cacheStats")
+    public Object getParseCacheStats(HttpServletRequest request, HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        if (user == null || !user.isSuperAdmin()) {
+            throw new InvalidPermissionException("仅管理员可以查看解析缓存统计");
+        }
+        return chatLayerService.getParseCacheStats();
+    }
+
     @PostMapping("/chat")
     public Object queryByNL(@RequestBody QueryNLReq queryNLReq, HttpServletRequest request,
             HttpServletResponse response) throws Exception {
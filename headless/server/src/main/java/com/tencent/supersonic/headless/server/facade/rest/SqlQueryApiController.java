@@ -10,11 +10,13 @@ import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
 import com.tencent.supersonic.headless.server.facade.service.ChatLayerService;
 import com.tencent.supersonic.headless.server.facade.service.SemanticLayerService;
+import com.tencent.supersonic.headless.server.facade.service.impl.SqlBatchQueryExecutor;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,7 +24,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -36,6 +37,9 @@ public class SqlQueryApiController {
     @Autowired
     private ChatLayerService chatLayerService;
 
+    @Autowired
+    private SqlBatchQueryExecutor sqlBatchQueryExecutor;
+
     @PostMapping("/sql")
     public Object queryBySql(@RequestBody QuerySqlReq querySqlReq, HttpServletRequest request,
             HttpServletResponse response) throws Exception {
@@ -46,28 +50,21 @@ public class SqlQueryApiController {
         return semanticLayerService.queryByReq(querySqlReq, user);
     }
 
+    /** Cancel the running queries with the runningQueryId given in their request. */
+    @PostMapping("/cancel/{runningQueryId}")
+    public Object cancel(@PathVariable("runningQueryId") String runningQueryId,
+            HttpServletRequest request, HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        return semanticLayerService.cancelQuery(runningQueryId, user);
+    }
+
     @PostMapping("/sqls")
     public Object queryBySqls(@RequestBody QuerySqlsReq querySqlsReq, HttpServletRequest request,
             HttpServletResponse response) throws Exception {
         User user = UserHolder.findUser(request, response);
-        List<SemanticQueryReq> semanticQueryReqs = querySqlsReq.getSqls().stream().map(sql -> {
-            QuerySqlReq querySqlReq = new QuerySqlReq();
-            BeanUtils.copyProperties(querySqlsReq, querySqlReq);
-            querySqlReq.setSql(StringUtil.replaceBackticks(sql));
-            chatLayerService.correct(querySqlReq, user);
-            return querySqlReq;
-        }).collect(Collectors.toList());
-
-        List<CompletableFuture<SemanticQueryResp>> futures =
-                semanticQueryReqs.stream().map(querySqlReq -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return semanticLayerService.queryByReq(querySqlReq, user);
-                    } catch (Exception e) {
-                        log.error("querySqlReq:{},queryByReq error:", querySqlReq, e);
-                        return new SemanticQueryResp();
-                    }
-                })).collect(Collectors.toList());
-        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        List<QuerySqlReq> querySqlReqs = convert(querySqlsReq);
+        querySqlReqs.forEach(querySqlReq -> chatLayerService.correct(querySqlReq, user));
+        return sqlBatchQueryExecutor.query(querySqlReqs, user);
     }
 
     @PostMapping("/sqlsWithException")
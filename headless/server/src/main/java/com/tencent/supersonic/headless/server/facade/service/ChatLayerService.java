@@ -7,6 +7,7 @@ import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
 import com.tencent.supersonic.headless.api.pojo.request.QuerySqlReq;
 import com.tencent.supersonic.headless.api.pojo.response.MapInfoResp;
 import com.tencent.supersonic.headless.api.pojo.response.MapResp;
+import com.tencent.supersonic.headless.api.pojo.response.ParseCacheStatResp;
 import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
 import com.tencent.supersonic.headless.api.pojo.response.SearchResult;
 
@@ -23,6 +24,8 @@ public interface ChatLayerService {
 
     ParseResp parse(QueryNLReq queryNLReq);
 
+    ParseCacheStatResp getParseCacheStats();
+
     void correct(QuerySqlReq querySqlReq, User user);
 
     SqlEvaluation validate(QuerySqlReq querySqlReq, User user);
@@ -20,6 +20,13 @@ public interface SemanticLayerService {
 
     SemanticQueryResp queryByReq(SemanticQueryReq queryReq, User user) throws Exception;
 
+    /**
+     * Cancel the running queries with the id.
+     *
+     * @return whether a running query had the id
+     */
+    boolean cancelQuery(String queryId, User user);
+
     SemanticQueryResp queryDimensionValue(DimensionValueReq dimensionValueReq, User user);
 
     DataSetSchema getDataSetSchema(Long id);
@@ -4,6 +4,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.enums.QueryType;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
 import com.tencent.supersonic.headless.api.pojo.*;
 import com.tencent.supersonic.headless.api.pojo.enums.ChatWorkflowState;
 import com.tencent.supersonic.headless.api.pojo.request.QueryMapReq;
@@ -20,6 +22,7 @@ import com.tencent.supersonic.headless.server.service.DataSetService;
 import com.tencent.supersonic.headless.server.service.RetrieveService;
 import com.tencent.supersonic.headless.server.service.SchemaService;
 import com.tencent.supersonic.headless.server.utils.ChatWorkflowEngine;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.BeanUtils;
@@ -41,6 +44,8 @@ public class S2ChatLayerService implements ChatLayerService {
     private RetrieveService retrieveService;
     @Autowired
     private ChatWorkflowEngine chatWorkflowEngine;
+    @Autowired
+    private ParseResultCache parseResultCache;
 
     @Override
     public MapResp map(QueryNLReq queryNLReq) {
@@ -65,15 +70,33 @@ public class S2ChatLayerService implements ChatLayerService {
 
     @Override
     public ParseResp parse(QueryNLReq queryNLReq) {
-        ParseResp parseResp = new ParseResp(queryNLReq.getQueryText());
-        ChatQueryContext queryCtx = buildChatQueryContext(queryNLReq);
-        queryCtx.setParseResp(parseResp);
-        if (queryCtx.getMapInfo().isEmpty()) {
-            chatWorkflowEngine.start(ChatWorkflowState.MAPPING, queryCtx);
-        } else {
-            chatWorkflowEngine.start(ChatWorkflowState.PARSING, queryCtx);
+        try (TraceSpan span = Tracer.start("chat.parse")) {
+            span.setAttribute("text2SQLType", String.valueOf(queryNLReq.getText2SQLType()))
+                    .setAttribute("dataSetIds", String.valueOf(queryNLReq.getDataSetIds()))
+                    .setPayload("request", () -> queryNLReq);
+            ParseResultCache.CacheKey cacheKey = parseResultCache.buildKey(queryNLReq);
+            ParseResp cachedResp = parseResultCache.get(cacheKey);
+            span.setAttribute("cacheHit", Objects.nonNull(cachedResp));
+            if (Objects.nonNull(cachedResp)) {
+                return cachedResp;
+            }
+            ParseResp parseResp = new ParseResp(queryNLReq.getQueryText());
+            ChatQueryContext queryCtx = buildChatQueryContext(queryNLReq);
+            queryCtx.setParseResp(parseResp);
+            if (queryCtx.getMapInfo().isEmpty()) {
+                chatWorkflowEngine.start(ChatWorkflowState.MAPPING, queryCtx);
+            } else {
+                chatWorkflowEngine.start(ChatWorkflowState.PARSING, queryCtx);
+            }
+            span.setAttribute("state", String.valueOf(parseResp.getState()));
+            parseResultCache.put(cacheKey, parseResp);
+            return parseResp;
         }
-        return parseResp;
+    }
+
+    @Override
+    public ParseCacheStatResp getParseCacheStats() {
+        return parseResultCache.getStats();
     }
 
     public void correct(QuerySqlReq querySqlReq, User user) {
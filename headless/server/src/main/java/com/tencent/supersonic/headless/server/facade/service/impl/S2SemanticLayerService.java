@@ -7,6 +7,8 @@ import com.tencent.supersonic.common.pojo.QueryColumn;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
 import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
 import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
 import com.tencent.supersonic.headless.api.pojo.Dimension;
 import com.tencent.supersonic.headless.api.pojo.MetaFilter;
@@ -21,6 +23,8 @@ import com.tencent.supersonic.headless.chat.knowledge.helper.HanlpHelper;
 import com.tencent.supersonic.headless.chat.knowledge.helper.NatureHelper;
 import com.tencent.supersonic.headless.core.cache.QueryCache;
 import com.tencent.supersonic.headless.core.executor.QueryExecutor;
+import com.tencent.supersonic.headless.core.executor.RunningQuery;
+import com.tencent.supersonic.headless.core.executor.RunningQueryRegistry;
 import com.tencent.supersonic.headless.core.pojo.QueryStatement;
 import com.tencent.supersonic.headless.core.pojo.SqlQuery;
 import com.tencent.supersonic.headless.core.pojo.StructQuery;
@@ -60,6 +64,7 @@ public class S2SemanticLayerService implements SemanticLayerService {
     private final DomainService domainService;
     private final DimensionService dimensionService;
     private final TranslatorConfig translatorConfig;
+    private final RunningQueryRegistry runningQueryRegistry;
     private final QueryCache queryCache = ComponentFactory.getQueryCache();
     private final List<QueryExecutor> queryExecutors = ComponentFactory.getQueryExecutors();
 
@@ -69,7 +74,7 @@ public class S2SemanticLayerService implements SemanticLayerService {
             MetricDrillDownChecker metricDrillDownChecker,
             KnowledgeBaseService knowledgeBaseService, MetricService metricService,
             DimensionService dimensionService, DomainService domainService,
-            TranslatorConfig translatorConfig) {
+            TranslatorConfig translatorConfig, RunningQueryRegistry runningQueryRegistry) {
         this.statUtils = statUtils;
         this.queryUtils = queryUtils;
         this.semanticSchemaManager = semanticSchemaManager;
@@ -82,6 +87,7 @@ public class S2SemanticLayerService implements SemanticLayerService {
         this.dimensionService = dimensionService;
         this.domainService = domainService;
         this.translatorConfig = translatorConfig;
+        this.runningQueryRegistry = runningQueryRegistry;
     }
 
     public DataSetSchema getDataSetSchema(Long id) {
@@ -91,10 +97,13 @@ public class S2SemanticLayerService implements SemanticLayerService {
     @S2DataPermission
     @Override
     public SemanticTranslateResp translate(SemanticQueryReq queryReq, User user) throws Exception {
-        QueryStatement queryStatement = buildQueryStatement(queryReq, user);
-        semanticTranslator.translate(queryStatement);
-        return SemanticTranslateResp.builder().querySQL(queryStatement.getSql())
-                .isOk(queryStatement.isOk()).errMsg(queryStatement.getErrMsg()).build();
+        try (TraceSpan span = Tracer.start("semantic.translate")) {
+            QueryStatement queryStatement = buildQueryStatement(queryReq, user);
+            semanticTranslator.translate(queryStatement);
+            span.setAttribute("ok", queryStatement.isOk());
+            return SemanticTranslateResp.builder().querySQL(queryStatement.getSql())
+                    .isOk(queryStatement.isOk()).errMsg(queryStatement.getErrMsg()).build();
+        }
     }
 
     @Override
@@ -102,20 +111,24 @@ public class S2SemanticLayerService implements SemanticLayerService {
     @SneakyThrows
     public SemanticQueryResp queryByReq(SemanticQueryReq queryReq, User user) {
         TaskStatusEnum state = TaskStatusEnum.SUCCESS;
-        log.info("[queryReq:{}]", queryReq);
+        log.debug("[queryReq:{}]", queryReq);
+        RunningQuery runningQuery = runningQueryRegistry.register(queryReq.getRunningQueryId(),
+                queryReq.getTimeout(), user);
+        TraceSpan span = Tracer.start("semantic.query");
         try {
+            span.setAttribute("queryType", queryReq.getClass().getSimpleName())
+                    .setPayload("request", () -> queryReq);
             // 1.initStatInfo
             statUtils.initStatInfo(queryReq, user);
 
             // 2.query from cache
             String cacheKey = queryCache.getCacheKey(queryReq);
             Object query = queryCache.query(queryReq, cacheKey);
+            span.setAttribute("cacheHit", Objects.nonNull(query));
             if (Objects.nonNull(query)) {
-                log.info("cacheKey:{},query:{}", cacheKey,
-                        StringUtils.normalizeSpace(query.toString()));
-            }
-            if (Objects.nonNull(query)) {
-                SemanticQueryResp queryResp = (SemanticQueryResp) query;
+                log.info("query result cache hit, cacheKey:{}", cacheKey);
+                // the cached result is shared, only set the fields of this request on a view
+                SemanticQueryResp queryResp = ((SemanticQueryResp) query).view();
                 queryResp.setUseCache(true);
                 return queryResp;
             }
@@ -123,6 +136,8 @@ public class S2SemanticLayerService implements SemanticLayerService {
 
             // 3 translate query
             QueryStatement queryStatement = buildQueryStatement(queryReq, user);
+            applyDataSetTimeout(queryReq, queryStatement, runningQuery);
+            queryStatement.setRunningQuery(runningQuery);
             if (!queryStatement.isTranslated()) {
                 semanticTranslator.translate(queryStatement);
             }
@@ -141,27 +156,43 @@ public class S2SemanticLayerService implements SemanticLayerService {
             }
 
             // 5.reset cache and set stateInfo
-            Boolean setCacheSuccess = queryCache.put(cacheKey, queryResp);
-            if (setCacheSuccess) {
-                // if result is not null, update cache data
-                statUtils.updateResultCacheKey(cacheKey);
-            }
             if (Objects.isNull(queryResp)) {
                 state = TaskStatusEnum.ERROR;
             } else {
                 queryResp.appendErrorMsg(queryStatement.getErrMsg());
+                queryResp = queryResp.toShared();
+                span.setAttribute("rows", Objects.isNull(queryResp.getResultList()) ? 0
+                        : queryResp.getResultList().size());
+            }
+            if (runningQuery.isCancelled() || runningQuery.isExpired()) {
+                // an interrupted query is not cached so that it can be retried
+                state = TaskStatusEnum.ERROR;
+                return Objects.isNull(queryResp) ? null : queryResp.view();
+            }
+            Boolean setCacheSuccess = queryCache.put(cacheKey, queryResp);
+            if (setCacheSuccess) {
+                // if result is not null, update cache data
+                statUtils.updateResultCacheKey(cacheKey);
             }
 
-            return queryResp;
+            return Objects.isNull(queryResp) ? null : queryResp.view();
         } catch (Exception e) {
             log.error("exception in queryByReq:{}, e: ", queryReq, e);
             state = TaskStatusEnum.ERROR;
+            span.setError(e);
             throw e;
         } finally {
+            runningQueryRegistry.unregister(runningQuery);
             statUtils.statInfo2DbAsync(state);
+            span.close();
         }
     }
 
+    @Override
+    public boolean cancelQuery(String queryId, User user) {
+        return runningQueryRegistry.cancel(queryId, user);
+    }
+
     @Override
     public SemanticQueryResp queryDimensionValue(DimensionValueReq dimensionValueReq, User user) {
         SemanticQueryResp semanticQueryResp = new SemanticQueryResp();
@@ -282,6 +313,19 @@ public class S2SemanticLayerService implements SemanticLayerService {
         return metricService.getMetrics(metaFilter);
     }
 
+    private void applyDataSetTimeout(SemanticQueryReq queryReq, QueryStatement queryStatement,
+            RunningQuery runningQuery) {
+        if (Objects.nonNull(queryReq.getTimeout()) || Objects.isNull(queryStatement)
+                || Objects.isNull(queryStatement.getSemanticSchema())) {
+            return;
+        }
+        DataSetResp dataSetResp = queryStatement.getSemanticSchema().getDataSetResp();
+        if (Objects.nonNull(dataSetResp) && Objects.nonNull(dataSetResp.getQueryConfig())
+                && Objects.nonNull(dataSetResp.getQueryConfig().getQueryTimeout())) {
+            runningQuery.setTimeout(dataSetResp.getQueryConfig().getQueryTimeout());
+        }
+    }
+
     private QueryStatement buildQueryStatement(SemanticQueryReq semanticQueryReq, User user) {
         QueryStatement queryStatement = null;
         if (semanticQueryReq instanceof QuerySqlReq) {
@@ -0,0 +1,198 @@
+package com.tencent.supersonic.headless.server.facade.service.impl;
+
+import com.tencent.supersonic.common.executor.Bulkhead;
+import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.headless.api.pojo.request.QuerySqlReq;
+import com.tencent.supersonic.headless.api.pojo.request.SchemaFilterReq;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticSchemaResp;
+import com.tencent.supersonic.headless.core.executor.RunningQuery;
+import com.tencent.supersonic.headless.core.executor.RunningQueryRegistry;
+import com.tencent.supersonic.headless.server.facade.service.SemanticLayerService;
+import com.tencent.supersonic.headless.server.service.SchemaService;
+import com.tencent.supersonic.headless.server.utils.SqlQueryMerger;
+import com.tencent.supersonic.headless.server.utils.SqlQueryMerger.MergedQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a batch of sql queries, such as the charts of a dashboard. Aggregate queries over the same
+ * table, filters and grouping are merged into one scan by {@link SqlQueryMerger} and their results
+ * split back. The statements run on a bounded pool, and at most
+ * {@code s2.query.batch.database.concurrency} of them at a time against the same database.
+ */
+@Slf4j
+@Component
+public class SqlBatchQueryExecutor {
+
+    private static final Long UNKNOWN_DATABASE = -1L;
+
+    @Value("${s2.query.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${s2.query.batch.database.concurrency:4}")
+    private int databaseConcurrency;
+
+    @Autowired
+    @Lazy
+    private SemanticLayerService semanticLayerService;
+
+    @Autowired
+    private SchemaService schemaService;
+
+    @Autowired
+    private RunningQueryRegistry runningQueryRegistry;
+
+    private final Map<Long, Semaphore> databasePermits = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Bulkhead.of("batch-query", parallelism, parallelism * 64);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Query all requests, a failed or cancelled query gets an empty response.
+     *
+     * @return responses in the order of the requests
+     */
+    public List<SemanticQueryResp> query(List<QuerySqlReq> querySqlReqs, User user) {
+        // only queries of the same data set and models are merged, the merged request copies the
+        // properties of the first one
+        List<MergedQuery> mergedQueries = SqlQueryMerger.merge(
+                querySqlReqs.stream().map(QuerySqlReq::getSql).collect(Collectors.toList()),
+                querySqlReqs.stream().map(this::getScope).collect(Collectors.toList()));
+        log.debug("batch queries:{}, statements:{}", querySqlReqs.size(), mergedQueries.size());
+        Map<String, Long> databaseIds = new ConcurrentHashMap<>();
+        SemanticQueryResp[] queryResps = new SemanticQueryResp[querySqlReqs.size()];
+        // the queries of the batch share its query id, cancelling it fails the pending statements
+        RunningQuery batch = runningQueryRegistry.register(
+                querySqlReqs.isEmpty() ? null : querySqlReqs.get(0).getRunningQueryId(), null,
+                user);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (MergedQuery mergedQuery : mergedQueries) {
+                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                    if (!batch.isCancelled()) {
+                        execute(mergedQuery, querySqlReqs, user, databaseIds, queryResps);
+                    }
+                }, executor);
+                batch.attach(future);
+                futures.add(future);
+            }
+            for (CompletableFuture<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            runningQueryRegistry.unregister(batch);
+        }
+        // copied as the statements of a cancelled batch may still complete in the background
+        List<SemanticQueryResp> results = new ArrayList<>(queryResps.length);
+        for (SemanticQueryResp queryResp : queryResps) {
+            results.add(Objects.isNull(queryResp) ? new SemanticQueryResp() : queryResp);
+        }
+        return results;
+    }
+
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CancellationException e) {
+            log.info("batch query is cancelled");
+        } catch (CompletionException e) {
+            log.error("batch query error:", e.getCause());
+        }
+    }
+
+    private void execute(MergedQuery mergedQuery, List<QuerySqlReq> querySqlReqs, User user,
+            Map<String, Long> databaseIds, SemanticQueryResp[] queryResps) {
+        List<Integer> queryIndexes = mergedQuery.getQueryIndexes();
+        if (mergedQuery.isMerged()) {
+            QuerySqlReq mergedReq = new QuerySqlReq();
+            BeanUtils.copyProperties(querySqlReqs.get(queryIndexes.get(0)), mergedReq);
+            mergedReq.setSql(mergedQuery.getSql());
+            SemanticQueryResp merged = query(mergedReq, user, databaseIds);
+            if (SqlQueryMerger.canSplit(merged, mergedQuery)) {
+                for (int i = 0; i < queryIndexes.size(); i++) {
+                    queryResps[queryIndexes.get(i)] =
+                            SqlQueryMerger.split(merged, mergedQuery.getColumnIndexes().get(i));
+                }
+                return;
+            }
+            log.warn("merged query can not be split, query one by one, sql:{}", mergedReq.getSql());
+        }
+        for (Integer queryIndex : queryIndexes) {
+            queryResps[queryIndex] = query(querySqlReqs.get(queryIndex), user, databaseIds);
+        }
+    }
+
+    private SemanticQueryResp query(QuerySqlReq querySqlReq, User user,
+            Map<String, Long> databaseIds) {
+        Semaphore permits = databasePermits.computeIfAbsent(getDatabaseId(querySqlReq, databaseIds),
+                k -> new Semaphore(databaseConcurrency));
+        try {
+            permits.acquire();
+            try {
+                return semanticLayerService.queryByReq(querySqlReq, user);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SemanticQueryResp();
+        } catch (Exception e) {
+            log.error("querySqlReq:{},queryByReq error:", querySqlReq, e);
+            return new SemanticQueryResp();
+        }
+    }
+
+    private String getScope(QuerySqlReq querySqlReq) {
+        return querySqlReq.getDataSetId() + "_" + new TreeSet<>(querySqlReq.getModelIdSet());
+    }
+
+    private Long getDatabaseId(QuerySqlReq querySqlReq, Map<String, Long> databaseIds) {
+        String key = getScope(querySqlReq);
+        return databaseIds.computeIfAbsent(key, k -> {
+            try {
+                SchemaFilterReq filter = new SchemaFilterReq();
+                filter.setDataSetId(querySqlReq.getDataSetId());
+                if (!CollectionUtils.isEmpty(querySqlReq.getModelIds())) {
+                    filter.setModelIds(new ArrayList<>(querySqlReq.getModelIds()));
+                }
+                SemanticSchemaResp schema = schemaService.fetchSemanticSchema(filter);
+                if (Objects.nonNull(schema) && Objects.nonNull(schema.getDatabaseResp())) {
+                    return schema.getDatabaseResp().getId();
+                }
+            } catch (Exception e) {
+                log.warn("get database of query failed:{}", querySqlReq, e);
+            }
+            return UNKNOWN_DATABASE;
+        });
+    }
+}
@@ -99,7 +99,7 @@ public class LLMSemanticModeller implements SemanticModeller {
             ChatModel chatModel = chatModelService.getChatModel(modelBuildReq.getChatModelId());
             chatModelConfig = chatModel.getConfig();
         }
-        return ModelProvider.getChatModel(chatModelConfig);
+        return ModelProvider.getChatModel(chatModelConfig, APP_KEY);
     }
 
     private Prompt generatePrompt(DbSchema dbSchema, List<DbSchema> otherDbSchema,
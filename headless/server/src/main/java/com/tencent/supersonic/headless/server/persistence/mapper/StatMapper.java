@@ -4,6 +4,11 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.tencent.supersonic.headless.server.persistence.dataobject.QueryStatDO;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.List;
+
 @Mapper
 public interface StatMapper extends BaseMapper<QueryStatDO> {
+
+    /** inserts the stats with one multi-row insert statement */
+    void batchInsert(List<QueryStatDO> queryStatDOs);
 }
@@ -10,6 +10,8 @@ public interface StatRepository {
 
     Boolean createRecord(QueryStat queryStatInfo);
 
+    void batchCreateRecord(List<QueryStat> queryStatInfos);
+
     List<ItemUseResp> getStatInfo(ItemUseReq itemUseCommend);
 
 }
@@ -42,7 +42,19 @@ public class StatRepositoryImpl implements StatRepository {
     public Boolean createRecord(QueryStat queryStatInfo) {
         QueryStatDO queryStatDO = new QueryStatDO();
         BeanUtils.copyProperties(queryStatInfo, queryStatDO);
-        return statMapper.insertOrUpdate(queryStatDO);
+        return statMapper.insert(queryStatDO) > 0;
+    }
+
+    @Override
+    public void batchCreateRecord(List<QueryStat> queryStatInfos) {
+        List<QueryStatDO> queryStatDOs = queryStatInfos.stream().map(queryStatInfo -> {
+            QueryStatDO queryStatDO = new QueryStatDO();
+            BeanUtils.copyProperties(queryStatInfo, queryStatDO);
+            return queryStatDO;
+        }).collect(Collectors.toList());
+        if (CollectionUtils.isNotEmpty(queryStatDOs)) {
+            statMapper.batchInsert(queryStatDOs);
+        }
     }
 
     @Override
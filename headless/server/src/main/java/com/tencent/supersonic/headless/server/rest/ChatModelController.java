@@ -3,6 +3,7 @@ package com.tencent.supersonic.headless.server.rest;
 import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
 import com.tencent.supersonic.common.config.ChatModel;
 import com.tencent.supersonic.common.pojo.ChatApp;
+import com.tencent.supersonic.common.pojo.ChatModelCallStat;
 import com.tencent.supersonic.common.pojo.ChatModelConfig;
 import com.tencent.supersonic.common.pojo.ChatModelParameters;
 import com.tencent.supersonic.common.pojo.Parameter;
@@ -11,6 +12,7 @@ import com.tencent.supersonic.common.pojo.enums.AppModule;
 import com.tencent.supersonic.common.service.ChatModelService;
 import com.tencent.supersonic.common.util.ChatAppManager;
 import com.tencent.supersonic.headless.server.utils.ModelConfigHelper;
+import dev.langchain4j.provider.ChatModelGateway;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -70,6 +72,11 @@ public class ChatModelController {
         return ChatModelParameters.getParameters();
     }
 
+    @RequestMapping("/getGatewayStats")
+    public Map<String, ChatModelCallStat> getGatewayStats() {
+        return ChatModelGateway.getStats();
+    }
+
     @PostMapping("/testConnection")
     public boolean testConnection(@RequestBody ChatModelConfig modelConfig) {
         return ModelConfigHelper.testConnection(modelConfig);
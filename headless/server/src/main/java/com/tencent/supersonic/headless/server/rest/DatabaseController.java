@@ -6,6 +6,7 @@ import com.tencent.supersonic.headless.api.pojo.DBColumn;
 import com.tencent.supersonic.headless.api.pojo.request.DatabaseReq;
 import com.tencent.supersonic.headless.api.pojo.request.ModelBuildReq;
 import com.tencent.supersonic.headless.api.pojo.request.SqlExecuteReq;
+import com.tencent.supersonic.headless.api.pojo.response.DatabasePoolStatResp;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
 import com.tencent.supersonic.headless.server.pojo.DatabaseParameter;
@@ -116,4 +117,11 @@ public class DatabaseController {
         User user = UserHolder.findUser(request, response);
         return databaseService.getDatabaseParameters(user);
     }
+
+    @GetMapping("/getPoolStats")
+    public List<DatabasePoolStatResp> getPoolStats(HttpServletRequest request,
+            HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        return databaseService.getPoolStats(user);
+    }
 }
@@ -6,6 +6,7 @@ import com.tencent.supersonic.headless.api.pojo.enums.DataType;
 import com.tencent.supersonic.headless.api.pojo.request.DatabaseReq;
 import com.tencent.supersonic.headless.api.pojo.request.ModelBuildReq;
 import com.tencent.supersonic.headless.api.pojo.request.SqlExecuteReq;
+import com.tencent.supersonic.headless.api.pojo.response.DatabasePoolStatResp;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
 import com.tencent.supersonic.headless.server.pojo.DatabaseParameter;
@@ -47,4 +48,6 @@ public interface DatabaseService {
     List<DBColumn> getColumns(Long id, String catalog, String db, String table) throws SQLException;
 
     List<DBColumn> getColumns(Long id, String sql) throws SQLException;
+
+    List<DatabasePoolStatResp> getPoolStats(User user);
 }
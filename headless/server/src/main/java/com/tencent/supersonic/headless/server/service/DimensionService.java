@@ -12,6 +12,7 @@ import com.tencent.supersonic.headless.api.pojo.request.MetaBatchReq;
 import com.tencent.supersonic.headless.api.pojo.request.PageDimensionReq;
 import com.tencent.supersonic.headless.api.pojo.response.DimensionResp;
 import com.tencent.supersonic.headless.server.pojo.DimensionsFilter;
+import com.tencent.supersonic.headless.server.utils.DimValueMappings;
 
 import java.util.List;
 
@@ -57,4 +58,7 @@ public interface DimensionService {
     DataEvent getAllDataEvents();
 
     Boolean updateDimValueAlias(DimValueAliasReq req, User user);
+
+    /** compiled value mappings of the dimensions of the models, cached until a dimension changes */
+    DimValueMappings getDimValueMappings(List<Long> modelIds);
 }
@@ -13,11 +13,13 @@ import com.tencent.supersonic.headless.api.pojo.enums.DataType;
 import com.tencent.supersonic.headless.api.pojo.request.DatabaseReq;
 import com.tencent.supersonic.headless.api.pojo.request.ModelBuildReq;
 import com.tencent.supersonic.headless.api.pojo.request.SqlExecuteReq;
+import com.tencent.supersonic.headless.api.pojo.response.DatabasePoolStatResp;
 import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.ModelResp;
 import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
 import com.tencent.supersonic.headless.core.adaptor.db.DbAdaptor;
 import com.tencent.supersonic.headless.core.adaptor.db.DbAdaptorFactory;
+import com.tencent.supersonic.headless.core.pojo.JdbcDataSource;
 import com.tencent.supersonic.headless.core.utils.JdbcDataSourceUtils;
 import com.tencent.supersonic.headless.core.utils.SqlUtils;
 import com.tencent.supersonic.headless.core.utils.SqlVariableParseUtils;
@@ -49,6 +51,9 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseDOMapper, DatabaseD
     @Autowired
     private SqlUtils sqlUtils;
 
+    @Autowired
+    private JdbcDataSource jdbcDataSource;
+
     @Lazy
     @Autowired
     private ModelService datasourceService;
@@ -328,6 +333,14 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseDOMapper, DatabaseD
         return dbColumns;
     }
 
+    @Override
+    public List<DatabasePoolStatResp> getPoolStats(User user) {
+        if (!user.isSuperAdmin()) {
+            throw new RuntimeException("只有超级管理员可以查看连接池状态");
+        }
+        return jdbcDataSource.getPoolStats();
+    }
+
     private void checkPermission(DatabaseResp databaseResp, User user) {
         List<String> admins = databaseResp.getAdmins();
         List<String> viewers = databaseResp.getViewers();
@@ -2,8 +2,11 @@ package com.tencent.supersonic.headless.server.service.impl;
 
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.executor.Bulkhead;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.enums.EngineType;
 import com.tencent.supersonic.common.pojo.enums.StatusEnum;
 import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
 import com.tencent.supersonic.common.util.BeanMapper;
@@ -13,18 +16,26 @@ import com.tencent.supersonic.headless.api.pojo.request.DictItemFilter;
 import com.tencent.supersonic.headless.api.pojo.request.DictSingleTaskReq;
 import com.tencent.supersonic.headless.api.pojo.request.DictValueReq;
 import com.tencent.supersonic.headless.api.pojo.request.ValueTaskQueryReq;
+import com.tencent.supersonic.headless.api.pojo.response.DatabaseResp;
 import com.tencent.supersonic.headless.api.pojo.response.DictItemResp;
 import com.tencent.supersonic.headless.api.pojo.response.DictTaskResp;
 import com.tencent.supersonic.headless.api.pojo.response.DictValueDimResp;
 import com.tencent.supersonic.headless.api.pojo.response.DictValueResp;
 import com.tencent.supersonic.headless.api.pojo.response.DimensionResp;
+import com.tencent.supersonic.headless.api.pojo.response.ModelResp;
 import com.tencent.supersonic.headless.chat.knowledge.DictWord;
 import com.tencent.supersonic.headless.chat.knowledge.file.FileHandler;
 import com.tencent.supersonic.headless.server.persistence.dataobject.DictTaskDO;
 import com.tencent.supersonic.headless.server.persistence.repository.DictRepository;
+import com.tencent.supersonic.headless.server.service.DatabaseService;
 import com.tencent.supersonic.headless.server.service.DictTaskService;
 import com.tencent.supersonic.headless.server.service.DimensionService;
+import com.tencent.supersonic.headless.server.service.ModelService;
 import com.tencent.supersonic.headless.server.utils.DictUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,11 +43,18 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 @Service
@@ -52,6 +70,15 @@ public class DictTaskServiceImpl implements DictTaskService {
     @Value("${dict.file.type:txt}")
     private String dictFileType;
 
+    @Value("${dict.flush.daily.parallelism:8}")
+    private Integer dictFlushDailyParallelism;
+
+    @Value("${dict.flush.daily.database.concurrency:2}")
+    private Integer dictFlushDailyDatabaseConcurrency;
+
+    @Value("${dict.flush.daily.batch.size:20}")
+    private Integer dictFlushDailyBatchSize;
+
     private String dimValue = "DimValue_%d_%d";
 
     private final DictRepository dictRepository;
@@ -60,16 +87,34 @@ public class DictTaskServiceImpl implements DictTaskService {
     private final FileHandler fileHandler;
     private final DictWordService dictWordService;
     private final DimensionService dimensionService;
+    private final ModelService modelService;
+    private final DatabaseService databaseService;
+
+    private ThreadPoolExecutor executor;
 
     public DictTaskServiceImpl(DictRepository dictRepository, DictUtils dictConverter,
             DictUtils dictUtils, FileHandler fileHandler, DictWordService dictWordService,
-            DimensionService dimensionService) {
+            DimensionService dimensionService, ModelService modelService,
+            DatabaseService databaseService) {
         this.dictRepository = dictRepository;
         this.dictConverter = dictConverter;
         this.dictUtils = dictUtils;
         this.fileHandler = fileHandler;
         this.dictWordService = dictWordService;
         this.dimensionService = dimensionService;
+        this.modelService = modelService;
+        this.databaseService = databaseService;
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Bulkhead.of("dict-refresh", dictFlushDailyParallelism,
+                dictFlushDailyParallelism * 64);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
     }
 
     @Override
@@ -151,6 +196,13 @@ public class DictTaskServiceImpl implements DictTaskService {
         return 0L;
     }
 
+    /**
+     * Refresh all online items. Items are grouped by database and model: the count(1) items of a
+     * model are fetched together in one query, each database is refreshed by a limited number of
+     * workers, and the in-memory dictionary is reloaded once at the end. Each item keeps its own
+     * task record, which goes through PENDING, RUNNING and SUCCESS/ERROR. A failing model only
+     * fails its own items, the dictionary is reloaded anyway.
+     */
     @Override
     @Scheduled(cron = "${knowledge.dimension.value.cron:0 0 0 * * ?}")
     public Boolean dailyDictTask() {
@@ -160,11 +212,139 @@ public class DictTaskServiceImpl implements DictTaskService {
         }
         DictItemFilter filter = DictItemFilter.builder().status(StatusEnum.ONLINE).build();
         List<DictItemResp> dictItemRespList = dictRepository.queryDictConf(filter);
-        dictItemRespList.stream().forEach(item -> handleDictTaskByItemResp(item, null));
-        log.info("[dailyDictTask] finish");
+        List<DictRefreshTask> refreshTasks = new ArrayList<>();
+        Map<Long, Map<Long, List<DictRefreshTask>>> databaseToModelTasks = new LinkedHashMap<>();
+        for (DictItemResp dictItemResp : dictItemRespList) {
+            DictTaskDO dictTaskDO =
+                    dictConverter.generateDictTaskDO(dictItemResp, null, TaskStatusEnum.PENDING);
+            dictRepository.addDictTask(dictTaskDO);
+            DictRefreshTask refreshTask = new DictRefreshTask(dictItemResp, dictTaskDO);
+            refreshTasks.add(refreshTask);
+            databaseToModelTasks
+                    .computeIfAbsent(getDatabaseId(dictItemResp.getModelId()),
+                            k -> new LinkedHashMap<>())
+                    .computeIfAbsent(dictItemResp.getModelId(), k -> new ArrayList<>())
+                    .add(refreshTask);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        databaseToModelTasks.forEach((databaseId, modelTasks) -> {
+            EngineType engineType = getEngineType(databaseId);
+            Queue<Map.Entry<Long, List<DictRefreshTask>>> queue =
+                    new ConcurrentLinkedQueue<>(modelTasks.entrySet());
+            int workers = Math.min(dictFlushDailyDatabaseConcurrency, modelTasks.size());
+            for (int i = 0; i < workers; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    Map.Entry<Long, List<DictRefreshTask>> modelTask;
+                    while ((modelTask = queue.poll()) != null) {
+                        try {
+                            refreshModel(modelTask.getKey(), modelTask.getValue(), engineType);
+                        } catch (Exception e) {
+                            log.error("refresh dict of model error, modelId:{}", modelTask.getKey(),
+                                    e);
+                            markUnfinishedAsError(modelTask.getValue(), e);
+                        }
+                    }
+                }, executor));
+            }
+        });
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (Exception e) {
+            log.error("refresh dict error", e);
+        }
+
+        try {
+            dictWordService.loadDictWord();
+        } catch (Exception e) {
+            log.error("reloadCustomDictionary error", e);
+            refreshTasks.stream().map(DictRefreshTask::getDictTaskDO).filter(
+                    dictTaskDO -> TaskStatusEnum.SUCCESS.getStatus().equals(dictTaskDO.getStatus()))
+                    .forEach(dictTaskDO -> {
+                        dictTaskDO.setStatus(TaskStatusEnum.ERROR.getStatus());
+                        dictTaskDO.setDescription(e.toString());
+                        dictRepository.editDictTask(dictTaskDO);
+                    });
+        }
+        log.info("[dailyDictTask] finish, items:{}, databases:{}", refreshTasks.size(),
+                databaseToModelTasks.size());
         return true;
     }
 
+    private void refreshModel(Long modelId, List<DictRefreshTask> refreshTasks,
+            EngineType engineType) {
+        refreshTasks.forEach(refreshTask -> {
+            refreshTask.getDictTaskDO().setStatus(TaskStatusEnum.RUNNING.getStatus());
+            dictRepository.editDictTask(refreshTask.getDictTaskDO());
+        });
+
+        List<DictItemResp> batchItems = refreshTasks.stream().map(DictRefreshTask::getDictItemResp)
+                .filter(dictItemResp -> dictUtils.supportFetchInBatch(dictItemResp, engineType))
+                .collect(Collectors.toList());
+        Map<Long, List<String>> itemLines = new HashMap<>();
+        for (List<DictItemResp> partition : Lists.partition(batchItems, dictFlushDailyBatchSize)) {
+            if (partition.size() < 2) {
+                continue;
+            }
+            try {
+                itemLines.putAll(dictUtils.fetchItemValues(modelId, partition, engineType));
+            } catch (Exception e) {
+                log.warn("fetch item values in batch error, fall back to one query per item, "
+                        + "modelId:{}", modelId, e);
+            }
+        }
+
+        for (DictRefreshTask refreshTask : refreshTasks) {
+            DictItemResp dictItemResp = refreshTask.getDictItemResp();
+            DictTaskDO dictTaskDO = refreshTask.getDictTaskDO();
+            String status = TaskStatusEnum.SUCCESS.getStatus();
+            try {
+                List<String> data = itemLines.containsKey(dictItemResp.getItemId())
+                        ? itemLines.get(dictItemResp.getItemId())
+                        : dictUtils.fetchItemValue(dictItemResp);
+                String fileName = dictItemResp.fetchDictFileName() + Constants.DOT + dictFileType;
+                fileHandler.writeFile(data, fileName, false);
+            } catch (Exception e) {
+                log.error("refresh dict item error, dictItemResp:{}", dictItemResp, e);
+                status = TaskStatusEnum.ERROR.getStatus();
+                dictTaskDO.setDescription(e.toString());
+            }
+            dictTaskDO.setStatus(status);
+            dictTaskDO.setElapsedMs(DateUtils.calculateDiffMs(dictTaskDO.getCreatedAt()));
+            dictRepository.editDictTask(dictTaskDO);
+        }
+    }
+
+    private void markUnfinishedAsError(List<DictRefreshTask> refreshTasks, Exception e) {
+        refreshTasks.stream().map(DictRefreshTask::getDictTaskDO).filter(
+                dictTaskDO -> !TaskStatusEnum.SUCCESS.getStatus().equals(dictTaskDO.getStatus())
+                        && !TaskStatusEnum.ERROR.getStatus().equals(dictTaskDO.getStatus()))
+                .forEach(dictTaskDO -> {
+                    dictTaskDO.setStatus(TaskStatusEnum.ERROR.getStatus());
+                    dictTaskDO.setDescription(e.toString());
+                    dictRepository.editDictTask(dictTaskDO);
+                });
+    }
+
+    private Long getDatabaseId(Long modelId) {
+        ModelResp modelResp = modelService.getModel(modelId);
+        return Objects.isNull(modelResp) ? null : modelResp.getDatabaseId();
+    }
+
+    private EngineType getEngineType(Long databaseId) {
+        if (Objects.isNull(databaseId)) {
+            return null;
+        }
+        try {
+            DatabaseResp databaseResp = databaseService.getDatabase(databaseId);
+            return Objects.isNull(databaseResp) ? null
+                    : EngineType.fromString(databaseResp.getType());
+        } catch (Exception e) {
+            log.warn("get engine type error, databaseId:{}", databaseId, e);
+            return null;
+        }
+    }
+
     @Override
     public DictTaskResp queryLatestDictTask(DictSingleTaskReq taskReq, User user) {
         return dictRepository.queryLatestDictTask(taskReq);
@@ -300,4 +480,11 @@ public class DictTaskServiceImpl implements DictTaskService {
                 + dictFileType;
         return fileHandler.queryDictFilePath(fileName);
     }
+
+    @Getter
+    @AllArgsConstructor
+    private static class DictRefreshTask {
+        private final DictItemResp dictItemResp;
+        private final DictTaskDO dictTaskDO;
+    }
 }
@@ -1,56 +1,196 @@
 package com.tencent.supersonic.headless.server.service.impl;
 
+import com.tencent.supersonic.common.pojo.DataEvent;
+import com.tencent.supersonic.common.pojo.DataItem;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.common.pojo.enums.StatusEnum;
+import com.tencent.supersonic.headless.api.pojo.MetaFilter;
 import com.tencent.supersonic.headless.api.pojo.SchemaElement;
 import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
 import com.tencent.supersonic.headless.api.pojo.SemanticSchema;
+import com.tencent.supersonic.headless.api.pojo.response.DataSetResp;
 import com.tencent.supersonic.headless.chat.knowledge.DictWord;
 import com.tencent.supersonic.headless.chat.knowledge.KnowledgeBaseService;
 import com.tencent.supersonic.headless.chat.knowledge.builder.WordBuilderFactory;
+import com.tencent.supersonic.headless.chat.knowledge.file.FileHandler;
+import com.tencent.supersonic.headless.server.service.DataSetService;
+import com.tencent.supersonic.headless.server.service.ModelService;
 import com.tencent.supersonic.headless.server.service.SchemaService;
+import com.tencent.supersonic.headless.server.service.TermService;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
-@Data
 public class DictWordService {
 
+    private static final String PARTITION_SPLIT = "#";
+
+    private static final String DATA_SET_VERSION = "DATASET";
+
+    private static final String MODEL_VERSION = "MODEL";
+
+    private static final String TERM_VERSION = "TERM";
+
+    private static final String DICT_FILE_PREFIX = "dic_value_";
+
     @Autowired
     private SchemaService schemaService;
     @Autowired
     private KnowledgeBaseService knowledgeBaseService;
+    @Autowired
+    private DataSetService dataSetService;
+    @Autowired
+    private ModelService modelService;
+    @Autowired
+    private TermService termService;
+    @Autowired
+    private FileHandler fileHandler;
+
+    /**
+     * Words are partitioned by word type and owner (model, or data set for terms). A periodic
+     * reload compares the update times of the online data sets, their models and the terms of their
+     * domains with the ones the partitions were built from, takes the models of the schema events
+     * received since, and only builds the schema of the data sets those changes affect.
+     */
+    private Map<String, Long> preVersions = new HashMap<>();
+    private Map<Long, List<Long>> preDataSetModels = new HashMap<>();
+    private Map<String, List<DictWord>> preDictWords = new HashMap<>();
+    /** last modified time of the dimension value dictionary files by file name */
+    private Map<String, Long> preDictFiles = new HashMap<>();
 
-    private List<DictWord> preDictWords = new ArrayList<>();
+    /** models whose dimensions or metrics changed, edits of those do not touch the model */
+    private final Set<Long> changedModelIds = ConcurrentHashMap.newKeySet();
 
-    public void loadDictWord() {
-        List<DictWord> dictWords = getAllDictWords();
-        setPreDictWords(dictWords);
-        knowledgeBaseService.reloadAllData(dictWords);
+    @EventListener
+    public void onDataChange(DataEvent event) {
+        if (CollectionUtils.isEmpty(event.getDataItems())) {
+            return;
+        }
+        event.getDataItems().stream().map(DataItem::getModelId).filter(NumberUtils::isDigits)
+                .map(Long::valueOf).forEach(changedModelIds::add);
+    }
+
+    public synchronized void loadDictWord() {
+        changedModelIds.clear();
+        SchemaVersions versions = getSchemaVersions();
+        Map<String, List<SchemaElement>> partitions =
+                getPartitions(schemaService.getSemanticSchema());
+        Map<String, List<DictWord>> dictWords = new HashMap<>();
+        List<DictWord> words = new ArrayList<>();
+        for (Map.Entry<String, List<SchemaElement>> entry : partitions.entrySet()) {
+            List<DictWord> partitionWords = buildDictWords(entry.getKey(), entry.getValue());
+            dictWords.put(entry.getKey(), partitionWords);
+            words.addAll(partitionWords);
+        }
+        preVersions = versions.getVersions();
+        preDataSetModels = versions.getDataSetModels();
+        preDictWords = dictWords;
+        // the custom dictionary reload below reads every dictionary file
+        preDictFiles = getDictFiles();
+        knowledgeBaseService.reloadAllData(words);
     }
 
-    public void reloadDictWord() {
+    public synchronized void reloadDictWord() {
         long startTime = System.currentTimeMillis();
-        List<DictWord> dictWords = getAllDictWords();
-        List<DictWord> preDictWords = getPreDictWords();
-        if (org.apache.commons.collections.CollectionUtils.isEqualCollection(dictWords,
-                preDictWords)) {
+        Set<Long> affectedModelIds = new HashSet<>(changedModelIds);
+        changedModelIds.removeAll(affectedModelIds);
+        SchemaVersions versions = getSchemaVersions();
+        Set<String> changedVersions = new HashSet<>(preVersions.keySet());
+        changedVersions.addAll(versions.getVersions().keySet());
+        changedVersions.removeIf(
+                key -> Objects.equals(preVersions.get(key), versions.getVersions().get(key)));
+
+        Set<Long> affectedDataSetIds = new HashSet<>();
+        for (String key : changedVersions) {
+            Long ownerId = Long.valueOf(StringUtils.substringAfter(key, PARTITION_SPLIT));
+            if (key.startsWith(MODEL_VERSION)) {
+                affectedModelIds.add(ownerId);
+            } else if (key.startsWith(DATA_SET_VERSION)) {
+                affectedDataSetIds.add(ownerId);
+                affectedModelIds.addAll(preDataSetModels.getOrDefault(ownerId, List.of()));
+                affectedModelIds
+                        .addAll(versions.getDataSetModels().getOrDefault(ownerId, List.of()));
+            } else {
+                affectedDataSetIds
+                        .addAll(versions.getDomainDataSets().getOrDefault(ownerId, List.of()));
+            }
+        }
+        // a model partition is built from every data set the model is part of
+        versions.getDataSetModels().forEach((dataSetId, modelIds) -> {
+            if (modelIds.stream().anyMatch(affectedModelIds::contains)) {
+                affectedDataSetIds.add(dataSetId);
+            }
+        });
+        preVersions = versions.getVersions();
+        preDataSetModels = versions.getDataSetModels();
+        int fileWords = reloadDictFiles();
+        if (affectedModelIds.isEmpty() && affectedDataSetIds.isEmpty()) {
             log.debug("Dictionary hasn't been reloaded.");
             return;
         }
-        setPreDictWords(dictWords);
-        knowledgeBaseService.reloadAllData(dictWords);
+
+        Set<Long> onlineDataSetIds = affectedDataSetIds.stream()
+                .filter(versions.getDataSetModels()::containsKey).collect(Collectors.toSet());
+        Map<String, List<SchemaElement>> partitions = onlineDataSetIds.isEmpty() ? new HashMap<>()
+                : getPartitions(schemaService.getSemanticSchema(onlineDataSetIds));
+        Set<String> changedPartitions = new HashSet<>(partitions.keySet());
+        changedPartitions.addAll(preDictWords.keySet());
+        changedPartitions.removeIf(
+                partition -> !isAffected(partition, affectedModelIds, affectedDataSetIds));
+
+        List<DictWord> removedWords = new ArrayList<>();
+        List<DictWord> addedWords = new ArrayList<>();
+        for (String partition : changedPartitions) {
+            List<DictWord> preWords = preDictWords.getOrDefault(partition, Collections.emptyList());
+            List<DictWord> words = partitions.containsKey(partition)
+                    ? buildDictWords(partition, partitions.get(partition))
+                    : Collections.emptyList();
+            Set<DictWord> preWordSet = new HashSet<>(preWords);
+            Set<DictWord> wordSet = new HashSet<>(words);
+            preWords.stream().filter(word -> !wordSet.contains(word)).forEach(removedWords::add);
+            words.stream().filter(word -> !preWordSet.contains(word)).forEach(addedWords::add);
+            if (words.isEmpty()) {
+                preDictWords.remove(partition);
+            } else {
+                preDictWords.put(partition, words);
+            }
+        }
+
+        knowledgeBaseService.removeSemanticKnowledge(removedWords);
+        knowledgeBaseService.updateSemanticKnowledge(addedWords);
         long duration = System.currentTimeMillis() - startTime;
-        log.info("Dictionary has been regularly reloaded in {} milliseconds", duration);
+        log.info("Dictionary has been regularly reloaded in {} milliseconds, data sets:{}, "
+                + "changed partitions:{}, removed words:{}, added words:{}, " + "file words:{}",
+                duration, onlineDataSetIds.size(), changedPartitions.size(), removedWords.size(),
+                addedWords.size(), fileWords);
     }
 
     public List<DictWord> getAllDictWords() {
@@ -74,6 +214,136 @@ public class DictWordService {
         return words;
     }
 
+    private Map<String, List<SchemaElement>> getPartitions(SemanticSchema semanticSchema) {
+        Map<String, List<SchemaElement>> partitions = new LinkedHashMap<>();
+        addPartitions(DictWordType.DIMENSION, semanticSchema.getDimensions(), partitions);
+        addPartitions(DictWordType.METRIC, semanticSchema.getMetrics(), partitions);
+        addPartitions(DictWordType.VALUE, semanticSchema.getDimensionValues(), partitions);
+        addPartitions(DictWordType.TERM, semanticSchema.getTerms(), partitions);
+        return partitions;
+    }
+
+    private void addPartitions(DictWordType type, List<SchemaElement> metas,
+            Map<String, List<SchemaElement>> partitions) {
+        if (CollectionUtils.isEmpty(metas)) {
+            return;
+        }
+        for (SchemaElement meta : distinct(metas)) {
+            // term words are bound to data set, the others are bound to model
+            Long ownerId = DictWordType.TERM.equals(type) ? meta.getDataSetId() : meta.getModel();
+            String partition = type.name() + PARTITION_SPLIT + ownerId;
+            partitions.computeIfAbsent(partition, k -> new ArrayList<>()).add(meta);
+        }
+    }
+
+    private boolean isAffected(String partition, Set<Long> affectedModelIds,
+            Set<Long> affectedDataSetIds) {
+        String type = StringUtils.substringBefore(partition, PARTITION_SPLIT);
+        String ownerId = StringUtils.substringAfter(partition, PARTITION_SPLIT);
+        if (!NumberUtils.isDigits(ownerId)) {
+            return false;
+        }
+        return DictWordType.TERM.name().equals(type)
+                ? affectedDataSetIds.contains(Long.valueOf(ownerId))
+                : affectedModelIds.contains(Long.valueOf(ownerId));
+    }
+
+    /**
+     * Only reads the meta data lists, which are a small part of what building the semantic schema
+     * queries and converts.
+     */
+    private SchemaVersions getSchemaVersions() {
+        SchemaVersions versions = new SchemaVersions();
+        MetaFilter metaFilter = new MetaFilter();
+        metaFilter.setStatus(StatusEnum.ONLINE.getCode());
+        List<DataSetResp> dataSets = dataSetService.getDataSetList(metaFilter);
+        for (DataSetResp dataSet : dataSets) {
+            versions.getVersions().put(DATA_SET_VERSION + PARTITION_SPLIT + dataSet.getId(),
+                    getTime(dataSet.getUpdatedAt()));
+            versions.getDataSetModels().put(dataSet.getId(), dataSet.getAllModels());
+            versions.getDomainDataSets()
+                    .computeIfAbsent(dataSet.getDomainId(), k -> new ArrayList<>())
+                    .add(dataSet.getId());
+        }
+        List<Long> modelIds = versions.getDataSetModels().values().stream()
+                .flatMap(Collection::stream).distinct().collect(Collectors.toList());
+        if (!modelIds.isEmpty()) {
+            MetaFilter modelFilter = new MetaFilter();
+            modelFilter.setIds(modelIds);
+            modelService.getModelList(modelFilter)
+                    .forEach(model -> versions.getVersions().put(
+                            MODEL_VERSION + PARTITION_SPLIT + model.getId(),
+                            getTime(model.getUpdatedAt())));
+        }
+        if (!versions.getDomainDataSets().isEmpty()) {
+            termService.getTermSets(versions.getDomainDataSets().keySet())
+                    .forEach((domainId, terms) -> versions.getVersions()
+                            .put(TERM_VERSION + PARTITION_SPLIT + domainId, (long) terms.stream()
+                                    .map(term -> term.getId() + ":" + getTime(term.getUpdatedAt()))
+                                    .sorted().collect(Collectors.toList()).hashCode()));
+        }
+        return versions;
+    }
+
+    private Long getTime(Date date) {
+        return Objects.isNull(date) ? null : date.getTime();
+    }
+
+    /**
+     * Loads the dimension value dictionary files written since they were last loaded, such as by a
+     * dictionary task of another instance, instead of reloading every dictionary file.
+     */
+    private int reloadDictFiles() {
+        Map<String, Long> dictFiles = getDictFiles();
+        List<DictWord> words = new ArrayList<>();
+        dictFiles.forEach((fileName, lastModified) -> {
+            if (!Objects.equals(preDictFiles.get(fileName), lastModified)) {
+                words.addAll(readDictFile(Paths.get(fileHandler.getDictRootPath(), fileName)));
+            }
+        });
+        preDictFiles = dictFiles;
+        if (!words.isEmpty()) {
+            knowledgeBaseService.updateSemanticKnowledge(words);
+        }
+        return words.size();
+    }
+
+    private Map<String, Long> getDictFiles() {
+        Map<String, Long> dictFiles = new HashMap<>();
+        File[] files = new File(fileHandler.getDictRootPath()).listFiles(file -> file.isFile()
+                && file.getName().startsWith(DICT_FILE_PREFIX) && file.getName().endsWith(".txt"));
+        if (Objects.nonNull(files)) {
+            for (File file : files) {
+                dictFiles.put(file.getName(), file.lastModified());
+            }
+        }
+        return dictFiles;
+    }
+
+    /** each line is the value followed by pairs of nature and frequency */
+    private List<DictWord> readDictFile(Path path) {
+        List<DictWord> words = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            lines.map(line -> line.replace("\t", "").split("\\s", 2))
+                    .filter(params -> params.length == 2 && StringUtils.isNotEmpty(params[0]))
+                    .forEach(params -> {
+                        DictWord dictWord = new DictWord();
+                        dictWord.setWord(params[0]);
+                        dictWord.setNature(StringUtils.substringBefore(params[1], " "));
+                        dictWord.setNatureWithFrequency(params[1]);
+                        words.add(dictWord);
+                    });
+        } catch (Exception e) {
+            log.warn("read dict file:{} failed", path, e);
+        }
+        return words;
+    }
+
+    private List<DictWord> buildDictWords(String partition, List<SchemaElement> metas) {
+        DictWordType type = DictWordType.valueOf(partition.split(PARTITION_SPLIT)[0]);
+        return WordBuilderFactory.get(type).getDictWords(metas);
+    }
+
     private void addWordsByType(DictWordType value, List<SchemaElement> metas,
             List<DictWord> natures) {
         metas = distinct(metas);
@@ -94,4 +364,15 @@ public class DictWordService {
                         Collectors.toMap(SchemaElement::getId, Function.identity(), (e1, e2) -> e1))
                 .values().stream().collect(Collectors.toList());
     }
+
+    @Data
+    private static class SchemaVersions {
+
+        /** update time of each data set and model, and a hash of the terms of each domain */
+        private Map<String, Long> versions = new HashMap<>();
+
+        private Map<Long, List<Long>> dataSetModels = new HashMap<>();
+
+        private Map<Long, List<Long>> domainDataSets = new HashMap<>();
+    }
 }
@@ -6,6 +6,8 @@ import com.alibaba.fastjson.TypeReference;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.common.pojo.DataEvent;
@@ -42,8 +44,10 @@ import com.tencent.supersonic.headless.server.service.DimensionService;
 import com.tencent.supersonic.headless.server.service.ModelRelaService;
 import com.tencent.supersonic.headless.server.service.ModelService;
 import com.tencent.supersonic.headless.server.utils.AliasGenerateHelper;
+import com.tencent.supersonic.headless.server.utils.DimValueMappings;
 import com.tencent.supersonic.headless.server.utils.DimensionConverter;
 import com.tencent.supersonic.headless.server.utils.NameCheckUtils;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -58,6 +62,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -79,10 +84,15 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
 
     private final ApplicationEventPublisher eventPublisher;
 
+    private final ParseResultCache parseResultCache;
+
+    private final Cache<List<Long>, DimValueMappings> dimValueMappingCache =
+            CacheBuilder.newBuilder().expireAfterWrite(30, TimeUnit.SECONDS).build();
+
     public DimensionServiceImpl(DimensionRepository dimensionRepository, ModelService modelService,
             AliasGenerateHelper aliasGenerateHelper, DatabaseService databaseService,
             ModelRelaService modelRelaService, DataSetService dataSetService,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher, ParseResultCache parseResultCache) {
         this.modelService = modelService;
         this.dimensionRepository = dimensionRepository;
         this.aliasGenerateHelper = aliasGenerateHelper;
@@ -90,6 +100,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         this.modelRelaService = modelRelaService;
         this.dataSetService = dataSetService;
         this.eventPublisher = eventPublisher;
+        this.parseResultCache = parseResultCache;
     }
 
     @Override
@@ -98,6 +109,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         dimensionReq.createdBy(user.getName());
         DimensionDO dimensionDO = DimensionConverter.convert2DimensionDO(dimensionReq);
         dimensionRepository.createDimension(dimensionDO);
+        dimValueMappingCache.invalidateAll();
         sendEventBatch(Lists.newArrayList(dimensionDO), EventType.ADD, user);
 
         // should update modelDetail
@@ -137,6 +149,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
                 dimensionReqs.stream().peek(dimension -> dimension.createdBy(user.getName()))
                         .map(DimensionConverter::convert2DimensionDO).collect(Collectors.toList());
         dimensionRepository.createDimensionBatch(dimensionDOS);
+        dimValueMappingCache.invalidateAll();
         // should update modelDetail as well
         modelService.updateModelByDimAndMetric(dimensionReqs.get(0).getModelId(), dimensionReqs,
                 null, user);
@@ -152,12 +165,15 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         String oldName = dimensionDO.getName();
         DimensionConverter.convert(dimensionDO, dimensionReq);
         dimensionRepository.updateDimension(dimensionDO);
+        dimValueMappingCache.invalidateAll();
         // should update modelDetail as well
         modelService.updateModelByDimAndMetric(dimensionReq.getModelId(),
                 Lists.newArrayList(dimensionReq), null, user);
 
         if (!oldName.equals(dimensionDO.getName())) {
             sendEvent(getDataItem(dimensionDO), EventType.UPDATE, user.getName());
+        } else {
+            parseResultCache.invalidate();
         }
     }
 
@@ -167,6 +183,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         List<DimensionDO> dimensionDOS = dimensionReqList.stream()
                 .map(DimensionConverter::convert2DimensionDO).collect(Collectors.toList());
         dimensionRepository.batchUpdate(dimensionDOS);
+        dimValueMappingCache.invalidateAll();
         // should update modelDetail as well
         modelService.updateModelByDimAndMetric(dimensionReqList.get(0).getModelId(),
                 dimensionReqList, null, user);
@@ -190,6 +207,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
             dimensionDO.setUpdatedBy(user.getName());
         }).collect(Collectors.toList());
         dimensionRepository.batchUpdateStatus(dimensionDOS);
+        dimValueMappingCache.invalidateAll();
         if (StatusEnum.OFFLINE.getCode().equals(metaBatchReq.getStatus())
                 || StatusEnum.DELETED.getCode().equals(metaBatchReq.getStatus())) {
             sendEventBatch(dimensionDOS, EventType.DELETE, user);
@@ -224,6 +242,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         dimensionDO.setUpdatedAt(new Date());
         dimensionDO.setUpdatedBy(user.getName());
         dimensionRepository.updateDimension(dimensionDO);
+        dimValueMappingCache.invalidateAll();
         // should update modelDetail
         modelService.deleteModelDetailByDimAndMetric(dimensionDO.getModelId(),
                 Lists.newArrayList(dimensionDO), null);
@@ -245,6 +264,7 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
             dimensionDO.setUpdatedBy(user.getName());
         });
         dimensionRepository.batchUpdateStatus(dimensionDOList);
+        dimValueMappingCache.invalidateAll();
         // should update modelDetail
         modelService.deleteModelDetailByDimAndMetric(dimensionDOList.get(0).getModelId(),
                 dimensionDOList, null);
@@ -501,9 +521,23 @@ public class DimensionServiceImpl extends ServiceImpl<DimensionDOMapper, Dimensi
         }
         dimensionDO.setDimValueMaps(JsonUtil.toString(dimValueMapList));
         updateById(dimensionDO);
+        dimValueMappingCache.invalidateAll();
+        parseResultCache.invalidate();
         return true;
     }
 
+    @Override
+    public DimValueMappings getDimValueMappings(List<Long> modelIds) {
+        List<Long> key = modelIds.stream().distinct().sorted().collect(Collectors.toList());
+        DimValueMappings dimValueMappings = dimValueMappingCache.getIfPresent(key);
+        if (Objects.isNull(dimValueMappings)) {
+            dimValueMappings =
+                    DimValueMappings.compile(getDimensions(new MetaFilter(new ArrayList<>(key))));
+            dimValueMappingCache.put(key, dimValueMappings);
+        }
+        return dimValueMappings;
+    }
+
     private DataItem getDataItem(DimensionDO dimensionDO) {
         ModelResp modelResp = modelService.getModel(dimensionDO.getModelId());
         if (modelResp == null) {
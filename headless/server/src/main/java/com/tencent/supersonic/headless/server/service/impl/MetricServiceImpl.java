@@ -63,6 +63,7 @@ import com.tencent.supersonic.headless.server.utils.AliasGenerateHelper;
 import com.tencent.supersonic.headless.server.utils.MetricCheckUtils;
 import com.tencent.supersonic.headless.server.utils.MetricConverter;
 import com.tencent.supersonic.headless.server.utils.ModelClusterBuilder;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
@@ -106,10 +107,13 @@ public class MetricServiceImpl extends ServiceImpl<MetricDOMapper, MetricDO>
 
     private final ChatLayerService chatLayerService;
 
+    private final ParseResultCache parseResultCache;
+
     public MetricServiceImpl(MetricRepository metricRepository, ModelService modelService,
             AliasGenerateHelper aliasGenerateHelper, CollectService collectService,
             DataSetService dataSetService, ApplicationEventPublisher eventPublisher,
-            DimensionService dimensionService, @Lazy ChatLayerService chatLayerService) {
+            DimensionService dimensionService, @Lazy ChatLayerService chatLayerService,
+            ParseResultCache parseResultCache) {
         this.metricRepository = metricRepository;
         this.modelService = modelService;
         this.aliasGenerateHelper = aliasGenerateHelper;
@@ -118,6 +122,7 @@ public class MetricServiceImpl extends ServiceImpl<MetricDOMapper, MetricDO>
         this.dataSetService = dataSetService;
         this.dimensionService = dimensionService;
         this.chatLayerService = chatLayerService;
+        this.parseResultCache = parseResultCache;
     }
 
     @Override
@@ -184,6 +189,8 @@ public class MetricServiceImpl extends ServiceImpl<MetricDOMapper, MetricDO>
             dataItem.setName(oldName);
             dataItem.setNewName(metricDO.getName());
             sendEvent(dataItem, EventType.UPDATE, user);
+        } else {
+            parseResultCache.invalidate();
         }
         // should update modelDetail as well
         modelService.updateModelByDimAndMetric(metricReq.getModelId(), null,
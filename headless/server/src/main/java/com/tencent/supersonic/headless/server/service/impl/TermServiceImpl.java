@@ -11,7 +11,9 @@ import com.tencent.supersonic.headless.api.pojo.response.TermResp;
 import com.tencent.supersonic.headless.server.persistence.dataobject.TermDO;
 import com.tencent.supersonic.headless.server.persistence.mapper.TermMapper;
 import com.tencent.supersonic.headless.server.service.TermService;
+import com.tencent.supersonic.headless.server.utils.ParseResultCache;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -24,6 +26,9 @@ import java.util.stream.Collectors;
 @Service
 public class TermServiceImpl extends ServiceImpl<TermMapper, TermDO> implements TermService {
 
+    @Autowired
+    private ParseResultCache parseResultCache;
+
     @Override
     public void saveOrUpdate(TermReq termReq, User user) {
         QueryWrapper<TermDO> queryWrapper = new QueryWrapper<>();
@@ -36,11 +41,13 @@ public class TermServiceImpl extends ServiceImpl<TermMapper, TermDO> implements
         termReq.updatedBy(user.getName());
         convert(termReq, termSetDO);
         saveOrUpdate(termSetDO);
+        parseResultCache.invalidate();
     }
 
     @Override
     public void delete(Long id) {
         removeById(id);
+        parseResultCache.invalidate();
     }
 
     @Override
@@ -49,6 +56,7 @@ public class TermServiceImpl extends ServiceImpl<TermMapper, TermDO> implements
             throw new RuntimeException("术语ID不可为空");
         }
         removeBatchByIds(metaBatchReq.getIds());
+        parseResultCache.invalidate();
     }
 
     @Override
@@ -23,6 +23,8 @@ public class AliasGenerateHelper {
 
     private static final Logger keyPipelineLog = LoggerFactory.getLogger("keyPipeline");
 
+    private static final String APP_KEY = "ALIAS_GENERATE";
+
     private static final String NAME_ALIAS_INSTRUCTION = ""
             + "#Role: You are a professional data analyst specializing in metrics and dimensions."
             + "\n#Task: You will be provided with metadata about a metric or dimension, please help "
@@ -79,7 +81,7 @@ public class AliasGenerateHelper {
 
     private String getChatCompletion(Prompt prompt) {
         SystemMessage from = prompt.toSystemMessage();
-        ChatLanguageModel chatLanguageModel = ModelProvider.getChatModel();
+        ChatLanguageModel chatLanguageModel = ModelProvider.getChatModel(null, APP_KEY);
         Response<AiMessage> response = chatLanguageModel.generate(from);
         return response.content().text();
     }
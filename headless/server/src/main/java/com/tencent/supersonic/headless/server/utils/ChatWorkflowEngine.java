@@ -1,7 +1,12 @@
 package com.tencent.supersonic.headless.server.utils;
 
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.executor.Bulkhead;
+import com.tencent.supersonic.common.trace.TraceSpan;
+import com.tencent.supersonic.common.trace.Tracer;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.headless.api.pojo.SchemaMapInfo;
 import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
 import com.tencent.supersonic.headless.api.pojo.enums.ChatWorkflowState;
 import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
@@ -10,20 +15,42 @@ import com.tencent.supersonic.headless.api.pojo.response.SemanticTranslateResp;
 import com.tencent.supersonic.headless.chat.ChatQueryContext;
 import com.tencent.supersonic.headless.chat.corrector.LLMPhysicalSqlCorrector;
 import com.tencent.supersonic.headless.chat.corrector.SemanticCorrector;
+import com.tencent.supersonic.headless.chat.mapper.LLMSemanticMapper;
+import com.tencent.supersonic.headless.chat.mapper.MapperConfig;
+import com.tencent.supersonic.headless.chat.mapper.MapperInput;
 import com.tencent.supersonic.headless.chat.mapper.SchemaMapper;
+import com.tencent.supersonic.headless.chat.parser.ParserConfig;
 import com.tencent.supersonic.headless.chat.parser.SemanticParser;
+import com.tencent.supersonic.headless.chat.parser.llm.LLMSqlParser;
 import com.tencent.supersonic.headless.chat.query.QueryManager;
 import com.tencent.supersonic.headless.chat.query.SemanticQuery;
 import com.tencent.supersonic.headless.server.facade.service.SemanticLayerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,60 +62,118 @@ public class ChatWorkflowEngine {
     private final List<SemanticCorrector> semanticCorrectors =
             CoreComponentFactory.getSemanticCorrectors();
 
+    @Value("${s2.mapper.parallelism:8}")
+    private int mapperParallelism;
+
+    @Value("${s2.parser.candidate.parallelism:8}")
+    private int candidateParallelism;
+
+    @Value("${s2.parser.speculative.parallelism:4}")
+    private int speculativeParallelism;
+
+    @Autowired
+    private MapperConfig mapperConfig;
+
+    @Autowired
+    private ParserConfig parserConfig;
+
+    /** own pool, the mappers wait for their match strategies on the mapExecutor */
+    private ThreadPoolExecutor mapperExecutor;
+
+    private ThreadPoolExecutor candidateExecutor;
+
+    /**
+     * own pool for the speculative language model parsers, so they never hold up the candidate
+     * pipelines of the foreground
+     */
+    private ThreadPoolExecutor speculativeExecutor;
+
+    @PostConstruct
+    public void init() {
+        mapperExecutor = Bulkhead.of("mapper", mapperParallelism, mapperParallelism * 64);
+        candidateExecutor =
+                Bulkhead.of("candidate", candidateParallelism, candidateParallelism * 64);
+        speculativeExecutor =
+                Bulkhead.of("speculative", speculativeParallelism, speculativeParallelism * 64);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        mapperExecutor.shutdown();
+        candidateExecutor.shutdown();
+        speculativeExecutor.shutdown();
+    }
+
     public void start(ChatWorkflowState initialState, ChatQueryContext queryCtx) {
         ParseResp parseResult = queryCtx.getParseResp();
         queryCtx.setChatWorkflowState(initialState);
+        queryCtx.setCandidateLimit(Integer.parseInt(
+                parserConfig.getParameterValue(ParserConfig.PARSER_CANDIDATE_PIPELINE_SIZE)));
         while (queryCtx.getChatWorkflowState() != ChatWorkflowState.FINISHED) {
-            switch (queryCtx.getChatWorkflowState()) {
-                case MAPPING:
-                    performMapping(queryCtx);
-                    if (queryCtx.getMapInfo().isEmpty()) {
-                        parseResult.setState(ParseResp.ParseState.FAILED);
-                        parseResult.setErrorMsg(
-                                "No semantic entities can be mapped against user question.");
-                        queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
-                    } else {
-                        queryCtx.setChatWorkflowState(ChatWorkflowState.PARSING);
-                    }
-                    break;
-                case PARSING:
-                    performParsing(queryCtx);
-                    if (queryCtx.getCandidateQueries().isEmpty()) {
-                        parseResult.setState(ParseResp.ParseState.FAILED);
-                        parseResult.setErrorMsg("No semantic queries can be parsed out.");
-                        queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
-                    } else {
-                        List<SemanticParseInfo> parseInfos = queryCtx.getCandidateQueries().stream()
-                                .map(SemanticQuery::getParseInfo).collect(Collectors.toList());
-                        parseResult.setSelectedParses(parseInfos);
-                        if (queryCtx.needSQL()) {
-                            queryCtx.setChatWorkflowState(ChatWorkflowState.S2SQL_CORRECTING);
+            ChatWorkflowState state = queryCtx.getChatWorkflowState();
+            try (TraceSpan span = Tracer.start("chat." + state.name().toLowerCase())) {
+                switch (state) {
+                    case MAPPING:
+                        performMapping(queryCtx);
+                        span.setAttribute("dataSets",
+                                queryCtx.getMapInfo().getDataSetElementMatches().size());
+                        if (queryCtx.getMapInfo().isEmpty()) {
+                            parseResult.setState(ParseResp.ParseState.FAILED);
+                            parseResult.setErrorMsg(
+                                    "No semantic entities can be mapped against user question.");
+                            queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
                         } else {
-                            parseResult.setState(ParseResp.ParseState.COMPLETED);
+                            queryCtx.setChatWorkflowState(ChatWorkflowState.PARSING);
+                        }
+                        break;
+                    case PARSING:
+                        performParsing(queryCtx);
+                        span.setAttribute("candidates", queryCtx.getCandidateQueries().size());
+                        if (queryCtx.getCandidateQueries().isEmpty()) {
+                            parseResult.setState(ParseResp.ParseState.FAILED);
+                            parseResult.setErrorMsg("No semantic queries can be parsed out.");
                             queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
+                        } else {
+                            List<SemanticParseInfo> parseInfos = queryCtx.getCandidateQueries()
+                                    .stream().map(SemanticQuery::getParseInfo)
+                                    .collect(Collectors.toList());
+                            parseResult.setSelectedParses(parseInfos);
+                            if (queryCtx.needSQL()) {
+                                queryCtx.setChatWorkflowState(ChatWorkflowState.S2SQL_CORRECTING);
+                            } else {
+                                parseResult.setState(ParseResp.ParseState.COMPLETED);
+                                queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
+                            }
                         }
-                    }
-                    break;
-                case S2SQL_CORRECTING:
-                    performCorrecting(queryCtx);
-                    queryCtx.setChatWorkflowState(ChatWorkflowState.TRANSLATING);
-                    break;
-                case TRANSLATING:
-                    long start = System.currentTimeMillis();
-                    performTranslating(queryCtx, parseResult);
-                    parseResult.getParseTimeCost().setSqlTime(System.currentTimeMillis() - start);
-                    queryCtx.setChatWorkflowState(ChatWorkflowState.PHYSICAL_SQL_CORRECTING);
-                    break;
-                case PHYSICAL_SQL_CORRECTING:
-                    performPhysicalSqlCorrecting(queryCtx);
-                    queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
-                    break;
-                default:
-                    if (parseResult.getState().equals(ParseResp.ParseState.PENDING)) {
-                        parseResult.setState(ParseResp.ParseState.COMPLETED);
-                    }
-                    queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
-                    break;
+                        break;
+                    case S2SQL_CORRECTING:
+                        if (queryCtx.getCandidateQueries().size() > 1) {
+                            performCandidatePipeline(queryCtx, parseResult);
+                            queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
+                        } else {
+                            performCorrecting(queryCtx);
+                            queryCtx.setChatWorkflowState(ChatWorkflowState.TRANSLATING);
+                        }
+                        break;
+                    case TRANSLATING:
+                        long start = System.currentTimeMillis();
+                        performTranslating(queryCtx, parseResult);
+                        span.setAttribute("state", String.valueOf(parseResult.getState()));
+                        parseResult.getParseTimeCost()
+                                .setSqlTime(System.currentTimeMillis() - start);
+                        queryCtx.setChatWorkflowState(ChatWorkflowState.PHYSICAL_SQL_CORRECTING);
+                        break;
+                    case PHYSICAL_SQL_CORRECTING:
+                        performPhysicalSqlCorrecting(queryCtx);
+                        queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
+                        break;
+                    default:
+                        if (parseResult.getState().equals(ParseResp.ParseState.PENDING)) {
+                            parseResult.setState(ParseResp.ParseState.COMPLETED);
+                        }
+                        queryCtx.setChatWorkflowState(ChatWorkflowState.FINISHED);
+                        break;
+                }
             }
         }
     }
@@ -96,16 +181,183 @@ public class ChatWorkflowEngine {
     private void performMapping(ChatQueryContext queryCtx) {
         if (Objects.isNull(queryCtx.getMapInfo())
                 || MapUtils.isEmpty(queryCtx.getMapInfo().getDataSetElementMatches())) {
-            schemaMappers.forEach(mapper -> mapper.map(queryCtx));
+            performMapping(queryCtx, schemaMappers);
+        }
+    }
+
+    /**
+     * The mappers reading only the query text start at once, each on a fork of the context. The
+     * results are merged back in the declared order of the mappers, and the mappers reading the
+     * matches before them run on the context when their turn comes, so the matches do not depend on
+     * which mapper finishes first.
+     */
+    void performMapping(ChatQueryContext queryCtx, List<SchemaMapper> mappers) {
+        Map<String, Long> mapperTime = queryCtx.getParseResp().getParseTimeCost().getMapperTime();
+        Map<SchemaMapper, Long> costs = new ConcurrentHashMap<>();
+        Map<SchemaMapper, Future<SchemaMapInfo>> forks = new HashMap<>();
+        Map<SchemaMapper, Long> deadlines = new HashMap<>();
+        TraceSpan parent = Tracer.current();
+        for (SchemaMapper mapper : mappers) {
+            if (!isIndependent(mapper)) {
+                continue;
+            }
+            ChatQueryContext fork = queryCtx.fork();
+            deadlines.put(mapper, System.currentTimeMillis() + getTimeout(mapper));
+            forks.put(mapper, mapperExecutor.submit(() -> {
+                long start = System.currentTimeMillis();
+                try (TraceSpan span =
+                        Tracer.start("chat.mapper." + mapper.getClass().getSimpleName(), parent)) {
+                    mapper.map(fork);
+                }
+                costs.put(mapper, System.currentTimeMillis() - start);
+                return fork.getMapInfo();
+            }));
         }
+        for (SchemaMapper mapper : mappers) {
+            String name = mapper.getClass().getSimpleName();
+            Future<SchemaMapInfo> fork = forks.get(mapper);
+            if (Objects.isNull(fork)) {
+                long start = System.currentTimeMillis();
+                try (TraceSpan span = Tracer.start("chat.mapper." + name)) {
+                    mapper.map(queryCtx);
+                }
+                mapperTime.put(name, System.currentTimeMillis() - start);
+                continue;
+            }
+            try {
+                long timeout = Math.max(deadlines.get(mapper) - System.currentTimeMillis(), 0);
+                mapper.merge(queryCtx, fork.get(timeout, TimeUnit.MILLISECONDS));
+                mapperTime.put(name, costs.get(mapper));
+            } catch (TimeoutException e) {
+                fork.cancel(true);
+                mapperTime.put(name, getTimeout(mapper));
+                parent.setAttribute(name + ".timedOut", true);
+                log.warn("mapper:{} timed out after {} ms, its matches are skipped", name,
+                        getTimeout(mapper));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                forks.values().forEach(future -> future.cancel(true));
+                log.warn("mapping interrupted at mapper:{}", name);
+                return;
+            } catch (ExecutionException e) {
+                log.error("mapper:{} failed", name, e.getCause());
+            }
+        }
+    }
+
+    private boolean isIndependent(SchemaMapper mapper) {
+        return !mapper.getInputs().contains(MapperInput.MATCHES)
+                && !mapper.getInputs().contains(MapperInput.TERMS);
     }
 
-    private void performParsing(ChatQueryContext queryCtx) {
-        semanticParsers.forEach(parser -> {
+    private long getTimeout(SchemaMapper mapper) {
+        String timeout = mapper instanceof LLMSemanticMapper
+                ? mapperConfig.getParameterValue(MapperConfig.MAPPER_LLM_TIMEOUT)
+                : mapperConfig.getParameterValue(MapperConfig.MAPPER_TIMEOUT);
+        return Long.parseLong(timeout);
+    }
+
+    /**
+     * In speculative mode the language model parsers start at once on a fork of the context while
+     * the other parsers run on the context. A rule-based candidate scoring over the text length
+     * threshold is kept without waiting for the model, whose best candidate is translated in the
+     * background and left on the parse response. Otherwise the model candidates replace the
+     * rule-based ones as in the sequential order.
+     */
+    void performParsing(ChatQueryContext queryCtx) {
+        TraceSpan parent = Tracer.current();
+        List<SemanticParser> llmParsers = new ArrayList<>();
+        List<SemanticParser> otherParsers = new ArrayList<>();
+        for (SemanticParser parser : semanticParsers) {
+            if (parser instanceof LLMSqlParser) {
+                llmParsers.add(parser);
+            } else {
+                otherParsers.add(parser);
+            }
+        }
+        if (llmParsers.isEmpty() || !queryCtx.getRequest().getText2SQLType().enableLLM()
+                || !Boolean.parseBoolean(
+                        parserConfig.getParameterValue(ParserConfig.PARSER_SPECULATIVE_ENABLE))) {
+            semanticParsers.forEach(parser -> parse(parser, queryCtx, parent));
+            return;
+        }
+
+        ChatQueryContext llmCtx = queryCtx.fork();
+        llmCtx.setMapInfo(queryCtx.getMapInfo());
+        llmCtx.setCandidateLimit(queryCtx.getCandidateLimit());
+        CompletableFuture<ChatQueryContext> llmParse = CompletableFuture.supplyAsync(() -> {
+            llmParsers.forEach(parser -> parse(parser, llmCtx, parent));
+            return llmCtx;
+        }, speculativeExecutor);
+        otherParsers.forEach(parser -> parse(parser, queryCtx, parent));
+
+        if (isConfident(queryCtx)) {
+            parent.setAttribute("speculative", true);
+            log.info("rule-based parse is confident, return without waiting for llm, query:{}",
+                    queryCtx.getRequest().getQueryText());
+            CompletableFuture<SemanticParseInfo> speculativeParse = llmParse.thenApplyAsync(
+                    ctx -> translateSpeculative(ctx, otherParsers, parent), speculativeExecutor);
+            queryCtx.getParseResp().setSpeculativeParse(speculativeParse.exceptionally(e -> {
+                log.warn("speculative llm parse failed", e);
+                return null;
+            }));
+            return;
+        }
+        try {
+            List<SemanticQuery> llmCandidates = llmParse.get().getCandidateQueries();
+            if (!llmCandidates.isEmpty()) {
+                queryCtx.setCandidateQueries(llmCandidates);
+                otherParsers.forEach(parser -> parse(parser, queryCtx, parent));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            llmParse.cancel(true);
+            log.warn("parsing interrupted while waiting for llm");
+        } catch (ExecutionException e) {
+            log.error("llm parsing failed", e.getCause());
+        }
+    }
+
+    private void parse(SemanticParser parser, ChatQueryContext queryCtx, TraceSpan parent) {
+        String name = parser.getClass().getSimpleName();
+        try (TraceSpan span = Tracer.start("chat.parser." + name, parent)) {
             parser.parse(queryCtx);
-            log.debug("{} result:{}", parser.getClass().getSimpleName(),
-                    JsonUtil.toString(queryCtx));
-        });
+            span.setPayload("queryCtx", () -> queryCtx);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("{} result:{}", name, JsonUtil.toString(queryCtx));
+        }
+    }
+
+    /** whether the best candidate scores over the threshold of short or long texts */
+    private boolean isConfident(ChatQueryContext queryCtx) {
+        List<SemanticQuery> candidateQueries = queryCtx.getCandidateQueries();
+        int textLength = StringUtils.length(queryCtx.getRequest().getQueryText());
+        if (candidateQueries.isEmpty() || textLength == 0) {
+            return false;
+        }
+        int lengthThreshold = Integer.parseInt(
+                parserConfig.getParameterValue(ParserConfig.PARSER_TEXT_LENGTH_THRESHOLD));
+        String scoreThreshold = textLength > lengthThreshold
+                ? parserConfig.getParameterValue(ParserConfig.PARSER_TEXT_LENGTH_THRESHOLD_LONG)
+                : parserConfig.getParameterValue(ParserConfig.PARSER_TEXT_LENGTH_THRESHOLD_SHORT);
+        double score = candidateQueries.get(0).getParseInfo().getScore();
+        return score / textLength > Double.parseDouble(scoreThreshold);
+    }
+
+    private SemanticParseInfo translateSpeculative(ChatQueryContext llmCtx,
+            List<SemanticParser> otherParsers, TraceSpan parent) {
+        if (llmCtx.getCandidateQueries().isEmpty()) {
+            return null;
+        }
+        otherParsers.forEach(parser -> parse(parser, llmCtx, parent));
+        SemanticQuery candidate = llmCtx.getCandidateQueries().get(0);
+        CandidateResult result = processCandidate(llmCtx, candidate, parent);
+        if (!Boolean.TRUE.equals(result.getTranslated())) {
+            log.info("speculative llm parse is dropped, error:{}", result.getErrorMsg());
+            return null;
+        }
+        return candidate.getParseInfo();
     }
 
     private void performCorrecting(ChatQueryContext queryCtx) {
@@ -131,36 +383,10 @@ public class ChatWorkflowEngine {
             errorMsg.add(parseResult.getErrorMsg());
         }
         semanticParseInfos.forEach(parseInfo -> {
-            try {
-                SemanticQuery semanticQuery = QueryManager.createQuery(parseInfo.getQueryMode());
-                if (Objects.isNull(semanticQuery)) {
-                    return;
-                }
-                semanticQuery.setParseInfo(parseInfo);
-                SemanticQueryReq semanticQueryReq = semanticQuery.buildSemanticQueryReq();
-                SemanticLayerService queryService =
-                        ContextUtils.getBean(SemanticLayerService.class);
-                SemanticTranslateResp explain =
-                        queryService.translate(semanticQueryReq, queryCtx.getRequest().getUser());
-                if (explain.isOk()) {
-                    parseInfo.getSqlInfo().setQuerySQL(explain.getQuerySQL());
-                    parseResult.setState(ParseResp.ParseState.COMPLETED);
-                } else {
-                    parseResult.setState(ParseResp.ParseState.FAILED);
-                }
-                if (StringUtils.isNotBlank(explain.getErrMsg())) {
-                    errorMsg.add(explain.getErrMsg());
-                }
-                log.info(
-                        "SqlInfoProcessor results:\n"
-                                + "Parsed S2SQL: {}\nCorrected S2SQL: {}\nQuery SQL: {}",
-                        StringUtils.normalizeSpace(parseInfo.getSqlInfo().getParsedS2SQL()),
-                        StringUtils.normalizeSpace(parseInfo.getSqlInfo().getCorrectedS2SQL()),
-                        StringUtils.normalizeSpace(parseInfo.getSqlInfo().getQuerySQL()));
-            } catch (Exception e) {
-                log.warn("get sql info failed:{}", e);
-                errorMsg.add(String.format("S2SQL:%s %s", parseInfo.getSqlInfo().getParsedS2SQL(),
-                        e.getMessage()));
+            Boolean translated = translate(queryCtx, parseInfo, errorMsg);
+            if (Objects.nonNull(translated)) {
+                parseResult.setState(
+                        translated ? ParseResp.ParseState.COMPLETED : ParseResp.ParseState.FAILED);
             }
         });
         if (!errorMsg.isEmpty()) {
@@ -168,6 +394,137 @@ public class ChatWorkflowEngine {
         }
     }
 
+    /**
+     * @return whether the query sql is translated, null if the parse has no semantic query or the
+     *         translation failed with an exception
+     */
+    private Boolean translate(ChatQueryContext queryCtx, SemanticParseInfo parseInfo,
+            List<String> errorMsg) {
+        try {
+            SemanticQuery semanticQuery = QueryManager.createQuery(parseInfo.getQueryMode());
+            if (Objects.isNull(semanticQuery)) {
+                return null;
+            }
+            semanticQuery.setParseInfo(parseInfo);
+            SemanticQueryReq semanticQueryReq = semanticQuery.buildSemanticQueryReq();
+            SemanticLayerService queryService = ContextUtils.getBean(SemanticLayerService.class);
+            SemanticTranslateResp explain =
+                    queryService.translate(semanticQueryReq, queryCtx.getRequest().getUser());
+            if (explain.isOk()) {
+                parseInfo.getSqlInfo().setQuerySQL(explain.getQuerySQL());
+            }
+            if (StringUtils.isNotBlank(explain.getErrMsg())) {
+                errorMsg.add(explain.getErrMsg());
+            }
+            log.info(
+                    "SqlInfoProcessor results:\n"
+                            + "Parsed S2SQL: {}\nCorrected S2SQL: {}\nQuery SQL: {}",
+                    StringUtils.normalizeSpace(parseInfo.getSqlInfo().getParsedS2SQL()),
+                    StringUtils.normalizeSpace(parseInfo.getSqlInfo().getCorrectedS2SQL()),
+                    StringUtils.normalizeSpace(parseInfo.getSqlInfo().getQuerySQL()));
+            return explain.isOk();
+        } catch (Exception e) {
+            log.warn("get sql info failed:{}", e);
+            errorMsg.add(String.format("S2SQL:%s %s", parseInfo.getSqlInfo().getParsedS2SQL(),
+                    e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Corrects and translates the candidate queries concurrently, each with a context of its own.
+     * The first candidate translated with a score reaching the confidence relative to the best
+     * score wins and the others are cancelled. If none does, the best ranked translated candidate
+     * wins, or the best ranked candidate if none is translated.
+     */
+    void performCandidatePipeline(ChatQueryContext queryCtx, ParseResp parseResult) {
+        List<SemanticQuery> candidates = queryCtx.getCandidateQueries();
+        double confidence = Double.parseDouble(
+                parserConfig.getParameterValue(ParserConfig.PARSER_CANDIDATE_CONFIDENCE));
+        double bestScore = candidates.get(0).getParseInfo().getScore();
+        CompletionService<CandidateResult> completionService =
+                new ExecutorCompletionService<>(candidateExecutor);
+        List<Future<CandidateResult>> futures = new ArrayList<>();
+        TraceSpan parent = Tracer.current();
+        for (SemanticQuery candidate : candidates) {
+            futures.add(
+                    completionService.submit(() -> processCandidate(queryCtx, candidate, parent)));
+        }
+        Map<SemanticQuery, CandidateResult> results = new IdentityHashMap<>();
+        CandidateResult winner = null;
+        try {
+            for (int i = 0; i < candidates.size() && Objects.isNull(winner); i++) {
+                CandidateResult result = completionService.take().get();
+                results.put(result.getQuery(), result);
+                double score = result.getQuery().getParseInfo().getScore();
+                if (Boolean.TRUE.equals(result.getTranslated())
+                        && (bestScore <= 0 || score / bestScore >= confidence)) {
+                    winner = result;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("candidate pipeline interrupted");
+        } catch (ExecutionException e) {
+            log.error("candidate pipeline failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        if (Objects.isNull(winner)) {
+            List<CandidateResult> ranked = candidates.stream().map(results::get)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
+            winner = ranked.stream().filter(result -> Boolean.TRUE.equals(result.getTranslated()))
+                    .findFirst().orElse(ranked.isEmpty() ? null : ranked.get(0));
+        }
+        if (Objects.isNull(winner)) {
+            parseResult.setState(ParseResp.ParseState.FAILED);
+            parseResult.setErrorMsg("No semantic queries can be translated.");
+            return;
+        }
+        queryCtx.setCandidateQueries(Lists.newArrayList(winner.getQuery()));
+        parseResult.setSelectedParses(Lists.newArrayList(winner.getQuery().getParseInfo()));
+        parseResult.getParseTimeCost().setSqlTime(winner.getSqlTime());
+        if (Objects.nonNull(winner.getTranslated())) {
+            parseResult.setState(winner.getTranslated() ? ParseResp.ParseState.COMPLETED
+                    : ParseResp.ParseState.FAILED);
+        }
+        List<String> errorMsg = new ArrayList<>();
+        if (StringUtils.isNotBlank(parseResult.getErrorMsg())) {
+            errorMsg.add(parseResult.getErrorMsg());
+        }
+        errorMsg.addAll(winner.getErrorMsg());
+        if (!errorMsg.isEmpty()) {
+            parseResult.setErrorMsg(String.join("\n", errorMsg));
+        }
+    }
+
+    private CandidateResult processCandidate(ChatQueryContext queryCtx, SemanticQuery candidate,
+            TraceSpan parent) {
+        CandidateResult result = new CandidateResult(candidate);
+        ChatQueryContext candidateCtx = queryCtx.fork();
+        candidateCtx.setMapInfo(queryCtx.getMapInfo());
+        candidateCtx.setCandidateQueries(Lists.newArrayList(candidate));
+        candidateCtx.setChatWorkflowState(ChatWorkflowState.S2SQL_CORRECTING);
+        try (TraceSpan span = Tracer.start("chat.candidate", parent)) {
+            span.setAttribute("score", candidate.getParseInfo().getScore());
+            try {
+                performCorrecting(candidateCtx);
+                long start = System.currentTimeMillis();
+                result.setTranslated(
+                        translate(candidateCtx, candidate.getParseInfo(), result.getErrorMsg()));
+                result.setSqlTime(System.currentTimeMillis() - start);
+                performPhysicalSqlCorrecting(candidateCtx);
+                span.setAttribute("translated", String.valueOf(result.getTranslated()));
+            } catch (Exception e) {
+                log.warn("candidate:{} failed",
+                        candidate.getParseInfo().getSqlInfo().getParsedS2SQL(), e);
+                result.getErrorMsg().add(e.getMessage());
+                span.setError(e);
+            }
+        }
+        return result;
+    }
+
     private void performPhysicalSqlCorrecting(ChatQueryContext queryCtx) {
         List<SemanticQuery> candidateQueries = queryCtx.getCandidateQueries();
         if (CollectionUtils.isNotEmpty(candidateQueries)) {
@@ -189,4 +546,12 @@ public class ChatWorkflowEngine {
             }
         }
     }
+
+    @Data
+    private static class CandidateResult {
+        private final SemanticQuery query;
+        private final List<String> errorMsg = new ArrayList<>();
+        private Boolean translated;
+        private long sqlTime;
+    }
 }
@@ -54,6 +54,10 @@ public class DictUtils {
     @Value("${s2.item.value.date.format:yyyy-MM-dd}")
     private String itemValueDateFormat;
 
+    private static final String BATCH_ITEM_COLUMN = "s2_dict_item";
+    private static final String BATCH_VALUE_COLUMN = "s2_dict_value";
+    private static final String BATCH_FREQUENCY_COLUMN = "s2_dict_frequency";
+
     private final DimensionService dimensionService;
     private final MetricService metricService;
     private final SemanticLayerService queryService;
@@ -163,15 +167,147 @@ public class DictUtils {
                     mergeMultivaluedValue(valueAndFrequencyPair, dimValue, metric);
                 }
             }
-            String nature = dictItemResp.getNature();
-            constructDictLines(valueAndFrequencyPair, lines, nature);
-            addWhiteValueLines(dictItemResp, lines, nature);
+            lines = buildDictLines(dictItemResp, valueAndFrequencyPair);
         } catch (Exception e) {
             log.error("dictItemResp:{},fetchItemValue error:", dictItemResp, e);
         }
         return lines;
     }
 
+    /**
+     * Whether the item can be fetched together with other items of its model by fetchItemValues,
+     * i.e. its values are counted by count(1) on the model table.
+     */
+    public boolean supportFetchInBatch(DictItemResp dictItemResp, EngineType engineType) {
+        return TypeEnums.DIMENSION.equals(dictItemResp.getType())
+                && (Objects.isNull(dictItemResp.getConfig())
+                        || Objects.isNull(dictItemResp.getConfig().getMetricId()))
+                && Objects.nonNull(castToString(engineType, dictItemResp.getBizName()));
+    }
+
+    /**
+     * Fetch the values of several dimensions of one model in a single UNION ALL query, each branch
+     * keeping its own filters and top-N limit. Unlike fetchItemValue the error is thrown, so that
+     * the caller can fall back to one query per item.
+     *
+     * @return item id to dictionary lines
+     */
+    public Map<Long, List<String>> fetchItemValues(Long modelId, List<DictItemResp> dictItemResps,
+            EngineType engineType) {
+        ModelResp model = modelService.getModel(modelId);
+        String tableStr = StringUtils.isNotBlank(model.getModelDetail().getTableQuery())
+                ? model.getModelDetail().getTableQuery()
+                : "(" + model.getModelDetail().getSqlQuery() + ") AS t";
+        String sqlPattern = "SELECT * FROM (SELECT %d AS %s, %s AS %s, count(1) AS %s FROM %s %s "
+                + "GROUP BY %s ORDER BY count(1) DESC LIMIT %d) t_%d";
+        StringJoiner unionSql = new StringJoiner(" UNION ALL ");
+        for (DictItemResp dictItemResp : dictItemResps) {
+            String dimBizName = dictItemResp.getBizName();
+            String whereStr = generateWhereStr(dictItemResp);
+            String where = StringUtils.isEmpty(whereStr) ? "" : "WHERE" + whereStr;
+            unionSql.add(String.format(sqlPattern, dictItemResp.getItemId(), BATCH_ITEM_COLUMN,
+                    castToString(engineType, dimBizName), BATCH_VALUE_COLUMN,
+                    BATCH_FREQUENCY_COLUMN, tableStr, where, dimBizName, getLimit(dictItemResp),
+                    dictItemResp.getItemId()));
+        }
+        String sql = unionSql.toString();
+        QuerySqlReq querySqlReq = new QuerySqlReq();
+        querySqlReq.setSql(sql);
+        // bypass semantic translation
+        querySqlReq.getSqlInfo().setQuerySQL(sql);
+        querySqlReq.setNeedAuth(false);
+        querySqlReq.setModelIds(new HashSet<>(Collections.singletonList(modelId)));
+        SemanticQueryResp semanticQueryResp;
+        try {
+            semanticQueryResp = queryService.queryByReq(querySqlReq, User.getDefaultUser());
+        } catch (Exception e) {
+            throw new RuntimeException("fetchItemValues error, modelId:" + modelId, e);
+        }
+
+        Map<Long, Map<String, Long>> itemValueAndFrequencyPair = new HashMap<>();
+        if (Objects.nonNull(semanticQueryResp)
+                && !CollectionUtils.isEmpty(semanticQueryResp.getResultList())) {
+            for (Map<String, Object> line : semanticQueryResp.getResultList()) {
+                Object item = getIgnoreCase(line, BATCH_ITEM_COLUMN);
+                Object dimValue = getIgnoreCase(line, BATCH_VALUE_COLUMN);
+                Object metricObject = getIgnoreCase(line, BATCH_FREQUENCY_COLUMN);
+                if (Objects.isNull(item) || Objects.isNull(dimValue) || Objects.isNull(metricObject)
+                        || StringUtils.isEmpty(dimValue.toString())) {
+                    continue;
+                }
+                Long itemId = Math.round(Double.parseDouble(item.toString()));
+                Long metric = Math.round(Double.parseDouble(metricObject.toString()));
+                mergeMultivaluedValue(
+                        itemValueAndFrequencyPair.computeIfAbsent(itemId, k -> new HashMap<>()),
+                        dimValue.toString(), metric);
+            }
+        }
+        Map<Long, List<String>> itemLines = new HashMap<>();
+        for (DictItemResp dictItemResp : dictItemResps) {
+            Map<String, Long> valueAndFrequencyPair =
+                    itemValueAndFrequencyPair.get(dictItemResp.getItemId());
+            itemLines.put(dictItemResp.getItemId(),
+                    CollectionUtils.isEmpty(valueAndFrequencyPair) ? new ArrayList<>()
+                            : buildDictLines(dictItemResp, valueAndFrequencyPair));
+        }
+        return itemLines;
+    }
+
+    private List<String> buildDictLines(DictItemResp dictItemResp,
+            Map<String, Long> valueAndFrequencyPair) {
+        List<String> lines = new ArrayList<>();
+        String nature = dictItemResp.getNature();
+        constructDictLines(valueAndFrequencyPair, lines, nature);
+        addWhiteValueLines(dictItemResp, lines, nature);
+        return lines;
+    }
+
+    /**
+     * the dimension values of all branches share one column, so they are cast to a string type
+     * known to the engine; null if merging is not supported on the engine
+     */
+    private String castToString(EngineType engineType, String column) {
+        if (Objects.isNull(engineType)) {
+            return null;
+        }
+        switch (engineType) {
+            case MYSQL:
+            case DORIS:
+            case STARROCKS:
+                return String.format("CAST(%s AS CHAR)", column);
+            case H2:
+            case POSTGRESQL:
+            case DUCKDB:
+            case PRESTO:
+            case TRINO:
+                return String.format("CAST(%s AS VARCHAR)", column);
+            case CLICKHOUSE:
+                return String.format("toString(%s)", column);
+            default:
+                return null;
+        }
+    }
+
+    private Object getIgnoreCase(Map<String, Object> line, String column) {
+        for (Map.Entry<String, Object> entry : line.entrySet()) {
+            if (column.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private long getLimit(DictItemResp dictItemResp) {
+        ItemValueConfig config = dictItemResp.getConfig();
+        long limit =
+                (Objects.isNull(config) || Objects.isNull(config.getLimit())) ? itemValueMaxCount
+                        : dictItemResp.getConfig().getLimit();
+        if (limit <= 0) {
+            limit = Integer.MAX_VALUE;
+        }
+        return limit;
+    }
+
     private void addWhiteValueLines(DictItemResp dictItemResp, List<String> lines, String nature) {
         if (Objects.isNull(dictItemResp) || Objects.isNull(dictItemResp.getConfig())
                 || CollectionUtils.isEmpty(dictItemResp.getConfig().getWhiteList())) {
@@ -283,13 +419,7 @@ public class DictUtils {
         String dimBizName = dictItemResp.getBizName();
         String whereStr = generateWhereStr(dictItemResp);
         String where = StringUtils.isEmpty(whereStr) ? "" : "WHERE" + whereStr;
-        ItemValueConfig config = dictItemResp.getConfig();
-        long limit =
-                (Objects.isNull(config) || Objects.isNull(config.getLimit())) ? itemValueMaxCount
-                        : dictItemResp.getConfig().getLimit();
-        if (limit <= 0) {
-            limit = Integer.MAX_VALUE;
-        }
+        long limit = getLimit(dictItemResp);
 
         String sql = String.format(sqlPattern, dimBizName, tableStr, where, dimBizName, limit);
         Set<Long> modelIds = new HashSet<>();
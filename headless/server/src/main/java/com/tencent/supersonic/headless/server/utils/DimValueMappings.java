@@ -0,0 +1,172 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.headless.api.pojo.DimValueMap;
+import com.tencent.supersonic.headless.api.pojo.SchemaItem;
+import com.tencent.supersonic.headless.api.pojo.response.DimensionResp;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Dimension value mapping tables of a set of models, compiled once from the dimensions and shared
+ * by all queries on them. Mapping a query result copies only the rows holding a mapped value, the
+ * given result is never modified since it may be the instance held by the query cache.
+ */
+public class DimValueMappings {
+
+    public static final DimValueMappings EMPTY = new DimValueMappings(Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap());
+
+    /** dimension bizName -> value bizName or alias -> techName, for struct filters */
+    private final Map<String, Map<String, String>> filterValues;
+    /** dimension bizName -> value alias -> techName, for sql filters */
+    private final Map<String, Map<String, String>> aliasValues;
+    /** dimension bizName -> techName -> value bizName, for results */
+    private final Map<String, Map<String, String>> resultValues;
+
+    private DimValueMappings(Map<String, Map<String, String>> filterValues,
+            Map<String, Map<String, String>> aliasValues,
+            Map<String, Map<String, String>> resultValues) {
+        this.filterValues = filterValues;
+        this.aliasValues = aliasValues;
+        this.resultValues = resultValues;
+    }
+
+    public static DimValueMappings compile(List<DimensionResp> dimensions) {
+        if (CollectionUtils.isEmpty(dimensions)) {
+            return EMPTY;
+        }
+        Set<String> names =
+                dimensions.stream().map(SchemaItem::getName).collect(Collectors.toSet());
+        Map<String, Map<String, String>> filterValues = new HashMap<>();
+        Map<String, Map<String, String>> aliasValues = new HashMap<>();
+        Map<String, Map<String, String>> resultValues = new HashMap<>();
+        for (DimensionResp dimension : dimensions) {
+            if (Objects.isNull(dimension) || StringUtils.isEmpty(dimension.getBizName())
+                    || CollectionUtils.isEmpty(dimension.getDimValueMaps())) {
+                continue;
+            }
+            String bizName = dimension.getBizName();
+            Map<String, String> filterValue = new HashMap<>();
+            Map<String, String> aliasValue = new HashMap<>();
+            Map<String, String> resultValue = new HashMap<>();
+            for (DimValueMap dimValueMap : dimension.getDimValueMaps()) {
+                if (Objects.isNull(dimValueMap) || StringUtils.isEmpty(dimValueMap.getTechName())) {
+                    continue;
+                }
+                String techName = dimValueMap.getTechName();
+                if (StringUtils.isNotEmpty(dimValueMap.getBizName())) {
+                    filterValue.put(dimValueMap.getBizName(), techName);
+                    resultValue.put(techName, dimValueMap.getBizName());
+                }
+                if (!CollectionUtils.isEmpty(dimValueMap.getAlias())) {
+                    for (String alias : dimValueMap.getAlias()) {
+                        if (StringUtils.isNotEmpty(alias)) {
+                            filterValue.put(alias, techName);
+                            aliasValue.putIfAbsent(alias, techName);
+                        }
+                    }
+                }
+            }
+            merge(filterValues, bizName, filterValue);
+            // sql filters refer to the dimension by a field that is both a name and a bizName
+            if (names.contains(bizName)) {
+                merge(aliasValues, bizName, aliasValue);
+            }
+            merge(resultValues, bizName, resultValue);
+        }
+        if (filterValues.isEmpty() && aliasValues.isEmpty() && resultValues.isEmpty()) {
+            return EMPTY;
+        }
+        return new DimValueMappings(filterValues, aliasValues, resultValues);
+    }
+
+    private static void merge(Map<String, Map<String, String>> tables, String bizName,
+            Map<String, String> table) {
+        if (!table.isEmpty()) {
+            tables.computeIfAbsent(bizName, k -> new HashMap<>()).putAll(table);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /** value bizName or alias -> techName of the dimension, empty if not mapped */
+    public Map<String, String> getFilterValues(String bizName) {
+        return filterValues.getOrDefault(bizName, Collections.emptyMap());
+    }
+
+    /** value alias -> techName of the dimension in sql filters, empty if not mapped */
+    public Map<String, String> getAliasValues(String fieldName) {
+        return aliasValues.getOrDefault(fieldName, Collections.emptyMap());
+    }
+
+    public boolean hasAliasValues() {
+        return !aliasValues.isEmpty();
+    }
+
+    /**
+     * Replace the techNames in the mapped columns by their bizNames.
+     *
+     * @return the given result if nothing is mapped, otherwise a copy holding the mapped rows
+     */
+    public SemanticQueryResp mapResult(SemanticQueryResp queryResp) {
+        if (Objects.isNull(queryResp) || resultValues.isEmpty()
+                || CollectionUtils.isEmpty(queryResp.getColumns())
+                || CollectionUtils.isEmpty(queryResp.getResultList())) {
+            return queryResp;
+        }
+        List<String> columns = new ArrayList<>();
+        List<Map<String, String>> tables = new ArrayList<>();
+        for (QueryColumn column : queryResp.getColumns()) {
+            Map<String, String> table = resultValues.get(column.getBizName());
+            if (Objects.nonNull(table)) {
+                columns.add(column.getBizName());
+                tables.add(table);
+            }
+        }
+        if (columns.isEmpty()) {
+            return queryResp;
+        }
+        List<Map<String, Object>> resultList = new ArrayList<>(queryResp.getResultList().size());
+        boolean mapped = false;
+        for (Map<String, Object> row : queryResp.getResultList()) {
+            Map<String, Object> mappedRow = null;
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = row.get(columns.get(i));
+                if (Objects.isNull(value)) {
+                    continue;
+                }
+                String bizValue = tables.get(i).get(value.toString());
+                if (Objects.nonNull(bizValue)) {
+                    if (Objects.isNull(mappedRow)) {
+                        mappedRow = new LinkedHashMap<>(row);
+                    }
+                    mappedRow.put(columns.get(i), bizValue);
+                }
+            }
+            mapped |= Objects.nonNull(mappedRow);
+            resultList.add(Objects.isNull(mappedRow) ? row : mappedRow);
+        }
+        if (!mapped) {
+            return queryResp;
+        }
+        SemanticQueryResp mappedResp = new SemanticQueryResp();
+        BeanUtils.copyProperties(queryResp, mappedResp);
+        mappedResp.setResultList(resultList);
+        return mappedResp;
+    }
+}
@@ -20,7 +20,8 @@ public class ModelConfigHelper {
             if (modelConfig == null || StringUtils.isBlank(modelConfig.getBaseUrl())) {
                 return false;
             }
-            ChatLanguageModel chatLanguageModel = ModelProvider.getChatModel(modelConfig);
+            // a cached answer would hide an endpoint or key which stopped working
+            ChatLanguageModel chatLanguageModel = ModelProvider.getUncachedChatModel(modelConfig);
             String response = chatLanguageModel.generate("Hi there");
             return StringUtils.isNotEmpty(response) ? true : false;
         } catch (Exception e) {
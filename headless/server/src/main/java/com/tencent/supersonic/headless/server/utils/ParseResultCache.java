@@ -0,0 +1,284 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalListeners;
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.pojo.ChatModelEvent;
+import com.tencent.supersonic.common.pojo.DataEvent;
+import com.tencent.supersonic.common.pojo.ExemplarEvent;
+import com.tencent.supersonic.common.service.EmbeddingService;
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
+import com.tencent.supersonic.headless.api.pojo.response.ParseCacheStatResp;
+import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
+import com.tencent.supersonic.headless.server.sync.superset.semantic.SupersetSemanticDatasetChangedEvent;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.RetrieveQuery;
+import dev.langchain4j.store.embedding.RetrieveQueryResult;
+import dev.langchain4j.store.embedding.TextSegmentConvert;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the completed parse results of chat questions, keyed by everything the parsing depends on:
+ * the agent config, data sets, user, request options, schema version, current date and the
+ * normalized question. Parse infos are kept as json so callers can modify what they get back. Near
+ * duplicate questions can be looked up through the embedding store, which costs an embedding call
+ * per miss and is therefore disabled by default. Changes to the schema, terms, agents, plugins,
+ * chat models and exemplars invalidate the whole cache. Since not every input of the parsing is
+ * tracked, the cache is disabled by default as well.
+ */
+@Component
+@Slf4j
+public class ParseResultCache {
+
+    private static final String CONTEXT_KEY = "contextKey";
+
+    private static final String CACHE_KEY = "cacheKey";
+
+    @Value("${s2.parser.cache.enable:false}")
+    private boolean enable;
+
+    @Value("${s2.parser.cache.size:1000}")
+    private long size;
+
+    @Value("${s2.parser.cache.expire.minutes:30}")
+    private long expireMinutes;
+
+    @Value("${s2.parser.cache.similar.enable:false}")
+    private boolean similarEnable;
+
+    @Value("${s2.parser.cache.similar.threshold:0.98}")
+    private double similarThreshold;
+
+    @Value("${s2.parser.cache.collection:s2_parse_cache_collection}")
+    private String collection;
+
+    @Autowired
+    private EmbeddingService embeddingService;
+
+    @Autowired
+    @Qualifier("commonExecutor")
+    private ThreadPoolExecutor commonExecutor;
+
+    private Cache<String, CachedParse> cache;
+
+    /** part of every key, so results being parsed while the schema changes are not found */
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder similarHitCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(size)
+                .expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
+        if (similarEnable) {
+            RemovalListener<String, CachedParse> listener = notification -> {
+                if (!RemovalCause.REPLACED.equals(notification.getCause())) {
+                    removeEmbedding(notification.getKey());
+                }
+            };
+            cache = builder.removalListener(RemovalListeners.asynchronous(listener, commonExecutor))
+                    .build();
+        } else {
+            cache = builder.build();
+        }
+    }
+
+    /** returns null if the cache is disabled */
+    public CacheKey buildKey(QueryNLReq queryNLReq) {
+        if (!enable || StringUtils.isBlank(queryNLReq.getQueryText())) {
+            return null;
+        }
+        StringBuilder context = new StringBuilder();
+        context.append(version.get()).append('|').append(LocalDate.now());
+        context.append('|').append(
+                Objects.isNull(queryNLReq.getUser()) ? null : queryNLReq.getUser().getName());
+        context.append('|').append(Objects.isNull(queryNLReq.getDataSetIds()) ? null
+                : new TreeSet<>(queryNLReq.getDataSetIds()));
+        context.append('|').append(queryNLReq.getText2SQLType());
+        context.append('|').append(queryNLReq.getMapModeEnum());
+        context.append('|').append(queryNLReq.getQueryDataType());
+        context.append('|').append(queryNLReq.isDescriptionMapped());
+        context.append('|').append(JsonUtil.toString(queryNLReq.getQueryFilters()));
+        context.append('|').append(JsonUtil.toString(queryNLReq.getChatAppConfig()));
+        context.append('|').append(JsonUtil.toString(queryNLReq.getDynamicExemplars()));
+        context.append('|').append(JsonUtil.toString(queryNLReq.getContextParseInfo()));
+        context.append('|').append(JsonUtil.toString(queryNLReq.getSelectedParseInfo()));
+        String contextKey = DigestUtils.md5Hex(context.toString());
+        String text = normalize(queryNLReq.getQueryText());
+        return new CacheKey(contextKey, DigestUtils.md5Hex(contextKey + '|' + text), text,
+                queryNLReq.getQueryText());
+    }
+
+    public ParseResp get(CacheKey key) {
+        if (Objects.isNull(key)) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        CachedParse cachedParse = cache.getIfPresent(key.getCacheKey());
+        if (Objects.isNull(cachedParse) && similarEnable) {
+            String similarKey = findSimilar(key);
+            if (Objects.nonNull(similarKey)) {
+                cachedParse = cache.getIfPresent(similarKey);
+                if (Objects.nonNull(cachedParse)) {
+                    similarHitCount.increment();
+                }
+            }
+        }
+        if (Objects.isNull(cachedParse)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        ParseResp parseResp = new ParseResp(key.getQueryText());
+        parseResp.setSelectedParses(
+                JsonUtil.toList(cachedParse.getSelectedParses(), SemanticParseInfo.class));
+        parseResp.setErrorMsg(cachedParse.getErrorMsg());
+        parseResp.setState(ParseResp.ParseState.COMPLETED);
+        parseResp.getParseTimeCost().setParseTime(System.currentTimeMillis() - startTime);
+        return parseResp;
+    }
+
+    public void put(CacheKey key, ParseResp parseResp) {
+        if (Objects.isNull(key) || !ParseResp.ParseState.COMPLETED.equals(parseResp.getState())
+                || CollectionUtils.isEmpty(parseResp.getSelectedParses())) {
+            return;
+        }
+        cache.put(key.getCacheKey(), new CachedParse(
+                JsonUtil.toString(parseResp.getSelectedParses()), parseResp.getErrorMsg()));
+        if (similarEnable) {
+            commonExecutor.execute(() -> addEmbedding(key));
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public ParseCacheStatResp getStats() {
+        ParseCacheStatResp statResp = new ParseCacheStatResp();
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        statResp.setSize(cache.size());
+        statResp.setHitCount(hits);
+        statResp.setMissCount(misses);
+        statResp.setSimilarHitCount(similarHitCount.sum());
+        statResp.setHitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        return statResp;
+    }
+
+    @EventListener
+    public void onDataChange(DataEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onDataSetChange(SupersetSemanticDatasetChangedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onChatModelChange(ChatModelEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onExemplarChange(ExemplarEvent event) {
+        invalidate();
+    }
+
+    static String normalize(String queryText) {
+        return StringUtils.normalizeSpace(queryText).toLowerCase(Locale.ROOT);
+    }
+
+    private String findSimilar(CacheKey key) {
+        try {
+            Map<String, Object> filterCondition = new HashMap<>();
+            filterCondition.put(CONTEXT_KEY, key.getContextKey());
+            RetrieveQuery retrieveQuery =
+                    RetrieveQuery.builder().queryTextsList(Lists.newArrayList(key.getText()))
+                            .filterCondition(filterCondition).build();
+            List<RetrieveQueryResult> results =
+                    embeddingService.retrieveQuery(collection, retrieveQuery, 1);
+            return results.stream().flatMap(result -> result.getRetrieval().stream())
+                    .filter(retrieval -> retrieval.getSimilarity() >= similarThreshold)
+                    .map(retrieval -> (String) retrieval.getMetadata().get(CACHE_KEY))
+                    .filter(Objects::nonNull).findFirst().orElse(null);
+        } catch (Exception e) {
+            log.warn("failed to find similar parse of question:{}", key.getQueryText(), e);
+            return null;
+        }
+    }
+
+    private void addEmbedding(CacheKey key) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(CONTEXT_KEY, key.getContextKey());
+        metadata.put(CACHE_KEY, key.getCacheKey());
+        TextSegment segment = TextSegment.from(key.getText(), Metadata.from(metadata));
+        TextSegmentConvert.addQueryId(segment, key.getCacheKey());
+        embeddingService.addQuery(collection, Lists.newArrayList(segment));
+    }
+
+    private void removeEmbedding(String cacheKey) {
+        TextSegment segment = TextSegment.from(cacheKey);
+        TextSegmentConvert.addQueryId(segment, cacheKey);
+        embeddingService.deleteQuery(collection, Lists.newArrayList(segment));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CacheKey {
+
+        /** hash of everything but the question */
+        private String contextKey;
+
+        private String cacheKey;
+
+        /** the normalized question */
+        private String text;
+
+        private String queryText;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class CachedParse {
+
+        private String selectedParses;
+
+        private String errorMsg;
+    }
+}
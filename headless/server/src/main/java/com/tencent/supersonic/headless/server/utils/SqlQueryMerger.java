@@ -0,0 +1,242 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.jsqlparser.SqlSelectHelper;
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Merges batched aggregate queries which scan the same table with the same filters, grouping,
+ * ordering and limit into one statement selecting the union of their select items, and splits the
+ * result of the merged statement back into one result per query.
+ */
+@Slf4j
+public class SqlQueryMerger {
+
+    public static List<MergedQuery> merge(List<String> sqls) {
+        return merge(sqls, null);
+    }
+
+    /**
+     * @param sqls queries of the batch
+     * @param scopes what each query runs against, such as its data set and models, only queries of
+     *        the same scope are merged, all queries share one scope if null
+     */
+    public static List<MergedQuery> merge(List<String> sqls, List<String> scopes) {
+        List<MergedQuery> mergedQueries = new ArrayList<>();
+        Map<String, MergedQuery> groups = new LinkedHashMap<>();
+        for (int i = 0; i < sqls.size(); i++) {
+            PlainSelect plainSelect = getMergeablePlainSelect(sqls.get(i));
+            String scanKey = Objects.isNull(plainSelect) ? null
+                    : (Objects.isNull(scopes) ? null : scopes.get(i)) + "|"
+                            + getScanKey(plainSelect);
+            MergedQuery group = Objects.isNull(scanKey) ? null : groups.get(scanKey);
+            if (Objects.nonNull(group) && group.add(i, plainSelect)) {
+                continue;
+            }
+            MergedQuery mergedQuery = new MergedQuery(sqls.get(i), plainSelect);
+            mergedQuery.add(i, plainSelect);
+            mergedQueries.add(mergedQuery);
+            if (Objects.nonNull(scanKey)) {
+                groups.putIfAbsent(scanKey, mergedQuery);
+            }
+        }
+        return mergedQueries;
+    }
+
+    /**
+     * whether the result has exactly one uniquely named column per merged select item, named after
+     * the alias or the expression of the item at its position
+     */
+    public static boolean canSplit(SemanticQueryResp merged, MergedQuery mergedQuery) {
+        if (Objects.isNull(merged) || CollectionUtils.isEmpty(merged.getColumns())
+                || merged.getColumns().size() != mergedQuery.getSelectSize()) {
+            return false;
+        }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < merged.getColumns().size(); i++) {
+            QueryColumn column = merged.getColumns().get(i);
+            if (!names.add(column.getBizName())
+                    || !isColumnOf(column, mergedQuery.getSelectItems().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isColumnOf(QueryColumn column, SelectItem<?> selectItem) {
+        String itemName = Objects.isNull(selectItem.getAlias()) ? selectItem.toString()
+                : selectItem.getAlias().getName();
+        String name = normalize(itemName);
+        return name.equals(normalize(column.getBizName()))
+                || name.equals(normalize(column.getName()));
+    }
+
+    /** names compared without quotes, whitespace and case */
+    private static String normalize(String name) {
+        return Objects.isNull(name) ? "" : name.replaceAll("[`\"\\s]", "").toLowerCase();
+    }
+
+    /** result of one query, made of the merged result columns at the given positions */
+    public static SemanticQueryResp split(SemanticQueryResp merged, int[] columnIndexes) {
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        BeanUtils.copyProperties(merged, queryResp);
+        List<QueryColumn> columns = new ArrayList<>(columnIndexes.length);
+        for (int index : columnIndexes) {
+            QueryColumn column = new QueryColumn();
+            BeanUtils.copyProperties(merged.getColumns().get(index), column);
+            columns.add(column);
+        }
+        queryResp.setColumns(columns);
+        if (Objects.nonNull(merged.getResultList())) {
+            List<Map<String, Object>> resultList = new ArrayList<>(merged.getResultList().size());
+            for (Map<String, Object> row : merged.getResultList()) {
+                Map<String, Object> splitRow = new LinkedHashMap<>();
+                for (QueryColumn column : columns) {
+                    splitRow.put(column.getBizName(), row.get(column.getBizName()));
+                }
+                resultList.add(splitRow);
+            }
+            queryResp.setResultList(resultList);
+        }
+        return queryResp;
+    }
+
+    /**
+     * single table aggregate query without sub queries or positional group and order items, whose
+     * positions would change with the merged select, null if it cannot be merged
+     */
+    private static PlainSelect getMergeablePlainSelect(String sql) {
+        try {
+            Select select = SqlSelectHelper.getSelect(sql);
+            if (!(select instanceof PlainSelect plainSelect)
+                    || !CollectionUtils.isEmpty(select.getWithItemsList())
+                    || !(plainSelect.getFromItem() instanceof Table)
+                    || !CollectionUtils.isEmpty(plainSelect.getJoins())
+                    || Objects.nonNull(plainSelect.getDistinct())
+                    || !SqlSelectHelper.hasAggregateFunction(plainSelect)) {
+                return null;
+            }
+            for (SelectItem<?> selectItem : plainSelect.getSelectItems()) {
+                if (selectItem.toString().contains("*")) {
+                    return null;
+                }
+            }
+            if (Objects.nonNull(plainSelect.getGroupBy()) && plainSelect.getGroupBy()
+                    .getGroupByExpressionList().stream().anyMatch(LongValue.class::isInstance)) {
+                return null;
+            }
+            if (Objects.nonNull(plainSelect.getOrderByElements())
+                    && plainSelect.getOrderByElements().stream().map(OrderByElement::getExpression)
+                            .anyMatch(LongValue.class::isInstance)) {
+                return null;
+            }
+            return plainSelect;
+        } catch (Exception e) {
+            log.debug("sql can not be merged:{}", sql, e);
+            return null;
+        }
+    }
+
+    /** queries with the same key read the same rows and groups */
+    private static String getScanKey(PlainSelect plainSelect) {
+        StringJoiner key = new StringJoiner("|");
+        key.add(String.valueOf(plainSelect.getFromItem()));
+        key.add(String.valueOf(plainSelect.getWhere()));
+        key.add(String.valueOf(plainSelect.getGroupBy()));
+        key.add(String.valueOf(plainSelect.getHaving()));
+        key.add(String.valueOf(plainSelect.getOrderByElements()));
+        key.add(String.valueOf(plainSelect.getLimit()));
+        key.add(String.valueOf(plainSelect.getOffset()));
+        return key.toString();
+    }
+
+    @Getter
+    public static class MergedQuery {
+
+        private final String originalSql;
+        private final PlainSelect plainSelect;
+        private final List<SelectItem<?>> selectItems = new ArrayList<>();
+        private final Map<String, Integer> itemIndexes = new HashMap<>();
+        private final Map<String, String> aliasItems = new HashMap<>();
+        /** index of each answered query in the batch */
+        private final List<Integer> queryIndexes = new ArrayList<>();
+        /** positions of the columns of each answered query in the merged select */
+        private final List<int[]> columnIndexes = new ArrayList<>();
+
+        private MergedQuery(String originalSql, PlainSelect plainSelect) {
+            this.originalSql = originalSql;
+            this.plainSelect = plainSelect;
+        }
+
+        public boolean isMerged() {
+            return queryIndexes.size() > 1;
+        }
+
+        public int getSelectSize() {
+            return selectItems.size();
+        }
+
+        public String getSql() {
+            if (!isMerged()) {
+                return originalSql;
+            }
+            plainSelect.setSelectItems(new ArrayList<>(selectItems));
+            return plainSelect.toString();
+        }
+
+        /** @return false if an alias of the query is used by another item of the group */
+        private boolean add(int queryIndex, PlainSelect select) {
+            if (Objects.isNull(select)) {
+                queryIndexes.add(queryIndex);
+                columnIndexes.add(null);
+                return true;
+            }
+            for (SelectItem<?> selectItem : select.getSelectItems()) {
+                String alias = Objects.isNull(selectItem.getAlias()) ? null
+                        : selectItem.getAlias().getName();
+                if (Objects.nonNull(alias) && aliasItems.containsKey(alias)
+                        && !aliasItems.get(alias).equals(selectItem.toString())) {
+                    return false;
+                }
+            }
+            int[] indexes = new int[select.getSelectItems().size()];
+            for (int i = 0; i < indexes.length; i++) {
+                SelectItem<?> selectItem = select.getSelectItems().get(i);
+                String item = selectItem.toString();
+                Integer index = itemIndexes.get(item);
+                if (Objects.isNull(index)) {
+                    index = selectItems.size();
+                    selectItems.add(selectItem);
+                    itemIndexes.put(item, index);
+                    if (Objects.nonNull(selectItem.getAlias())) {
+                        aliasItems.put(selectItem.getAlias().getName(), item);
+                    }
+                }
+                indexes[i] = index;
+            }
+            queryIndexes.add(queryIndex);
+            columnIndexes.add(indexes);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer. A producer claims a
+ * sequence by CAS and publishes its element into the slot; the consumer takes slots in sequence
+ * order and waits for a claimed slot until it is published. Offering to a full buffer fails instead
+ * of blocking.
+ */
+class StatRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** written by the consumer only */
+    private volatile long head;
+
+    StatRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    /** @return false if the buffer is full */
+    boolean offer(E element) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) (sequence & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move up to max elements into the list, called by the consumer thread only.
+     *
+     * @return number of elements drained
+     */
+    int drainTo(List<E> list, int max) {
+        long current = head;
+        long limit = Math.min(tail.get(), current + max);
+        int drained = 0;
+        while (current < limit) {
+            int index = (int) (current & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                // claimed but not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            list.add(element);
+            current++;
+            drained++;
+        }
+        head = current;
+        return drained;
+    }
+}
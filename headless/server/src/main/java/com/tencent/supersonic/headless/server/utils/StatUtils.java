@@ -3,7 +3,9 @@ package com.tencent.supersonic.headless.server.utils;
 import com.alibaba.ttl.TransmittableThreadLocal;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tencent.supersonic.common.executor.ExecutorStatProvider;
 import com.tencent.supersonic.common.jsqlparser.SqlSelectHelper;
+import com.tencent.supersonic.common.pojo.ExecutorStat;
 import com.tencent.supersonic.common.pojo.User;
 import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
 import com.tencent.supersonic.common.util.SqlFilterUtils;
@@ -20,9 +22,12 @@ import com.tencent.supersonic.headless.api.pojo.request.QueryTagReq;
 import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
 import com.tencent.supersonic.headless.api.pojo.response.ItemUseResp;
 import com.tencent.supersonic.headless.server.persistence.repository.StatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
@@ -30,12 +35,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
-public class StatUtils {
+public class StatUtils implements ExecutorStatProvider {
 
     private static final TransmittableThreadLocal<QueryStat> STATS =
             new TransmittableThreadLocal<>();
@@ -43,6 +50,23 @@ public class StatUtils {
     private final SqlFilterUtils sqlFilterUtils;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${s2.stat.buffer.size:8192}")
+    private int bufferSize;
+
+    @Value("${s2.stat.batch.size:200}")
+    private int batchSize;
+
+    @Value("${s2.stat.flush.interval:1000}")
+    private long flushInterval;
+
+    /** stats waiting for the writer, full buffer drops new stats instead of blocking queries */
+    private StatRingBuffer<QueryStat> statBuffer;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private Thread statWriter;
+    private volatile boolean running;
+
     public StatUtils(StatRepository statRepository, SqlFilterUtils sqlFilterUtils) {
 
         this.statRepository = statRepository;
@@ -65,16 +89,96 @@ public class StatUtils {
         QueryStat queryStatInfo = get();
         queryStatInfo.setElapsedMs(System.currentTimeMillis() - queryStatInfo.getStartTime());
         queryStatInfo.setQueryState(state.getStatus());
-        CompletableFuture.runAsync(() -> {
-            statRepository.createRecord(queryStatInfo);
-        }).exceptionally(exception -> {
-            log.warn("queryStatInfo, exception:", exception);
-            return null;
-        });
+        if (!statBuffer.offer(queryStatInfo)) {
+            long dropped = droppedCount.incrementAndGet();
+            // log the first drop of every thousand
+            if (dropped % 1000 == 1) {
+                log.warn("query stat buffer is full, capacity:{}, dropped:{}",
+                        statBuffer.capacity(), dropped);
+            }
+        }
 
         remove();
     }
 
+    @PostConstruct
+    public void startStatWriter() {
+        statBuffer = new StatRingBuffer<>(bufferSize);
+        running = true;
+        statWriter = new Thread(this::writeStats, "query-stat-writer");
+        statWriter.setDaemon(true);
+        statWriter.start();
+    }
+
+    @PreDestroy
+    public void stopStatWriter() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(statWriter);
+        statWriter.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Single writer: insert a batch when batchSize stats are buffered or flushInterval has passed
+     * since the last insert, drain the rest on shutdown.
+     */
+    private void writeStats() {
+        List<QueryStat> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.currentTimeMillis();
+        while (running || statBuffer.size() > 0) {
+            statBuffer.drainTo(batch, batchSize - batch.size());
+            long now = System.currentTimeMillis();
+            if (batch.size() >= batchSize
+                    || (!batch.isEmpty() && (now - lastFlush >= flushInterval || !running))) {
+                insertStats(batch);
+                batch.clear();
+                lastFlush = now;
+            } else if (running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertStats(batch);
+        }
+    }
+
+    private void insertStats(List<QueryStat> batch) {
+        try {
+            statRepository.batchCreateRecord(batch);
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception e) {
+            failedCount.addAndGet(batch.size());
+            log.warn("insert query stats failed, size:{}", batch.size(), e);
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public List<ExecutorStat> getExecutorStats() {
+        ExecutorStat stat = new ExecutorStat();
+        stat.setName(statWriter.getName());
+        stat.setCorePoolSize(1);
+        stat.setMaxPoolSize(1);
+        stat.setPoolSize(statWriter.isAlive() ? 1 : 0);
+        stat.setQueueSize(statBuffer.size());
+        stat.setQueueCapacity(statBuffer.capacity());
+        stat.setCompletedTaskCount(writtenCount.get());
+        stat.setDroppedCount(droppedCount.get());
+        stat.setFailedTaskCount(failedCount.get());
+        stat.setSaturation((double) stat.getQueueSize() / stat.getQueueCapacity());
+        return List.of(stat);
+    }
+
     public Boolean updateResultCacheKey(String key) {
         STATS.get().setResultCacheKey(key);
         return true;
@@ -0,0 +1,77 @@
+package com.tencent.supersonic.headless.server.facade.service.impl;
+
+import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.headless.api.pojo.request.QuerySqlReq;
+import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import com.tencent.supersonic.headless.core.executor.RunningQueryRegistry;
+import com.tencent.supersonic.headless.server.facade.service.SemanticLayerService;
+import com.tencent.supersonic.headless.server.service.SchemaService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class SqlBatchQueryExecutorTest {
+
+    @Test
+    void keepFinishedResponsesOfCancelledBatch() throws Exception {
+        User user = User.get(1L, "jack");
+        RunningQueryRegistry registry = new RunningQueryRegistry();
+        CountDownLatch firstDone = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        SemanticQueryResp first = new SemanticQueryResp();
+        first.setSql("first");
+        SemanticLayerService semanticLayerService = Mockito.mock(SemanticLayerService.class);
+        when(semanticLayerService.queryByReq(any(SemanticQueryReq.class), any(User.class)))
+                .thenAnswer(invocation -> {
+                    QuerySqlReq querySqlReq = invocation.getArgument(0);
+                    if (querySqlReq.getSql().contains("t1")) {
+                        firstDone.countDown();
+                        return first;
+                    }
+                    firstDone.await(5, TimeUnit.SECONDS);
+                    registry.cancel("batch", user);
+                    released.await(5, TimeUnit.SECONDS);
+                    SemanticQueryResp late = new SemanticQueryResp();
+                    late.setSql("late");
+                    return late;
+                });
+        SqlBatchQueryExecutor batchQueryExecutor = new SqlBatchQueryExecutor();
+        ReflectionTestUtils.setField(batchQueryExecutor, "parallelism", 2);
+        ReflectionTestUtils.setField(batchQueryExecutor, "databaseConcurrency", 2);
+        ReflectionTestUtils.setField(batchQueryExecutor, "semanticLayerService",
+                semanticLayerService);
+        ReflectionTestUtils.setField(batchQueryExecutor, "schemaService",
+                Mockito.mock(SchemaService.class));
+        ReflectionTestUtils.setField(batchQueryExecutor, "runningQueryRegistry", registry);
+        batchQueryExecutor.init();
+        try {
+            List<SemanticQueryResp> queryResps = batchQueryExecutor.query(
+                    List.of(querySqlReq("SELECT a FROM t1"), querySqlReq("SELECT b FROM t2")),
+                    user);
+
+            Assertions.assertEquals(2, queryResps.size());
+            Assertions.assertEquals("first", queryResps.get(0).getSql());
+            Assertions.assertNotNull(queryResps.get(1));
+            Assertions.assertNull(queryResps.get(1).getSql());
+        } finally {
+            released.countDown();
+            batchQueryExecutor.destroy();
+        }
+    }
+
+    private QuerySqlReq querySqlReq(String sql) {
+        QuerySqlReq querySqlReq = new QuerySqlReq();
+        querySqlReq.setSql(sql);
+        querySqlReq.setRunningQueryId("batch");
+        return querySqlReq;
+    }
+}
@@ -0,0 +1,108 @@
+package com.tencent.supersonic.headless.server.persistence.repository.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.tencent.supersonic.headless.api.pojo.QueryStat;
+import com.tencent.supersonic.headless.server.persistence.mapper.StatMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class StatRepositoryImplTest {
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:stat_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE s2_query_stat_info (id INT NOT NULL AUTO_INCREMENT, "
+                    + "trace_id varchar(200), model_id INT, data_set_id INT, "
+                    + "query_user varchar(200), created_at TIMESTAMP, query_type varchar(200), "
+                    + "query_type_back INT, query_sql_cmd LONGVARCHAR, sql_cmd_md5 varchar(200), "
+                    + "query_struct_cmd LONGVARCHAR, struct_cmd_md5 varchar(200), "
+                    + "query_sql LONGVARCHAR, sql_md5 varchar(200), query_engine varchar(20), "
+                    + "elapsed_ms bigINT, query_state varchar(20), native_query INT, "
+                    + "start_date varchar(50), end_date varchar(50), dimensions LONGVARCHAR, "
+                    + "metrics LONGVARCHAR, select_cols LONGVARCHAR, agg_cols LONGVARCHAR, "
+                    + "filter_cols LONGVARCHAR, group_by_cols LONGVARCHAR, "
+                    + "order_by_cols LONGVARCHAR, use_result_cache TINYINT, "
+                    + "use_sql_cache TINYINT, sql_cache_key LONGVARCHAR, "
+                    + "result_cache_key LONGVARCHAR, query_opt_mode varchar(50), "
+                    + "PRIMARY KEY (id))");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addInterceptor(new StatementCounter());
+        String resource = "mapper/StatMapper.xml";
+        try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(inputStream, configuration, resource,
+                    configuration.getSqlFragments()).parse();
+        }
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    void batchIsWrittenWithOneStatement() throws Exception {
+        List<QueryStat> queryStats = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QueryStat queryStat = new QueryStat();
+            queryStat.setTraceId("trace-" + i);
+            queryStat.setDataSetId(1L);
+            queryStat.setMetrics("[\"pv\"]");
+            queryStats.add(queryStat);
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            StatRepositoryImpl statRepository =
+                    new StatRepositoryImpl(sqlSession.getMapper(StatMapper.class));
+            statRepository.batchCreateRecord(queryStats);
+            Assertions.assertEquals(1, statementCount.get());
+
+            statRepository.batchCreateRecord(new ArrayList<>());
+            Assertions.assertEquals(1, statementCount.get());
+
+            try (Statement statement = sqlSession.getConnection().createStatement();
+                    ResultSet resultSet = statement
+                            .executeQuery("SELECT COUNT(DISTINCT id) FROM s2_query_stat_info")) {
+                resultSet.next();
+                Assertions.assertEquals(3, resultSet.getInt(1));
+            }
+        }
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare",
+            args = {Connection.class, Integer.class}))
+    private class StatementCounter implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            statementCount.incrementAndGet();
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.tencent.supersonic.headless.server.service;
+
+import com.google.common.collect.Lists;
+import com.tencent.supersonic.common.pojo.DataEvent;
+import com.tencent.supersonic.common.pojo.DataItem;
+import com.tencent.supersonic.common.pojo.enums.EventType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
+import com.tencent.supersonic.headless.api.pojo.DataSetDetail;
+import com.tencent.supersonic.headless.api.pojo.DataSetModelConfig;
+import com.tencent.supersonic.headless.api.pojo.DataSetSchema;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+import com.tencent.supersonic.headless.api.pojo.SchemaElementType;
+import com.tencent.supersonic.headless.api.pojo.SemanticSchema;
+import com.tencent.supersonic.headless.api.pojo.response.DataSetResp;
+import com.tencent.supersonic.headless.api.pojo.response.ModelResp;
+import com.tencent.supersonic.headless.chat.knowledge.DictWord;
+import com.tencent.supersonic.headless.chat.knowledge.KnowledgeBaseService;
+import com.tencent.supersonic.headless.chat.knowledge.file.FileHandler;
+import com.tencent.supersonic.headless.server.service.impl.DictWordService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DictWordServiceTest {
+
+    @TempDir
+    Path dictDir;
+
+    private final SchemaService schemaService = Mockito.mock(SchemaService.class);
+
+    private final KnowledgeBaseService knowledgeBaseService =
+            Mockito.mock(KnowledgeBaseService.class);
+
+    private final DictWordService dictWordService = new DictWordService();
+
+    @BeforeEach
+    void setUp() {
+        DataSetService dataSetService = Mockito.mock(DataSetService.class);
+        ModelService modelService = Mockito.mock(ModelService.class);
+        TermService termService = Mockito.mock(TermService.class);
+        FileHandler fileHandler = Mockito.mock(FileHandler.class);
+        when(dataSetService.getDataSetList(any()))
+                .thenReturn(Lists.newArrayList(dataSet(1L, 10L), dataSet(2L, 20L)));
+        when(modelService.getModelList(any()))
+                .thenReturn(Lists.newArrayList(model(10L), model(20L)));
+        when(termService.getTermSets(anySet())).thenReturn(new HashMap<>());
+        when(fileHandler.getDictRootPath()).thenReturn(dictDir.toString());
+        ReflectionTestUtils.setField(dictWordService, "schemaService", schemaService);
+        ReflectionTestUtils.setField(dictWordService, "knowledgeBaseService", knowledgeBaseService);
+        ReflectionTestUtils.setField(dictWordService, "dataSetService", dataSetService);
+        ReflectionTestUtils.setField(dictWordService, "modelService", modelService);
+        ReflectionTestUtils.setField(dictWordService, "termService", termService);
+        ReflectionTestUtils.setField(dictWordService, "fileHandler", fileHandler);
+    }
+
+    @Test
+    void reloadOnlyTheDataSetsOfChangedModels() throws Exception {
+        when(schemaService.getSemanticSchema()).thenReturn(new SemanticSchema(Lists.newArrayList(
+                dataSetSchema(1L, 10L, 100L, "部门"), dataSetSchema(2L, 20L, 200L, "城市"))));
+        dictWordService.loadDictWord();
+        verify(knowledgeBaseService).reloadAllData(anyList());
+
+        dictWordService.reloadDictWord();
+        verify(schemaService, never()).getSemanticSchema(anySet());
+        verify(knowledgeBaseService, never()).updateSemanticKnowledge(anyList());
+
+        when(schemaService.getSemanticSchema(Set.of(2L))).thenReturn(
+                new SemanticSchema(Lists.newArrayList(dataSetSchema(2L, 20L, 200L, "所在城市"))));
+        dictWordService.onDataChange(new DataEvent(this,
+                Lists.newArrayList(DataItem.builder().id("200").modelId("20").name("城市")
+                        .newName("所在城市").type(TypeEnums.DIMENSION).build()),
+                EventType.UPDATE, "admin"));
+        dictWordService.reloadDictWord();
+        verify(schemaService).getSemanticSchema(Set.of(2L));
+        Assertions.assertTrue(captureWords(true).contains("城市"));
+        Assertions.assertFalse(captureWords(true).contains("部门"));
+        Assertions.assertTrue(captureWords(false).contains("所在城市"));
+
+        Files.write(dictDir.resolve("dic_value_10_DIMENSION_100.txt"),
+                Lists.newArrayList("研发部 _10_100 50"), StandardCharsets.UTF_8);
+        dictWordService.reloadDictWord();
+        Assertions.assertTrue(captureWords(false).contains("研发部"));
+        verify(schemaService, Mockito.times(1)).getSemanticSchema(anySet());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> captureWords(boolean removed) {
+        ArgumentCaptor<List<DictWord>> captor = ArgumentCaptor.forClass(List.class);
+        if (removed) {
+            verify(knowledgeBaseService, Mockito.atLeastOnce())
+                    .removeSemanticKnowledge(captor.capture());
+        } else {
+            verify(knowledgeBaseService, Mockito.atLeastOnce())
+                    .updateSemanticKnowledge(captor.capture());
+        }
+        return captor.getValue().stream().map(DictWord::getWord).collect(Collectors.toList());
+    }
+
+    private static DataSetResp dataSet(Long dataSetId, Long modelId) {
+        DataSetResp dataSetResp = new DataSetResp();
+        dataSetResp.setId(dataSetId);
+        dataSetResp.setDomainId(1L);
+        dataSetResp.setUpdatedAt(new Date(1000L));
+        DataSetDetail detail = new DataSetDetail();
+        detail.setDataSetModelConfigs(Lists.newArrayList(
+                new DataSetModelConfig(modelId, Lists.newArrayList(), Lists.newArrayList())));
+        dataSetResp.setDataSetDetail(detail);
+        return dataSetResp;
+    }
+
+    private static ModelResp model(Long modelId) {
+        ModelResp modelResp = new ModelResp();
+        modelResp.setId(modelId);
+        modelResp.setUpdatedAt(new Date(1000L));
+        return modelResp;
+    }
+
+    private static DataSetSchema dataSetSchema(Long dataSetId, Long modelId, Long dimensionId,
+            String dimensionName) {
+        DataSetSchema dataSetSchema = new DataSetSchema();
+        dataSetSchema.setDataSet(SchemaElement.builder().id(dataSetId).dataSetId(dataSetId)
+                .type(SchemaElementType.DATASET).build());
+        dataSetSchema.getDimensions()
+                .add(SchemaElement.builder().id(dimensionId).dataSetId(dataSetId).model(modelId)
+                        .name(dimensionName).bizName("dim").type(SchemaElementType.DIMENSION)
+                        .build());
+        return dataSetSchema;
+    }
+}
@@ -0,0 +1,327 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.pojo.Parameter;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.headless.api.pojo.SchemaElement;
+import com.tencent.supersonic.headless.api.pojo.SchemaElementMatch;
+import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.headless.api.pojo.request.SemanticQueryReq;
+import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticTranslateResp;
+import com.tencent.supersonic.headless.chat.ChatQueryContext;
+import com.tencent.supersonic.headless.chat.mapper.MapperConfig;
+import com.tencent.supersonic.headless.chat.mapper.MapperInput;
+import com.tencent.supersonic.headless.chat.mapper.SchemaMapper;
+import com.tencent.supersonic.headless.chat.parser.ParserConfig;
+import com.tencent.supersonic.headless.chat.parser.SemanticParser;
+import com.tencent.supersonic.headless.chat.parser.llm.LLMSqlParser;
+import com.tencent.supersonic.headless.chat.query.SemanticQuery;
+import com.tencent.supersonic.headless.chat.query.llm.s2sql.LLMSqlQuery;
+import com.tencent.supersonic.headless.server.facade.service.SemanticLayerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class ChatWorkflowEngineTest {
+
+    private ChatWorkflowEngine engine;
+
+    private ParserConfig parserConfig;
+
+    @BeforeEach
+    void init() {
+        MapperConfig mapperConfig = Mockito.mock(MapperConfig.class);
+        Mockito.when(mapperConfig.getParameterValue(ArgumentMatchers.any(Parameter.class)))
+                .thenReturn("500");
+        engine = new ChatWorkflowEngine();
+        ReflectionTestUtils.setField(engine, "mapperParallelism", 4);
+        parserConfig = Mockito.mock(ParserConfig.class);
+        ReflectionTestUtils.setField(engine, "candidateParallelism", 4);
+        ReflectionTestUtils.setField(engine, "speculativeParallelism", 2);
+        ReflectionTestUtils.setField(engine, "mapperConfig", mapperConfig);
+        ReflectionTestUtils.setField(engine, "parserConfig", parserConfig);
+        engine.init();
+    }
+
+    @AfterEach
+    void destroy() {
+        engine.destroy();
+    }
+
+    @Test
+    void mergeConcurrentMappersInDeclaredOrder() {
+        ChatQueryContext queryCtx = new ChatQueryContext();
+        queryCtx.setParseResp(new ParseResp("query"));
+        SlowMapper slowMapper = new SlowMapper();
+        FastMapper fastMapper = new FastMapper();
+        DependentMapper dependentMapper = new DependentMapper();
+        HangingMapper hangingMapper = new HangingMapper();
+
+        long start = System.currentTimeMillis();
+        engine.performMapping(queryCtx,
+                List.of(slowMapper, hangingMapper, fastMapper, dependentMapper));
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertEquals(List.of("slow", "fast"), dependentMapper.seen);
+        Assertions.assertEquals(List.of("slow", "fast", "dependent"),
+                queryCtx.getMapInfo().getMatchedElements(1L).stream()
+                        .map(SchemaElementMatch::getWord).collect(Collectors.toList()));
+        Map<String, Long> mapperTime = queryCtx.getParseResp().getParseTimeCost().getMapperTime();
+        Assertions.assertEquals(
+                List.of("SlowMapper", "HangingMapper", "FastMapper", "DependentMapper"),
+                new ArrayList<>(mapperTime.keySet()));
+        Assertions.assertTrue(mapperTime.get("SlowMapper") >= 100);
+    }
+
+    @Test
+    void keepRankingOfTranslatedCandidates() throws Exception {
+        initTranslator();
+        Mockito.when(parserConfig.getParameterValue(ParserConfig.PARSER_CANDIDATE_CONFIDENCE))
+                .thenReturn("1.0");
+        ChatQueryContext queryCtx = candidateContext("ok_200", "ok_0", "ok_10000");
+
+        long start = System.currentTimeMillis();
+        engine.performCandidatePipeline(queryCtx, queryCtx.getParseResp());
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertEquals(ParseResp.ParseState.COMPLETED, queryCtx.getParseResp().getState());
+        Assertions.assertEquals(List.of("sql of ok_200"),
+                queryCtx.getParseResp().getSelectedParses().stream()
+                        .map(parseInfo -> parseInfo.getSqlInfo().getQuerySQL())
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void winConfidentCandidateEarly() throws Exception {
+        initTranslator();
+        Mockito.when(parserConfig.getParameterValue(ParserConfig.PARSER_CANDIDATE_CONFIDENCE))
+                .thenReturn("0.5");
+        ChatQueryContext queryCtx = candidateContext("ok_10000", "ok_100", "fail_0");
+
+        long start = System.currentTimeMillis();
+        engine.performCandidatePipeline(queryCtx, queryCtx.getParseResp());
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertEquals(1, queryCtx.getCandidateQueries().size());
+        Assertions.assertEquals("sql of ok_100",
+                queryCtx.getCandidateQueries().get(0).getParseInfo().getSqlInfo().getQuerySQL());
+    }
+
+    @Test
+    void fallBackToBestRankedCandidate() throws Exception {
+        initTranslator();
+        Mockito.when(parserConfig.getParameterValue(ParserConfig.PARSER_CANDIDATE_CONFIDENCE))
+                .thenReturn("1.0");
+        ChatQueryContext queryCtx = candidateContext("fail_0", "fail_100");
+
+        engine.performCandidatePipeline(queryCtx, queryCtx.getParseResp());
+
+        Assertions.assertEquals(ParseResp.ParseState.FAILED, queryCtx.getParseResp().getState());
+        Assertions.assertEquals("fail_0",
+                queryCtx.getCandidateQueries().get(0).getParseInfo().getSqlInfo().getParsedS2SQL());
+        Assertions.assertEquals("error of fail_0", queryCtx.getParseResp().getErrorMsg());
+    }
+
+    @Test
+    void returnConfidentRuleParseWithoutWaitingForLLM() throws Exception {
+        initTranslator();
+        initSpeculativeParsing(new RuleParser(4));
+        ChatQueryContext queryCtx = parsingContext();
+
+        long start = System.currentTimeMillis();
+        engine.performParsing(queryCtx);
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 300);
+        Assertions.assertEquals("rule",
+                queryCtx.getCandidateQueries().get(0).getParseInfo().getSqlInfo().getParsedS2SQL());
+        SemanticParseInfo speculativeParse =
+                queryCtx.getParseResp().getSpeculativeParse().get(2, TimeUnit.SECONDS);
+        Assertions.assertEquals("sql of ok_0", speculativeParse.getSqlInfo().getQuerySQL());
+    }
+
+    @Test
+    void preferLLMParseOverWeakRuleParse() throws Exception {
+        initTranslator();
+        initSpeculativeParsing(new RuleParser(1));
+        ChatQueryContext queryCtx = parsingContext();
+
+        engine.performParsing(queryCtx);
+
+        Assertions.assertEquals("ok_0",
+                queryCtx.getCandidateQueries().get(0).getParseInfo().getSqlInfo().getParsedS2SQL());
+        Assertions.assertNull(queryCtx.getParseResp().getSpeculativeParse());
+    }
+
+    private void initSpeculativeParsing(SemanticParser ruleParser) {
+        List<SemanticParser> parsers = List.of(new SlowLLMParser(), ruleParser);
+        ReflectionTestUtils.setField(engine, "semanticParsers", parsers);
+        Mockito.when(parserConfig.getParameterValue(ParserConfig.PARSER_SPECULATIVE_ENABLE))
+                .thenReturn("true");
+        Mockito.when(parserConfig.getParameterValue(ParserConfig.PARSER_TEXT_LENGTH_THRESHOLD))
+                .thenReturn("10");
+        Mockito.when(
+                parserConfig.getParameterValue(ParserConfig.PARSER_TEXT_LENGTH_THRESHOLD_SHORT))
+                .thenReturn("0.5");
+    }
+
+    private static ChatQueryContext parsingContext() {
+        ChatQueryContext queryCtx = new ChatQueryContext();
+        queryCtx.getRequest().setQueryText("abcd");
+        queryCtx.setParseResp(new ParseResp("abcd"));
+        return queryCtx;
+    }
+
+    private static void addCandidate(ChatQueryContext queryCtx, String s2sql, double score) {
+        SemanticQuery candidate = new LLMSqlQuery();
+        SemanticParseInfo parseInfo = candidate.getParseInfo();
+        parseInfo.setQueryMode(LLMSqlQuery.QUERY_MODE);
+        parseInfo.setScore(score);
+        parseInfo.getSqlInfo().setParsedS2SQL(s2sql);
+        parseInfo.getSqlInfo().setCorrectedS2SQL(s2sql);
+        queryCtx.getCandidateQueries().add(candidate);
+    }
+
+    /** translates s2sql like ok_100 after 100 ms */
+    private void initTranslator() throws Exception {
+        new LLMSqlQuery();
+        SemanticLayerService semanticLayerService = Mockito.mock(SemanticLayerService.class);
+        Mockito.when(semanticLayerService.translate(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    String s2sql = invocation.getArgument(0, SemanticQueryReq.class).getSqlInfo()
+                            .getCorrectedS2SQL();
+                    Thread.sleep(Long.parseLong(s2sql.split("_")[1]));
+                    boolean ok = s2sql.startsWith("ok");
+                    return SemanticTranslateResp.builder().isOk(ok)
+                            .querySQL(ok ? "sql of " + s2sql : null)
+                            .errMsg(ok ? null : "error of " + s2sql).build();
+                });
+        ApplicationContext applicationContext = Mockito.mock(ApplicationContext.class);
+        Mockito.when(applicationContext.getBean(SemanticLayerService.class))
+                .thenReturn(semanticLayerService);
+        new ContextUtils().setApplicationContext(applicationContext);
+    }
+
+    /** candidates scored by their order */
+    private ChatQueryContext candidateContext(String... s2sqls) {
+        ChatQueryContext queryCtx = new ChatQueryContext();
+        queryCtx.setParseResp(new ParseResp("query"));
+        queryCtx.setCandidateLimit(s2sqls.length);
+        List<SemanticQuery> candidates = new ArrayList<>();
+        for (int i = 0; i < s2sqls.length; i++) {
+            SemanticQuery candidate = new LLMSqlQuery();
+            SemanticParseInfo parseInfo = candidate.getParseInfo();
+            parseInfo.setQueryMode(LLMSqlQuery.QUERY_MODE);
+            parseInfo.setScore(s2sqls.length - i);
+            parseInfo.getSqlInfo().setParsedS2SQL(s2sqls[i]);
+            parseInfo.getSqlInfo().setCorrectedS2SQL(s2sqls[i]);
+            candidates.add(candidate);
+        }
+        queryCtx.setCandidateQueries(candidates);
+        return queryCtx;
+    }
+
+    private static void addMatch(ChatQueryContext queryCtx, String word) {
+        SchemaElement element = SchemaElement.builder().dataSetId(1L).name(word).build();
+        queryCtx.getMapInfo().getDataSetElementMatches().computeIfAbsent(1L, k -> new ArrayList<>())
+                .add(SchemaElementMatch.builder().element(element).word(word).build());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SlowLLMParser extends LLMSqlParser {
+
+        @Override
+        public void parse(ChatQueryContext chatQueryContext) {
+            sleep(500);
+            addCandidate(chatQueryContext, "ok_0", 100);
+        }
+    }
+
+    private static class RuleParser implements SemanticParser {
+
+        private final double score;
+
+        private RuleParser(double score) {
+            this.score = score;
+        }
+
+        @Override
+        public void parse(ChatQueryContext chatQueryContext) {
+            if (chatQueryContext.getCandidateQueries().isEmpty()) {
+                addCandidate(chatQueryContext, "rule", score);
+            }
+        }
+    }
+
+    private static class SlowMapper implements SchemaMapper {
+
+        @Override
+        public Set<MapperInput> getInputs() {
+            return EnumSet.of(MapperInput.QUERY_TEXT);
+        }
+
+        @Override
+        public void map(ChatQueryContext chatQueryContext) {
+            sleep(100);
+            addMatch(chatQueryContext, "slow");
+        }
+    }
+
+    private static class FastMapper implements SchemaMapper {
+
+        @Override
+        public Set<MapperInput> getInputs() {
+            return EnumSet.of(MapperInput.QUERY_TEXT);
+        }
+
+        @Override
+        public void map(ChatQueryContext chatQueryContext) {
+            addMatch(chatQueryContext, "fast");
+        }
+    }
+
+    private static class HangingMapper implements SchemaMapper {
+
+        @Override
+        public Set<MapperInput> getInputs() {
+            return EnumSet.of(MapperInput.QUERY_TEXT);
+        }
+
+        @Override
+        public void map(ChatQueryContext chatQueryContext) {
+            sleep(10000);
+            addMatch(chatQueryContext, "hanging");
+        }
+    }
+
+    private static class DependentMapper implements SchemaMapper {
+
+        private final List<String> seen = new ArrayList<>();
+
+        @Override
+        public void map(ChatQueryContext chatQueryContext) {
+            chatQueryContext.getMapInfo().getMatchedElements(1L)
+                    .forEach(match -> seen.add(match.getWord()));
+            addMatch(chatQueryContext, "dependent");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.headless.api.pojo.DimValueMap;
+import com.tencent.supersonic.headless.api.pojo.response.DimensionResp;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class DimValueMappingsTest {
+
+    @Test
+    void compileFilterValues() {
+        DimValueMappings mappings = DimValueMappings.compile(List.of(buildDimension()));
+        Assertions.assertFalse(mappings.isEmpty());
+        Assertions.assertEquals(Map.of("男性", "1", "男", "1", "女性", "0"),
+                mappings.getFilterValues("gender"));
+        Assertions.assertEquals(Map.of("男", "1"), mappings.getAliasValues("gender"));
+        Assertions.assertTrue(mappings.getFilterValues("city").isEmpty());
+        Assertions.assertTrue(DimValueMappings.compile(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    void mapResultWithoutModifyingIt() {
+        DimValueMappings mappings = DimValueMappings.compile(List.of(buildDimension()));
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        queryResp.setColumns(
+                List.of(new QueryColumn("gender", "VARCHAR"), new QueryColumn("pv", "INT")));
+        Map<String, Object> mappedRow = new HashMap<>(Map.of("gender", "1", "pv", 3));
+        Map<String, Object> unmappedRow = new HashMap<>(Map.of("gender", "2", "pv", 5));
+        queryResp.setResultList(List.of(mappedRow, unmappedRow));
+
+        SemanticQueryResp mappedResp = mappings.mapResult(queryResp);
+
+        Assertions.assertNotSame(queryResp, mappedResp);
+        Assertions.assertEquals(Map.of("gender", "男性", "pv", 3), mappedResp.getResultList().get(0));
+        Assertions.assertSame(unmappedRow, mappedResp.getResultList().get(1));
+        Assertions.assertEquals("1", queryResp.getResultList().get(0).get("gender"));
+        Assertions.assertEquals(queryResp.getColumns(), mappedResp.getColumns());
+
+        queryResp.setResultList(List.of(unmappedRow));
+        Assertions.assertSame(queryResp, mappings.mapResult(queryResp));
+    }
+
+    @Test
+    void mapSharedResult() {
+        DimValueMappings mappings = DimValueMappings.compile(List.of(buildDimension()));
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        queryResp.setColumns(List.of(new QueryColumn("gender", "VARCHAR")));
+        queryResp.setResultList(List.of(new HashMap<>(Map.of("gender", "0"))));
+        SemanticQueryResp sharedResp = queryResp.toShared();
+
+        SemanticQueryResp view = sharedResp.view();
+        view.setUseCache(true);
+        SemanticQueryResp mappedResp = mappings.mapResult(view);
+
+        Assertions.assertEquals("女性", mappedResp.getResultList().get(0).get("gender"));
+        Assertions.assertTrue(mappedResp.isUseCache());
+        Assertions.assertEquals("0", sharedResp.getResultList().get(0).get("gender"));
+    }
+
+    private DimensionResp buildDimension() {
+        DimValueMap male = new DimValueMap();
+        male.setTechName("1");
+        male.setBizName("男性");
+        male.setAlias(List.of("男"));
+        DimValueMap female = new DimValueMap();
+        female.setTechName("0");
+        female.setBizName("女性");
+        DimensionResp dimension = new DimensionResp();
+        dimension.setName("gender");
+        dimension.setBizName("gender");
+        dimension.setDimValueMaps(List.of(male, female));
+        return dimension;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.google.common.collect.Sets;
+import com.tencent.supersonic.common.pojo.DataEvent;
+import com.tencent.supersonic.common.pojo.User;
+import com.tencent.supersonic.common.pojo.enums.EventType;
+import com.tencent.supersonic.headless.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.headless.api.pojo.request.QueryNLReq;
+import com.tencent.supersonic.headless.api.pojo.response.ParseCacheStatResp;
+import com.tencent.supersonic.headless.api.pojo.response.ParseResp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+
+class ParseResultCacheTest {
+
+    private ParseResultCache parseResultCache;
+
+    @BeforeEach
+    void init() {
+        parseResultCache = new ParseResultCache();
+        ReflectionTestUtils.setField(parseResultCache, "enable", true);
+        ReflectionTestUtils.setField(parseResultCache, "size", 10L);
+        ReflectionTestUtils.setField(parseResultCache, "expireMinutes", 10L);
+        parseResultCache.init();
+    }
+
+    @Test
+    void hitNormalizedQuestion() {
+        parseResultCache.put(parseResultCache.buildKey(request(" Top  10 brands ", "alice")),
+                completedResp("sql"));
+
+        ParseResp cached =
+                parseResultCache.get(parseResultCache.buildKey(request("top 10 BRANDS", "alice")));
+        Assertions.assertNotNull(cached);
+        Assertions.assertEquals(ParseResp.ParseState.COMPLETED, cached.getState());
+        Assertions.assertEquals("top 10 BRANDS", cached.getQueryText());
+        Assertions.assertEquals("sql",
+                cached.getSelectedParses().get(0).getSqlInfo().getCorrectedS2SQL());
+
+        cached.getSelectedParses().get(0).getSqlInfo().setCorrectedS2SQL("changed");
+        Assertions.assertEquals("sql",
+                parseResultCache.get(parseResultCache.buildKey(request("top 10 brands", "alice")))
+                        .getSelectedParses().get(0).getSqlInfo().getCorrectedS2SQL());
+
+        Assertions.assertNull(
+                parseResultCache.get(parseResultCache.buildKey(request("top 10 brands", "bob"))));
+        ParseCacheStatResp stats = parseResultCache.getStats();
+        Assertions.assertEquals(2, stats.getHitCount());
+        Assertions.assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void skipUncompletedAndInvalidateOnSchemaChange() {
+        ParseResp failedResp = completedResp("sql");
+        failedResp.setState(ParseResp.ParseState.FAILED);
+        parseResultCache.put(parseResultCache.buildKey(request("failed", "alice")), failedResp);
+        Assertions.assertNull(
+                parseResultCache.get(parseResultCache.buildKey(request("failed", "alice"))));
+
+        ParseResultCache.CacheKey parsingKey =
+                parseResultCache.buildKey(request("top 10 brands", "alice"));
+        parseResultCache
+                .onDataChange(new DataEvent(this, new ArrayList<>(), EventType.UPDATE, "admin"));
+        parseResultCache.put(parsingKey, completedResp("stale"));
+
+        Assertions.assertNull(
+                parseResultCache.get(parseResultCache.buildKey(request("top 10 brands", "alice"))));
+        Assertions.assertEquals(1, parseResultCache.getStats().getSize());
+    }
+
+    private static QueryNLReq request(String queryText, String userName) {
+        QueryNLReq queryNLReq = new QueryNLReq();
+        queryNLReq.setQueryText(queryText);
+        queryNLReq.setDataSetIds(Sets.newHashSet(2L, 1L));
+        queryNLReq.setUser(User.get(1L, userName));
+        return queryNLReq;
+    }
+
+    private static ParseResp completedResp(String s2sql) {
+        ParseResp parseResp = new ParseResp("question");
+        SemanticParseInfo parseInfo = new SemanticParseInfo();
+        parseInfo.getSqlInfo().setCorrectedS2SQL(s2sql);
+        parseResp.getSelectedParses().add(parseInfo);
+        parseResp.setState(ParseResp.ParseState.COMPLETED);
+        return parseResp;
+    }
+}
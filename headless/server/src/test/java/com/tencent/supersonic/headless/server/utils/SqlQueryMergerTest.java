@@ -0,0 +1,95 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.headless.api.pojo.response.SemanticQueryResp;
+import com.tencent.supersonic.headless.server.utils.SqlQueryMerger.MergedQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+class SqlQueryMergerTest {
+
+    @Test
+    void mergeSameScan() {
+        String where = " FROM 超音数数据集 WHERE 数据日期 >= '2024-01-01' GROUP BY 部门";
+        List<MergedQuery> mergedQueries = SqlQueryMerger
+                .merge(List.of("SELECT 部门, SUM(访问次数)" + where, "SELECT 部门, SUM(访问用户数)" + where,
+                        "SELECT 部门, SUM(访问次数) FROM 超音数数据集 GROUP BY 部门", "SELECT * FROM 超音数数据集"));
+
+        Assertions.assertEquals(3, mergedQueries.size());
+        MergedQuery merged = mergedQueries.get(0);
+        Assertions.assertTrue(merged.isMerged());
+        Assertions.assertEquals(List.of(0, 1), merged.getQueryIndexes());
+        Assertions.assertEquals(3, merged.getSelectSize());
+        Assertions.assertEquals(
+                "SELECT 部门, SUM(访问次数), SUM(访问用户数) FROM 超音数数据集 WHERE 数据日期 >= '2024-01-01' GROUP BY 部门",
+                merged.getSql());
+        Assertions.assertArrayEquals(new int[] {0, 1}, merged.getColumnIndexes().get(0));
+        Assertions.assertArrayEquals(new int[] {0, 2}, merged.getColumnIndexes().get(1));
+        Assertions.assertFalse(mergedQueries.get(1).isMerged());
+        Assertions.assertEquals("SELECT * FROM 超音数数据集", mergedQueries.get(2).getSql());
+    }
+
+    @Test
+    void conflictingAliasIsNotMerged() {
+        List<MergedQuery> mergedQueries =
+                SqlQueryMerger.merge(List.of("SELECT 部门, SUM(访问次数) AS pv FROM t GROUP BY 部门",
+                        "SELECT 部门, COUNT(访问次数) AS pv FROM t GROUP BY 部门"));
+        Assertions.assertEquals(2, mergedQueries.size());
+    }
+
+    @Test
+    void positionalGroupAndOrderAreNotMerged() {
+        Assertions.assertEquals(2,
+                SqlQueryMerger.merge(List.of("SELECT d, SUM(a) AS a FROM t GROUP BY 1",
+                        "SELECT d, SUM(b) AS b FROM t GROUP BY 1")).size());
+        Assertions.assertEquals(2,
+                SqlQueryMerger
+                        .merge(List.of("SELECT d, SUM(a) AS a FROM t GROUP BY d ORDER BY 2 DESC",
+                                "SELECT d, SUM(b) AS b FROM t GROUP BY d ORDER BY 2 DESC"))
+                        .size());
+    }
+
+    @Test
+    void differentScopeIsNotMerged() {
+        List<MergedQuery> mergedQueries =
+                SqlQueryMerger.merge(
+                        List.of("SELECT d, SUM(a) AS a FROM t GROUP BY d",
+                                "SELECT d, SUM(b) AS b FROM t GROUP BY d"),
+                        List.of("1_[1]", "2_[1]"));
+        Assertions.assertEquals(2, mergedQueries.size());
+    }
+
+    @Test
+    void splitResult() {
+        MergedQuery merged = SqlQueryMerger.merge(List.of("SELECT d, SUM(a) AS a FROM t GROUP BY d",
+                "SELECT d, SUM(b) AS b FROM t GROUP BY d")).get(0);
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        queryResp.setColumns(List.of(new QueryColumn("d", "VARCHAR"), new QueryColumn("a", "INT"),
+                new QueryColumn("b", "INT")));
+        queryResp.setResultList(List.of(Map.of("d", "HR", "a", 1, "b", 2)));
+        Assertions.assertTrue(SqlQueryMerger.canSplit(queryResp, merged));
+
+        SemanticQueryResp second =
+                SqlQueryMerger.split(queryResp, merged.getColumnIndexes().get(1));
+        Assertions.assertEquals(2, second.getColumns().size());
+        Assertions.assertEquals("b", second.getColumns().get(1).getBizName());
+        Assertions.assertEquals(Map.of("d", "HR", "b", 2), second.getResultList().get(0));
+    }
+
+    @Test
+    void columnsNotMatchingSelectItemsAreNotSplit() {
+        MergedQuery merged = SqlQueryMerger.merge(List.of("SELECT d, SUM(a) AS a FROM t GROUP BY d",
+                "SELECT d, SUM(b) FROM t GROUP BY d")).get(0);
+        SemanticQueryResp queryResp = new SemanticQueryResp();
+        queryResp.setColumns(List.of(new QueryColumn("d", "VARCHAR"), new QueryColumn("a", "INT"),
+                new QueryColumn("sum(`b`)", "INT")));
+        Assertions.assertTrue(SqlQueryMerger.canSplit(queryResp, merged));
+
+        queryResp.setColumns(List.of(new QueryColumn("d", "VARCHAR"), new QueryColumn("b", "INT"),
+                new QueryColumn("a", "INT")));
+        Assertions.assertFalse(SqlQueryMerger.canSplit(queryResp, merged));
+    }
+}
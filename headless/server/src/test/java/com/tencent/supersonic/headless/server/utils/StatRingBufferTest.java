@@ -0,0 +1,65 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class StatRingBufferTest {
+
+    @Test
+    void offerFailsWhenFull() {
+        StatRingBuffer<Integer> buffer = new StatRingBuffer<>(3);
+        Assertions.assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(2, buffer.drainTo(drained, 2));
+        Assertions.assertEquals(List.of(0, 1), drained);
+        Assertions.assertTrue(buffer.offer(5));
+        Assertions.assertEquals(3, buffer.drainTo(drained, 10));
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 5), drained);
+        Assertions.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAccepted() throws Exception {
+        StatRingBuffer<Integer> buffer = new StatRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20000;
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Set<Integer> drained = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        while (threads.stream().anyMatch(Thread::isAlive) || buffer.size() > 0) {
+            buffer.drainTo(batch, 16);
+            drained.addAll(batch);
+            batch.clear();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drainTo(batch, Integer.MAX_VALUE);
+        drained.addAll(batch);
+        Assertions.assertEquals(accepted.get(), drained.size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.tencent.supersonic.headless.server.utils;
+
+import com.tencent.supersonic.common.pojo.ExecutorStat;
+import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
+import com.tencent.supersonic.common.util.SqlFilterUtils;
+import com.tencent.supersonic.headless.api.pojo.QueryStat;
+import com.tencent.supersonic.headless.server.persistence.repository.StatRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+class StatUtilsTest {
+
+    @Test
+    void exposeWriterCounters() throws Exception {
+        StatRepository statRepository = Mockito.mock(StatRepository.class);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("database is down");
+            }
+            return null;
+        }).when(statRepository).batchCreateRecord(anyList());
+        StatUtils statUtils = new StatUtils(statRepository, Mockito.mock(SqlFilterUtils.class));
+        ReflectionTestUtils.setField(statUtils, "bufferSize", 2);
+        ReflectionTestUtils.setField(statUtils, "batchSize", 1);
+        ReflectionTestUtils.setField(statUtils, "flushInterval", 0L);
+        statUtils.startStatWriter();
+
+        for (int i = 0; i < 2; i++) {
+            StatUtils.set(new QueryStat().setStartTime(System.currentTimeMillis()));
+            statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
+        }
+        statUtils.stopStatWriter();
+
+        ExecutorStat stat = statUtils.getExecutorStats().get(0);
+        Assertions.assertEquals("query-stat-writer", stat.getName());
+        Assertions.assertEquals(2, stat.getQueueCapacity());
+        Assertions.assertEquals(0, stat.getQueueSize());
+        Assertions.assertEquals(1, stat.getCompletedTaskCount());
+        Assertions.assertEquals(1, stat.getFailedTaskCount());
+        Assertions.assertEquals(0, stat.getDroppedCount());
+    }
+}